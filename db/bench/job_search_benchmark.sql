@@ -0,0 +1,113 @@
+-- Compares the old GET /jobs/search query with the one built by JobSearchQuery on 1M generated jobs.
+-- Everything lives in a throwaway schema; run it against a local database, never production:
+--
+--   psql -h localhost -U admin -d jobtracker -f db/bench/job_search_benchmark.sql
+--
+-- Each query is shown with EXPLAIN (ANALYZE, BUFFERS); compare the plan shape and "Execution Time".
+-- The data set is 1M jobs spread over 200 users (5,000 each), drawn from small vocabularies so
+-- that filters have realistic selectivity, and 20,000 distinct company names.
+
+DROP SCHEMA IF EXISTS bench_search CASCADE;
+CREATE SCHEMA bench_search;
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+SET search_path = bench_search, public;
+
+CREATE TABLE job
+(
+    id            uuid PRIMARY KEY,
+    title         text,
+    level         text,
+    minsalary     integer,
+    maxsalary     integer,
+    location      text,
+    status        text,
+    company       text,
+    user_id       uuid,
+    last_modified timestamptz NOT NULL DEFAULT now(),
+    favorite      boolean     NOT NULL DEFAULT false
+);
+
+INSERT INTO job (id, title, level, minsalary, maxsalary, location, status, company, user_id, last_modified, favorite)
+SELECT gen_random_uuid(),
+       (ARRAY ['Software Engineer', 'Data Analyst', 'Product Manager', 'DevOps Engineer', 'QA Engineer',
+               'Backend Developer', 'Frontend Developer', 'Data Scientist', 'Site Reliability Engineer',
+               'Technical Writer'])[1 + (i % 10)] || ' ' || (ARRAY ['I', 'II', 'III', 'IV'])[1 + (i / 10 % 4)],
+       (ARRAY ['Entry-level', 'Mid-level', 'Senior', 'Lead'])[1 + (i / 10 % 4)],
+       40000 + (i % 90) * 1000,
+       60000 + (i % 90) * 1500,
+       (ARRAY ['New York', 'Chicago', 'Springfield', 'Austin', 'Seattle', 'Remote', 'Denver', 'Boston',
+               'Atlanta', 'Richmond', 'San Francisco', 'Portland'])[1 + (i % 12)],
+       (ARRAY ['Saved', 'Applied', 'Screening', 'Interview', 'Rejected', 'Offer', 'Accepted'])[1 + (i % 7)],
+       initcap(substr(md5((i % 20000)::text), 1, 7)) || (ARRAY [' Inc', ' LLC', ' Labs', ' Group'])[1 + (i % 4)],
+       ('00000000-0000-0000-0000-' || lpad(to_hex(i % 200), 12, '0'))::uuid,
+       now() - (i || ' seconds')::interval,
+       i % 9 = 0
+FROM generate_series(1, 1000000) AS i;
+
+CREATE INDEX job_user_last_modified_idx ON job (user_id, last_modified DESC, id DESC);
+ANALYZE job;
+
+-- 1. old query, user scoped: every filter is written as ":x IS NULL OR ...", so all of them
+--    stay in the plan and the substring filters are checked row by row
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT *
+FROM job
+WHERE user_id = '00000000-0000-0000-0000-00000000002a'
+  AND (NULL::integer IS NULL OR minsalary >= NULL::integer)
+  AND (NULL::integer IS NULL OR maxsalary <= NULL::integer)
+  AND ('engineer' IS NULL OR LOWER(title) LIKE LOWER(CONCAT('%', 'engineer', '%')))
+  AND (NULL::text IS NULL OR LOWER(level) = LOWER(NULL::text))
+  AND ('york' IS NULL OR LOWER(location) LIKE LOWER(CONCAT('%', 'york', '%')))
+  AND (NULL::text IS NULL OR LOWER(status) = LOWER(NULL::text))
+  AND (NULL::text IS NULL OR LOWER(company) LIKE LOWER(CONCAT('%', NULL::text, '%')))
+  AND (NULL::boolean IS NULL OR favorite = NULL::boolean);
+
+-- 2. old query, user scoped, selective company filter
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT *
+FROM job
+WHERE user_id = '00000000-0000-0000-0000-00000000002a'
+  AND (LOWER(company) LIKE LOWER(CONCAT('%', substr(md5('4242'), 2, 5), '%')));
+
+-- 3. old query shape across all users (admin-style report)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT *
+FROM job
+WHERE (LOWER(company) LIKE LOWER(CONCAT('%', substr(md5('4242'), 2, 5), '%')));
+
+-- add the search indexes from the V3__job_search_indexes.sql migration
+CREATE INDEX job_user_title_trgm_idx ON job USING gin (user_id, title gin_trgm_ops);
+CREATE INDEX job_user_location_trgm_idx ON job USING gin (user_id, location gin_trgm_ops);
+CREATE INDEX job_user_company_trgm_idx ON job USING gin (user_id, company gin_trgm_ops);
+ANALYZE job;
+
+-- 4. new query for the filters of (1): only the present predicates, ranked, one page
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT *
+FROM job
+WHERE user_id = '00000000-0000-0000-0000-00000000002a'
+  AND title ILIKE '%engineer%'
+  AND location ILIKE '%york%'
+ORDER BY (word_similarity('engineer', title) + word_similarity('york', location)) DESC, last_modified DESC, id DESC
+LIMIT 50 OFFSET 0;
+
+-- 5. new query for the filter of (2)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT *
+FROM job
+WHERE user_id = '00000000-0000-0000-0000-00000000002a'
+  AND company ILIKE '%' || substr(md5('4242'), 2, 5) || '%'
+ORDER BY word_similarity(substr(md5('4242'), 2, 5), company) DESC, last_modified DESC, id DESC
+LIMIT 50 OFFSET 0;
+
+-- 6. new query for the filter of (3)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT *
+FROM job
+WHERE company ILIKE '%' || substr(md5('4242'), 2, 5) || '%'
+ORDER BY word_similarity(substr(md5('4242'), 2, 5), company) DESC, last_modified DESC, id DESC
+LIMIT 50 OFFSET 0;
+
+RESET search_path;
+DROP SCHEMA bench_search CASCADE;
@@ -0,0 +1,72 @@
+package edu.uis.csc478.sp25.jobtracker.bench;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.io.IOException;
+
+/**
+ * Connection settings shared by the database benchmarks.
+ * Read from environment variables (inherited by the JVMs JMH forks), defaulting to the jt-db
+ * container from docker-compose.yml. Never point these at the production database: benchmarks
+ * create and drop their own schemas.
+ */
+public final class BenchDatabase {
+
+     public static final String HOST = env("BENCH_DB_HOST", "localhost");
+     public static final int PORT = Integer.parseInt(env("BENCH_DB_PORT", "5432"));
+     public static final String NAME = env("BENCH_DB_NAME", "jobtracker");
+     public static final String USER = env("BENCH_DB_USER", "admin");
+     public static final String PASSWORD = env("BENCH_DB_PASSWORD", "admin");
+
+     private BenchDatabase() {
+     }
+
+     /**
+      * Opens a pool that reaches the benchmark database through a LatencyProxy.
+      * @param proxy        the proxy in front of the database
+      * @param schema       schema put first on the search_path
+      * @param poolSize     maximum number of connections
+      * @param urlOptions   extra JDBC URL parameters, starting with '&amp;', or an empty string
+      * @return the data source; close it in the benchmark's teardown
+      */
+     public static HikariDataSource dataSource(LatencyProxy proxy, String schema, int poolSize, String urlOptions) {
+          HikariConfig config = new HikariConfig();
+          config.setJdbcUrl("jdbc:postgresql://localhost:" + proxy.port() + "/" + NAME
+                  + "?currentSchema=" + schema + urlOptions);
+          config.setUsername(USER);
+          config.setPassword(PASSWORD);
+          config.setMaximumPoolSize(poolSize);
+          config.setMinimumIdle(poolSize);
+          return new HikariDataSource(config);
+     }
+
+     /**
+      * Opens a pool straight to the benchmark database, for tools that load data rather than time it.
+      * @param schema   schema put first on the search_path
+      * @param poolSize maximum number of connections
+      * @return the data source; close it when done
+      */
+     public static HikariDataSource dataSource(String schema, int poolSize) {
+          HikariConfig config = new HikariConfig();
+          config.setJdbcUrl("jdbc:postgresql://" + HOST + ":" + PORT + "/" + NAME
+                  + "?currentSchema=" + schema + "&reWriteBatchedInserts=true");
+          config.setUsername(USER);
+          config.setPassword(PASSWORD);
+          config.setMaximumPoolSize(poolSize);
+          return new HikariDataSource(config);
+     }
+
+     /**
+      * @param rttMillis round-trip time the proxy adds to every exchange
+      * @return a proxy in front of the benchmark database
+      */
+     public static LatencyProxy proxy(long rttMillis) throws IOException {
+          return new LatencyProxy(HOST, PORT, rttMillis);
+     }
+
+     private static String env(String name, String defaultValue) {
+          String value = System.getenv(name);
+          return value == null || value.isBlank() ? defaultValue : value;
+     }
+}
@@ -0,0 +1,44 @@
+package edu.uis.csc478.sp25.jobtracker.bench;
+
+import edu.uis.csc478.sp25.jobtracker.repository.JobRepository;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jdbc.repository.config.AbstractJdbcConfiguration;
+import org.springframework.data.jdbc.repository.config.EnableJdbcRepositories;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+
+/**
+ * Minimal Spring context that runs the application's Spring Data repositories over a benchmark
+ * DataSource, without starting the web application.
+ */
+@Configuration
+@EnableJdbcRepositories(basePackageClasses = JobRepository.class)
+class BenchRepositoryContext extends AbstractJdbcConfiguration {
+
+     /**
+      * @param dataSource the benchmark's data source
+      * @return a started context; close it in the benchmark's teardown
+      */
+     static AnnotationConfigApplicationContext start(DataSource dataSource) {
+          AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+          context.registerBean(DataSource.class, () -> dataSource);
+          context.register(BenchRepositoryContext.class);
+          context.refresh();
+          return context;
+     }
+
+     @Bean
+     NamedParameterJdbcTemplate namedParameterJdbcTemplate(DataSource dataSource) {
+          return new NamedParameterJdbcTemplate(dataSource);
+     }
+
+     @Bean
+     PlatformTransactionManager transactionManager(DataSource dataSource) {
+          return new DataSourceTransactionManager(dataSource);
+     }
+}
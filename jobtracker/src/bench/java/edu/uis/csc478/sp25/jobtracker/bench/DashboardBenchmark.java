@@ -0,0 +1,161 @@
+package edu.uis.csc478.sp25.jobtracker.bench;
+
+import com.zaxxer.hikari.HikariDataSource;
+import edu.uis.csc478.sp25.jobtracker.model.Dashboard;
+import edu.uis.csc478.sp25.jobtracker.model.Interview;
+import edu.uis.csc478.sp25.jobtracker.repository.DashboardRepository;
+import edu.uis.csc478.sp25.jobtracker.repository.InterviewRepository;
+import edu.uis.csc478.sp25.jobtracker.repository.JobRepository;
+import edu.uis.csc478.sp25.jobtracker.repository.JobStatusCountRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to gather what the dashboard page shows for one user (100 jobs, 10 interviews):
+ * <ul>
+ *      <li>fanOut: the queries behind the five requests the page made, in the order it made them
+ *      (/jobs/status-counts, /jobs, /jobs/favorites, /interviews/upcoming, /interviews/upcoming/count),
+ *      with the upcoming interviews found by loading all of them, as InterviewService did</li>
+ *      <li>singleQuery: DashboardRepository's one multi-CTE statement behind GET /dashboard</li>
+ * </ul>
+ * Only database time is measured; over HTTP each fan-out request also pays its own round trip
+ * and authentication. rttMillis adds network latency through a LatencyProxy.
+ * <p>
+ * mvn -P bench test-compile exec:exec -Dbench.args="DashboardBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DashboardBenchmark {
+
+     private static final String SCHEMA = "bench_dashboard";
+     private static final UUID USER_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+     @Param({"0", "10"})
+     public long rttMillis;
+
+     private LatencyProxy proxy;
+     private HikariDataSource dataSource;
+     private AnnotationConfigApplicationContext context;
+     private JobRepository jobRepository;
+     private InterviewRepository interviewRepository;
+     private JobStatusCountRepository statusCountRepository;
+     private DashboardRepository dashboardRepository;
+
+     @Setup(Level.Trial)
+     public void setUp() throws Exception {
+          proxy = BenchDatabase.proxy(rttMillis);
+          dataSource = BenchDatabase.dataSource(proxy, SCHEMA, 1, "");
+          createSchema(new JdbcTemplate(dataSource));
+
+          context = BenchRepositoryContext.start(dataSource);
+          jobRepository = context.getBean(JobRepository.class);
+          interviewRepository = context.getBean(InterviewRepository.class);
+          statusCountRepository = new JobStatusCountRepository(new JdbcTemplate(dataSource),
+                  context.getBean(PlatformTransactionManager.class));
+          dashboardRepository = new DashboardRepository(context.getBean(NamedParameterJdbcTemplate.class));
+     }
+
+     @TearDown(Level.Trial)
+     public void tearDown() throws Exception {
+          context.close();
+          new JdbcTemplate(dataSource).execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+          dataSource.close();
+          proxy.close();
+     }
+
+     @Benchmark
+     public void fanOut(Blackhole blackhole) {
+          LocalDate today = LocalDate.now();
+          blackhole.consume(statusCountRepository.findByUserId(USER_ID));
+          blackhole.consume(jobRepository.findAllByUserIdOrderByLastModifiedDesc(USER_ID));
+          blackhole.consume(jobRepository.findByUserIdAndFavoriteTrue(USER_ID));
+          List<Interview> interviews = interviewRepository.findByUserId(USER_ID);
+          blackhole.consume(interviews.stream().filter(i -> i.getDate().isAfter(today)).toList());
+          interviews = interviewRepository.findByUserId(USER_ID);
+          blackhole.consume(interviews.stream().filter(i -> i.getDate().isAfter(today)).count());
+     }
+
+     @Benchmark
+     public Dashboard singleQuery() {
+          return dashboardRepository.findByUserId(USER_ID, LocalDate.now(), 5);
+     }
+
+     private static void createSchema(JdbcTemplate jdbcTemplate) {
+          jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+          jdbcTemplate.execute("CREATE SCHEMA " + SCHEMA);
+          jdbcTemplate.execute("""
+                      CREATE TABLE job (
+                          id            uuid PRIMARY KEY,
+                          title         text,
+                          level         text,
+                          minsalary     integer,
+                          maxsalary     integer,
+                          location      text,
+                          status        text,
+                          company       text,
+                          user_id       uuid,
+                          last_modified timestamptz NOT NULL DEFAULT now(),
+                          favorite      boolean     NOT NULL DEFAULT false
+                      )
+                  """);
+          jdbcTemplate.execute("""
+                      CREATE TABLE interview (
+                          id      uuid PRIMARY KEY,
+                          user_id uuid,
+                          format  text,
+                          round   text,
+                          date    date,
+                          time    time,
+                          company text
+                      )
+                  """);
+          jdbcTemplate.execute("""
+                      CREATE TABLE job_status_counts (
+                          user_id uuid    NOT NULL,
+                          status  text    NOT NULL,
+                          count   integer NOT NULL DEFAULT 0,
+                          PRIMARY KEY (user_id, status)
+                      )
+                  """);
+          jdbcTemplate.execute("""
+                      INSERT INTO job (id, user_id, title, level, minsalary, maxsalary, location, status, company,
+                                       last_modified, favorite)
+                      SELECT md5(u || '-' || n)::uuid,
+                             ('00000000-0000-0000-0000-' || lpad(u::text, 12, '0'))::uuid,
+                             'Software Engineer ' || n, 'Mid', 40000 + n * 100, 60000 + n * 100, 'Remote',
+                             (ARRAY['Saved', 'Applied', 'Interview', 'Rejected', 'Offer'])[n % 5 + 1],
+                             'Company ' || (n % 50),
+                             now() - n * interval '1 hour',
+                             n % 7 = 0
+                      FROM generate_series(1, 50) u, generate_series(1, 100) n
+                  """);
+          jdbcTemplate.execute("""
+                      INSERT INTO interview (id, user_id, format, round, date, time, company)
+                      SELECT md5('i' || u || '-' || n)::uuid,
+                             ('00000000-0000-0000-0000-' || lpad(u::text, 12, '0'))::uuid,
+                             'Video', 'Round ' || n,
+                             current_date + (n - 5) * 7, '10:00', 'Company ' || n
+                      FROM generate_series(1, 50) u, generate_series(1, 10) n
+                  """);
+          jdbcTemplate.execute("""
+                      INSERT INTO job_status_counts (user_id, status, count)
+                      SELECT user_id, status, count(*) FROM job GROUP BY user_id, status
+                  """);
+          jdbcTemplate.execute("CREATE INDEX ON job (user_id, last_modified DESC, id DESC)");
+          jdbcTemplate.execute("CREATE INDEX ON interview (user_id)");
+          jdbcTemplate.execute("ANALYZE");
+     }
+}
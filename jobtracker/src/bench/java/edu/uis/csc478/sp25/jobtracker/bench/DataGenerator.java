@@ -0,0 +1,246 @@
+package edu.uis.csc478.sp25.jobtracker.bench;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Seeds the database behind a local jobtracker with LOAD_USERS users (500), shaped like real use,
+ * for LoadTest to run against:
+ * <ul>
+ *      <li>jobs per user are log-normal around a median of 30, with a tail of users tracking several
+ *      hundred; statuses follow an application funnel, salaries depend on level, a few companies
+ *      appear for many users, and recent changes are more likely than old ones</li>
+ *      <li>interviews belong to jobs that reached the Interview stage or further, one to four rounds
+ *      on weekdays in business hours; jobs still at Interview have their next round coming up</li>
+ *      <li>nine in ten users have a profile</li>
+ * </ul>
+ * A user's rows depend only on LOAD_SEED (1) and the user's number, so a rerun produces the same
+ * data (dates relative to the day it runs) and user n looks the same whatever LOAD_USERS is. Users
+ * get the IDs LoadTest signs tokens for; their earlier rows are replaced, nobody else's are touched.
+ * The Flyway migrations are applied first, so an empty database works. Connection settings are
+ * those of BenchDatabase, with the tables in the public schema where the API expects them.
+ * <p>
+ * mvn -P bench test-compile exec:exec -Dbench.main=edu.uis.csc478.sp25.jobtracker.bench.DataGenerator
+ */
+public final class DataGenerator {
+
+     // high half of every generated user ID, so their rows can be found by range
+     private static final long USER_ID_PREFIX = 0x10AD;
+     private static final int BATCH_SIZE = 1000;
+     private static final int MAX_JOBS = 1500;
+
+     private static final String[] STATUSES = {"Saved", "Applied", "Screening", "Interview", "Rejected", "Offer", "Accepted"};
+     private static final int[] STATUS_WEIGHTS = {25, 35, 10, 10, 15, 3, 2};
+     private static final String[] LEVELS = {"Entry", "Mid", "Senior", "Lead"};
+     private static final int[] LEVEL_WEIGHTS = {30, 45, 20, 5};
+     private static final int[] LEVEL_SALARIES = {55_000, 80_000, 115_000, 145_000};
+     private static final String[] TITLES = {"Software Engineer", "Backend Developer", "Frontend Developer",
+             "Full Stack Developer", "Data Analyst", "Data Engineer", "QA Engineer", "DevOps Engineer",
+             "Product Manager", "Business Analyst", "IT Support Specialist", "Machine Learning Engineer"};
+     private static final int[] TITLE_WEIGHTS = {25, 10, 8, 12, 10, 6, 6, 5, 5, 5, 5, 3};
+     private static final String[] LOCATIONS = {"Remote", "Springfield, IL", "Chicago, IL", "St. Louis, MO",
+             "New York, NY", "Austin, TX", "Seattle, WA", "Denver, CO"};
+     private static final int[] LOCATION_WEIGHTS = {35, 15, 15, 8, 8, 7, 7, 5};
+     private static final String[] COMPANY_NAMES = {"Northwind", "Contoso", "Initech", "Globex", "Umbrella",
+             "Hooli", "Stark", "Wayne", "Acme", "Prairie", "Lincoln", "Capitol", "Riverbend", "Summit",
+             "Bluestem", "Ironwood", "Lakeshore", "Keystone", "Redwood", "Granite"};
+     private static final String[] COMPANY_KINDS = {"Labs", "Systems", "Health", "Financial", "Logistics",
+             "Software", "Analytics", "Insurance", "Energy", "Media", "Robotics", "Retail", "Group",
+             "Technologies", "Partners"};
+     private static final String[] FORMATS = {"Video", "Phone", "On-site"};
+     private static final int[] FORMAT_WEIGHTS = {55, 25, 20};
+     private static final String[] ROUNDS = {"Recruiter screen", "Technical", "Team", "Final"};
+     private static final String[] FIRST_NAMES = {"Alex", "Jordan", "Taylor", "Morgan", "Casey", "Riley",
+             "Jamie", "Avery", "Quinn", "Drew", "Sam", "Cameron", "Reese", "Skyler", "Devon", "Parker"};
+     private static final String[] LAST_NAMES = {"Smith", "Johnson", "Garcia", "Miller", "Davis", "Lopez",
+             "Wilson", "Anderson", "Thomas", "Moore", "Martin", "Lee", "Nguyen", "Patel", "Kim", "Clark"};
+
+     private final long seed;
+     private final LocalDate today = LocalDate.now();
+     private final OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+     private final List<Object[]> jobs = new ArrayList<>();
+     private final List<Object[]> interviews = new ArrayList<>();
+     private final List<Object[]> profiles = new ArrayList<>();
+     private long jobsWritten;
+     private long interviewsWritten;
+     private long profilesWritten;
+
+     private DataGenerator(long seed) {
+          this.seed = seed;
+     }
+
+     /**
+      * @param n the user's number, from 0
+      * @return the ID of generated user n, which is also the sub of LoadTest's token for that user
+      */
+     public static UUID userId(int n) {
+          return new UUID(USER_ID_PREFIX, n);
+     }
+
+     public static void main(String[] args) {
+          int users = Integer.parseInt(env("LOAD_USERS", "500"));
+          long seed = Long.parseLong(env("LOAD_SEED", "1"));
+          Instant start = Instant.now();
+          try (HikariDataSource dataSource = BenchDatabase.dataSource("public", 1)) {
+               Flyway.configure()
+                       .dataSource(dataSource)
+                       .baselineOnMigrate(true)
+                       .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                       .load()
+                       .migrate();
+
+               JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+               Object[] range = {userId(0), new UUID(USER_ID_PREFIX, -1L)};
+               jdbcTemplate.update("DELETE FROM interview WHERE user_id BETWEEN ? AND ?", range);
+               jdbcTemplate.update("DELETE FROM job WHERE user_id BETWEEN ? AND ?", range);
+               jdbcTemplate.update("DELETE FROM profile WHERE id BETWEEN ? AND ?", range);
+
+               DataGenerator generator = new DataGenerator(seed);
+               for (int n = 0; n < users; n++) {
+                    generator.generateUser(n);
+                    generator.flush(jdbcTemplate, n == users - 1);
+               }
+               jdbcTemplate.execute("ANALYZE job, interview, profile");
+               System.out.printf("seeded %d users (seed %d): %d jobs, %d interviews, %d profiles in %d s%n",
+                       users, seed, generator.jobsWritten, generator.interviewsWritten, generator.profilesWritten,
+                       Duration.between(start, Instant.now()).toSeconds());
+          }
+     }
+
+     private void generateUser(int n) {
+          // one stream per user, so user n's rows do not depend on how many users come before it
+          SplittableRandom random = new SplittableRandom(seed * 1_000_003L + n);
+          UUID userId = userId(n);
+
+          int jobCount = (int) Math.min(MAX_JOBS, Math.round(Math.exp(Math.log(30) + 0.9 * random.nextGaussian())));
+          for (int j = 0; j < jobCount; j++) {
+               UUID jobId = new UUID(random.nextLong(), random.nextLong());
+               String status = pick(random, STATUSES, STATUS_WEIGHTS);
+               int level = pickIndex(random, LEVEL_WEIGHTS);
+               int minSalary = 0;
+               int maxSalary = 0;
+               // some postings do not list a salary
+               if (random.nextInt(100) >= 8) {
+                    minSalary = (int) Math.round(LEVEL_SALARIES[level] * (0.8 + 0.45 * random.nextDouble()) / 1000) * 1000;
+                    maxSalary = minSalary + 5000 * (2 + random.nextInt(7));
+               }
+               String company = COMPANY_NAMES[skewed(random, COMPANY_NAMES.length)] + " "
+                       + COMPANY_KINDS[skewed(random, COMPANY_KINDS.length)];
+               // mostly touched in the last few weeks, rarely more than a year ago
+               long minutesAgo = (long) Math.min(365 * 24 * 60, -Math.log(1 - random.nextDouble()) * 45 * 24 * 60);
+               OffsetDateTime lastModified = now.minusMinutes(minutesAgo);
+               boolean advanced = status.equals("Interview") || status.equals("Offer") || status.equals("Accepted");
+               boolean favorite = random.nextInt(100) < (advanced ? 30 : 10);
+               jobs.add(new Object[]{jobId, userId, pick(random, TITLES, TITLE_WEIGHTS), LEVELS[level], minSalary,
+                       maxSalary, pick(random, LOCATIONS, LOCATION_WEIGHTS), status, company, lastModified, favorite});
+
+               if (advanced || (status.equals("Rejected") && random.nextInt(100) < 30)) {
+                    generateInterviews(random, userId, company, status, lastModified.toLocalDate());
+               }
+          }
+
+          if (random.nextInt(100) < 90) {
+               String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+               String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+               String title = pick(random, TITLES, TITLE_WEIGHTS);
+               String location = pick(random, LOCATIONS, LOCATION_WEIGHTS);
+               String bio = random.nextBoolean() ? null : "Looking for " + title.toLowerCase() + " roles in " + location + ".";
+               profiles.add(new Object[]{userId, first + " " + last,
+                       (first + "." + last + "." + n + "@example.com").toLowerCase(), title, bio, location,
+                       String.format("217-555-%04d", random.nextInt(10_000))});
+          }
+     }
+
+     private void generateInterviews(SplittableRandom random, UUID userId, String company, String status,
+                                     LocalDate lastModified) {
+          int rounds = switch (status) {
+               case "Interview" -> 1 + random.nextInt(3);
+               case "Rejected" -> 1 + random.nextInt(2);
+               default -> 2 + random.nextInt(3);
+          };
+          // a job still at Interview has its latest round ahead; the others ended around their last change
+          LocalDate last = status.equals("Interview") ? today.plusDays(1 + random.nextInt(21)) : lastModified;
+          String format = pick(random, FORMATS, FORMAT_WEIGHTS);
+          for (int k = 0; k < rounds; k++) {
+               LocalDate date = weekday(last.minusDays(7L * (rounds - 1 - k) + random.nextInt(3)));
+               LocalTime time = LocalTime.of(9, 0).plusMinutes(15L * random.nextInt(32));
+               interviews.add(new Object[]{new UUID(random.nextLong(), random.nextLong()), userId, format,
+                       ROUNDS[Math.min(k, ROUNDS.length - 1)], date, time, company});
+               // later rounds are more often on-site
+               if (random.nextInt(100) < 30) {
+                    format = "On-site";
+               }
+          }
+     }
+
+     private void flush(JdbcTemplate jdbcTemplate, boolean last) {
+          if (last || jobs.size() >= BATCH_SIZE) {
+               jdbcTemplate.batchUpdate("INSERT INTO job (id, user_id, title, level, minsalary, maxsalary, location, "
+                       + "status, company, last_modified, favorite) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", jobs);
+               jobsWritten += jobs.size();
+               jobs.clear();
+          }
+          if (last || interviews.size() >= BATCH_SIZE) {
+               jdbcTemplate.batchUpdate("INSERT INTO interview (id, user_id, format, round, date, time, company) "
+                       + "VALUES (?, ?, ?, ?, ?, ?, ?)", interviews);
+               interviewsWritten += interviews.size();
+               interviews.clear();
+          }
+          if (last || profiles.size() >= BATCH_SIZE) {
+               jdbcTemplate.batchUpdate("INSERT INTO profile (id, name, email, title, bio, location, phonenumber) "
+                       + "VALUES (?, ?, ?, ?, ?, ?, ?)", profiles);
+               profilesWritten += profiles.size();
+               profiles.clear();
+          }
+     }
+
+     private static LocalDate weekday(LocalDate date) {
+          return switch (date.getDayOfWeek()) {
+               case SATURDAY -> date.plusDays(2);
+               case SUNDAY -> date.plusDays(1);
+               default -> date;
+          };
+     }
+
+     // low indexes are much more likely than high ones, like a few employers posting most jobs
+     private static int skewed(SplittableRandom random, int size) {
+          return (int) (size * Math.pow(random.nextDouble(), 2.5));
+     }
+
+     private static String pick(SplittableRandom random, String[] values, int[] weights) {
+          return values[pickIndex(random, weights)];
+     }
+
+     private static int pickIndex(SplittableRandom random, int[] weights) {
+          int total = 0;
+          for (int weight : weights) {
+               total += weight;
+          }
+          int r = random.nextInt(total);
+          for (int i = 0; i < weights.length; i++) {
+               r -= weights[i];
+               if (r < 0) {
+                    return i;
+               }
+          }
+          return weights.length - 1;
+     }
+
+     private static String env(String name, String defaultValue) {
+          String value = System.getenv(name);
+          return value == null || value.isBlank() ? defaultValue : value;
+     }
+}
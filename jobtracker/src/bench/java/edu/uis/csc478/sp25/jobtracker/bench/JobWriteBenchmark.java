@@ -0,0 +1,113 @@
+package edu.uis.csc478.sp25.jobtracker.bench;
+
+import com.zaxxer.hikari.HikariDataSource;
+import edu.uis.csc478.sp25.jobtracker.model.Job;
+import edu.uis.csc478.sp25.jobtracker.repository.JobRowMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.UUID.randomUUID;
+
+/**
+ * Latency of creating and updating a job, comparing the statements JobService used to issue with
+ * the single INSERT/UPDATE ... RETURNING statements it issues now.
+ * <ul>
+ *      <li>create, before: INSERT, then SELECT by id to read the row back</li>
+ *      <li>update, before: SELECT by id and user_id, then Spring Data's full-row UPDATE from save()</li>
+ *      <li>after: one statement each, with ownership checked in the WHERE clause</li>
+ * </ul>
+ * rttMillis adds that much network round-trip time through a LatencyProxy; the gap between the
+ * two variants grows by one RTT per statement saved, which is what the pooler costs in production.
+ * <p>
+ * mvn -P bench test-compile exec:exec -Dbench.args="JobWriteBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JobWriteBenchmark {
+
+     private static final String SCHEMA = "bench_job_write";
+     private static final String INSERT =
+             "INSERT INTO job (id, user_id, title, level, minsalary, maxsalary, location, status, company, favorite) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+     @Param({"0", "10"})
+     public long rttMillis;
+
+     private LatencyProxy proxy;
+     private HikariDataSource dataSource;
+     private JdbcTemplate jdbcTemplate;
+     private final UUID userId = randomUUID();
+     private final UUID existingJobId = randomUUID();
+
+     @Setup(Level.Trial)
+     public void setUp() throws Exception {
+          proxy = BenchDatabase.proxy(rttMillis);
+          dataSource = BenchDatabase.dataSource(proxy, SCHEMA, 1, "");
+          jdbcTemplate = new JdbcTemplate(dataSource);
+          jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+          jdbcTemplate.execute("CREATE SCHEMA " + SCHEMA);
+          jdbcTemplate.execute("""
+                      CREATE TABLE job (
+                          id            uuid PRIMARY KEY,
+                          title         text,
+                          level         text,
+                          minsalary     integer,
+                          maxsalary     integer,
+                          location      text,
+                          status        text,
+                          company       text,
+                          user_id       uuid,
+                          last_modified timestamptz NOT NULL DEFAULT now(),
+                          favorite      boolean     NOT NULL DEFAULT false
+                      )
+                  """);
+          jdbcTemplate.update(INSERT, existingJobId, userId, "Engineer", "Mid", 1000, 2000, "Remote", "Saved", "Acme", false);
+     }
+
+     @TearDown(Level.Trial)
+     public void tearDown() throws Exception {
+          jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+          dataSource.close();
+          proxy.close();
+     }
+
+     @Benchmark
+     public Job createInsertThenSelect() {
+          UUID id = randomUUID();
+          jdbcTemplate.update(INSERT, id, userId, "Engineer", "Mid", 1000, 2000, "Remote", "Saved", "Acme", false);
+          return jdbcTemplate.queryForObject("SELECT * FROM job WHERE id = ?", JobRowMapper.INSTANCE, id);
+     }
+
+     @Benchmark
+     public Job createInsertReturning() {
+          return jdbcTemplate.queryForObject(INSERT + " RETURNING *", JobRowMapper.INSTANCE,
+                  randomUUID(), userId, "Engineer", "Mid", 1000, 2000, "Remote", "Saved", "Acme", false);
+     }
+
+     @Benchmark
+     public Job updateSelectThenSave() {
+          Job job = jdbcTemplate.queryForObject("SELECT * FROM job WHERE id = ? AND user_id = ?",
+                  JobRowMapper.INSTANCE, existingJobId, userId);
+          jdbcTemplate.update("UPDATE job SET title = ?, level = ?, minsalary = ?, maxsalary = ?, location = ?, " +
+                          "status = ?, company = ?, user_id = ?, last_modified = ?, favorite = ? WHERE id = ?",
+                  job.getTitle(), job.getLevel(), job.getMinSalary(), job.getMaxSalary(), job.getLocation(),
+                  "Applied", job.getCompany(), job.getUserId(), job.getLastModified(), job.isFavorite(), job.getId());
+          return job;
+     }
+
+     @Benchmark
+     public Job updateReturning() {
+          return jdbcTemplate.queryForObject("UPDATE job SET title = ?, level = ?, minsalary = ?, maxsalary = ?, " +
+                          "location = ?, status = ?, company = ?, favorite = ?, last_modified = now() " +
+                          "WHERE id = ? AND user_id = ? RETURNING *",
+                  JobRowMapper.INSTANCE, "Engineer", "Mid", 1000, 2000, "Remote", "Applied", "Acme", false,
+                  existingJobId, userId);
+     }
+}
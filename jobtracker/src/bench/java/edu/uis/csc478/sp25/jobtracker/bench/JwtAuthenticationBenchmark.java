@@ -0,0 +1,100 @@
+package edu.uis.csc478.sp25.jobtracker.bench;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import edu.uis.csc478.sp25.jobtracker.security.CachingJwtDecoder;
+import edu.uis.csc478.sp25.jobtracker.security.SecurityUtil;
+import edu.uis.csc478.sp25.jobtracker.security.UserJwtAuthenticationConverter;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.security.oauth2.jwt.NimbusJwtDecoder.withSecretKey;
+
+/**
+ * Cost of authenticating one request that repeats a bearer token: the BearerTokenAuthenticationFilter
+ * with its JwtAuthenticationProvider, followed by the three user-ID lookups POST /jobs used to make
+ * (controller, service, cache key).
+ * <ul>
+ *      <li>NIMBUS, before: NimbusJwtDecoder verifies the HMAC and parses the claims on every request,
+ *      and every lookup parses the sub claim into a UUID again</li>
+ *      <li>CACHING, after: CachingJwtDecoder serves the verified token from its cache and the UUID is
+ *      parsed once, into the UserJwtAuthenticationToken</li>
+ * </ul>
+ * mvn -P bench test-compile exec:exec -Dbench.args="JwtAuthenticationBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthenticationBenchmark {
+
+     private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark";
+
+     public enum Variant {NIMBUS, CACHING}
+
+     @Param({"NIMBUS", "CACHING"})
+     public Variant variant;
+
+     private BearerTokenAuthenticationFilter filter;
+     private String authorization;
+
+     @Setup(Level.Trial)
+     public void setUp() throws Exception {
+          JwtDecoder nimbus = withSecretKey(new SecretKeySpec(SECRET.getBytes(), "HmacSHA256")).build();
+          JwtAuthenticationProvider provider;
+          if (variant == Variant.CACHING) {
+               provider = new JwtAuthenticationProvider(new CachingJwtDecoder(nimbus, 10_000));
+               provider.setJwtAuthenticationConverter(new UserJwtAuthenticationConverter());
+          } else {
+               provider = new JwtAuthenticationProvider(nimbus);
+          }
+          filter = new BearerTokenAuthenticationFilter(new ProviderManager(provider));
+
+          Instant now = Instant.now();
+          SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), new JWTClaimsSet.Builder()
+                  .subject(UUID.randomUUID().toString())
+                  .claim("role", "authenticated")
+                  .claim("email", "bench@example.com")
+                  .issueTime(Date.from(now))
+                  .expirationTime(Date.from(now.plus(Duration.ofHours(1))))
+                  .build());
+          jwt.sign(new MACSigner(SECRET.getBytes()));
+          authorization = "Bearer " + jwt.serialize();
+     }
+
+     @Benchmark
+     public void authenticate(Blackhole blackhole) throws Exception {
+          MockHttpServletRequest request = new MockHttpServletRequest("POST", "/jobs");
+          request.addHeader("Authorization", authorization);
+          FilterChain chain = (req, res) -> {
+               blackhole.consume(SecurityUtil.getLoggedInUserId());
+               blackhole.consume(SecurityUtil.getLoggedInUserId());
+               blackhole.consume(SecurityUtil.getLoggedInUserId());
+          };
+          try {
+               filter.doFilter(request, new MockHttpServletResponse(), chain);
+          } finally {
+               SecurityContextHolder.clearContext();
+          }
+     }
+}
@@ -0,0 +1,96 @@
+package edu.uis.csc478.sp25.jobtracker.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+/**
+ * TCP proxy that delays every chunk it forwards by half the configured round-trip time in each
+ * direction, so a local database behaves like one reached over the network (for example the
+ * Supabase pooler). Each request/response exchange then costs roughly one extra RTT, which is
+ * exactly the cost the write-path and query benchmarks are trying to show.
+ */
+public final class LatencyProxy implements AutoCloseable {
+
+     private final ServerSocket serverSocket;
+     private final String targetHost;
+     private final int targetPort;
+     private final long oneWayDelayMillis;
+
+     /**
+      * Starts the proxy on an ephemeral local port.
+      * @param targetHost     host to forward to
+      * @param targetPort     port to forward to
+      * @param rttMillis      round-trip time to add; 0 forwards without delay
+      */
+     public LatencyProxy(String targetHost, int targetPort, long rttMillis) throws IOException {
+          this.serverSocket = new ServerSocket(0);
+          this.targetHost = targetHost;
+          this.targetPort = targetPort;
+          this.oneWayDelayMillis = rttMillis / 2;
+          Thread acceptor = new Thread(this::acceptLoop, "latency-proxy");
+          acceptor.setDaemon(true);
+          acceptor.start();
+     }
+
+     /**
+      * @return the local port clients should connect to
+      */
+     public int port() {
+          return serverSocket.getLocalPort();
+     }
+
+     private void acceptLoop() {
+          while (!serverSocket.isClosed()) {
+               try {
+                    Socket client = serverSocket.accept();
+                    Socket server = new Socket();
+                    server.connect(new InetSocketAddress(targetHost, targetPort));
+                    client.setTcpNoDelay(true);
+                    server.setTcpNoDelay(true);
+                    pipe(client, server);
+                    pipe(server, client);
+               } catch (IOException e) {
+                    // closed, or the target refused the connection; the client sees the failure
+               }
+          }
+     }
+
+     private void pipe(Socket from, Socket to) {
+          Thread thread = new Thread(() -> {
+               byte[] buffer = new byte[64 * 1024];
+               try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+                    for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                         if (oneWayDelayMillis > 0) {
+                              Thread.sleep(oneWayDelayMillis);
+                         }
+                         out.write(buffer, 0, read);
+                         out.flush();
+                    }
+               } catch (IOException | InterruptedException e) {
+                    // connection closed
+               } finally {
+                    closeQuietly(from);
+                    closeQuietly(to);
+               }
+          }, "latency-proxy-pipe");
+          thread.setDaemon(true);
+          thread.start();
+     }
+
+     private static void closeQuietly(Socket socket) {
+          try {
+               socket.close();
+          } catch (IOException ignored) {
+               // already closed
+          }
+     }
+
+     @Override
+     public void close() throws IOException {
+          serverSocket.close();
+     }
+}
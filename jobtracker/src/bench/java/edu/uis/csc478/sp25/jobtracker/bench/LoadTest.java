@@ -0,0 +1,432 @@
+package edu.uis.csc478.sp25.jobtracker.bench;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop load test of a running jobtracker, to catch performance regressions before a release
+ * and to compare configurations (for example VIRTUAL_THREADS=false against true). Seed the database
+ * with DataGenerator first, with the same LOAD_USERS: each simulated user signs a token for the
+ * matching generated user and repeats a weighted mix of what the frontend does, mostly reads:
+ * <ul>
+ *      <li>jobs: list, first page, one job, search, status counts, favorites, favorite toggle,
+ *      status change, create followed by delete</li>
+ *      <li>interviews: list, upcoming, upcoming count, round change</li>
+ *      <li>profiles: current profile and a bio change, for users that have one</li>
+ *      <li>the dashboard</li>
+ * </ul>
+ * Creates are deleted again and favorites toggled back, so repeated runs see about the same data;
+ * rerun DataGenerator for exactly the same. Requests, errors and HdrHistogram latency percentiles
+ * are reported per operation and overall, then the connection-pool wait as the server measured it.
+ * <p>
+ * Settings come from environment variables: LOAD_BASE_URL (http://localhost:8080), LOAD_USERS (500),
+ * LOAD_WARMUP and LOAD_DURATION (ISO-8601 or seconds; 10 and 60), LOAD_THINK_MS (mean pause between
+ * a user's requests; 0), SUPABASE_JWT_SECRET (required). The first argument, if any, labels the run.
+ * <p>
+ * As a regression check: LOAD_REPORT writes the results to a CSV file; a later run given that file
+ * as LOAD_BASELINE exits with status 1 if an operation's p95 is more than LOAD_TOLERANCE (0.25) and
+ * 1 ms slower than in the baseline. LOAD_MAX_ERROR_RATE (e.g. 0.01) fails the run the same way when
+ * an operation answers more errors than that.
+ * <p>
+ * mvn -P bench test-compile exec:exec -Dbench.main=edu.uis.csc478.sp25.jobtracker.bench.LoadTest -Dbench.args=virtual
+ */
+public final class LoadTest {
+
+     private static final List<String> SERVER_METRICS = List.of("hikaricp.connections.acquire",
+             "hikaricp.connections.pending", "jobtracker.web.concurrency.wait", "jobtracker.web.concurrency.rejected");
+     private static final Pattern ID = Pattern.compile("\"id\":\"([0-9a-f-]{36})\"");
+     private static final String[] STATUSES = {"Saved", "Applied", "Screening", "Interview", "Rejected"};
+     private static final String[] ROUNDS = {"Recruiter screen", "Technical", "Team", "Final"};
+
+     // one iteration of a simulated user; false when it does not apply to that user (no jobs, no
+     // profile), in which case another operation is drawn
+     @FunctionalInterface
+     private interface Step {
+          boolean run(Session session) throws InterruptedException;
+     }
+
+     private record Operation(int weight, Step step) {
+     }
+
+     private static final List<Operation> SCENARIO = List.of(
+             new Operation(12, s -> s.get("GET /jobs", "/jobs")),
+             new Operation(10, s -> s.get("GET /jobs?limit=20", "/jobs?limit=20")),
+             new Operation(8, s -> !s.jobIds.isEmpty() && s.get("GET /jobs/{id}", "/jobs/" + s.any(s.jobIds))),
+             new Operation(5, s -> s.get("GET /jobs/search", "/jobs/search?title=engineer&status=Applied")),
+             new Operation(6, s -> s.get("GET /jobs/status-counts", "/jobs/status-counts")),
+             new Operation(6, s -> s.get("GET /jobs/favorites", "/jobs/favorites")),
+             new Operation(4, Session::toggleFavorite),
+             new Operation(3, s -> !s.jobIds.isEmpty() && s.patch("PATCH /jobs/{id}", "/jobs/" + s.any(s.jobIds),
+                     "{\"status\":\"" + s.any(STATUSES) + "\"}")),
+             new Operation(2, Session::createAndDeleteJob),
+             new Operation(10, s -> s.get("GET /interviews", "/interviews")),
+             new Operation(6, s -> s.get("GET /interviews/upcoming", "/interviews/upcoming?limit=10")),
+             new Operation(4, s -> s.get("GET /interviews/upcoming/count", "/interviews/upcoming/count")),
+             new Operation(2, s -> !s.interviewIds.isEmpty() && s.patch("PATCH /interviews/{id}",
+                     "/interviews/" + s.any(s.interviewIds), "{\"round\":\"" + s.any(ROUNDS) + "\"}")),
+             new Operation(8, s -> s.hasProfile && s.get("GET /profiles/current", "/profiles/current")),
+             new Operation(2, s -> s.hasProfile && s.patch("PATCH /profiles/current", "/profiles/current",
+                     "{\"bio\":\"Updated by the load test\"}")),
+             new Operation(6, s -> s.get("GET /dashboard", "/dashboard")));
+
+     private final HttpClient client;
+     private final String baseUrl;
+     private final Duration thinkTime;
+     private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+     private final LongAdder failures = new LongAdder();
+     private final List<Session> sessions = Collections.synchronizedList(new ArrayList<>());
+     private volatile boolean recording;
+     private volatile boolean running = true;
+
+     private LoadTest(String baseUrl, Duration thinkTime) {
+          this.baseUrl = baseUrl;
+          this.thinkTime = thinkTime;
+          this.client = HttpClient.newBuilder()
+                  .version(HttpClient.Version.HTTP_1_1)
+                  .connectTimeout(Duration.ofSeconds(10))
+                  .build();
+     }
+
+     public static void main(String[] args) throws Exception {
+          String label = args.length > 0 ? args[0] : "run";
+          String baseUrl = env("LOAD_BASE_URL", "http://localhost:8080");
+          int users = Integer.parseInt(env("LOAD_USERS", "500"));
+          Duration warmup = duration(env("LOAD_WARMUP", "10"));
+          Duration measured = duration(env("LOAD_DURATION", "60"));
+          Duration thinkTime = Duration.ofMillis(Long.parseLong(env("LOAD_THINK_MS", "0")));
+          String secret = System.getenv("SUPABASE_JWT_SECRET");
+          if (secret == null || secret.isBlank()) {
+               throw new IllegalStateException("SUPABASE_JWT_SECRET must be set to the secret the API validates tokens with");
+          }
+
+          LoadTest test = new LoadTest(baseUrl, thinkTime);
+          CountDownLatch done = new CountDownLatch(users);
+          for (int i = 0; i < users; i++) {
+               Session session = test.new Session(token(secret, DataGenerator.userId(i).toString()), i);
+               test.sessions.add(session);
+               Thread user = new Thread(() -> {
+                    try {
+                         session.run();
+                    } finally {
+                         done.countDown();
+                    }
+               }, "load-user-" + i);
+               user.setDaemon(true);
+               user.start();
+          }
+
+          Thread.sleep(warmup.toMillis());
+          test.recording = true;
+          Instant start = Instant.now();
+          Thread.sleep(measured.toMillis());
+          test.recording = false;
+          Duration elapsed = Duration.between(start, Instant.now());
+          test.running = false;
+          done.await();
+
+          Map<String, Result> results = test.results();
+          test.report(label, users, elapsed, results);
+          test.reportServerMetrics(token(secret, DataGenerator.userId(0).toString(), Map.of("role", "admin")));
+
+          String report = System.getenv("LOAD_REPORT");
+          if (report != null && !report.isBlank()) {
+               writeCsv(Path.of(report), results);
+          }
+          List<String> regressions = regressions(results);
+          regressions.forEach(regression -> System.out.println("REGRESSION " + regression));
+          System.exit(regressions.isEmpty() ? 0 : 1);
+     }
+
+     // latencies in microseconds
+     private record Result(Histogram latencies, long errors) {
+
+          double millis(double percentile) {
+               return latencies.getValueAtPercentile(percentile) / 1000.0;
+          }
+
+          double errorRate() {
+               return latencies.getTotalCount() == 0 ? 0 : (double) errors / latencies.getTotalCount();
+          }
+     }
+
+     private final class Session {
+          private final String token;
+          private final SplittableRandom random;
+          private final List<String> jobIds = new ArrayList<>();
+          private final List<String> interviewIds = new ArrayList<>();
+          private final Map<String, Histogram> latencies = new HashMap<>();
+          private final Map<String, Long> errors = new HashMap<>();
+          private boolean hasProfile;
+          private String favorited;
+
+          Session(String token, int user) {
+               this.token = token;
+               this.random = new SplittableRandom(user);
+          }
+
+          void run() {
+               try {
+                    // what the user owns, read before anything is timed
+                    HttpResponse<String> jobs = send(null, request("/jobs?limit=50").GET().build());
+                    ids(jobs, jobIds);
+                    ids(send(null, request("/interviews").GET().build()), interviewIds);
+                    HttpResponse<String> profile = send(null, request("/profiles/current").GET().build());
+                    hasProfile = profile != null && profile.statusCode() == 200;
+
+                    int totalWeight = SCENARIO.stream().mapToInt(Operation::weight).sum();
+                    while (running) {
+                         if (!draw(totalWeight).step().run(this)) {
+                              continue;
+                         }
+                         if (!thinkTime.isZero()) {
+                              Thread.sleep(random.nextLong(thinkTime.toMillis() * 2 + 1));
+                         }
+                    }
+               } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+               }
+          }
+
+          private Operation draw(int totalWeight) {
+               int r = random.nextInt(totalWeight);
+               for (Operation operation : SCENARIO) {
+                    r -= operation.weight();
+                    if (r < 0) {
+                         return operation;
+                    }
+               }
+               return SCENARIO.get(SCENARIO.size() - 1);
+          }
+
+          boolean get(String name, String path) throws InterruptedException {
+               send(name, request(path).GET().build());
+               return true;
+          }
+
+          boolean patch(String name, String path, String json) throws InterruptedException {
+               send(name, request(path).header("Content-Type", "application/json")
+                       .method("PATCH", HttpRequest.BodyPublishers.ofString(json)).build());
+               return true;
+          }
+
+          // favorites one job, and on the next draw unfavorites it again
+          boolean toggleFavorite() throws InterruptedException {
+               if (favorited == null) {
+                    if (jobIds.isEmpty()) {
+                         return false;
+                    }
+                    favorited = any(jobIds);
+                    send("PUT /jobs/{id}/favorite", request("/jobs/" + favorited + "/favorite")
+                            .PUT(HttpRequest.BodyPublishers.noBody()).build());
+               } else {
+                    send("PUT /jobs/{id}/unfavorite", request("/jobs/" + favorited + "/unfavorite")
+                            .PUT(HttpRequest.BodyPublishers.noBody()).build());
+                    favorited = null;
+               }
+               return true;
+          }
+
+          boolean createAndDeleteJob() throws InterruptedException {
+               HttpResponse<String> created = send("POST /jobs", request("/jobs")
+                       .header("Content-Type", "application/json")
+                       .POST(HttpRequest.BodyPublishers.ofString("""
+                               {"title":"Load Test Engineer","level":"Mid","minSalary":60000,"maxSalary":80000,
+                                "location":"Remote","status":"Saved","company":"Load Test Labs"}"""))
+                       .build());
+               List<String> id = new ArrayList<>();
+               ids(created, id);
+               if (!id.isEmpty()) {
+                    send("DELETE /jobs/{id}", request("/jobs/" + id.get(0)).DELETE().build());
+               }
+               return true;
+          }
+
+          String any(List<String> values) {
+               return values.get(random.nextInt(values.size()));
+          }
+
+          String any(String[] values) {
+               return values[random.nextInt(values.length)];
+          }
+
+          private HttpRequest.Builder request(String path) {
+               return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                       .header("Authorization", "Bearer " + token)
+                       .timeout(Duration.ofSeconds(120));
+          }
+
+          // records under name while the measured window is open; a null name is never recorded
+          private HttpResponse<String> send(String name, HttpRequest request) throws InterruptedException {
+               long start = System.nanoTime();
+               HttpResponse<String> response;
+               try {
+                    response = client.send(request, HttpResponse.BodyHandlers.ofString());
+               } catch (IOException e) {
+                    response = null;
+               }
+               long micros = (System.nanoTime() - start) / 1000;
+               if (recording && name != null) {
+                    latencies.computeIfAbsent(name, n -> new Histogram(3)).recordValue(micros);
+                    if (response == null) {
+                         failures.increment();
+                    } else {
+                         statusCounts.computeIfAbsent(response.statusCode(), s -> new LongAdder()).increment();
+                    }
+                    if (response == null || response.statusCode() >= 400) {
+                         errors.merge(name, 1L, Long::sum);
+                    }
+               }
+               return response;
+          }
+     }
+
+     private static void ids(HttpResponse<String> response, List<String> into) {
+          if (response != null && response.statusCode() < 300) {
+               Matcher matcher = ID.matcher(response.body());
+               while (matcher.find()) {
+                    into.add(matcher.group(1));
+               }
+          }
+     }
+
+     // per operation, plus "all"
+     private Map<String, Result> results() {
+          Map<String, Histogram> latencies = new TreeMap<>();
+          Map<String, Long> errors = new HashMap<>();
+          Histogram all = new Histogram(3);
+          for (Session session : sessions) {
+               session.latencies.forEach((name, histogram) -> {
+                    latencies.computeIfAbsent(name, n -> new Histogram(3)).add(histogram);
+                    all.add(histogram);
+               });
+               session.errors.forEach((name, count) -> errors.merge(name, count, Long::sum));
+          }
+          Map<String, Result> results = new LinkedHashMap<>();
+          latencies.forEach((name, histogram) -> results.put(name, new Result(histogram, errors.getOrDefault(name, 0L))));
+          results.put("all", new Result(all, errors.values().stream().mapToLong(Long::longValue).sum()));
+          return results;
+     }
+
+     private void report(String label, int users, Duration elapsed, Map<String, Result> results) {
+          double seconds = elapsed.toMillis() / 1000.0;
+          System.out.printf("%n== %s: %d users, %.0f s measured ==%n", label, users, seconds);
+          System.out.printf("%-30s %9s %8s %7s %8s %8s %8s %8s %8s%n",
+                  "operation", "requests", "req/s", "errors", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms");
+          results.forEach((name, result) -> System.out.printf("%-30s %9d %8.1f %7d %8.1f %8.1f %8.1f %8.1f %8.1f%n",
+                  name, result.latencies().getTotalCount(), result.latencies().getTotalCount() / seconds,
+                  result.errors(), result.millis(50), result.millis(95), result.millis(99), result.millis(99.9),
+                  result.latencies().getMaxValue() / 1000.0));
+          new TreeMap<>(statusCounts).forEach((status, count) -> System.out.printf("  HTTP %d  %d%n", status, count.sum()));
+          System.out.printf("  failed    %d (connection errors)%n", failures.sum());
+     }
+
+     // pool wait as seen by the server; the concurrency metrics only exist when the limiter is enabled
+     private void reportServerMetrics(String token) throws InterruptedException {
+          System.out.println("server metrics (since startup):");
+          for (String metric : SERVER_METRICS) {
+               HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/metrics/" + metric))
+                       .header("Authorization", "Bearer " + token)
+                       .GET()
+                       .build();
+               try {
+                    HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                    System.out.printf("  %s %s%n", metric, response.statusCode() == 200
+                            ? response.body().replaceAll(".*\"measurements\":(\\[[^]]*]).*", "$1")
+                            : "n/a (" + response.statusCode() + ")");
+               } catch (IOException e) {
+                    System.out.printf("  %s n/a (%s)%n", metric, e.getMessage());
+               }
+          }
+     }
+
+     private static void writeCsv(Path path, Map<String, Result> results) throws IOException {
+          List<String> lines = new ArrayList<>();
+          lines.add("operation,requests,errors,p50_ms,p95_ms,p99_ms");
+          results.forEach((name, result) -> lines.add(String.format(Locale.ROOT, "%s,%d,%d,%.3f,%.3f,%.3f", name,
+                  result.latencies().getTotalCount(), result.errors(), result.millis(50), result.millis(95),
+                  result.millis(99))));
+          Files.write(path, lines);
+          System.out.println("results written to " + path);
+     }
+
+     private static List<String> regressions(Map<String, Result> results) throws IOException {
+          List<String> regressions = new ArrayList<>();
+          String maxErrorRate = System.getenv("LOAD_MAX_ERROR_RATE");
+          if (maxErrorRate != null && !maxErrorRate.isBlank()) {
+               double max = Double.parseDouble(maxErrorRate);
+               results.forEach((name, result) -> {
+                    if (result.errorRate() > max) {
+                         regressions.add(String.format(Locale.ROOT, "%s: error rate %.3f above %.3f", name,
+                                 result.errorRate(), max));
+                    }
+               });
+          }
+          String baseline = System.getenv("LOAD_BASELINE");
+          if (baseline != null && !baseline.isBlank()) {
+               double tolerance = Double.parseDouble(env("LOAD_TOLERANCE", "0.25"));
+               Map<String, Double> baselineP95 = new HashMap<>();
+               List<String> lines = Files.readAllLines(Path.of(baseline));
+               for (String line : lines.subList(1, lines.size())) {
+                    String[] columns = line.split(",");
+                    baselineP95.put(columns[0], Double.parseDouble(columns[4]));
+               }
+               results.forEach((name, result) -> {
+                    Double before = baselineP95.get(name);
+                    if (before != null && result.millis(95) > before * (1 + tolerance) + 1) {
+                         regressions.add(String.format(Locale.ROOT, "%s: p95 %.1f ms, baseline %.1f ms", name,
+                                 result.millis(95), before));
+                    }
+               });
+          }
+          return regressions;
+     }
+
+     private static String token(String secret, String userId) throws JOSEException {
+          return token(secret, userId, Map.of());
+     }
+
+     // the actuator endpoints need app_metadata.role "admin"
+     private static String token(String secret, String userId, Map<String, Object> appMetadata) throws JOSEException {
+          Instant now = Instant.now();
+          JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                  .subject(userId)
+                  .claim("role", "authenticated")
+                  .claim("app_metadata", appMetadata)
+                  .issueTime(Date.from(now))
+                  .expirationTime(Date.from(now.plus(Duration.ofHours(2))))
+                  .build();
+          SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), claims);
+          jwt.sign(new MACSigner(secret.getBytes()));
+          return jwt.serialize();
+     }
+
+     private static Duration duration(String value) {
+          return value.startsWith("P") ? Duration.parse(value) : Duration.ofSeconds(Long.parseLong(value));
+     }
+
+     private static String env(String name, String defaultValue) {
+          String value = System.getenv(name);
+          return value == null || value.isBlank() ? defaultValue : value;
+     }
+}
@@ -0,0 +1,163 @@
+package edu.uis.csc478.sp25.jobtracker.bench;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import edu.uis.csc478.sp25.jobtracker.security.UserJwtAuthenticationToken;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * Logging cost of one GET /jobs/search request: the log calls that request makes, with the
+ * loggers, messages and arguments it logged (captured from the running API), written to a file
+ * as the console appender writes stdout.
+ * <ul>
+ *      <li>SYNC_DEBUG, before: DEBUG for security, JDBC, transactions, Hikari and the application,
+ *      the filters logged at INFO, every line formatted and written on the request thread</li>
+ *      <li>ASYNC_INFO, after: INFO, the filters logged at DEBUG behind a guard, through
+ *      logback-spring.xml's AsyncAppender</li>
+ *      <li>ASYNC_DEBUG: the same loggers switched back to DEBUG through /actuator/loggers; under
+ *      sustained load the queue fills and the AsyncAppender drops events rather than wait</li>
+ * </ul>
+ * Throughput is in simulated requests per millisecond across all threads.
+ * <p>
+ * mvn -P bench test-compile exec:exec -Dbench.args="LoggingBenchmark"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoggingBenchmark {
+
+     // Spring Boot's CONSOLE_LOG_PATTERN, without colors
+     private static final String PATTERN = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p 12345 --- [jobtracker] [%15.15t] "
+             + "%-40.40logger{39} : %m%n%ex";
+     private static final List<String> DEBUG_LOGGERS = List.of("edu.uis.csc478.sp25.jobtracker",
+             "org.springframework.security", "com.zaxxer.hikari", "org.springframework.jdbc",
+             "org.springframework.transaction");
+     private static final String URI = "GET /jobs/search?title=eng&status=Applied";
+     private static final String SQL = "SELECT * FROM job WHERE user_id = ? AND title ILIKE ? AND lower(status) = lower(?) "
+             + "ORDER BY (word_similarity(?, title)) DESC, last_modified DESC, id DESC LIMIT ? OFFSET ?";
+
+     public enum Variant {SYNC_DEBUG, ASYNC_INFO, ASYNC_DEBUG}
+
+     @Param({"SYNC_DEBUG", "ASYNC_INFO", "ASYNC_DEBUG"})
+     public Variant variant;
+
+     private LoggerContext context;
+     private Path file;
+     private Logger filterChain;
+     private Logger provider;
+     private Logger bearerFilter;
+     private Logger controller;
+     private Logger jdbcTemplate;
+     private Logger dataSourceUtils;
+     private UserJwtAuthenticationToken authentication;
+
+     @Setup(Level.Trial)
+     public void setUp() throws Exception {
+          context = new LoggerContext();
+          context.setMDCAdapter(new LogbackMDCAdapter());
+          file = Files.createTempFile("logging-benchmark", ".log");
+
+          PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+          encoder.setContext(context);
+          encoder.setPattern(PATTERN);
+          encoder.start();
+          FileAppender<ILoggingEvent> fileAppender = new FileAppender<>();
+          fileAppender.setContext(context);
+          fileAppender.setFile(file.toString());
+          fileAppender.setEncoder(encoder);
+          fileAppender.start();
+
+          Appender<ILoggingEvent> appender = fileAppender;
+          if (variant != Variant.SYNC_DEBUG) {
+               AsyncAppender async = new AsyncAppender();
+               async.setContext(context);
+               async.setQueueSize(8192);
+               async.setDiscardingThreshold(1638);
+               async.setNeverBlock(true);
+               async.addAppender(fileAppender);
+               async.start();
+               appender = async;
+          }
+          Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+          root.setLevel(ch.qos.logback.classic.Level.INFO);
+          root.addAppender(appender);
+          if (variant != Variant.ASYNC_INFO) {
+               DEBUG_LOGGERS.forEach(name -> context.getLogger(name).setLevel(ch.qos.logback.classic.Level.DEBUG));
+          }
+
+          filterChain = context.getLogger("org.springframework.security.web.FilterChainProxy");
+          provider = context.getLogger("org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider");
+          bearerFilter = context.getLogger("org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter");
+          controller = context.getLogger("edu.uis.csc478.sp25.jobtracker.controller.JobController");
+          jdbcTemplate = context.getLogger("org.springframework.jdbc.core.JdbcTemplate");
+          dataSourceUtils = context.getLogger("org.springframework.jdbc.datasource.DataSourceUtils");
+
+          UUID userId = UUID.randomUUID();
+          Jwt jwt = Jwt.withTokenValue("token")
+                  .header("alg", "HS256")
+                  .subject(userId.toString())
+                  .claim("role", "authenticated")
+                  .issuedAt(Instant.now())
+                  .build();
+          authentication = new UserJwtAuthenticationToken(jwt, emptyList(), userId);
+     }
+
+     @TearDown(Level.Trial)
+     public void tearDown() throws Exception {
+          context.stop();
+          Files.deleteIfExists(file);
+     }
+
+     @Benchmark
+     public void searchRequest() {
+          // Spring Security and Spring JDBC guard their own debug output
+          if (filterChain.isDebugEnabled()) {
+               filterChain.debug("Securing " + URI);
+          }
+          if (provider.isDebugEnabled()) {
+               provider.debug("Authenticated token");
+          }
+          if (bearerFilter.isDebugEnabled()) {
+               bearerFilter.debug("Set SecurityContextHolder to " + authentication);
+          }
+          if (filterChain.isDebugEnabled()) {
+               filterChain.debug("Secured " + URI);
+          }
+          if (variant == Variant.SYNC_DEBUG) {
+               controller.info("Received search request with filters: title={}, level={}, minSalary={}, maxSalary={}, "
+                               + "location={}, status={}, company={}, favorite={}, limit={}, offset={}",
+                       "eng", null, null, null, null, "Applied", null, null, null, null);
+          } else if (controller.isDebugEnabled()) {
+               controller.debug("Received search request with filters: title={}, level={}, minSalary={}, maxSalary={}, "
+                               + "location={}, status={}, company={}, favorite={}, limit={}, offset={}",
+                       "eng", null, null, null, null, "Applied", null, null, null, null);
+          }
+          if (jdbcTemplate.isDebugEnabled()) {
+               jdbcTemplate.debug("Executing prepared SQL query");
+               jdbcTemplate.debug("Executing prepared SQL statement [" + SQL + "]");
+          }
+          if (dataSourceUtils.isDebugEnabled()) {
+               dataSourceUtils.debug("Fetching JDBC Connection from DataSource");
+          }
+     }
+}
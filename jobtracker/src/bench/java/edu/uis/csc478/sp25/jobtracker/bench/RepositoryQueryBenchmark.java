@@ -0,0 +1,165 @@
+package edu.uis.csc478.sp25.jobtracker.bench;
+
+import com.zaxxer.hikari.HikariDataSource;
+import edu.uis.csc478.sp25.jobtracker.config.DataAccessMode;
+import edu.uis.csc478.sp25.jobtracker.model.Job;
+import edu.uis.csc478.sp25.jobtracker.model.JobSearchCriteria;
+import edu.uis.csc478.sp25.jobtracker.repository.JobJdbcRepository;
+import edu.uis.csc478.sp25.jobtracker.repository.JobRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Per-query latency of the job repository methods under each DataAccessMode: TRANSACTION_POOLER
+ * parses and plans every statement again, SESSION lets the driver switch to server-side prepared
+ * statements after prepareThreshold executions. The repositories are the application's own,
+ * running in a minimal Spring context over a seeded copy of the job table (50 users x 400 jobs,
+ * with the search indexes from the V3 migration).
+ * <p>
+ * The difference is server-side parse and plan time, so it is largest for short queries and for
+ * the search query, whose plan is the most expensive. rttMillis can be raised (-p rttMillis=10)
+ * to see it against network latency; prepared statements do not save a round trip.
+ * <p>
+ * mvn -P bench test-compile exec:exec -Dbench.args="RepositoryQueryBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RepositoryQueryBenchmark {
+
+     private static final String SCHEMA = "bench_repository_query";
+     private static final UUID USER_ID = userId(1);
+
+     @Param({"TRANSACTION_POOLER", "SESSION"})
+     public DataAccessMode mode;
+
+     @Param({"0"})
+     public long rttMillis;
+
+     private LatencyProxy proxy;
+     private HikariDataSource dataSource;
+     private AnnotationConfigApplicationContext context;
+     private JobRepository jobRepository;
+     private JobJdbcRepository jobJdbcRepository;
+     private UUID jobId;
+     private Job pageEnd;
+     private boolean favorite;
+
+     @Setup(Level.Trial)
+     public void setUp() throws Exception {
+          proxy = BenchDatabase.proxy(rttMillis);
+          String driverOptions = mode.driverProperties().entrySet().stream()
+                  .map(e -> "&" + e.getKey() + "=" + e.getValue())
+                  .collect(Collectors.joining());
+          // public stays on the search_path for the pg_trgm and btree_gin operator classes
+          dataSource = BenchDatabase.dataSource(proxy, SCHEMA + ",public", 1, driverOptions);
+          createSchema(new JdbcTemplate(dataSource));
+
+          context = BenchRepositoryContext.start(dataSource);
+          jobRepository = context.getBean(JobRepository.class);
+          jobJdbcRepository = new JobJdbcRepository(context.getBean(NamedParameterJdbcTemplate.class), 500);
+
+          List<Job> firstPage = jobRepository.findFirstPageByUserId(USER_ID, 20);
+          jobId = firstPage.get(0).getId();
+          pageEnd = firstPage.get(firstPage.size() - 1);
+     }
+
+     @TearDown(Level.Trial)
+     public void tearDown() throws Exception {
+          context.close();
+          new JdbcTemplate(dataSource).execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+          dataSource.close();
+          proxy.close();
+     }
+
+     @Benchmark
+     public Optional<Job> findByIdAndUserId() {
+          return jobRepository.findByIdAndUserId(jobId, USER_ID);
+     }
+
+     @Benchmark
+     public List<Job> findAllByUserId() {
+          return jobRepository.findAllByUserId(USER_ID);
+     }
+
+     @Benchmark
+     public List<Job> findFirstPageByUserId() {
+          return jobRepository.findFirstPageByUserId(USER_ID, 20);
+     }
+
+     @Benchmark
+     public List<Job> findPageByUserIdAfter() {
+          return jobRepository.findPageByUserIdAfter(USER_ID, pageEnd.getLastModified(), pageEnd.getId(), 20);
+     }
+
+     @Benchmark
+     public List<Job> search() {
+          return jobJdbcRepository.search(USER_ID, JobSearchCriteria.builder()
+                  .title("engineer")
+                  .status("Applied")
+                  .limit(50)
+                  .build());
+     }
+
+     @Benchmark
+     public Optional<Job> setFavorite() {
+          favorite = !favorite;
+          return jobRepository.setFavorite(jobId, USER_ID, favorite);
+     }
+
+     private static void createSchema(JdbcTemplate jdbcTemplate) {
+          jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm SCHEMA public");
+          jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS btree_gin SCHEMA public");
+          jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+          jdbcTemplate.execute("CREATE SCHEMA " + SCHEMA);
+          jdbcTemplate.execute("""
+                      CREATE TABLE job (
+                          id            uuid PRIMARY KEY,
+                          title         text,
+                          level         text,
+                          minsalary     integer,
+                          maxsalary     integer,
+                          location      text,
+                          status        text,
+                          company       text,
+                          user_id       uuid,
+                          last_modified timestamptz NOT NULL DEFAULT now(),
+                          favorite      boolean     NOT NULL DEFAULT false
+                      )
+                  """);
+          jdbcTemplate.execute("""
+                      INSERT INTO job (id, user_id, title, level, minsalary, maxsalary, location, status, company,
+                                       last_modified)
+                      SELECT md5(u || '-' || n)::uuid,
+                             ('00000000-0000-0000-0000-' || lpad(u::text, 12, '0'))::uuid,
+                             (ARRAY['Software Engineer', 'Data Analyst', 'Product Manager', 'QA Engineer'])[n % 4 + 1],
+                             (ARRAY['Entry', 'Mid', 'Senior'])[n % 3 + 1],
+                             40000 + n * 100, 60000 + n * 100,
+                             (ARRAY['Remote', 'Springfield, IL', 'Chicago, IL'])[n % 3 + 1],
+                             (ARRAY['Saved', 'Applied', 'Interviewing', 'Rejected'])[n % 4 + 1],
+                             'Company ' || (n % 50),
+                             now() - n * interval '1 hour'
+                      FROM generate_series(1, 50) u, generate_series(1, 400) n
+                  """);
+          jdbcTemplate.execute("CREATE INDEX ON job (user_id, last_modified DESC, id DESC)");
+          jdbcTemplate.execute("CREATE INDEX ON job USING gin (user_id, title gin_trgm_ops)");
+          jdbcTemplate.execute("CREATE INDEX ON job USING gin (user_id, location gin_trgm_ops)");
+          jdbcTemplate.execute("CREATE INDEX ON job USING gin (user_id, company gin_trgm_ops)");
+          jdbcTemplate.execute("ANALYZE job");
+     }
+
+     private static UUID userId(int n) {
+          return UUID.fromString(String.format("00000000-0000-0000-0000-%012d", n));
+     }
+}
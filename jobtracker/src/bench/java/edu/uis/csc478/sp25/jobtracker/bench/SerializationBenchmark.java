@@ -0,0 +1,96 @@
+package edu.uis.csc478.sp25.jobtracker.bench;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import edu.uis.csc478.sp25.jobtracker.model.Interview;
+import edu.uis.csc478.sp25.jobtracker.model.Job;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to write the JSON body of GET /jobs and GET /interviews for one user, with an ObjectMapper
+ * configured as Spring Boot configures the one its message converters use (java.time module,
+ * dates as ISO strings). jobs is the size of the list, sized like the median user of DataGenerator
+ * and a heavy one; a third as many interviews are written.
+ * <p>
+ * mvn -P bench test-compile exec:exec -Dbench.args="SerializationBenchmark -rf json -rff target/jmh-serialization.json"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+     private static final String[] TITLES = {"Software Engineer", "Data Analyst", "Product Manager", "QA Engineer"};
+     private static final String[] STATUSES = {"Saved", "Applied", "Interview", "Rejected", "Offer"};
+
+     @Param({"30", "300"})
+     public int jobs;
+
+     private ObjectWriter writer;
+     private List<Job> jobList;
+     private List<Interview> interviewList;
+
+     @Setup(Level.Trial)
+     public void setUp() {
+          writer = Jackson2ObjectMapperBuilder.json()
+                  .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                  .build()
+                  .writer();
+
+          SplittableRandom random = new SplittableRandom(jobs);
+          UUID userId = UUID.randomUUID();
+          OffsetDateTime now = OffsetDateTime.now();
+          jobList = new ArrayList<>(jobs);
+          interviewList = new ArrayList<>();
+          for (int i = 0; i < jobs; i++) {
+               int minSalary = 40_000 + random.nextInt(100) * 1_000;
+               String company = "Company " + random.nextInt(200);
+               jobList.add(Job.builder()
+                       .id(UUID.randomUUID())
+                       .userId(userId)
+                       .title(TITLES[random.nextInt(TITLES.length)])
+                       .level("Mid")
+                       .minSalary(minSalary)
+                       .maxSalary(minSalary + 20_000)
+                       .location("Springfield, IL")
+                       .status(STATUSES[random.nextInt(STATUSES.length)])
+                       .company(company)
+                       .lastModified(now.minusHours(random.nextInt(2_000)))
+                       .favorite(random.nextInt(10) == 0)
+                       .build());
+               if (i % 3 == 0) {
+                    interviewList.add(Interview.builder()
+                            .id(UUID.randomUUID())
+                            .user_id(userId)
+                            .format("Video")
+                            .round("Round " + (1 + random.nextInt(4)))
+                            .date(LocalDate.now().plusDays(random.nextInt(-60, 30)))
+                            .time(LocalTime.of(9 + random.nextInt(8), 15 * random.nextInt(4)))
+                            .company(company)
+                            .build());
+               }
+          }
+     }
+
+     @Benchmark
+     public byte[] jobs() throws Exception {
+          return writer.writeValueAsBytes(jobList);
+     }
+
+     @Benchmark
+     public byte[] interviews() throws Exception {
+          return writer.writeValueAsBytes(interviewList);
+     }
+}
@@ -0,0 +1,233 @@
+package edu.uis.csc478.sp25.jobtracker.service;
+
+import edu.uis.csc478.sp25.jobtracker.model.Job;
+import edu.uis.csc478.sp25.jobtracker.model.Profile;
+import edu.uis.csc478.sp25.jobtracker.repository.JobStatusCountRepository;
+import edu.uis.csc478.sp25.jobtracker.security.SecurityUtil;
+import edu.uis.csc478.sp25.jobtracker.security.UserJwtAuthenticationToken;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static java.time.format.DateTimeFormatter.ISO_LOCAL_DATE;
+import static java.util.Collections.emptyList;
+import static org.springframework.beans.BeanUtils.copyProperties;
+
+/**
+ * CPU cost of the in-memory steps JobService, ProfileService and InterviewService take on the request
+ * path, with the database replaced by data already in memory. Where a step has changed, the code it
+ * replaced is measured next to it:
+ * <ul>
+ *      <li>isValidJob: the check before every create, update, patch and imported row</li>
+ *      <li>copyProfileProperties, before: BeanUtils.copyProperties, as applyJobUpdates and
+ *      applyProfileUpdates copied an update onto the stored entity;
+ *      copyProfileFields, after: the setter-by-setter copy applyProfileUpdates does now</li>
+ *      <li>statusCountsFromJobs, before: getJobStatusCounts tallying every job of the user;
+ *      statusCounts, after: getJobStatusCounts merging the stored counts into the default statuses</li>
+ *      <li>upcomingFromStrings, before: getUpcomingInterviewsForUser parsing each interview's text
+ *      date; upcomingFromDates: the same filter over native dates (the query does it now)</li>
+ *      <li>loggedInUserIdFromJwt, before: SecurityUtil.getLoggedInUserId parsing the sub claim;
+ *      loggedInUserId, after: reading the UUID from the UserJwtAuthenticationToken</li>
+ * </ul>
+ * The service loggers are turned off so that the numbers leave out logging.
+ * In the service package for the package-private isValidJob.
+ * <p>
+ * mvn -P bench test-compile exec:exec -Dbench.args="ServiceHotPathBenchmark -rf json -rff target/jmh-service.json"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ServiceHotPathBenchmark {
+
+     private static final UUID USER_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+     private static final String[] STATUSES = {"Saved", "Applied", "Interview", "Rejected", "Offer"};
+
+     /**
+      * One user's rows, sized like the median user of DataGenerator (30 jobs) and a heavy one.
+      */
+     @State(Scope.Thread)
+     public static class UserData {
+
+          @Param({"30", "300"})
+          public int jobs;
+
+          List<Job> userJobs;
+          List<String> interviewDateTexts;
+          List<LocalDate> interviewDates;
+          LocalDate today;
+
+          @Setup(Level.Trial)
+          public void setUp() {
+               SplittableRandom random = new SplittableRandom(jobs);
+               today = LocalDate.now();
+               userJobs = new ArrayList<>(jobs);
+               interviewDates = new ArrayList<>();
+               for (int i = 0; i < jobs; i++) {
+                    userJobs.add(job(STATUSES[random.nextInt(STATUSES.length)]));
+                    if (i % 3 == 0) {
+                         interviewDates.add(today.plusDays(random.nextInt(-60, 30)));
+                    }
+               }
+               interviewDateTexts = interviewDates.stream().map(ISO_LOCAL_DATE::format).toList();
+          }
+     }
+
+     private Job job;
+     private Profile storedProfile;
+     private Profile updatedProfile;
+     private JobService jobService;
+     private SecurityContext converted;
+     private SecurityContext plainJwt;
+
+     @Setup(Level.Trial)
+     public void setUp() {
+          for (Class<?> service : List.of(JobService.class, ProfileService.class, InterviewService.class)) {
+               ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(service)).setLevel(ch.qos.logback.classic.Level.OFF);
+          }
+
+          job = job("Applied");
+          storedProfile = profile("Old");
+          updatedProfile = profile("New");
+
+          Map<String, Integer> storedCounts = new LinkedHashMap<>();
+          for (String status : STATUSES) {
+               storedCounts.put(status, 6);
+          }
+          JobStatusCountRepository statusCounts = new JobStatusCountRepository(new JdbcTemplate(), null) {
+               @Override
+               public Map<String, Integer> findByUserId(UUID userId) {
+                    return new LinkedHashMap<>(storedCounts);
+               }
+          };
+          jobService = new JobService(null, null, statusCounts, null, null);
+
+          Jwt jwt = Jwt.withTokenValue("token")
+                  .header("alg", "HS256")
+                  .subject(USER_ID.toString())
+                  .issuedAt(Instant.now())
+                  .build();
+          converted = new SecurityContextImpl(new UserJwtAuthenticationToken(jwt, emptyList(), USER_ID));
+          plainJwt = new SecurityContextImpl(new JwtAuthenticationToken(jwt, emptyList()));
+     }
+
+     @TearDown(Level.Trial)
+     public void tearDown() {
+          SecurityContextHolder.clearContext();
+     }
+
+     @Benchmark
+     public boolean isValidJob() {
+          return JobService.isValidJob(job);
+     }
+
+     @Benchmark
+     public Profile copyProfileProperties() {
+          copyProperties(updatedProfile, storedProfile, "id");
+          return storedProfile;
+     }
+
+     @Benchmark
+     public Profile copyProfileFields() {
+          storedProfile.setName(updatedProfile.getName());
+          storedProfile.setEmail(updatedProfile.getEmail());
+          storedProfile.setTitle(updatedProfile.getTitle());
+          storedProfile.setBio(updatedProfile.getBio());
+          storedProfile.setLocation(updatedProfile.getLocation());
+          storedProfile.setPhoneNumber(updatedProfile.getPhoneNumber());
+          return storedProfile;
+     }
+
+     @Benchmark
+     public Map<String, Integer> statusCountsFromJobs(UserData user) {
+          Map<String, Integer> statusCounts = new HashMap<>();
+          for (String status : JobService.DEFAULT_STATUSES) {
+               statusCounts.put(status, 0);
+          }
+          for (Job userJob : user.userJobs) {
+               String status = userJob.getStatus();
+               if (status != null && !status.isEmpty()) {
+                    statusCounts.put(status, statusCounts.getOrDefault(status, 0) + 1);
+               }
+          }
+          return statusCounts;
+     }
+
+     @Benchmark
+     public Map<String, Integer> statusCounts() {
+          SecurityContextHolder.setContext(converted);
+          return jobService.getJobStatusCounts();
+     }
+
+     @Benchmark
+     public int upcomingFromStrings(UserData user) {
+          int upcoming = 0;
+          for (String date : user.interviewDateTexts) {
+               if (LocalDate.parse(date, ISO_LOCAL_DATE).isAfter(user.today)) {
+                    upcoming++;
+               }
+          }
+          return upcoming;
+     }
+
+     @Benchmark
+     public int upcomingFromDates(UserData user) {
+          int upcoming = 0;
+          for (LocalDate date : user.interviewDates) {
+               if (date.isAfter(user.today)) {
+                    upcoming++;
+               }
+          }
+          return upcoming;
+     }
+
+     @Benchmark
+     public UUID loggedInUserIdFromJwt() {
+          SecurityContextHolder.setContext(plainJwt);
+          return SecurityUtil.getLoggedInUserId();
+     }
+
+     @Benchmark
+     public UUID loggedInUserId() {
+          SecurityContextHolder.setContext(converted);
+          return SecurityUtil.getLoggedInUserId();
+     }
+
+     private static Job job(String status) {
+          return Job.builder()
+                  .id(UUID.randomUUID())
+                  .userId(USER_ID)
+                  .title("Software Engineer")
+                  .level("Mid")
+                  .minSalary(85_000)
+                  .maxSalary(110_000)
+                  .location("Springfield, IL")
+                  .status(status)
+                  .company("Acme")
+                  .build();
+     }
+
+     private static Profile profile(String name) {
+          Profile profile = new Profile();
+          profile.setId(USER_ID);
+          profile.setName(name);
+          profile.setEmail(name.toLowerCase() + "@example.com");
+          profile.setTitle("Software Engineer");
+          profile.setBio("Looking for backend roles.");
+          profile.setLocation("Springfield, IL");
+          profile.setPhoneNumber("217-555-0100");
+          return profile;
+     }
+}
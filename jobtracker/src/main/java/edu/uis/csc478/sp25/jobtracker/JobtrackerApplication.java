@@ -2,8 +2,10 @@ package edu.uis.csc478.sp25.jobtracker;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class JobtrackerApplication {
 
      public static void main(String[] args) {
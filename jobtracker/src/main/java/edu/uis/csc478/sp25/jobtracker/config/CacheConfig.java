@@ -0,0 +1,63 @@
+package edu.uis.csc478.sp25.jobtracker.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import edu.uis.csc478.sp25.jobtracker.security.SecurityUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Collection;
+
+import static java.util.List.of;
+
+@Configuration
+@EnableCaching
+// per-user read-through caches in front of the services; see docs/caching.md
+public class CacheConfig {
+
+     public static final String JOBS = "jobs";
+     public static final String FAVORITE_JOBS = "favoriteJobs";
+     public static final String INTERVIEWS = "interviews";
+     public static final String PROFILES = "profiles";
+
+     /**
+      * creates the cache manager holding every cache the services use.
+      * the caches are bounded by weight rather than entry count, where a cached list weighs as
+      * many units as it has elements, so one account with thousands of jobs cannot crowd out the rest.
+      *
+      * @param ttl       how long an entry is served before it is reloaded from the database
+      * @param maxWeight upper bound on the total weight held by each cache
+      * @return the CacheManager backing @Cacheable and @CacheEvict
+      */
+     @Bean
+     // with spring.cache.type=none Spring Boot supplies a no-op CacheManager instead
+     @ConditionalOnProperty(name = "spring.cache.type", havingValue = "caffeine", matchIfMissing = true)
+     public CacheManager cacheManager(@Value("${jobtracker.cache.ttl:30s}") Duration ttl,
+                                      @Value("${jobtracker.cache.max-weight:100000}") long maxWeight) {
+          CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+          cacheManager.setCaffeine(Caffeine.newBuilder()
+                  .expireAfterWrite(ttl)
+                  .maximumWeight(maxWeight)
+                  .weigher((Object key, Object value) -> value instanceof Collection<?> c ? Math.max(1, c.size()) : 1)
+                  .recordStats());
+          // fixed names, so an unknown cache name is an error rather than a silently created cache
+          cacheManager.setCacheNames(of(JOBS, FAVORITE_JOBS, INTERVIEWS, PROFILES));
+          return cacheManager;
+     }
+
+     /**
+      * keys an entry by the UUID of the logged-in user, for the service methods that take no user argument.
+      *
+      * @return a KeyGenerator that ignores the method arguments
+      */
+     @Bean
+     public KeyGenerator currentUserKeyGenerator() {
+          return (target, method, params) -> SecurityUtil.getLoggedInUserId();
+     }
+}
@@ -0,0 +1,139 @@
+package edu.uis.csc478.sp25.jobtracker.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+/**
+ * Caps the number of requests being handled at once, by default at the size of the connection pool.
+ * With virtual threads Tomcat no longer runs out of threads, so without a cap every request would
+ * start and then queue inside Hikari, each holding its memory and eventually failing with a
+ * connection timeout. Here excess requests wait in a fair queue instead, and are turned away with
+ * 503 + Retry-After once they have waited acquire-timeout, before any work is done for them.
+ * Runs after Spring Security, so requests without a valid token never take a permit.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 1)
+@ConditionalOnProperty(name = "jobtracker.web.concurrency-limit.enabled", havingValue = "true")
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+     private final Semaphore permits;
+     private final long acquireTimeoutNanos;
+     private final Timer waitTimer;
+     private final Counter rejections;
+
+     /**
+      * @param maxConcurrent  number of requests handled at once
+      * @param acquireTimeout how long a request may wait for a permit before it is rejected
+      * @param meterRegistry  registry for the jobtracker.web.concurrency.* meters
+      */
+     public ConcurrencyLimitFilter(@Value("${jobtracker.web.concurrency-limit.max-concurrent}") int maxConcurrent,
+                                   @Value("${jobtracker.web.concurrency-limit.acquire-timeout:5s}") Duration acquireTimeout,
+                                   MeterRegistry meterRegistry) {
+          this.permits = new Semaphore(maxConcurrent, true);
+          this.acquireTimeoutNanos = acquireTimeout.toNanos();
+          this.waitTimer = Timer.builder("jobtracker.web.concurrency.wait")
+                  .description("Time requests spent waiting for a concurrency permit")
+                  .publishPercentiles(0.5, 0.95, 0.99)
+                  .register(meterRegistry);
+          this.rejections = Counter.builder("jobtracker.web.concurrency.rejected")
+                  .description("Requests rejected with 503 after waiting acquire-timeout")
+                  .register(meterRegistry);
+          Gauge.builder("jobtracker.web.concurrency.active", permits, p -> maxConcurrent - p.availablePermits())
+                  .description("Requests currently holding a permit")
+                  .register(meterRegistry);
+          Gauge.builder("jobtracker.web.concurrency.queued", permits, Semaphore::getQueueLength)
+                  .description("Requests waiting for a permit")
+                  .register(meterRegistry);
+     }
+
+     @Override
+     protected boolean shouldNotFilter(HttpServletRequest request) {
+          // health checks and metrics must keep answering while the API is saturated
+          return request.getRequestURI().startsWith("/actuator")
+                  // an event stream holds no database connection while it waits
+                  || request.getRequestURI().startsWith("/events")
+                  // streams and exports only hold a connection while they read each chunk, not while the client downloads
+                  || request.getRequestURI().matches("/jobs/(stream|export)/?|/interviews/export/?");
+     }
+
+     @Override
+     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+             throws ServletException, IOException {
+          long start = System.nanoTime();
+          boolean acquired;
+          try {
+               acquired = permits.tryAcquire(acquireTimeoutNanos, NANOSECONDS);
+          } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+               acquired = false;
+          }
+          waitTimer.record(System.nanoTime() - start, NANOSECONDS);
+          if (!acquired) {
+               rejections.increment();
+               response.setHeader("Retry-After", "1");
+               response.sendError(SERVICE_UNAVAILABLE.value(), "Server busy, retry shortly");
+               return;
+          }
+
+          boolean releaseOnComplete = false;
+          try {
+               chain.doFilter(request, response);
+               // streamed responses keep using a connection after this thread returns; hold the
+               // permit until the async request has completed
+               if (request.isAsyncStarted()) {
+                    request.getAsyncContext().addListener(new ReleasingListener());
+                    releaseOnComplete = true;
+               }
+          } finally {
+               if (!releaseOnComplete) {
+                    permits.release();
+               }
+          }
+     }
+
+     // releases the permit exactly once, when the async request finishes (onComplete also follows errors and timeouts)
+     private final class ReleasingListener implements AsyncListener {
+          private final AtomicBoolean released = new AtomicBoolean();
+
+          @Override
+          public void onComplete(AsyncEvent event) {
+               if (released.compareAndSet(false, true)) {
+                    permits.release();
+               }
+          }
+
+          @Override
+          public void onTimeout(AsyncEvent event) {
+          }
+
+          @Override
+          public void onError(AsyncEvent event) {
+          }
+
+          @Override
+          public void onStartAsync(AsyncEvent event) {
+          }
+     }
+}
@@ -0,0 +1,61 @@
+package edu.uis.csc478.sp25.jobtracker.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import static edu.uis.csc478.sp25.jobtracker.config.DataAccessMode.SESSION;
+import static edu.uis.csc478.sp25.jobtracker.config.DataAccessMode.TRANSACTION_POOLER;
+import static org.slf4j.LoggerFactory.getLogger;
+
+@Configuration
+// applies jobtracker.datasource.mode to the connection pool; see docs/data-access-modes.md
+public class DataAccessConfig {
+
+     private static final Logger logger = getLogger(DataAccessConfig.class);
+     // the port Supabase runs its transaction pooler on
+     private static final String TRANSACTION_POOLER_PORT = ":6543/";
+
+     /**
+      * sets the driver properties of the configured DataAccessMode on the Hikari pool before it
+      * opens its first connection.
+      * static, so the post-processor is registered without initializing the rest of this class early.
+      *
+      * @param environment used to read jobtracker.datasource.mode (transaction-pooler by default)
+      * @return the post-processor configuring the application DataSource
+      */
+     @Bean
+     static BeanPostProcessor dataAccessModePostProcessor(Environment environment) {
+          DataAccessMode mode = Binder.get(environment)
+                  .bind("jobtracker.datasource.mode", DataAccessMode.class)
+                  .orElse(TRANSACTION_POOLER);
+          return new BeanPostProcessor() {
+               @Override
+               public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof HikariDataSource dataSource) {
+                         apply(mode, dataSource);
+                    }
+                    return bean;
+               }
+          };
+     }
+
+     private static void apply(DataAccessMode mode, HikariDataSource dataSource) {
+          String url = dataSource.getJdbcUrl();
+          if (mode == SESSION && url != null && url.contains(TRANSACTION_POOLER_PORT)) {
+               // prepared statements through a transaction pooler fail at random with
+               // "prepared statement S_1 does not exist"; refuse to start instead
+               throw new IllegalStateException("jobtracker.datasource.mode=session cannot be used with the "
+                       + "transaction pooler on port 6543; use the session pooler or a direct connection");
+          }
+          if (url != null && (url.contains("prepareThreshold") || url.contains("preparedStatementCache"))) {
+               logger.warn("Datasource URL sets statement caching parameters; they override data access mode {}", mode);
+          }
+          mode.driverProperties().forEach(dataSource::addDataSourceProperty);
+          logger.info("Data access mode {}: {}", mode, mode.driverProperties());
+     }
+}
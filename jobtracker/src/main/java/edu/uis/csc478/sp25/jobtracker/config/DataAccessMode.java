@@ -0,0 +1,46 @@
+package edu.uis.csc478.sp25.jobtracker.config;
+
+import java.util.Map;
+
+/**
+ * How the API talks to PostgreSQL, chosen with jobtracker.datasource.mode.
+ * The mode decides whether the JDBC driver may use server-side prepared statements, which only
+ * work when every statement of a connection reaches the same backend.
+ */
+public enum DataAccessMode {
+
+     /**
+      * Supabase transaction pooler (port 6543) or any PgBouncer in transaction mode. Consecutive
+      * transactions can land on different backends, so a statement prepared on one would be missing
+      * or clash on the next: server-side prepared statements are off and every query is parsed and
+      * planned again. The safe default.
+      */
+     TRANSACTION_POOLER(Map.of(
+             "prepareThreshold", "0",
+             "preparedStatementCacheQueries", "0")),
+
+     /**
+      * Session pooler (Supabase port 5432), a direct connection, or a local database: a connection
+      * keeps its backend, so the driver switches a statement to a named server-side prepared
+      * statement after it has run prepareThreshold times and skips the parse (and, once the plan
+      * is generic, the planning) from then on. The driver keeps up to preparedStatementCacheQueries
+      * statements per connection.
+      */
+     SESSION(Map.of(
+             "prepareThreshold", "5",
+             "preparedStatementCacheQueries", "256",
+             "preparedStatementCacheSizeMiB", "5"));
+
+     private final Map<String, String> driverProperties;
+
+     DataAccessMode(Map<String, String> driverProperties) {
+          this.driverProperties = driverProperties;
+     }
+
+     /**
+      * @return PostgreSQL JDBC driver properties this mode sets on every connection
+      */
+     public Map<String, String> driverProperties() {
+          return driverProperties;
+     }
+}
@@ -0,0 +1,50 @@
+package edu.uis.csc478.sp25.jobtracker.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+// the threads GET /events connections are written on; see docs/events.md
+public class EventConfig {
+
+     public static final String CHANGE_EVENT_EXECUTOR = "changeEventExecutor";
+
+     /**
+      * creates the executor the ChangeEventHub writes queued events on, apart from the application
+      * task executor, so clients that are slow to read cannot hold up @Async work or the exports.
+      * a connection has at most one task queued or running at a time.
+      * with virtual threads each of those tasks gets its own virtual thread; otherwise a fixed pool of
+      * send-threads platform threads runs them, queueing up to max-connections tasks.
+      * Spring shuts the executor down when the context closes.
+      *
+      * @param environment    used to tell whether virtual threads are enabled and supported
+      * @param sendThreads    platform threads writing to connections, when virtual threads are off
+      * @param maxConnections connections the hub holds at once, and so the most tasks ever queued
+      * @return the executor for the hub's write tasks
+      */
+     @Bean(CHANGE_EVENT_EXECUTOR)
+     public TaskExecutor changeEventExecutor(Environment environment,
+                                             @Value("${jobtracker.events.send-threads:16}") int sendThreads,
+                                             @Value("${jobtracker.events.max-connections:10000}") int maxConnections) {
+          if (Threading.VIRTUAL.isActive(environment)) {
+               SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("event-send-");
+               executor.setVirtualThreads(true);
+               return executor;
+          }
+          ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+          executor.setCorePoolSize(Math.max(1, sendThreads));
+          executor.setMaxPoolSize(Math.max(1, sendThreads));
+          executor.setQueueCapacity(Math.max(1, maxConnections));
+          executor.setAllowCoreThreadTimeOut(true);
+          executor.setThreadNamePrefix("event-send-");
+          // the tasks are writes to clients; those still running at shutdown are not waited for
+          executor.setWaitForTasksToCompleteOnShutdown(false);
+          return executor;
+     }
+}
@@ -1,6 +1,10 @@
 package edu.uis.csc478.sp25.jobtracker.config;
 
+import edu.uis.csc478.sp25.jobtracker.security.CachingJwtDecoder;
+import edu.uis.csc478.sp25.jobtracker.security.UserJwtAuthenticationConverter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -15,6 +19,7 @@ import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 
 import static java.util.Arrays.asList;
+import static edu.uis.csc478.sp25.jobtracker.security.UserJwtAuthenticationConverter.ADMIN;
 import static java.util.List.of;
 import static org.springframework.http.HttpMethod.OPTIONS;
 import static org.springframework.security.oauth2.jwt.NimbusJwtDecoder.withSecretKey;
@@ -29,6 +34,10 @@ public class SecurityConfig {
      @Value("${supabase.jwt.secret}")
      private String jwtSecret;
 
+     // number of verified tokens remembered by the decoder; 0 verifies every request from scratch
+     @Value("${jobtracker.security.jwt-cache.max-size:10000}")
+     private long jwtCacheMaxSize;
+
      /**
       * configures the security filter chain for the application.
       *
@@ -42,10 +51,19 @@ public class SecurityConfig {
                   // Allow OPTIONS requests without authentication
                   .requestMatchers(OPTIONS, "/**").permitAll()
 
+                  // health checks carry no token; metrics, the Prometheus scrape and the log level
+                  // switch are for administrators only, see docs/observability.md
+                  .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                  .requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole(ADMIN)
+                  // reports across every user's data, see docs/analytics.md
+                  .requestMatchers("/admin/**").hasRole(ADMIN)
+
                   //  all incoming requests must be authenticated
                   .anyRequest().authenticated()).oauth2ResourceServer(oauth2 -> oauth2
                   // configure JWT-based authentication for the OAuth2 resource server
-                  .jwt(jwt -> jwt.decoder(jwtDecoder())));
+                  .jwt(jwt -> jwt.decoder(jwtDecoder())
+                          // resolves the user's UUID once, into the request's Authentication
+                          .jwtAuthenticationConverter(new UserJwtAuthenticationConverter())));
           // builds and returns the configured SecurityFilterChain.
           return http.build();
      }
@@ -55,8 +73,10 @@ public class SecurityConfig {
           CorsConfiguration configuration = new CorsConfiguration();
           configuration.setAllowedOrigins(of("*"));
           configuration.setAllowedMethods(asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
-          configuration.setAllowedHeaders(asList("authorization", "content-type", "x-auth-token"));
-          configuration.setExposedHeaders(of("x-auth-token"));
+          // conditional GETs: the client sends If-None-Match / If-Modified-Since and reads ETag / Last-Modified
+          configuration.setAllowedHeaders(asList("authorization", "content-type", "x-auth-token",
+                  "if-none-match", "if-modified-since"));
+          configuration.setExposedHeaders(of("x-auth-token", "etag", "last-modified"));
           // Set to false to allow wildcard origins
           configuration.setAllowCredentials(false);
           UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -65,14 +85,16 @@ public class SecurityConfig {
      }
 
      /**
-      * creates a JwtDecoder to validate incoming JWTs using the secret key
+      * creates a JwtDecoder to validate incoming JWTs using the secret key.
+      * tokens that pass are cached until they expire, so a repeated token is not verified again.
       * @return a JwtDecoder configured with the secret key
       */
      @Bean
      public JwtDecoder jwtDecoder() {
           // converts the JWT secret string into a SecretKey object using HMAC-SHA256 algorithm.
           SecretKey key = new SecretKeySpec(jwtSecret.getBytes(), "HmacSHA256");
-          // creates and returns a NimbusJwtDecoder configured with the secret key for verifying JWT signatures.
-          return withSecretKey(key).build();
+          // creates a NimbusJwtDecoder configured with the secret key for verifying JWT signatures.
+          JwtDecoder decoder = withSecretKey(key).build();
+          return jwtCacheMaxSize > 0 ? new CachingJwtDecoder(decoder, jwtCacheMaxSize) : decoder;
      }
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+package edu.uis.csc478.sp25.jobtracker.controller;
+
+import edu.uis.csc478.sp25.jobtracker.service.DashboardService;
+import org.slf4j.Logger;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import static java.util.Map.of;
+import static org.slf4j.LoggerFactory.getLogger;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.ResponseEntity.ok;
+import static org.springframework.http.ResponseEntity.status;
+
+/**
+ * REST controller for the dashboard summary of the current user.
+ */
+@CrossOrigin
+@RestController
+@RequestMapping("/dashboard")
+public class DashboardController {
+
+     private static final Logger logger = getLogger(DashboardController.class);
+     private final DashboardService service;
+
+     /**
+      * Constructs a new DashboardController with the given DashboardService.
+      * @param service the DashboardService used for business logic
+      */
+     public DashboardController(DashboardService service) {
+          this.service = service;
+     }
+
+     /**
+      * Retrieves the job total, status counts, favorite count, upcoming interview count and the
+      * most recently modified jobs of the current user, all read by a single query.
+      * @param recent number of recent jobs to include (default 5, at most 50)
+      * @return 200 OK with the dashboard summary, or 500 on error
+      */
+     @GetMapping
+     public ResponseEntity<Object> getDashboard(@RequestParam(required = false) Integer recent) {
+          try {
+               return ok(service.getDashboardForCurrentUser(recent));
+          } catch (RuntimeException e) {
+               logger.error("Error fetching dashboard", e);
+               return status(INTERNAL_SERVER_ERROR).body(of("message", "An error occurred while fetching the dashboard"));
+          }
+     }
+}
@@ -0,0 +1,55 @@
+package edu.uis.csc478.sp25.jobtracker.controller;
+
+import edu.uis.csc478.sp25.jobtracker.service.ChangeEventHub;
+import org.slf4j.Logger;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static edu.uis.csc478.sp25.jobtracker.security.SecurityUtil.getLoggedInUserId;
+import static org.slf4j.LoggerFactory.getLogger;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE;
+import static org.springframework.http.ResponseEntity.ok;
+import static org.springframework.http.ResponseEntity.status;
+
+/**
+ * REST controller for the Server-Sent Events stream of changes to the current user's jobs and interviews.
+ */
+@CrossOrigin
+@RestController
+@RequestMapping("/events")
+public class EventController {
+
+     private static final Logger logger = getLogger(EventController.class);
+     private final ChangeEventHub hub;
+
+     /**
+      * Constructs a new EventController with the given ChangeEventHub.
+      * @param hub the ChangeEventHub holding the open streams
+      */
+     public EventController(ChangeEventHub hub) {
+          this.hub = hub;
+     }
+
+     /**
+      * Opens an event stream. It starts with a "ready" event, then sends a "job" or "interview"
+      * event, with data {"type", "id"}, for every change the user makes on any instance, and a
+      * "resync" event when changes may have been missed. Events say what changed, not the new
+      * values; fetch those with GET /sync.
+      * @return 200 OK with a text/event-stream body that stays open until jobtracker.events.timeout,
+      * or 503 if this instance already holds jobtracker.events.max-connections streams
+      */
+     @GetMapping(produces = TEXT_EVENT_STREAM_VALUE)
+     public ResponseEntity<SseEmitter> streamEvents() {
+          try {
+               return ok()
+                       // no buffering in nginx-style proxies, which would hold events back
+                       .header("X-Accel-Buffering", "no")
+                       .body(hub.subscribe(getLoggedInUserId()));
+          } catch (IllegalStateException e) {
+               logger.warn("Refused event stream: {}", e.getMessage());
+               return status(SERVICE_UNAVAILABLE).header("Retry-After", "10").build();
+          }
+     }
+}
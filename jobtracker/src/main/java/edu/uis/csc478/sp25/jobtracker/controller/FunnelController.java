@@ -0,0 +1,75 @@
+package edu.uis.csc478.sp25.jobtracker.controller;
+
+import edu.uis.csc478.sp25.jobtracker.service.FunnelService;
+import org.slf4j.Logger;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+import static java.util.Map.of;
+import static org.slf4j.LoggerFactory.getLogger;
+import static org.springframework.format.annotation.DateTimeFormat.ISO.DATE;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.ResponseEntity.*;
+
+/**
+ * REST controller for funnel analytics of the application pipeline: the current user's at
+ * /analytics/funnel, and every user's at /admin/analytics/funnel, which needs the admin role.
+ */
+@CrossOrigin
+@RestController
+public class FunnelController {
+
+     private static final Logger logger = getLogger(FunnelController.class);
+     private final FunnelService service;
+
+     /**
+      * Constructs a new FunnelController with the given FunnelService.
+      * @param service the FunnelService used for business logic
+      */
+     public FunnelController(FunnelService service) {
+          this.service = service;
+     }
+
+     /**
+      * Retrieves, for the current user's jobs that entered the pipeline between from and to, how
+      * many reached each stage, the conversion from the stage before, the median time spent in
+      * each stage, and the same counts per weekly cohort.
+      * @param from optional first day (yyyy-MM-dd, UTC); defaults to 52 weeks before to
+      * @param to   optional last day, inclusive; defaults to today
+      * @return 200 OK with the funnel report, 400 if from is after to, or 500 on error
+      */
+     @GetMapping({"/analytics/funnel", "/analytics/funnel/"})
+     public ResponseEntity<Object> getFunnel(@RequestParam(required = false) @DateTimeFormat(iso = DATE) LocalDate from,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DATE) LocalDate to) {
+          try {
+               return ok(service.getFunnelForCurrentUser(from, to));
+          } catch (IllegalArgumentException e) {
+               return badRequest().body(of("message", e.getMessage()));
+          } catch (RuntimeException e) {
+               logger.error("Error fetching job funnel", e);
+               return status(INTERNAL_SERVER_ERROR).body(of("message", "An error occurred while fetching the funnel"));
+          }
+     }
+
+     /**
+      * Retrieves the same report over every user's jobs, for administrators.
+      * @param from optional first day (yyyy-MM-dd, UTC); defaults to 52 weeks before to
+      * @param to   optional last day, inclusive; defaults to today
+      * @return 200 OK with the funnel report, 400 if from is after to, or 500 on error
+      */
+     @GetMapping({"/admin/analytics/funnel", "/admin/analytics/funnel/"})
+     public ResponseEntity<Object> getFunnelForAllUsers(@RequestParam(required = false) @DateTimeFormat(iso = DATE) LocalDate from,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DATE) LocalDate to) {
+          try {
+               return ok(service.getFunnelForAllUsers(from, to));
+          } catch (IllegalArgumentException e) {
+               return badRequest().body(of("message", e.getMessage()));
+          } catch (RuntimeException e) {
+               logger.error("Error fetching job funnel for all users", e);
+               return status(INTERNAL_SERVER_ERROR).body(of("message", "An error occurred while fetching the funnel"));
+          }
+     }
+}
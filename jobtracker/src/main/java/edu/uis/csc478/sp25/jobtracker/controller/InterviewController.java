@@ -1,18 +1,27 @@
 package edu.uis.csc478.sp25.jobtracker.controller;
 
 import edu.uis.csc478.sp25.jobtracker.model.Interview;
+import edu.uis.csc478.sp25.jobtracker.model.ResourceVersion;
+import edu.uis.csc478.sp25.jobtracker.service.ExportService;
 import edu.uis.csc478.sp25.jobtracker.service.InterviewService;
 import org.slf4j.Logger;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+import static edu.uis.csc478.sp25.jobtracker.security.SecurityUtil.getLoggedInUserId;
 import static java.util.Map.of;
 import static org.slf4j.LoggerFactory.getLogger;
+import static org.springframework.http.HttpHeaders.CONTENT_DISPOSITION;
 import static org.springframework.http.HttpStatus.*;
 import static org.springframework.http.ResponseEntity.*;
 
@@ -27,25 +36,65 @@ public class InterviewController {
 
      private static final Logger logger = getLogger(InterviewController.class);
      private final InterviewService service;
+     private final ExportService exportService;
 
      /**
       * Constructs a new InterviewController with the given InterviewService.
-      * @param service the InterviewService used for business logic
+      * @param service       the InterviewService used for business logic
+      * @param exportService the ExportService used for CSV and XLSX exports
       */
-     public InterviewController(InterviewService service) {
+     public InterviewController(InterviewService service, ExportService exportService) {
           this.service = service;
+          this.exportService = exportService;
      }
 
      /**
-      * Retrieves all interviews for the currently logged-in user.
-      * @return 200 OK with the list of interviews, or 204 No Content if none found
+      * Retrieves all interviews for the currently logged-in user, with an ETag and Last-Modified.
+      * A request whose If-None-Match or If-Modified-Since still matches is answered 304 from an
+      * aggregate query, without loading any interview.
+      * @param request the request, for its conditional headers
+      * @return 200 OK with the list of interviews, 204 No Content if none found, or 304 Not Modified
       */
      @GetMapping
-     public ResponseEntity<List<Interview>> getAllInterviews() {
+     public ResponseEntity<List<Interview>> getAllInterviews(WebRequest request) {
+          ResourceVersion version = service.getInterviewsVersion();
+          if (request.checkNotModified(version.eTag(), version.lastModifiedMillis())) {
+               // 304 and its headers are already set on the response
+               return null;
+          }
           List<Interview> interviews = service.getAllInterviewsForUser();
+          // The list may come from the cache, so its headers describe the interviews actually sent
+          ResourceVersion served = ResourceVersion.of(interviews, Interview::getLastModified);
           // If the list is empty, return 204 No Content;
           // else, return 200 OK with the list.
-          return interviews.isEmpty() ? noContent().build() : ok(interviews);
+          return interviews.isEmpty()
+                  ? noContent().headers(served.headers()).build()
+                  : ok().headers(served.headers()).body(interviews);
+     }
+
+     /**
+      * Exports all interviews of the current user as a CSV or XLSX download, written in bounded
+      * chunks as they are read, like GET /jobs/export.
+      * @param format "csv" (the default) or "xlsx"
+      * @return 200 OK with the file as an attachment, or 400 if the format is unknown
+      */
+     @GetMapping({"/export", "/export/"})
+     public ResponseEntity<StreamingResponseBody> exportInterviews(@RequestParam(required = false) String format) {
+          ExportService.Format exportFormat;
+          try {
+               exportFormat = ExportService.Format.parse(format);
+          } catch (IllegalArgumentException e) {
+               logger.warn("Invalid export request: {}", e.getMessage());
+               return badRequest().build();
+          }
+          // Resolve the user on the request thread; the body is written later on an async thread
+          UUID userId = getLoggedInUserId();
+          StreamingResponseBody body = outputStream -> exportService.exportInterviews(userId, exportFormat, outputStream);
+          return ok()
+                  .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+                  .header(CONTENT_DISPOSITION, ContentDisposition.attachment()
+                          .filename("interviews-" + LocalDate.now() + "." + exportFormat.extension()).build().toString())
+                  .body(body);
      }
 
      /**
@@ -73,10 +122,10 @@ public class InterviewController {
       * Searches interviews for the current user based on optional filters.
       * @param format  optional interview format filter (e.g., "phone", "onsite")
       * @param round   optional interview round filter (e.g., "first", "final")
-      * @param date    optional interview date filter (as a string)
-      * @param time    optional interview time filter (as a string)
+      * @param date    optional interview date filter (yyyy-MM-dd)
+      * @param time    optional interview time filter (HH:mm or HH:mm:ss)
       * @param company optional company filter
-      * @return 200 OK with matching interviews, 204 No Content if none, or 500 on error
+      * @return 200 OK with matching interviews, 204 No Content if none, 400 if date or time is malformed, or 500 on error
       */
      @GetMapping({"/search", "/search/"})
      public ResponseEntity<List<Interview>> searchInterviews(
@@ -86,12 +135,14 @@ public class InterviewController {
              @RequestParam(required = false) String time,
              @RequestParam(required = false) String company) {
           try {
-               logger.info("Received search request with filters: format={}, round={}, date={}, time={}, company={}",
-                       format,
-                       round,
-                       date,
-                       time,
-                       company);
+               if (logger.isDebugEnabled()) {
+                    logger.debug("Received search request with filters: format={}, round={}, date={}, time={}, company={}",
+                            format,
+                            round,
+                            date,
+                            time,
+                            company);
+               }
 
                // Ternary operators: If the parameter is not null, trim it; else, leave it null.
                String normalizedFormat = (format != null) ? format.trim() : null;
@@ -113,6 +164,9 @@ public class InterviewController {
                return matchingInterviews.isEmpty()
                        ? noContent().build()
                        : ok(matchingInterviews);
+          } catch (IllegalArgumentException e) {
+               logger.warn("Invalid interview search filter: {}", e.getMessage());
+               return badRequest().build();
           } catch (Exception e) {
                logger.error("Error searching interviews", e);
                return status(INTERNAL_SERVER_ERROR).build();
@@ -177,6 +231,30 @@ public class InterviewController {
           }
      }
 
+     /**
+      * Updates only the fields present in the body, for example {"round": "final"}.
+      * Fields that are not editable (id, user_id) or unknown are rejected.
+      * @param id      the UUID of the interview to update
+      * @param changes field name to new value
+      * @return 200 OK with the updated interview, 400 if a field is invalid, 404 if not found/no permission, or 500 on error
+      */
+     @PatchMapping("/{id}")
+     public ResponseEntity<Object> patchInterview(@PathVariable UUID id, @RequestBody Map<String, Object> changes) {
+          try {
+               return ok(service.patchInterviewById(id, changes));
+          } catch (IllegalArgumentException e) {
+               logger.warn("Invalid interview patch: {}", e.getMessage());
+               return badRequest().body(of("message", e.getMessage()));
+          } catch (RuntimeException e) {
+               logger.error("Failed to patch interview with ID {}", id, e);
+               if (e.getMessage().contains("not found") || e.getMessage().contains("permission")) {
+                    return status(NOT_FOUND).body(of("message", e.getMessage()));
+               }
+               return status(INTERNAL_SERVER_ERROR)
+                       .body(of("message", "Failed to update interview: " + e.getMessage()));
+          }
+     }
+
      /**
       * Deletes an existing interview for the current user.
       * @param id the UUID of the interview to delete
@@ -200,12 +278,13 @@ public class InterviewController {
      }
 
      /**
-      * Retrieves all upcoming interviews (date after today) for the current user.
+      * Retrieves the upcoming interviews (date after today) for the current user, soonest first.
+      * @param limit maximum number of interviews to return (default 100, at most 500)
       * @return 200 OK with the list, or 204 No Content if none
       */
      @GetMapping("/upcoming")
-     public ResponseEntity<List<Interview>> getUpcomingInterviews() {
-          List<Interview> upcoming = service.getUpcomingInterviewsForUser();
+     public ResponseEntity<List<Interview>> getUpcomingInterviews(@RequestParam(required = false) Integer limit) {
+          List<Interview> upcoming = service.getUpcomingInterviewsForUser(limit);
           return upcoming.isEmpty() ? noContent().build() : ok(upcoming);
      }
 
@@ -1,19 +1,40 @@
 package edu.uis.csc478.sp25.jobtracker.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import edu.uis.csc478.sp25.jobtracker.model.Job;
+import edu.uis.csc478.sp25.jobtracker.model.JobImportResult;
+import edu.uis.csc478.sp25.jobtracker.model.JobPage;
+import edu.uis.csc478.sp25.jobtracker.model.ResourceVersion;
+import edu.uis.csc478.sp25.jobtracker.service.ExportService;
+import edu.uis.csc478.sp25.jobtracker.service.JobImportService;
 import edu.uis.csc478.sp25.jobtracker.service.JobService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+import static com.fasterxml.jackson.databind.SerializationFeature.FLUSH_AFTER_WRITE_VALUE;
 import static edu.uis.csc478.sp25.jobtracker.security.SecurityUtil.getLoggedInUserId;
 import static java.util.Map.of;
 import static org.slf4j.LoggerFactory.getLogger;
+import static org.springframework.http.HttpHeaders.CONTENT_DISPOSITION;
 import static org.springframework.http.HttpStatus.*;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
 import static org.springframework.http.ResponseEntity.*;
 
 /**
@@ -27,26 +48,62 @@ public class JobController {
 
      private static final Logger logger = getLogger(JobController.class);
      private final JobService service;
+     private final JobImportService importService;
+     private final ObjectMapper objectMapper;
+     private final ExportService exportService;
 
      /**
       * Constructs a new JobController with the given JobService.
-      * @param service the JobService used for business logic
+      * @param service       the JobService used for business logic
+      * @param importService the JobImportService used for bulk imports
+      * @param objectMapper  the application ObjectMapper, used for streamed responses
+      * @param exportService the ExportService used for CSV and XLSX exports
       */
-     public JobController(JobService service) {
+     public JobController(JobService service, JobImportService importService, ObjectMapper objectMapper,
+                          ExportService exportService) {
           this.service = service;
+          this.importService = importService;
+          this.objectMapper = objectMapper;
+          this.exportService = exportService;
      }
 
      /**
-      * Retrieves all jobs for the currently authenticated user.
-      * @return 200 OK with the list of jobs, or 204 No Content if none found
+      * Retrieves jobs for the currently authenticated user.
+      * Without paging parameters the full list is returned, as before. When either
+      * limit or after is given, a single keyset page is returned instead.
+      * The full list carries an ETag and Last-Modified; a request whose If-None-Match or
+      * If-Modified-Since still matches is answered 304 from an aggregate query, without loading any job.
+      * @param limit   optional page size
+      * @param after   optional cursor returned as nextCursor by the previous page
+      * @param request the request, for its conditional headers
+      * @return 200 OK with the list of jobs (or a page), 204 No Content if the unpaged list is empty,
+      * 304 Not Modified, 400 if the cursor is malformed, or 500 on error
       */
      @GetMapping
-     public ResponseEntity<List<Job>> getAllJobs() {
+     public ResponseEntity<Object> getAllJobs(@RequestParam(required = false) Integer limit,
+                                              @RequestParam(required = false) String after,
+                                              WebRequest request) {
           try {
+               if (limit != null || after != null) {
+                    JobPage page = service.getJobsPage(limit, after);
+                    return ok(page);
+               }
+               ResourceVersion version = service.getJobsVersion();
+               if (request.checkNotModified(version.eTag(), version.lastModifiedMillis())) {
+                    // 304 and its headers are already set on the response
+                    return null;
+               }
                List<Job> userJobs = service.getJobsForCurrentUser();
+               // The list may come from the cache, so its headers describe the jobs actually sent
+               ResourceVersion served = ResourceVersion.of(userJobs, Job::getLastModified);
                // If the list is empty, return 204 No Content;
                // else, return 200 OK with the list.
-               return userJobs.isEmpty() ? noContent().build() : ok(userJobs);
+               return userJobs.isEmpty()
+                       ? noContent().headers(served.headers()).build()
+                       : ok().headers(served.headers()).body(userJobs);
+          } catch (IllegalArgumentException e) {
+               logger.warn("Invalid paging parameters: {}", e.getMessage());
+               return badRequest().body(of("message", "Invalid cursor"));
           } catch (Exception e) {
                logger.error("Error fetching jobs for user", e);
                return status(INTERNAL_SERVER_ERROR).build();
@@ -54,15 +111,74 @@ public class JobController {
      }
 
      /**
-      * Retrieves a specific job by its ID for the current user.
+      * Streams all jobs for the current user as newline-delimited JSON, one job per line,
+      * writing each chunk of rows as it is read so memory use does not depend on how many jobs the user has.
+      * @return 200 OK with an application/x-ndjson body
+      */
+     @GetMapping(value = {"/stream", "/stream/"}, produces = APPLICATION_NDJSON_VALUE)
+     public ResponseEntity<StreamingResponseBody> streamAllJobs() {
+          // Resolve the user on the request thread; the body is written later on an async thread
+          UUID userId = getLoggedInUserId();
+          StreamingResponseBody body = outputStream -> {
+               JsonGenerator generator = objectMapper.createGenerator(outputStream);
+               // One JSON document per line, not the default space-separated root values
+               generator.setRootValueSeparator(null);
+               ObjectWriter writer = objectMapper.writerFor(Job.class).without(FLUSH_AFTER_WRITE_VALUE);
+               try {
+                    service.streamJobsForUser(userId, job -> {
+                         try {
+                              writer.writeValue(generator, job);
+                              generator.writeRaw('\n');
+                         } catch (IOException e) {
+                              throw new UncheckedIOException(e);
+                         }
+                    });
+               } catch (UncheckedIOException e) {
+                    // Usually the client went away; no connection is held between chunks
+                    throw e.getCause();
+               }
+               generator.flush();
+          };
+          return ok().contentType(APPLICATION_NDJSON).body(body);
+     }
+
+     /**
+      * Exports all jobs of the current user as a CSV or XLSX download. Rows are read in bounded
+      * chunks and written as they are read, with chunked transfer, so neither memory use nor the
+      * time a database connection is held depends on how many jobs the user has.
+      * @param format "csv" (the default) or "xlsx"
+      * @return 200 OK with the file as an attachment, or 400 if the format is unknown
+      */
+     @GetMapping({"/export", "/export/"})
+     public ResponseEntity<StreamingResponseBody> exportJobs(@RequestParam(required = false) String format) {
+          ExportService.Format exportFormat;
+          try {
+               exportFormat = ExportService.Format.parse(format);
+          } catch (IllegalArgumentException e) {
+               logger.warn("Invalid export request: {}", e.getMessage());
+               return badRequest().build();
+          }
+          // Resolve the user on the request thread; the body is written later on an async thread
+          UUID userId = getLoggedInUserId();
+          StreamingResponseBody body = outputStream -> exportService.exportJobs(userId, exportFormat, outputStream);
+          return ok()
+                  .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+                  .header(CONTENT_DISPOSITION, ContentDisposition.attachment()
+                          .filename("jobs-" + LocalDate.now() + "." + exportFormat.extension()).build().toString())
+                  .body(body);
+     }
+
+     /**
+      * Retrieves a specific job by its ID for the current user, with an ETag and Last-Modified.
       * @param id the UUID of the job
-      * @return 200 OK with the job, 404 if not found, or 500 on error
+      * @return 200 OK with the job, 304 Not Modified, 404 if not found, or 500 on error
       */
      @GetMapping("/{id}")
      public ResponseEntity<Object> getJobById(@PathVariable UUID id) {
           try {
                Job job = service.getJobById(id);
-               return ok(job);
+               // answered 304 instead, without writing the body, if the client's copy is current
+               return ok().headers(new ResourceVersion(1, job.getLastModified()).headers()).body(job);
           } catch (RuntimeException e) {
                logger.error("Error fetching job by ID {}", id, e);
                // If the exception message contains "not found", return 404 Not Found; otherwise, return 500 Internal Server Error.
@@ -86,7 +202,9 @@ public class JobController {
       * @param status    optional job status filter
       * @param company   optional company filter
       * @param favorite  optional favorite filter (true/false)
-      * @return 200 OK with matching jobs, 204 No Content if none, or 500 on error
+      * @param limit     optional maximum number of results (at most 500)
+      * @param offset    optional number of ranked results to skip
+      * @return 200 OK with matching jobs, most relevant first, 204 No Content if none, or 500 on error
       */
      @GetMapping({"/search", "/search/"})
      public ResponseEntity<List<Job>> searchJobs(
@@ -97,25 +215,34 @@ public class JobController {
              @RequestParam(required = false) String location,
              @RequestParam(required = false) String status,
              @RequestParam(required = false) String company,
-             @RequestParam(required = false) Boolean favorite
+             @RequestParam(required = false) Boolean favorite,
+             @RequestParam(required = false) Integer limit,
+             @RequestParam(required = false) Integer offset
      ) {
           try {
-               logger.info("Received search request with filters: title={}, " +
-                               "level={}, " +
-                               "minSalary={}, " +
-                               "maxSalary={}, " +
-                               "location={}, " +
-                               "status={}, " +
-                               "company={}, " +
-                               "favorite={}",
-                       title,
-                       level,
-                       minSalary,
-                       maxSalary,
-                       location,
-                       status,
-                       company,
-                       favorite);
+               // on every search; guarded so the ten-element argument array is only built when DEBUG is on
+               if (logger.isDebugEnabled()) {
+                    logger.debug("Received search request with filters: title={}, " +
+                                    "level={}, " +
+                                    "minSalary={}, " +
+                                    "maxSalary={}, " +
+                                    "location={}, " +
+                                    "status={}, " +
+                                    "company={}, " +
+                                    "favorite={}, " +
+                                    "limit={}, " +
+                                    "offset={}",
+                            title,
+                            level,
+                            minSalary,
+                            maxSalary,
+                            location,
+                            status,
+                            company,
+                            favorite,
+                            limit,
+                            offset);
+               }
 
                // Ternary operator: If the parameter is not null, trim it; else, leave it null.
                String normalizedTitle = (title != null) ? title.trim() : null;
@@ -133,7 +260,9 @@ public class JobController {
                        normalizedLocation,
                        normalizedStatus,
                        normalizedCompany,
-                       favorite
+                       favorite,
+                       limit,
+                       offset
                );
 
                // If no jobs match, return 204 No Content;
@@ -177,10 +306,7 @@ public class JobController {
      @PostMapping
      public ResponseEntity<Object> createJob(@RequestBody Job job) {
           try {
-               // Get current user
-               UUID userId = getLoggedInUserId();
-               // Ensure job is tied to current user
-               job.setUserId(userId);
+               // the service ties the job to the current user
                Job createdJob = service.createJob(job);
                return status(CREATED).body(createdJob);
           } catch (RuntimeException e) {
@@ -197,6 +323,35 @@ public class JobController {
           }
      }
 
+     /**
+      * Imports many jobs for the current user in one request.
+      * The body is a JSON array of jobs, NDJSON (one job per line) or CSV with a header row
+      * naming the job fields (title, level, minSalary, maxSalary, location, status, company, favorite).
+      * Invalid rows are skipped and reported; the valid ones are all written in one transaction.
+      * @param request the request, whose body is read as a stream
+      * @return 200 OK with the import result, 400 if the body is unreadable, or 500 on error
+      */
+     @PostMapping(value = {"/bulk", "/bulk/"},
+             consumes = {APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE, "text/csv"})
+     public ResponseEntity<Object> importJobs(HttpServletRequest request) {
+          try {
+               JobImportResult result = importService.importJobs(request.getInputStream(),
+                       MediaType.parseMediaType(request.getContentType()));
+               return ok(result);
+          } catch (IllegalArgumentException e) {
+               logger.warn("Rejected bulk import: {}", e.getMessage());
+               return badRequest().body(of("message", e.getMessage()));
+          } catch (IOException | UncheckedIOException e) {
+               // nothing was written: the import runs in one transaction
+               logger.warn("Unreadable bulk import body: {}", e.getMessage());
+               return badRequest().body(of("message", "Request body could not be read; no jobs were imported"));
+          } catch (RuntimeException e) {
+               logger.error("Failed to import jobs", e);
+               return status(INTERNAL_SERVER_ERROR)
+                       .body(of("message", "An error occurred while importing jobs; no jobs were imported"));
+          }
+     }
+
      /**
       * Updates an existing job for the current user.
       * @param id  the UUID of the job to update
@@ -218,6 +373,31 @@ public class JobController {
           }
      }
 
+     /**
+      * Updates only the fields present in the body, for example {"status": "Applied"}.
+      * Fields that are not editable (id, userId, lastModified) or unknown are rejected.
+      * @param id      the UUID of the job to update
+      * @param changes field name to new value
+      * @return 200 OK with the updated job, 400 if a field or the result is invalid, 404 if not found, or 500 on error
+      */
+     @PatchMapping("/{id}")
+     public ResponseEntity<Object> patchJob(@PathVariable UUID id, @RequestBody Map<String, Object> changes) {
+          try {
+               return ok(service.patchJob(id, changes));
+          } catch (IllegalArgumentException e) {
+               logger.warn("Invalid job patch: {}", e.getMessage());
+               return badRequest().body(of("message", e.getMessage()));
+          } catch (RuntimeException e) {
+               logger.error("Error patching job with ID {}", id, e);
+               if (e.getMessage().contains("not found")) {
+                    return status(NOT_FOUND)
+                            .body(of("message", "Job not found or you don't have permission to update it"));
+               }
+               return status(INTERNAL_SERVER_ERROR)
+                       .body(of("message", "An unexpected error occurred while updating the job"));
+          }
+     }
+
      /**
       * Deletes a job for the current user.
       * @param id the UUID of the job to delete
@@ -237,7 +417,7 @@ public class JobController {
      /**
       * Marks a job as favorite for the current user.
       * @param id the UUID of the job to favorite
-      * @return 200 OK with the updated job, or 500 on error
+      * @return 200 OK with the updated job, 404 if not found, or 500 on error
       */
      @PutMapping({"/{id}/favorite", "/{id}/favorite/"})
      public ResponseEntity<Job> favoriteJob(@PathVariable UUID id) {
@@ -246,21 +426,63 @@ public class JobController {
                return ok(favoritedJob);
           } catch (RuntimeException e) {
                logger.error("Error favoriting job {}", id, e);
-               return status(INTERNAL_SERVER_ERROR).build();
+               return e.getMessage().contains("not found") ? status(NOT_FOUND).build() : status(INTERNAL_SERVER_ERROR).build();
+          }
+     }
+
+     /**
+      * Marks many jobs as favorite for the current user in one statement.
+      * @param ids the UUIDs of the jobs to favorite (at most 1000)
+      * @return 200 OK with the jobs that were updated (IDs not owned by the user are skipped),
+      * 400 if the list is empty or too long, or 500 on error
+      */
+     @PutMapping({"/favorite", "/favorite/"})
+     public ResponseEntity<Object> favoriteJobs(@RequestBody List<UUID> ids) {
+          return setFavoriteForJobs(ids, true);
+     }
+
+     /**
+      * Removes many jobs from favorites for the current user in one statement.
+      * @param ids the UUIDs of the jobs to unfavorite (at most 1000)
+      * @return 200 OK with the jobs that were updated (IDs not owned by the user are skipped),
+      * 400 if the list is empty or too long, or 500 on error
+      */
+     @PutMapping({"/unfavorite", "/unfavorite/"})
+     public ResponseEntity<Object> unfavoriteJobs(@RequestBody List<UUID> ids) {
+          return setFavoriteForJobs(ids, false);
+     }
+
+     private ResponseEntity<Object> setFavoriteForJobs(List<UUID> ids, boolean favorite) {
+          try {
+               return ok(service.setFavoriteForJobs(ids, favorite));
+          } catch (IllegalArgumentException e) {
+               return badRequest().body(of("message", e.getMessage()));
+          } catch (RuntimeException e) {
+               logger.error("Error setting favorite={} on {} jobs", favorite, ids.size(), e);
+               return status(INTERNAL_SERVER_ERROR)
+                       .body(of("message", "An error occurred while updating favorites"));
           }
      }
 
      /**
-      * Retrieves all favorite jobs for the current user.
-      * @return 200 OK with the list of favorite jobs, or 204 if none found
+      * Retrieves all favorite jobs for the current user, with the same conditional handling as GET /jobs.
+      * @param request the request, for its conditional headers
+      * @return 200 OK with the list of favorite jobs, 204 if none found, or 304 Not Modified
       */
      @GetMapping("/favorites")
-     public ResponseEntity<List<Job>> getFavoriteJobs() {
+     public ResponseEntity<List<Job>> getFavoriteJobs(WebRequest request) {
           try {
+               ResourceVersion version = service.getFavoriteJobsVersion();
+               if (request.checkNotModified(version.eTag(), version.lastModifiedMillis())) {
+                    return null;
+               }
                List<Job> favoriteJobs = service.getFavoriteJobs();
+               ResourceVersion served = ResourceVersion.of(favoriteJobs, Job::getLastModified);
                // If the list is empty, return 204 No Content;
                // else, return 200 OK with the list.
-               return favoriteJobs.isEmpty() ? noContent().build() : ok(favoriteJobs);
+               return favoriteJobs.isEmpty()
+                       ? noContent().headers(served.headers()).build()
+                       : ok().headers(served.headers()).body(favoriteJobs);
           } catch (Exception e) {
                logger.error("Error fetching favorite jobs", e);
                return status(INTERNAL_SERVER_ERROR).build();
@@ -270,7 +492,7 @@ public class JobController {
      /**
       * Removes a job from favorites for the current user.
       * @param id the UUID of the job to unfavorite
-      * @return 200 OK with the updated job, or 500 on error
+      * @return 200 OK with the updated job, 404 if not found, or 500 on error
       */
      @PutMapping({"/{id}/unfavorite", "/{id}/unfavorite/"})
      public ResponseEntity<Job> unfavoriteJob(@PathVariable UUID id) {
@@ -279,7 +501,7 @@ public class JobController {
                return ok(unfavoritedJob);
           } catch (RuntimeException e) {
                logger.error("Error unfavoriting job {}", id, e);
-               return status(INTERNAL_SERVER_ERROR).build();
+               return e.getMessage().contains("not found") ? status(NOT_FOUND).build() : status(INTERNAL_SERVER_ERROR).build();
           }
      }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package edu.uis.csc478.sp25.jobtracker.controller;
 
 import edu.uis.csc478.sp25.jobtracker.model.Profile;
+import edu.uis.csc478.sp25.jobtracker.model.ResourceVersion;
 import edu.uis.csc478.sp25.jobtracker.security.SecurityUtil;
 import edu.uis.csc478.sp25.jobtracker.service.ProfileService;
 import org.slf4j.Logger;
@@ -13,6 +14,7 @@ import java.util.UUID;
 
 import static java.util.Map.*;
 import static org.springframework.http.HttpStatus.*;
+import static org.springframework.http.ResponseEntity.badRequest;
 import static org.springframework.http.ResponseEntity.ok;
 import static org.springframework.http.ResponseEntity.status;
 
@@ -29,14 +31,15 @@ public class ProfileController {
      }
 
      /**
-      * Get the profile of the currently logged-in user.
+      * Get the profile of the currently logged-in user, with an ETag and Last-Modified; a client
+      * whose copy is current gets 304 Not Modified instead.
       * @return ResponseEntity containing the profile or an error message.
       */
      @GetMapping("/current")
      public ResponseEntity<Object> getCurrentProfile() {
           try {
                Profile profile = service.getCurrentProfile();
-               return ok(profile);
+               return ok().headers(new ResourceVersion(1, profile.getLastModified()).headers()).body(profile);
           } catch (RuntimeException e) {
                logger.error("Error getting current profile", e);
                if (e.getMessage().contains("not found")) {
@@ -67,6 +70,29 @@ public class ProfileController {
           }
      }
 
+     /**
+      * Update only the fields present in the body of the currently logged-in user's profile,
+      * for example {"title": "Data Engineer"}. The id cannot be changed.
+      * @param changes field name to new value.
+      * @return ResponseEntity containing the updated profile or an error message.
+      */
+     @PatchMapping("/current")
+     public ResponseEntity<Object> patchCurrentProfile(@RequestBody Map<String, Object> changes) {
+          try {
+               return ok(service.patchCurrentProfile(changes));
+          } catch (IllegalArgumentException e) {
+               logger.warn("Invalid profile patch: {}", e.getMessage());
+               return badRequest().body(of("message", e.getMessage()));
+          } catch (RuntimeException e) {
+               logger.error("Failed to patch current profile", e);
+               if (e.getMessage().contains("not found")) {
+                    return status(NOT_FOUND).body(of("message", "Profile not found"));
+               }
+               return status(INTERNAL_SERVER_ERROR).body(of("message",
+                       "An error occurred while updating the profile"));
+          }
+     }
+
      /**
       * @param profileId UUID of the profile to fetch.
       * @return ResponseEntity containing the profile or an error message.
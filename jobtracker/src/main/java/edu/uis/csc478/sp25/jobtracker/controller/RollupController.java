@@ -0,0 +1,95 @@
+package edu.uis.csc478.sp25.jobtracker.controller;
+
+import edu.uis.csc478.sp25.jobtracker.service.RollupService;
+import org.slf4j.Logger;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+import static java.util.Map.of;
+import static org.slf4j.LoggerFactory.getLogger;
+import static org.springframework.format.annotation.DateTimeFormat.ISO.DATE;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.ResponseEntity.*;
+
+/**
+ * REST controller for the admin reports across all users, read from the rollup tables.
+ * Everything under /admin needs the admin role (see SecurityConfig).
+ */
+@CrossOrigin
+@RestController
+@RequestMapping("/admin/rollups")
+public class RollupController {
+
+     private static final Logger logger = getLogger(RollupController.class);
+     private final RollupService service;
+
+     /**
+      * Constructs a new RollupController with the given RollupService.
+      * @param service the RollupService used for business logic
+      */
+     public RollupController(RollupService service) {
+          this.service = service;
+     }
+
+     /**
+      * Retrieves the number of jobs created per day.
+      * @param from optional first day (yyyy-MM-dd, UTC); defaults to 30 days up to to
+      * @param to   optional last day, inclusive; defaults to today
+      * @return 200 OK with the report, 400 if from is after to, or 500 on error
+      */
+     @GetMapping("/jobs-created")
+     public ResponseEntity<Object> getJobsCreated(@RequestParam(required = false) @DateTimeFormat(iso = DATE) LocalDate from,
+                                                  @RequestParam(required = false) @DateTimeFormat(iso = DATE) LocalDate to) {
+          return respond(() -> service.getJobsCreated(from, to));
+     }
+
+     /**
+      * Retrieves the number of status changes per day, by previous and new status.
+      * @param from optional first day (yyyy-MM-dd, UTC); defaults to 30 days up to to
+      * @param to   optional last day, inclusive; defaults to today
+      * @return 200 OK with the report, 400 if from is after to, or 500 on error
+      */
+     @GetMapping("/status-transitions")
+     public ResponseEntity<Object> getStatusTransitions(@RequestParam(required = false) @DateTimeFormat(iso = DATE) LocalDate from,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DATE) LocalDate to) {
+          return respond(() -> service.getStatusTransitions(from, to));
+     }
+
+     /**
+      * Retrieves the companies with the most interviews dated in a range.
+      * @param from  optional first interview date (yyyy-MM-dd); defaults to 30 days up to to
+      * @param to    optional last interview date, inclusive; defaults to today
+      * @param limit optional number of companies (default 50, at most 500)
+      * @return 200 OK with the report, 400 if from is after to, or 500 on error
+      */
+     @GetMapping("/company-interviews")
+     public ResponseEntity<Object> getCompanyInterviews(@RequestParam(required = false) @DateTimeFormat(iso = DATE) LocalDate from,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DATE) LocalDate to,
+                                                        @RequestParam(required = false) Integer limit) {
+          return respond(() -> service.getCompanyInterviews(from, to, limit));
+     }
+
+     /**
+      * Retrieves the number of current jobs per salary band of minsalary and of maxsalary.
+      * @return 200 OK with the report, or 500 on error
+      */
+     @GetMapping("/salary-bands")
+     public ResponseEntity<Object> getSalaryBands() {
+          return respond(service::getSalaryBands);
+     }
+
+     private ResponseEntity<Object> respond(Supplier<Object> report) {
+          try {
+               return ok(report.get());
+          } catch (IllegalArgumentException e) {
+               return badRequest().body(of("message", e.getMessage()));
+          } catch (RuntimeException e) {
+               logger.error("Error fetching rollup report", e);
+               return status(INTERNAL_SERVER_ERROR).body(of("message", "An error occurred while fetching the report"));
+          }
+     }
+}
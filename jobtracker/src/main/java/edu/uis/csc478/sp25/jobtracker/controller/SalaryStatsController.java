@@ -0,0 +1,54 @@
+package edu.uis.csc478.sp25.jobtracker.controller;
+
+import edu.uis.csc478.sp25.jobtracker.service.SalaryStatsService;
+import org.slf4j.Logger;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+import static java.util.Map.of;
+import static org.slf4j.LoggerFactory.getLogger;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.ResponseEntity.*;
+
+/**
+ * REST controller for salary analytics of the current user's jobs: where salaries fall per
+ * level, location and company.
+ */
+@CrossOrigin
+@RestController
+public class SalaryStatsController {
+
+     private static final Logger logger = getLogger(SalaryStatsController.class);
+     private final SalaryStatsService service;
+
+     /**
+      * Constructs a new SalaryStatsController with the given SalaryStatsService.
+      * @param service the SalaryStatsService used for business logic
+      */
+     public SalaryStatsController(SalaryStatsService service) {
+          this.service = service;
+     }
+
+     /**
+      * Retrieves p25, p50, p75 and p90 of the minSalary and maxSalary of the current user's jobs,
+      * per level, location and company.
+      * @param jobId optional job to compare; limits the result to that job's level, location and
+      *              company, and adds the rank of its salaries within each
+      * @return 200 OK with the stats, 404 if the job is not found, or 500 on error
+      */
+     @GetMapping({"/jobs/salary-stats", "/jobs/salary-stats/"})
+     public ResponseEntity<Object> getSalaryStats(@RequestParam(required = false) UUID jobId) {
+          try {
+               return ok(service.getSalaryStats(jobId));
+          } catch (RuntimeException e) {
+               if (e.getMessage() != null && e.getMessage().contains("not found")) {
+                    return status(NOT_FOUND).body(of("message", "Job not found or you don't have permission to view it"));
+               }
+               logger.error("Error fetching salary stats", e);
+               return status(INTERNAL_SERVER_ERROR).body(of("message", "An error occurred while fetching the salary stats"));
+          }
+     }
+}
@@ -0,0 +1,55 @@
+package edu.uis.csc478.sp25.jobtracker.controller;
+
+import edu.uis.csc478.sp25.jobtracker.service.SyncService;
+import org.slf4j.Logger;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import static java.util.Map.of;
+import static org.slf4j.LoggerFactory.getLogger;
+import static org.springframework.http.HttpStatus.GONE;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.ResponseEntity.*;
+
+/**
+ * REST controller for delta sync of the current user's jobs and interviews.
+ */
+@CrossOrigin
+@RestController
+@RequestMapping("/sync")
+public class SyncController {
+
+     private static final Logger logger = getLogger(SyncController.class);
+     private final SyncService service;
+
+     /**
+      * Constructs a new SyncController with the given SyncService.
+      * @param service the SyncService used for business logic
+      */
+     public SyncController(SyncService service) {
+          this.service = service;
+     }
+
+     /**
+      * Retrieves the jobs and interviews created or changed since the cursor, the IDs of those
+      * deleted since, and the cursor for the next sync. Without a cursor, every job and interview.
+      * @param since optional cursor returned by the previous sync
+      * @return 200 OK with the changes, 400 if the cursor is malformed, 410 Gone if it has expired
+      * (sync again without it), or 500 on error
+      */
+     @GetMapping
+     public ResponseEntity<Object> getChanges(@RequestParam(required = false) String since) {
+          try {
+               return ok(service.getChangesForCurrentUser(since));
+          } catch (IllegalArgumentException e) {
+               logger.warn("Invalid sync cursor: {}", e.getMessage());
+               return badRequest().body(of("message", "Invalid cursor"));
+          } catch (RuntimeException e) {
+               if (e.getMessage() != null && e.getMessage().contains("expired")) {
+                    return status(GONE).body(of("message", "Cursor expired; sync again without since"));
+               }
+               logger.error("Error fetching sync changes", e);
+               return status(INTERNAL_SERVER_ERROR).body(of("message", "An error occurred while fetching changes"));
+          }
+     }
+}
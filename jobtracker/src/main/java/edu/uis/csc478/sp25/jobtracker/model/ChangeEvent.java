@@ -0,0 +1,53 @@
+package edu.uis.csc478.sp25.jobtracker.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.UUID;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+
+/**
+ * A change to one of a user's jobs or interviews, pushed to that user's GET /events connections.
+ * It only says what changed; clients fetch the rows themselves, normally with GET /sync.
+ * @param userId the owner, who receives the event; not sent to the client
+ * @param entity JOB or INTERVIEW
+ * @param type   CREATED, UPDATED, DELETED, or IMPORTED for a bulk import of many jobs
+ * @param id     the changed row, or null for IMPORTED
+ */
+@JsonInclude(NON_NULL)
+public record ChangeEvent(@JsonIgnore UUID userId, String entity, String type, UUID id) {
+
+     public static final String JOB = "job";
+     public static final String INTERVIEW = "interview";
+     public static final String CREATED = "created";
+     public static final String UPDATED = "updated";
+     public static final String DELETED = "deleted";
+     public static final String IMPORTED = "imported";
+
+     private static final char SEPARATOR = ',';
+
+     /**
+      * Encodes this event as a PostgreSQL NOTIFY payload, the format the triggers of
+      * V12__change_notify.sql write.
+      * @return the encoded event
+      */
+     public String encode() {
+          return "" + userId + SEPARATOR + entity + SEPARATOR + type + SEPARATOR + (id == null ? "" : id);
+     }
+
+     /**
+      * Decodes an event previously produced by {@link #encode()}.
+      * @param encoded the encoded event
+      * @return the decoded event
+      * @throws IllegalArgumentException if the event is malformed
+      */
+     public static ChangeEvent decode(String encoded) {
+          String[] parts = encoded.split(String.valueOf(SEPARATOR), -1);
+          if (parts.length != 4) {
+               throw new IllegalArgumentException("Invalid change event: " + encoded);
+          }
+          return new ChangeEvent(UUID.fromString(parts[0]), parts[1], parts[2],
+                  parts[3].isEmpty() ? null : UUID.fromString(parts[3]));
+     }
+}
@@ -0,0 +1,18 @@
+package edu.uis.csc478.sp25.jobtracker.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+// everything the dashboard page shows, read in one query by GET /dashboard
+public class Dashboard {
+     public int totalJobs;
+     public Map<String, Integer> statusCounts;
+     public int favoriteCount;
+     public int upcomingInterviewCount;
+     public List<Job> recentJobs;
+}
@@ -0,0 +1,28 @@
+package edu.uis.csc478.sp25.jobtracker.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+// conversion between pipeline stages, time spent in each, and weekly cohorts, for the jobs that entered
+// the pipeline between from and to (inclusive); read from job_status_history by GET /analytics/funnel
+public class FunnelReport {
+     public LocalDate from;
+     public LocalDate to;
+     public List<Stage> stages;
+     public List<Cohort> cohorts;
+
+     // reached counts the jobs that got to this stage or a later one, conversion is reached over the previous
+     // stage's reached (null for the first stage), and the median is taken over the exited stays that have ended
+     public record Stage(String status, long reached, Double conversion, Double medianSecondsInStage, long exited) {
+     }
+
+     // the jobs that entered the pipeline in the week starting on Monday `week` (UTC), by stage reached
+     public record Cohort(LocalDate week, Map<String, Long> reached) {
+     }
+}
@@ -1,9 +1,15 @@
 package edu.uis.csc478.sp25.jobtracker.model;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Builder;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.ReadOnlyProperty;
+import org.springframework.data.relational.core.mapping.Column;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
 import java.util.UUID;
 
 @Data
@@ -15,7 +21,13 @@ public class Interview {
      public UUID user_id;
      public String format;
      public String round;
-     public String date;
-     public String time;
+     public LocalDate date;
+     // HH:mm, as the frontend's time input sends and displays it
+     @JsonFormat(pattern = "HH:mm")
+     public LocalTime time;
      public String company;
+     // set by the database on insert and on every change, never written from here
+     @ReadOnlyProperty
+     @Column("last_modified")
+     public OffsetDateTime lastModified;
 }
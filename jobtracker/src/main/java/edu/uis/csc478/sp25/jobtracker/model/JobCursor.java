@@ -0,0 +1,57 @@
+package edu.uis.csc478.sp25.jobtracker.model;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Opaque keyset cursor over the (last_modified, id) ordering used when paging through a user's jobs.
+ * Clients only ever see the encoded form and hand it back unchanged as the "after" parameter.
+ * @param lastModified last_modified of the last job on the previous page
+ * @param id           id of the last job on the previous page (tie-breaker for equal timestamps)
+ */
+public record JobCursor(OffsetDateTime lastModified, UUID id) {
+
+     private static final char SEPARATOR = '|';
+
+     /**
+      * Builds the cursor pointing just past the given job.
+      * @param job the last job of the current page
+      * @return cursor for the next page
+      */
+     public static JobCursor after(Job job) {
+          return new JobCursor(job.getLastModified(), job.getId());
+     }
+
+     /**
+      * Encodes this cursor as a URL-safe string.
+      * @return the encoded cursor
+      */
+     public String encode() {
+          String raw = lastModified.toString() + SEPARATOR + id;
+          return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(UTF_8));
+     }
+
+     /**
+      * Decodes a cursor previously produced by {@link #encode()}.
+      * @param encoded the encoded cursor
+      * @return the decoded cursor
+      * @throws IllegalArgumentException if the cursor is malformed
+      */
+     public static JobCursor decode(String encoded) {
+          try {
+               String raw = new String(Base64.getUrlDecoder().decode(encoded), UTF_8);
+               int separator = raw.lastIndexOf(SEPARATOR);
+               if (separator < 0) {
+                    throw new IllegalArgumentException("Invalid cursor");
+               }
+               return new JobCursor(OffsetDateTime.parse(raw.substring(0, separator)),
+                       UUID.fromString(raw.substring(separator + 1)));
+          } catch (DateTimeParseException e) {
+               throw new IllegalArgumentException("Invalid cursor", e);
+          }
+     }
+}
@@ -0,0 +1,19 @@
+package edu.uis.csc478.sp25.jobtracker.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+// outcome of POST /jobs/bulk; rejected rows are listed with their row number (errors is capped, rejected is not)
+public class JobImportResult {
+     public int received;
+     public int imported;
+     public int rejected;
+     public List<RowError> errors;
+
+     public record RowError(int row, String message) {
+     }
+}
@@ -0,0 +1,14 @@
+package edu.uis.csc478.sp25.jobtracker.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+// one keyset page of jobs; nextCursor is null once the last page has been reached
+public class JobPage {
+     public List<Job> items;
+     public String nextCursor;
+}
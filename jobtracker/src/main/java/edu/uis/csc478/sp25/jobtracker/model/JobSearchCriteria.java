@@ -0,0 +1,20 @@
+package edu.uis.csc478.sp25.jobtracker.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+// filters for GET /jobs/search; a null (or blank) field is left out of the query entirely
+public class JobSearchCriteria {
+     public String title;
+     public String level;
+     public Integer minSalary;
+     public Integer maxSalary;
+     public String location;
+     public String status;
+     public String company;
+     public Boolean favorite;
+     public int limit;
+     public int offset;
+}
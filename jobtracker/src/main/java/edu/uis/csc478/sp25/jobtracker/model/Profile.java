@@ -1,9 +1,11 @@
 package edu.uis.csc478.sp25.jobtracker.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.ReadOnlyProperty;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
+import java.time.OffsetDateTime;
 import java.util.UUID;
 
 @Table(schema = "public", name = "profile")
@@ -29,6 +31,11 @@ public class Profile {
      @Column(value = "phonenumber")
      public String phoneNumber;
 
+     // set by the database on insert and on every change, never written from here
+     @ReadOnlyProperty
+     @Column(value = "last_modified")
+     public OffsetDateTime lastModified;
+
      public UUID getId() {
           return id;
      }
@@ -84,4 +91,12 @@ public class Profile {
      public void setPhoneNumber(String phoneNumber) {
           this.phoneNumber = phoneNumber;
      }
-}
\ No newline at end of file
+
+     public OffsetDateTime getLastModified() {
+          return lastModified;
+     }
+
+     public void setLastModified(OffsetDateTime lastModified) {
+          this.lastModified = lastModified;
+     }
+}
@@ -0,0 +1,64 @@
+package edu.uis.csc478.sp25.jobtracker.model;
+
+import org.springframework.http.HttpHeaders;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Version of a user's collection (or of a single row) for conditional GETs: how many rows it holds
+ * and the latest last_modified among them. An insert or update moves lastModified and a delete
+ * changes count, so either one changes the ETag.
+ * <p>
+ * The same version is computed from an aggregate query, to answer 304 without loading any rows,
+ * and from the rows actually served, so an ETag always describes the body it was sent with.
+ * @param count        number of rows
+ * @param lastModified latest last_modified, or null if there are no rows
+ */
+public record ResourceVersion(long count, OffsetDateTime lastModified) {
+
+     /**
+      * @param rows         the rows being served
+      * @param lastModified reads a row's last_modified
+      * @return the version of those rows
+      */
+     public static <T> ResourceVersion of(Collection<T> rows, Function<T, OffsetDateTime> lastModified) {
+          OffsetDateTime latest = rows.stream()
+                  .map(lastModified)
+                  .filter(Objects::nonNull)
+                  .max(OffsetDateTime::compareTo)
+                  .orElse(null);
+          return new ResourceVersion(rows.size(), latest);
+     }
+
+     /**
+      * Weak, since it is derived from the data rather than the bytes of the response.
+      * @return the ETag header value
+      */
+     public String eTag() {
+          long micros = lastModified == null ? 0
+                  : lastModified.toEpochSecond() * 1_000_000 + lastModified.getNano() / 1_000;
+          return "W/\"" + count + "-" + Long.toString(micros, 36) + "\"";
+     }
+
+     /**
+      * @return last_modified in epoch milliseconds, or -1 if there are no rows
+      */
+     public long lastModifiedMillis() {
+          return lastModified == null ? -1 : lastModified.toInstant().toEpochMilli();
+     }
+
+     /**
+      * @return ETag and, if there are rows, Last-Modified headers for a response
+      */
+     public HttpHeaders headers() {
+          HttpHeaders headers = new HttpHeaders();
+          headers.setETag(eTag());
+          if (lastModified != null) {
+               headers.setLastModified(lastModifiedMillis());
+          }
+          return headers;
+     }
+}
@@ -0,0 +1,31 @@
+package edu.uis.csc478.sp25.jobtracker.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Data
+@Builder
+// one admin report read from the rollup tables, and when they were last refreshed (null if never);
+// changes made after refreshedAt are not in it yet
+public class RollupReport<T> {
+     public OffsetDateTime refreshedAt;
+     public List<T> rows;
+
+     public record JobsCreated(LocalDate day, long jobs) {
+     }
+
+     // fromStatus is "" for a job's first status
+     public record StatusTransitions(LocalDate day, String fromStatus, String toStatus, long transitions) {
+     }
+
+     public record CompanyInterviews(String company, long interviews) {
+     }
+
+     // jobs whose minsalary, and jobs whose maxsalary, falls in [band, band + 10000)
+     public record SalaryBand(int band, long minSalaryJobs, long maxSalaryJobs) {
+     }
+}
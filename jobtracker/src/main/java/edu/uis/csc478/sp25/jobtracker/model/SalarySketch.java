@@ -0,0 +1,19 @@
+package edu.uis.csc478.sp25.jobtracker.model;
+
+import com.tdunning.math.stats.TDigest;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+// t-digests of the minSalary and maxSalary of one user's jobs in one group, as stored in salary_sketch;
+// a digest is null while no job of the group gives that salary
+public class SalarySketch {
+     public Group group;
+     public TDigest minSalary;
+     public TDigest maxSalary;
+
+     // dimension is level, location or company; key is the trimmed, lower-cased value, from salary_group_key() in V13
+     public record Group(String dimension, String key) {
+     }
+}
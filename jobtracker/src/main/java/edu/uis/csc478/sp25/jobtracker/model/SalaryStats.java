@@ -0,0 +1,25 @@
+package edu.uis.csc478.sp25.jobtracker.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+// salary quantiles of the current user's jobs per level, location and company, read by GET /jobs/salary-stats;
+// with a jobId, only the groups of that job, each with where its salaries rank
+public class SalaryStats {
+     public UUID jobId;
+     public List<Group> groups;
+
+     // minSalary or maxSalary is null if no job of the group gives that salary
+     public record Group(String dimension, String key, Distribution minSalary, Distribution maxSalary) {
+     }
+
+     // quantiles over the group's jobs that give this salary; rank is the fraction of them paying less than
+     // the requested job (ties count half), or null without a jobId or if the job does not give this salary
+     public record Distribution(long jobs, long p25, long p50, long p75, long p90, Double rank) {
+     }
+}
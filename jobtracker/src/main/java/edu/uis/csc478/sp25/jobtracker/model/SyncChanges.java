@@ -0,0 +1,19 @@
+package edu.uis.csc478.sp25.jobtracker.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+// what changed in a user's jobs and interviews since a sync cursor, and the cursor for the next sync;
+// clients apply the deletions, then upsert the rest
+public class SyncChanges {
+     public List<Job> jobs;
+     public List<Interview> interviews;
+     public List<UUID> deletedJobs;
+     public List<UUID> deletedInterviews;
+     public String cursor;
+}
@@ -0,0 +1,48 @@
+package edu.uis.csc478.sp25.jobtracker.model;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Opaque cursor of GET /sync: the xmin of the snapshot a sync read with, and when it read.
+ * Every job and interview changed or deleted by a transaction at or above xmin is sent by the next
+ * sync. Clients only ever see the encoded form and hand it back unchanged as the "since" parameter.
+ * @param xmin     oldest transaction still running when the sync read (a PostgreSQL xid8)
+ * @param issuedAt when the sync read; a cursor older than the tombstone retention has expired
+ */
+public record SyncCursor(long xmin, Instant issuedAt) {
+
+     private static final char SEPARATOR = '|';
+
+     /**
+      * Encodes this cursor as a URL-safe string.
+      * @return the encoded cursor
+      */
+     public String encode() {
+          String raw = Long.toUnsignedString(xmin) + SEPARATOR + issuedAt.getEpochSecond();
+          return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(UTF_8));
+     }
+
+     /**
+      * Decodes a cursor previously produced by {@link #encode()}.
+      * @param encoded the encoded cursor
+      * @return the decoded cursor
+      * @throws IllegalArgumentException if the cursor is malformed
+      */
+     public static SyncCursor decode(String encoded) {
+          try {
+               String raw = new String(Base64.getUrlDecoder().decode(encoded), UTF_8);
+               int separator = raw.indexOf(SEPARATOR);
+               if (separator < 0) {
+                    throw new IllegalArgumentException("Invalid cursor");
+               }
+               return new SyncCursor(Long.parseUnsignedLong(raw.substring(0, separator)),
+                       Instant.ofEpochSecond(Long.parseLong(raw.substring(separator + 1))));
+          } catch (DateTimeException e) {
+               throw new IllegalArgumentException("Invalid cursor", e);
+          }
+     }
+}
@@ -0,0 +1,112 @@
+package edu.uis.csc478.sp25.jobtracker.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds an UPDATE ... RETURNING * that sets only the columns named in a PATCH body.
+ * Each table declares which JSON fields may be patched and the column and type behind each one;
+ * anything else in the body (id, user_id, last_modified, or a typo) is rejected instead of ignored.
+ * Values are bound as parameters straight from the parsed JSON, so no entity is loaded or copied.
+ */
+final class ColumnPatch {
+
+     /**
+      * A patchable column.
+      * @param name     column name in the table
+      * @param type     Java type the JSON value must have (String, Integer or Boolean), or LocalDate /
+      *                 LocalTime, which arrive as ISO strings since JSON has no date or time type
+      * @param nullable whether the field may be set to null
+      */
+     record Column(String name, Class<?> type, boolean nullable) {
+     }
+
+     /**
+      * The patchable columns of one table.
+      * @param name              table name
+      * @param columns           JSON field name to column
+      * @param touchLastModified whether the table has a last_modified column to set to now()
+      */
+     record Table(String name, Map<String, Column> columns, boolean touchLastModified) {
+     }
+
+     private final String sql;
+     private final MapSqlParameterSource parameters;
+
+     private ColumnPatch(String sql, MapSqlParameterSource parameters) {
+          this.sql = sql;
+          this.parameters = parameters;
+     }
+
+     /**
+      * @param table   the table and its patchable columns
+      * @param changes the PATCH body: field name to new value; fields not present are left untouched
+      * @param where   WHERE clause identifying the row, using named parameters from keys
+      * @param keys    parameters of the WHERE clause
+      * @return the statement and its parameters
+      * @throws IllegalArgumentException if the body is empty, names a field that cannot be patched,
+      *                                  or gives a value of the wrong type
+      */
+     static ColumnPatch build(Table table, Map<String, Object> changes, String where, Map<String, Object> keys) {
+          if (changes == null || changes.isEmpty()) {
+               throw new IllegalArgumentException("No fields to update");
+          }
+          MapSqlParameterSource parameters = new MapSqlParameterSource(keys);
+          List<String> assignments = new ArrayList<>();
+          for (Map.Entry<String, Object> change : changes.entrySet()) {
+               Column column = table.columns().get(change.getKey());
+               if (column == null) {
+                    throw new IllegalArgumentException("Field cannot be updated: " + change.getKey());
+               }
+               Object value = parseTemporal(column, change.getValue());
+               if (value == null && !column.nullable()) {
+                    throw new IllegalArgumentException("Field cannot be null: " + change.getKey());
+               }
+               if (value != null && !column.type().isInstance(value)) {
+                    throw new IllegalArgumentException("Field " + change.getKey() + " must be of type "
+                            + column.type().getSimpleName());
+               }
+               // parameter names are prefixed so they cannot collide with the key parameters
+               assignments.add(column.name() + " = :set_" + column.name());
+               parameters.addValue("set_" + column.name(), value);
+          }
+          if (table.touchLastModified()) {
+               assignments.add("last_modified = now()");
+          }
+          String sql = "UPDATE " + table.name() + " SET " + String.join(", ", assignments)
+                  + " WHERE " + where + " RETURNING *";
+          return new ColumnPatch(sql, parameters);
+     }
+
+     // leaves anything it cannot parse as it is, for the type check to reject
+     private static Object parseTemporal(Column column, Object value) {
+          if (!(value instanceof String text)) {
+               return value;
+          }
+          try {
+               if (column.type() == LocalDate.class) {
+                    return LocalDate.parse(text);
+               }
+               if (column.type() == LocalTime.class) {
+                    return LocalTime.parse(text);
+               }
+          } catch (DateTimeParseException e) {
+               return value;
+          }
+          return value;
+     }
+
+     String sql() {
+          return sql;
+     }
+
+     MapSqlParameterSource parameters() {
+          return parameters;
+     }
+}
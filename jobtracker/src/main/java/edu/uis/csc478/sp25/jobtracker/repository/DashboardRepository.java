@@ -0,0 +1,99 @@
+package edu.uis.csc478.sp25.jobtracker.repository;
+
+import edu.uis.csc478.sp25.jobtracker.model.Dashboard;
+import edu.uis.csc478.sp25.jobtracker.model.Job;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads the dashboard summary of one user in a single statement: each part is a CTE over the
+ * indexes the standalone endpoints already use, and the aggregates are repeated on every row of
+ * the recent-jobs list (or returned on one row with null job columns when the user has no jobs).
+ */
+@Repository
+public class DashboardRepository {
+
+     private static final String DASHBOARD = """
+                 WITH status_counts AS (
+                     SELECT coalesce(array_agg(status ORDER BY status), '{}') AS statuses,
+                            coalesce(array_agg(count ORDER BY status), '{}') AS counts
+                     FROM job_status_counts
+                     WHERE user_id = :userId AND count > 0
+                 ), job_totals AS (
+                     SELECT count(*) AS total_jobs,
+                            count(*) FILTER (WHERE favorite) AS favorite_count
+                     FROM job
+                     WHERE user_id = :userId
+                 ), upcoming AS (
+                     SELECT count(*) AS upcoming_interview_count
+                     FROM interview
+                     WHERE user_id = :userId
+                     AND date > :today
+                 ), recent AS (
+                     SELECT *
+                     FROM job
+                     WHERE user_id = :userId
+                     ORDER BY last_modified DESC, id DESC
+                     LIMIT :recentLimit
+                 )
+                 SELECT s.statuses, s.counts, t.total_jobs, t.favorite_count, u.upcoming_interview_count, r.*
+                 FROM status_counts s
+                 CROSS JOIN job_totals t
+                 CROSS JOIN upcoming u
+                 LEFT JOIN recent r ON true
+                 ORDER BY r.last_modified DESC, r.id DESC
+             """;
+
+     private final NamedParameterJdbcTemplate jdbcTemplate;
+
+     public DashboardRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+          this.jdbcTemplate = jdbcTemplate;
+     }
+
+     /**
+      * @param userId      the user whose dashboard is read
+      * @param today       interviews dated after this day count as upcoming
+      * @param recentLimit number of most recently modified jobs to include
+      * @return the dashboard summary
+      */
+     public Dashboard findByUserId(UUID userId, LocalDate today, int recentLimit) {
+          MapSqlParameterSource parameters = new MapSqlParameterSource()
+                  .addValue("userId", userId)
+                  .addValue("today", today)
+                  .addValue("recentLimit", recentLimit);
+          Dashboard.DashboardBuilder dashboard = Dashboard.builder();
+          List<Job> recentJobs = new ArrayList<>();
+          RowCallbackHandler collect = rs -> {
+               // the aggregates are the same on every row; read them from the first
+               if (recentJobs.isEmpty()) {
+                    Map<String, Integer> statusCounts = new LinkedHashMap<>();
+                    Array statuses = rs.getArray("statuses");
+                    Array counts = rs.getArray("counts");
+                    String[] statusValues = (String[]) statuses.getArray();
+                    Integer[] countValues = (Integer[]) counts.getArray();
+                    for (int i = 0; i < statusValues.length; i++) {
+                         statusCounts.put(statusValues[i], countValues[i]);
+                    }
+                    dashboard.statusCounts(statusCounts)
+                            .totalJobs(rs.getInt("total_jobs"))
+                            .favoriteCount(rs.getInt("favorite_count"))
+                            .upcomingInterviewCount(rs.getInt("upcoming_interview_count"));
+               }
+               if (rs.getObject("id") != null) {
+                    recentJobs.add(JobRowMapper.INSTANCE.mapRow(rs, recentJobs.size()));
+               }
+          };
+          jdbcTemplate.query(DASHBOARD, parameters, collect);
+          return dashboard.recentJobs(recentJobs).build();
+     }
+}
@@ -0,0 +1,129 @@
+package edu.uis.csc478.sp25.jobtracker.repository;
+
+import edu.uis.csc478.sp25.jobtracker.model.FunnelReport;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Reads funnel analytics from job_status_history (see V8__job_status_history.sql) in a single
+ * statement that walks the history once, in index order, and returns only aggregates: a few rows
+ * per cohort week and one per stage, however many jobs there are.
+ * <p>
+ * Window functions over each job's history give the time spent in every status (until the next
+ * change) and when the job entered the pipeline (its first status). From those rows, materialized
+ * once inside the database, one branch counts jobs by cohort week and furthest stage reached, and
+ * the other takes the median time per stage. Stages are ranked by their position in the list
+ * passed in, so statuses outside it are walked over but not reported.
+ */
+@Repository
+public class FunnelRepository {
+
+     private static final String FUNNEL = """
+                 WITH steps AS (
+                     SELECT h.job_id,
+                            array_position(CAST(:stages AS text[]), h.to_status) AS stage,
+                            extract(epoch FROM lead(h.changed_at) OVER w - h.changed_at) AS seconds_in_status,
+                            first_value(h.changed_at) OVER w AS entered_at
+                     FROM job_status_history h
+                     %s
+                     WINDOW w AS (PARTITION BY h.user_id, h.job_id ORDER BY h.changed_at, h.id)
+                 ), cohort_steps AS (
+                     SELECT *
+                     FROM steps
+                     WHERE entered_at >= :from AND entered_at < :to
+                 )
+                 SELECT 'cohort' AS kind, week, furthest AS stage, count(*) AS jobs, NULL::float8 AS median_seconds
+                 FROM (SELECT date_trunc('week', min(entered_at) AT TIME ZONE 'UTC')::date AS week,
+                              max(stage) AS furthest
+                       FROM cohort_steps
+                       GROUP BY job_id) AS jobs
+                 WHERE furthest IS NOT NULL
+                 GROUP BY week, furthest
+                 UNION ALL
+                 SELECT 'stage', NULL, stage, count(*), percentile_cont(0.5) WITHIN GROUP (ORDER BY seconds_in_status)
+                 FROM cohort_steps
+                 WHERE stage IS NOT NULL AND seconds_in_status IS NOT NULL
+                 GROUP BY stage
+             """;
+     // the user's rows are one range of job_status_history_user_job_idx, already in window order
+     static final String USER_FUNNEL = FUNNEL.formatted("WHERE h.user_id = :userId");
+     static final String ALL_USERS_FUNNEL = FUNNEL.formatted("");
+
+     private final NamedParameterJdbcTemplate jdbcTemplate;
+
+     public FunnelRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+          this.jdbcTemplate = jdbcTemplate;
+     }
+
+     /**
+      * @param userId the user whose jobs are counted, or null for every user
+      * @param stages the funnel's statuses, in pipeline order
+      * @param from   jobs that entered the pipeline at or after this instant are counted
+      * @param to     and before this one
+      * @return the report, without its from and to dates
+      */
+     public FunnelReport findFunnel(UUID userId, List<String> stages, OffsetDateTime from, OffsetDateTime to) {
+          MapSqlParameterSource parameters = new MapSqlParameterSource()
+                  .addValue("userId", userId)
+                  .addValue("stages", stages.toArray(new String[0]))
+                  .addValue("from", from)
+                  .addValue("to", to);
+          int count = stages.size();
+          // jobs whose furthest stage is index i, per cohort week and in total
+          Map<LocalDate, long[]> furthestByWeek = new TreeMap<>();
+          long[] furthest = new long[count];
+          Double[] medians = new Double[count];
+          long[] exited = new long[count];
+          RowCallbackHandler collect = rs -> {
+               int stage = rs.getInt("stage") - 1;
+               if (rs.getString("kind").equals("cohort")) {
+                    long jobs = rs.getLong("jobs");
+                    furthestByWeek.computeIfAbsent(rs.getObject("week", LocalDate.class), week -> new long[count])[stage] += jobs;
+                    furthest[stage] += jobs;
+               } else {
+                    medians[stage] = rs.getDouble("median_seconds");
+                    exited[stage] = rs.getLong("jobs");
+               }
+          };
+          jdbcTemplate.query(userId == null ? ALL_USERS_FUNNEL : USER_FUNNEL, parameters, collect);
+
+          long[] reached = reachedCounts(furthest);
+          List<FunnelReport.Stage> stageReport = new ArrayList<>(count);
+          for (int i = 0; i < count; i++) {
+               Double conversion = i == 0 || reached[i - 1] == 0 ? null : (double) reached[i] / reached[i - 1];
+               stageReport.add(new FunnelReport.Stage(stages.get(i), reached[i], conversion, medians[i], exited[i]));
+          }
+          List<FunnelReport.Cohort> cohorts = new ArrayList<>(furthestByWeek.size());
+          furthestByWeek.forEach((week, counts) -> {
+               long[] cohortReached = reachedCounts(counts);
+               Map<String, Long> byStage = new LinkedHashMap<>();
+               for (int i = 0; i < count; i++) {
+                    byStage.put(stages.get(i), cohortReached[i]);
+               }
+               cohorts.add(new FunnelReport.Cohort(week, byStage));
+          });
+          return FunnelReport.builder().stages(stageReport).cohorts(cohorts).build();
+     }
+
+     // a job that got to stage i also passed every stage before it, whether or not it was recorded there
+     private static long[] reachedCounts(long[] furthest) {
+          long[] reached = new long[furthest.length];
+          long total = 0;
+          for (int i = furthest.length - 1; i >= 0; i--) {
+               total += furthest[i];
+               reached[i] = total;
+          }
+          return reached;
+     }
+}
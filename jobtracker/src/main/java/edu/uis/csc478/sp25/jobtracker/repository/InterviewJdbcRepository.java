@@ -0,0 +1,80 @@
+package edu.uis.csc478.sp25.jobtracker.repository;
+
+import edu.uis.csc478.sp25.jobtracker.model.Interview;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * JdbcTemplate-backed statements on the interview table that a Spring Data @Query method cannot
+ * express, such as an UPDATE whose SET list depends on the request.
+ */
+@Repository
+public class InterviewJdbcRepository {
+
+     static final ColumnPatch.Table PATCHABLE = new ColumnPatch.Table("interview", Map.of(
+             "format", new ColumnPatch.Column("format", String.class, true),
+             "round", new ColumnPatch.Column("round", String.class, true),
+             "date", new ColumnPatch.Column("date", LocalDate.class, true),
+             "time", new ColumnPatch.Column("time", LocalTime.class, true),
+             "company", new ColumnPatch.Column("company", String.class, true)
+     ), false);
+
+     // one chunk of GET /interviews/export, in primary key order (interview_user_id_idx)
+     static final String EXPORT_FIRST = "SELECT * FROM interview WHERE user_id = :userId ORDER BY id LIMIT :limit";
+     static final String EXPORT_AFTER = "SELECT * FROM interview WHERE user_id = :userId AND id > :id ORDER BY id LIMIT :limit";
+
+     static final RowMapper<Interview> ROW_MAPPER = (rs, rowNum) -> Interview.builder()
+             .id(rs.getObject("id", UUID.class))
+             .user_id(rs.getObject("user_id", UUID.class))
+             .format(rs.getString("format"))
+             .round(rs.getString("round"))
+             .date(rs.getObject("date", LocalDate.class))
+             .time(rs.getObject("time", LocalTime.class))
+             .company(rs.getString("company"))
+             .lastModified(rs.getObject("last_modified", OffsetDateTime.class))
+             .build();
+
+     private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+     public InterviewJdbcRepository(NamedParameterJdbcTemplate namedJdbcTemplate) {
+          this.namedJdbcTemplate = namedJdbcTemplate;
+     }
+
+     /**
+      * Reads one chunk of a user's interviews in ID order, as one bounded query: the connection goes
+      * back to the pool as soon as the chunk has been read.
+      * @param userId the owner of the interviews
+      * @param after  ID of the last interview of the previous chunk, or null for the first chunk
+      * @param limit  maximum number of interviews to read
+      * @return the next interviews after the given ID; fewer than limit once the last chunk is reached
+      */
+     public List<Interview> findChunk(UUID userId, UUID after, int limit) {
+          Map<String, Object> parameters = after == null
+                  ? Map.of("userId", userId, "limit", limit)
+                  : Map.of("userId", userId, "id", after, "limit", limit);
+          return namedJdbcTemplate.query(after == null ? EXPORT_FIRST : EXPORT_AFTER, parameters, ROW_MAPPER);
+     }
+
+     /**
+      * Sets only the given fields of an interview owned by the user, in one statement.
+      * @param id      the interview to update
+      * @param userId  the owner; the row is only updated if it belongs to this user
+      * @param changes JSON field name to new value, as parsed from a PATCH body
+      * @return the updated row, or empty if the interview does not exist or belongs to someone else
+      * @throws IllegalArgumentException if a field cannot be patched or has the wrong type
+      */
+     public Optional<Interview> patch(UUID id, UUID userId, Map<String, Object> changes) {
+          ColumnPatch patch = ColumnPatch.build(PATCHABLE, changes, "id = :id AND user_id = :userId",
+                  Map.of("id", id, "userId", userId));
+          return namedJdbcTemplate.query(patch.sql(), patch.parameters(), ROW_MAPPER).stream().findFirst();
+     }
+}
@@ -1,12 +1,15 @@
 package edu.uis.csc478.sp25.jobtracker.repository;
 
 import edu.uis.csc478.sp25.jobtracker.model.Interview;
+import edu.uis.csc478.sp25.jobtracker.model.ResourceVersion;
 import org.springframework.data.jdbc.repository.query.Modifying;
 import org.springframework.data.jdbc.repository.query.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -17,6 +20,14 @@ public interface InterviewRepository extends CrudRepository<Interview, UUID> {
      @Query("SELECT * FROM interview WHERE user_id = :userId")
      List<Interview> findByUserId(@Param("userId") UUID userId);
 
+     /**
+      * Counts a user's interviews and finds their latest last_modified, for the ETag of GET /interviews,
+      * as an index-only scan of the (user_id, last_modified) index.
+      */
+     @Query(value = "SELECT count(*) AS count, max(last_modified) AS last_modified FROM interview WHERE user_id = :userId",
+             rowMapperClass = ResourceVersionRowMapper.class)
+     ResourceVersion findVersionByUserId(@Param("userId") UUID userId);
+
      @Query("SELECT * FROM interview WHERE id = :id AND user_id = :userId")
      Optional<Interview> findByIdAndUserId(@Param("id") UUID id, @Param("userId") UUID userId);
 
@@ -25,16 +36,16 @@ public interface InterviewRepository extends CrudRepository<Interview, UUID> {
               WHERE user_id = :userId
               AND (:format IS NULL OR LOWER(format) LIKE LOWER(CONCAT('%', :format, '%')))
               AND (:round IS NULL OR LOWER(round) LIKE LOWER(CONCAT('%', :round, '%')))
-              AND (:date IS NULL OR date = :date)
-              AND (:time IS NULL OR time = :time)
+              AND (CAST(:date AS date) IS NULL OR date = CAST(:date AS date))
+              AND (CAST(:time AS time) IS NULL OR time = CAST(:time AS time))
               AND (:company IS NULL OR LOWER(company) LIKE LOWER(CONCAT('%', :company, '%')))
              """)
      List<Interview> findByFiltersAndUserId(
              @Param("userId") UUID userId,
              @Param("format") String format,
              @Param("round") String round,
-             @Param("date") String date,
-             @Param("time") String time,
+             @Param("date") LocalDate date,
+             @Param("time") LocalTime time,
              @Param("company") String company  // New parameter
      );
 
@@ -45,10 +56,23 @@ public interface InterviewRepository extends CrudRepository<Interview, UUID> {
      @Query("DELETE FROM interview WHERE id = :id AND user_id = :userId")
      int deleteByIdAndUserId(@Param("id") UUID id, @Param("userId") UUID userId);
 
+     /**
+      * Fetches the user's interviews dated after the given day, soonest first, as a range scan of
+      * the (user_id, date, time) index that stops after limit rows.
+      */
      @Query("""
-             SELECT * FROM interview 
-             WHERE user_id = :userId 
-             AND date > TO_CHAR(CURRENT_DATE, 'yyyy-MM-dd')
+             SELECT * FROM interview
+             WHERE user_id = :userId
+             AND date > :today
+             ORDER BY date, time
+             LIMIT :limit
              """)
-     List<Interview> findUpcomingByUserId(@Param("userId") UUID userId);
-}
\ No newline at end of file
+     List<Interview> findUpcomingByUserId(@Param("userId") UUID userId, @Param("today") LocalDate today,
+                                          @Param("limit") int limit);
+
+     /**
+      * Counts the user's interviews dated after the given day, from the (user_id, date, time) index.
+      */
+     @Query("SELECT count(*) FROM interview WHERE user_id = :userId AND date > :today")
+     int countUpcomingByUserId(@Param("userId") UUID userId, @Param("today") LocalDate today);
+}
@@ -0,0 +1,144 @@
+package edu.uis.csc478.sp25.jobtracker.repository;
+
+import edu.uis.csc478.sp25.jobtracker.model.Job;
+import edu.uis.csc478.sp25.jobtracker.model.JobSearchCriteria;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * JdbcTemplate-backed queries on the job table that a Spring Data @Query method cannot express,
+ * such as handing rows to the caller one at a time as they come off the ResultSet, or a
+ * search whose WHERE clause depends on which filters were given.
+ */
+@Repository
+public class JobJdbcRepository {
+
+     // one chunk of GET /jobs/stream, newest first (job_user_last_modified_idx)
+     static final String STREAM_FIRST =
+             "SELECT * FROM job WHERE user_id = :userId ORDER BY last_modified DESC, id DESC LIMIT :limit";
+     static final String STREAM_AFTER = "SELECT * FROM job WHERE user_id = :userId " +
+             "AND (last_modified, id) < (:lastModified, :id) ORDER BY last_modified DESC, id DESC LIMIT :limit";
+     // one chunk of GET /jobs/export, in primary key order (job_user_id_idx)
+     static final String EXPORT_FIRST = "SELECT * FROM job WHERE user_id = :userId ORDER BY id LIMIT :limit";
+     static final String EXPORT_AFTER = "SELECT * FROM job WHERE user_id = :userId AND id > :id ORDER BY id LIMIT :limit";
+     static final ColumnPatch.Table PATCHABLE = new ColumnPatch.Table("job", Map.of(
+             "title", new ColumnPatch.Column("title", String.class, true),
+             "level", new ColumnPatch.Column("level", String.class, true),
+             "minSalary", new ColumnPatch.Column("minsalary", Integer.class, false),
+             "maxSalary", new ColumnPatch.Column("maxsalary", Integer.class, false),
+             "location", new ColumnPatch.Column("location", String.class, true),
+             "status", new ColumnPatch.Column("status", String.class, true),
+             "company", new ColumnPatch.Column("company", String.class, true),
+             "favorite", new ColumnPatch.Column("favorite", Boolean.class, false)
+     ), true);
+     private static final String INSERT_JOB =
+             "INSERT INTO job (id, user_id, title, level, minsalary, maxsalary, location, status, company, favorite) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+     private final NamedParameterJdbcTemplate namedJdbcTemplate;
+     private final int streamChunkSize;
+
+     /**
+      * @param namedJdbcTemplate template used for the dynamically built search query
+      * @param streamChunkSize   number of rows read per query while streaming
+      */
+     public JobJdbcRepository(NamedParameterJdbcTemplate namedJdbcTemplate,
+                              @Value("${jobtracker.jobs.stream-chunk-size:500}") int streamChunkSize) {
+          this.namedJdbcTemplate = namedJdbcTemplate;
+          this.streamChunkSize = Math.max(1, streamChunkSize);
+     }
+
+     /**
+      * Streams every job of a user, newest first, to the given consumer. The jobs are read in
+      * keyset chunks on (last_modified, id), each a bounded query whose connection goes back to the
+      * pool before the consumer sees its rows, so a slow consumer never holds a connection and
+      * memory stays at one chunk.
+      * <p>
+      * A job edited while the stream runs moves ahead of the chunks already read, so it is left out
+      * if it had not been sent yet, as with the paged GET /jobs.
+      * @param userId the owner of the jobs
+      * @param action called once per row, in order
+      */
+     public void forEachByUserId(UUID userId, Consumer<Job> action) {
+          List<Job> chunk = namedJdbcTemplate.query(STREAM_FIRST,
+                  Map.of("userId", userId, "limit", streamChunkSize), JobRowMapper.INSTANCE);
+          while (true) {
+               chunk.forEach(action);
+               if (chunk.size() < streamChunkSize) {
+                    return;
+               }
+               Job last = chunk.get(chunk.size() - 1);
+               chunk = namedJdbcTemplate.query(STREAM_AFTER, Map.of("userId", userId,
+                       "lastModified", last.getLastModified(), "id", last.getId(), "limit", streamChunkSize),
+                       JobRowMapper.INSTANCE);
+          }
+     }
+
+     /**
+      * Reads one chunk of a user's jobs in ID order, as one bounded query: the connection goes back
+      * to the pool as soon as the chunk has been read, not when the caller is done with it.
+      * @param userId the owner of the jobs
+      * @param after  ID of the last job of the previous chunk, or null for the first chunk
+      * @param limit  maximum number of jobs to read
+      * @return the next jobs after the given ID; fewer than limit once the last chunk is reached
+      */
+     public List<Job> findChunk(UUID userId, UUID after, int limit) {
+          Map<String, Object> parameters = after == null
+                  ? Map.of("userId", userId, "limit", limit)
+                  : Map.of("userId", userId, "id", after, "limit", limit);
+          return namedJdbcTemplate.query(after == null ? EXPORT_FIRST : EXPORT_AFTER, parameters, JobRowMapper.INSTANCE);
+     }
+
+     /**
+      * Searches a user's jobs, most relevant first, using only the filters present in the criteria.
+      * @param userId   the owner of the jobs
+      * @param criteria the filters, limit and offset of the search
+      * @return one page of matching jobs
+      */
+     public List<Job> search(UUID userId, JobSearchCriteria criteria) {
+          JobSearchQuery query = JobSearchQuery.build(userId, criteria);
+          return namedJdbcTemplate.query(query.sql(), query.parameters(), JobRowMapper.INSTANCE);
+     }
+
+     /**
+      * Inserts the given jobs as one JDBC batch. With reWriteBatchedInserts=true on the connection
+      * URL the driver folds the batch into multi-row INSERT ... VALUES statements, so a chunk costs a
+      * handful of round trips instead of one per row. Runs in the caller's transaction, if any.
+      * @param jobs fully populated jobs, including id and userId
+      */
+     public void insertAll(List<Job> jobs) {
+          namedJdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_JOB, jobs, jobs.size(), (ps, job) -> {
+               ps.setObject(1, job.getId());
+               ps.setObject(2, job.getUserId());
+               ps.setString(3, job.getTitle());
+               ps.setString(4, job.getLevel());
+               ps.setInt(5, job.getMinSalary());
+               ps.setInt(6, job.getMaxSalary());
+               ps.setString(7, job.getLocation());
+               ps.setString(8, job.getStatus());
+               ps.setString(9, job.getCompany());
+               ps.setBoolean(10, job.isFavorite());
+          });
+     }
+
+     /**
+      * Sets only the given fields of a job owned by the user, plus last_modified, in one statement.
+      * @param id      the job to update
+      * @param userId  the owner; the row is only updated if it belongs to this user
+      * @param changes JSON field name to new value, as parsed from a PATCH body
+      * @return the updated row, or empty if the job does not exist or belongs to someone else
+      * @throws IllegalArgumentException if a field cannot be patched or has the wrong type
+      */
+     public Optional<Job> patch(UUID id, UUID userId, Map<String, Object> changes) {
+          ColumnPatch patch = ColumnPatch.build(PATCHABLE, changes, "id = :id AND user_id = :userId",
+                  Map.of("id", id, "userId", userId));
+          return namedJdbcTemplate.query(patch.sql(), patch.parameters(), JobRowMapper.INSTANCE).stream().findFirst();
+     }
+}
@@ -1,11 +1,13 @@
 package edu.uis.csc478.sp25.jobtracker.repository;
 
 import edu.uis.csc478.sp25.jobtracker.model.Job;
-import org.springframework.data.jdbc.repository.query.Modifying;
+import edu.uis.csc478.sp25.jobtracker.model.ResourceVersion;
 import org.springframework.data.jdbc.repository.query.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -15,33 +17,6 @@ import java.util.UUID;
  */
 public interface JobRepository extends CrudRepository<Job, UUID> {
 
-     /**
-      * Finds jobs by various filters, now including favorite.
-      */
-     @Query("""
-                 SELECT * FROM job 
-                 WHERE user_id = :userId
-                 AND (:minSalary IS NULL OR minsalary >= :minSalary)
-                 AND (:maxSalary IS NULL OR maxsalary <= :maxSalary)
-                 AND (:title IS NULL OR LOWER(title) LIKE LOWER(CONCAT('%', :title, '%')))
-                 AND (:level IS NULL OR LOWER(level) = LOWER(:level))
-                 AND (:location IS NULL OR LOWER(location) LIKE LOWER(CONCAT('%', :location, '%')))
-                 AND (:status IS NULL OR LOWER(status) = LOWER(:status))
-                 AND (:company IS NULL OR LOWER(company) LIKE LOWER(CONCAT('%', :company, '%')))
-                 AND (:favorite IS NULL OR favorite = :favorite)
-             """)
-     List<Job> findJobsByFilters(
-             @Param("userId") UUID userId,
-             @Param("title") String title,
-             @Param("level") String level,
-             @Param("minSalary") Integer minSalary,
-             @Param("maxSalary") Integer maxSalary,
-             @Param("location") String location,
-             @Param("status") String status,
-             @Param("company") String company,
-             @Param("favorite") Boolean favorite
-     );
-
      /**
       * Retrieves all jobs associated with the given user ID.
       */
@@ -55,21 +30,17 @@ public interface JobRepository extends CrudRepository<Job, UUID> {
      Optional<Job> findByIdAndUserId(@Param("id") UUID id, @Param("userId") UUID userId);
 
      /**
-      * Checks if a job exists with the given ID and user ID.
+      * Deletes a job owned by the user and returns the deleted row, in one statement.
+      * The result is empty if the job does not exist or belongs to someone else.
       */
-     @Query("SELECT CASE WHEN EXISTS (SELECT 1 FROM job WHERE id = :id AND user_id = :userId) THEN TRUE ELSE FALSE END")
-     boolean existsByIdAndUserId(@Param("id") UUID id, @Param("userId") UUID userId);
+     @Query("DELETE FROM job WHERE id = :id AND user_id = :userId RETURNING *")
+     Optional<Job> deleteByIdAndUserId(@Param("id") UUID id, @Param("userId") UUID userId);
 
      /**
-      * Retrieves the count of jobs by status for the given user ID.
+      * Checks if a job exists with the given ID and user ID.
       */
-     @Query("""
-                 SELECT j.status, COUNT(j)
-                 FROM job j
-                 WHERE j.user_id = :userId
-                 GROUP BY j.status
-             """)
-     List<Object[]> countJobsByStatus(@Param("userId") UUID userId);
+     @Query("SELECT CASE WHEN EXISTS (SELECT 1 FROM job WHERE id = :id AND user_id = :userId) THEN TRUE ELSE FALSE END")
+     boolean existsByIdAndUserId(@Param("id") UUID id, @Param("userId") UUID userId);
 
      /**
       * Retrieves all jobs for a user (simple version).
@@ -77,22 +48,52 @@ public interface JobRepository extends CrudRepository<Job, UUID> {
      List<Job> findByUserId(UUID userId);
 
      /**
-      * Inserts a new job, now including the favorite field.
+      * Inserts a new job and returns the stored row, so callers need no second query to read it back.
       */
-     @Modifying
      @Query("INSERT INTO job (id, user_id, title, level, minsalary, maxsalary, location, status, company, favorite) " +
              "VALUES (:#{#job.id}, :#{#job.userId}, :#{#job.title}, :#{#job.level}, :#{#job.minSalary}, " +
-             ":#{#job.maxSalary}, :#{#job.location}, :#{#job.status}, :#{#job.company}, :#{#job.favorite})")
-     void insertJob(@Param("job") Job job);
+             ":#{#job.maxSalary}, :#{#job.location}, :#{#job.status}, :#{#job.company}, :#{#job.favorite}) " +
+             "RETURNING *")
+     Job insertJob(@Param("job") Job job);
 
      /**
-      * Updates an existing job, now including the favorite field.
+      * Replaces every editable column of a job owned by job.userId and returns the updated row.
+      * Ownership is enforced in the WHERE clause, so the result is empty if the job does not exist
+      * or belongs to someone else.
       */
-     @Modifying
      @Query("UPDATE job SET title = :#{#job.title}, level = :#{#job.level}, minsalary = :#{#job.minSalary}, " +
-             "maxsalary = :#{#job.maxSalary}, location = :#{#job.location}, status = :#{#job.status}, company = :#{#job.company}, favorite = :#{#job.favorite} " +
-             "WHERE id = :#{#job.id} AND user_id = :#{#job.userId}")
-     int updateJob(@Param("job") Job job);
+             "maxsalary = :#{#job.maxSalary}, location = :#{#job.location}, status = :#{#job.status}, company = :#{#job.company}, " +
+             "favorite = :#{#job.favorite}, last_modified = now() " +
+             "WHERE id = :#{#job.id} AND user_id = :#{#job.userId} " +
+             "RETURNING *")
+     Optional<Job> updateJob(@Param("job") Job job);
+
+     /**
+      * Sets the favorite flag of one job owned by the user and returns the row, in one statement.
+      * last_modified only moves when the flag actually changes, so repeating a toggle is harmless.
+      */
+     @Query("""
+                 UPDATE job
+                 SET favorite = :favorite,
+                     last_modified = CASE WHEN favorite IS DISTINCT FROM :favorite THEN now() ELSE last_modified END
+                 WHERE id = :id AND user_id = :userId
+                 RETURNING *
+             """)
+     Optional<Job> setFavorite(@Param("id") UUID id, @Param("userId") UUID userId, @Param("favorite") boolean favorite);
+
+     /**
+      * Sets the favorite flag of every listed job owned by the user, in one statement.
+      * IDs that do not exist or belong to someone else are skipped.
+      */
+     @Query("""
+                 UPDATE job
+                 SET favorite = :favorite,
+                     last_modified = CASE WHEN favorite IS DISTINCT FROM :favorite THEN now() ELSE last_modified END
+                 WHERE id IN (:ids) AND user_id = :userId
+                 RETURNING *
+             """)
+     List<Job> setFavoriteAll(@Param("ids") Collection<UUID> ids, @Param("userId") UUID userId,
+                              @Param("favorite") boolean favorite);
 
      /**
       * Retrieves all favorite jobs for a given user.
@@ -100,9 +101,48 @@ public interface JobRepository extends CrudRepository<Job, UUID> {
      @Query("SELECT * FROM job WHERE user_id = :userId AND favorite = TRUE")
      List<Job> findByUserIdAndFavoriteTrue(@Param("userId") UUID userId);
 
+     /**
+      * Counts a user's jobs and finds their latest last_modified, for the ETag of GET /jobs,
+      * as an index-only scan and without loading any job.
+      */
+     @Query(value = "SELECT count(*) AS count, max(last_modified) AS last_modified FROM job WHERE user_id = :userId",
+             rowMapperClass = ResourceVersionRowMapper.class)
+     ResourceVersion findVersionByUserId(@Param("userId") UUID userId);
+
+     /**
+      * Counts a user's favorite jobs and finds their latest last_modified, for the ETag of GET /jobs/favorites.
+      */
+     @Query(value = "SELECT count(*) AS count, max(last_modified) AS last_modified FROM job " +
+             "WHERE user_id = :userId AND favorite = TRUE",
+             rowMapperClass = ResourceVersionRowMapper.class)
+     ResourceVersion findFavoriteVersionByUserId(@Param("userId") UUID userId);
+
      /**
       * Fetch jobs ordered by last_modified descending.
       */
      @Query("SELECT * FROM job WHERE user_id = :userId ORDER BY last_modified DESC")
      List<Job> findAllByUserIdOrderByLastModifiedDesc(@Param("userId") UUID userId);
+
+     /**
+      * Fetches the first keyset page of a user's jobs, ordered by (last_modified, id) descending.
+      */
+     @Query("SELECT * FROM job WHERE user_id = :userId ORDER BY last_modified DESC, id DESC LIMIT :limit")
+     List<Job> findFirstPageByUserId(@Param("userId") UUID userId, @Param("limit") int limit);
+
+     /**
+      * Fetches the keyset page that follows the row identified by (lastModified, id).
+      */
+     @Query("""
+                 SELECT * FROM job
+                 WHERE user_id = :userId
+                 AND (last_modified, id) < (:lastModified, :id)
+                 ORDER BY last_modified DESC, id DESC
+                 LIMIT :limit
+             """)
+     List<Job> findPageByUserIdAfter(
+             @Param("userId") UUID userId,
+             @Param("lastModified") OffsetDateTime lastModified,
+             @Param("id") UUID id,
+             @Param("limit") int limit
+     );
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package edu.uis.csc478.sp25.jobtracker.repository;
+
+import edu.uis.csc478.sp25.jobtracker.model.Job;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Maps a row of the job table to a Job for queries that run through JdbcTemplate
+ * instead of a Spring Data repository method.
+ */
+public class JobRowMapper implements RowMapper<Job> {
+
+     public static final JobRowMapper INSTANCE = new JobRowMapper();
+
+     @Override
+     public Job mapRow(ResultSet rs, int rowNum) throws SQLException {
+          return Job.builder()
+                  .id(rs.getObject("id", UUID.class))
+                  .title(rs.getString("title"))
+                  .level(rs.getString("level"))
+                  .minSalary(rs.getInt("minsalary"))
+                  .maxSalary(rs.getInt("maxsalary"))
+                  .location(rs.getString("location"))
+                  .status(rs.getString("status"))
+                  .company(rs.getString("company"))
+                  .userId(rs.getObject("user_id", UUID.class))
+                  .lastModified(rs.getObject("last_modified", OffsetDateTime.class))
+                  .favorite(rs.getBoolean("favorite"))
+                  .build();
+     }
+}
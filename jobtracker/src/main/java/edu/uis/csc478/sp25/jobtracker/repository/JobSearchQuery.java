@@ -0,0 +1,104 @@
+package edu.uis.csc478.sp25.jobtracker.repository;
+
+import edu.uis.csc478.sp25.jobtracker.model.JobSearchCriteria;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Builds the SQL for a job search from only the filters that are actually present.
+ * Writing each filter as ":x IS NULL OR ..." keeps every predicate in the plan and stops
+ * PostgreSQL from using an index for any of them; leaving absent ones out lets the trigram
+ * indexes from the V3__job_search_indexes.sql migration serve the substring filters.
+ * Results are ordered by how closely the text filters match (word_similarity), then newest first.
+ */
+final class JobSearchQuery {
+
+     private final String sql;
+     private final MapSqlParameterSource parameters;
+
+     private JobSearchQuery(String sql, MapSqlParameterSource parameters) {
+          this.sql = sql;
+          this.parameters = parameters;
+     }
+
+     /**
+      * @param userId   the owner of the jobs
+      * @param criteria the filters, limit and offset of the search
+      * @return the query and its named parameters
+      */
+     static JobSearchQuery build(UUID userId, JobSearchCriteria criteria) {
+          MapSqlParameterSource parameters = new MapSqlParameterSource("userId", userId);
+          List<String> predicates = new ArrayList<>();
+          List<String> relevance = new ArrayList<>();
+          predicates.add("user_id = :userId");
+
+          contains(predicates, relevance, parameters, "title", criteria.getTitle());
+          equalsIgnoringCase(predicates, parameters, "level", criteria.getLevel());
+          if (criteria.getMinSalary() != null) {
+               predicates.add("minsalary >= :minSalary");
+               parameters.addValue("minSalary", criteria.getMinSalary());
+          }
+          if (criteria.getMaxSalary() != null) {
+               predicates.add("maxsalary <= :maxSalary");
+               parameters.addValue("maxSalary", criteria.getMaxSalary());
+          }
+          contains(predicates, relevance, parameters, "location", criteria.getLocation());
+          equalsIgnoringCase(predicates, parameters, "status", criteria.getStatus());
+          contains(predicates, relevance, parameters, "company", criteria.getCompany());
+          if (criteria.getFavorite() != null) {
+               predicates.add("favorite = :favorite");
+               parameters.addValue("favorite", criteria.getFavorite());
+          }
+
+          StringBuilder sql = new StringBuilder("SELECT * FROM job WHERE ")
+                  .append(String.join(" AND ", predicates))
+                  .append(" ORDER BY ");
+          if (!relevance.isEmpty()) {
+               sql.append('(').append(String.join(" + ", relevance)).append(") DESC, ");
+          }
+          sql.append("last_modified DESC, id DESC LIMIT :limit OFFSET :offset");
+          parameters.addValue("limit", criteria.getLimit());
+          parameters.addValue("offset", criteria.getOffset());
+          return new JobSearchQuery(sql.toString(), parameters);
+     }
+
+     String sql() {
+          return sql;
+     }
+
+     MapSqlParameterSource parameters() {
+          return parameters;
+     }
+
+     // case-insensitive substring match; the search term is escaped so % and _ match literally
+     private static void contains(List<String> predicates, List<String> relevance,
+                                  MapSqlParameterSource parameters, String column, String value) {
+          if (isBlank(value)) {
+               return;
+          }
+          predicates.add(column + " ILIKE :" + column + "Pattern");
+          relevance.add("word_similarity(:" + column + ", " + column + ")");
+          parameters.addValue(column, value);
+          parameters.addValue(column + "Pattern", "%" + escapeLike(value) + "%");
+     }
+
+     private static void equalsIgnoringCase(List<String> predicates, MapSqlParameterSource parameters,
+                                            String column, String value) {
+          if (isBlank(value)) {
+               return;
+          }
+          predicates.add("lower(" + column + ") = lower(:" + column + ")");
+          parameters.addValue(column, value);
+     }
+
+     static String escapeLike(String value) {
+          return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+     }
+
+     private static boolean isBlank(String value) {
+          return value == null || value.isBlank();
+     }
+}
@@ -0,0 +1,68 @@
+package edu.uis.csc478.sp25.jobtracker.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Access to the job_status_counts table, which database triggers on job keep in step with
+ * every insert, update and delete (see the V2__job_status_counts.sql migration).
+ */
+@Repository
+public class JobStatusCountRepository {
+
+     // Lock key shared by all instances so that only one of them rebuilds the table at a time
+     private static final long REBUILD_LOCK_KEY = 0x6A6F625F73746174L;
+
+     private final JdbcTemplate jdbcTemplate;
+     private final TransactionTemplate transactionTemplate;
+
+     public JobStatusCountRepository(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+          this.jdbcTemplate = jdbcTemplate;
+          this.transactionTemplate = new TransactionTemplate(transactionManager);
+     }
+
+     /**
+      * Reads the non-zero status counts of one user.
+      * @param userId the owner of the jobs
+      * @return map of status to count, empty if the user has no counted jobs
+      */
+     public Map<String, Integer> findByUserId(UUID userId) {
+          Map<String, Integer> counts = new LinkedHashMap<>();
+          RowCallbackHandler collect = rs -> counts.put(rs.getString("status"), rs.getInt("count"));
+          jdbcTemplate.query("SELECT status, count FROM job_status_counts WHERE user_id = ? AND count > 0", collect, userId);
+          return counts;
+     }
+
+     /**
+      * Rebuilds the whole table from the job table.
+      * The table is locked for the duration so trigger updates from concurrent writers queue up
+      * behind the rebuild and are applied on top of it, rather than being lost.
+      * @return false if another instance is already rebuilding, true once the rebuild committed
+      */
+     public boolean rebuildAll() {
+          Boolean rebuilt = transactionTemplate.execute(status -> {
+               Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, REBUILD_LOCK_KEY);
+               if (!Boolean.TRUE.equals(locked)) {
+                    return false;
+               }
+               jdbcTemplate.execute("LOCK TABLE job_status_counts IN EXCLUSIVE MODE");
+               jdbcTemplate.update("DELETE FROM job_status_counts");
+               jdbcTemplate.update("""
+                           INSERT INTO job_status_counts (user_id, status, count)
+                           SELECT user_id, status, count(*)
+                           FROM job
+                           WHERE status <> ''
+                           GROUP BY user_id, status
+                       """);
+               return true;
+          });
+          return Boolean.TRUE.equals(rebuilt);
+     }
+}
@@ -0,0 +1,59 @@
+package edu.uis.csc478.sp25.jobtracker.repository;
+
+import edu.uis.csc478.sp25.jobtracker.model.Profile;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * JdbcTemplate-backed statements on the profile table that a Spring Data @Query method cannot
+ * express, such as an UPDATE whose SET list depends on the request.
+ */
+@Repository
+public class ProfileJdbcRepository {
+
+     private static final ColumnPatch.Table PATCHABLE = new ColumnPatch.Table("profile", Map.of(
+             "name", new ColumnPatch.Column("name", String.class, true),
+             "email", new ColumnPatch.Column("email", String.class, true),
+             "title", new ColumnPatch.Column("title", String.class, true),
+             "bio", new ColumnPatch.Column("bio", String.class, true),
+             "location", new ColumnPatch.Column("location", String.class, true),
+             "phoneNumber", new ColumnPatch.Column("phonenumber", String.class, true)
+     ), false);
+
+     private static final RowMapper<Profile> ROW_MAPPER = (rs, rowNum) -> {
+          Profile profile = new Profile();
+          profile.setId(rs.getObject("id", UUID.class));
+          profile.setName(rs.getString("name"));
+          profile.setEmail(rs.getString("email"));
+          profile.setTitle(rs.getString("title"));
+          profile.setBio(rs.getString("bio"));
+          profile.setLocation(rs.getString("location"));
+          profile.setPhoneNumber(rs.getString("phonenumber"));
+          profile.setLastModified(rs.getObject("last_modified", OffsetDateTime.class));
+          return profile;
+     };
+
+     private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+     public ProfileJdbcRepository(NamedParameterJdbcTemplate namedJdbcTemplate) {
+          this.namedJdbcTemplate = namedJdbcTemplate;
+     }
+
+     /**
+      * Sets only the given fields of a profile, in one statement.
+      * @param id      the profile to update (the same UUID as its user)
+      * @param changes JSON field name to new value, as parsed from a PATCH body
+      * @return the updated row, or empty if the profile does not exist
+      * @throws IllegalArgumentException if a field cannot be patched or has the wrong type
+      */
+     public Optional<Profile> patch(UUID id, Map<String, Object> changes) {
+          ColumnPatch patch = ColumnPatch.build(PATCHABLE, changes, "id = :id", Map.of("id", id));
+          return namedJdbcTemplate.query(patch.sql(), patch.parameters(), ROW_MAPPER).stream().findFirst();
+     }
+}
@@ -14,7 +14,7 @@ public interface ProfileRepository extends CrudRepository<Profile, UUID> {
      boolean existsByEmail(String email);
 
      @Modifying
-     @Query(value = "INSERT INTO profile (user_id, name, email, title, bio, location, phonenumber) " +
+     @Query(value = "INSERT INTO profile (id, name, email, title, bio, location, phonenumber) " +
              "VALUES (:userId, :name, :email, :title, :bio, :location, :phoneNumber)")
      void insertProfile(
              @Param("userId") UUID userId,
@@ -23,6 +23,6 @@ public interface ProfileRepository extends CrudRepository<Profile, UUID> {
              @Param("title") String title,
              @Param("bio") String bio,
              @Param("location") String location,
-             @Param("phonenumber") String phoneNumber
+             @Param("phoneNumber") String phoneNumber
      );
 }
\ No newline at end of file
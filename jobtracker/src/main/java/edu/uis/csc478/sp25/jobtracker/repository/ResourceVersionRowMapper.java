@@ -0,0 +1,20 @@
+package edu.uis.csc478.sp25.jobtracker.repository;
+
+import edu.uis.csc478.sp25.jobtracker.model.ResourceVersion;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+
+/**
+ * Maps the count and last_modified columns of an aggregate query to a ResourceVersion, for the
+ * @Query methods behind conditional GETs.
+ */
+public class ResourceVersionRowMapper implements RowMapper<ResourceVersion> {
+
+     @Override
+     public ResourceVersion mapRow(ResultSet rs, int rowNum) throws SQLException {
+          return new ResourceVersion(rs.getLong("count"), rs.getObject("last_modified", OffsetDateTime.class));
+     }
+}
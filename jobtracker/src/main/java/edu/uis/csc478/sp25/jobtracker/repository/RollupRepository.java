@@ -0,0 +1,306 @@
+package edu.uis.csc478.sp25.jobtracker.repository;
+
+import edu.uis.csc478.sp25.jobtracker.model.RollupReport;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Refreshes the rollup tables of V9__daily_rollups.sql and reads the admin reports from them.
+ * <p>
+ * A refresh runs in one REPEATABLE READ transaction. It reads the watermark, takes its own
+ * snapshot's xmin as the next one, folds in every row whose change_xid lies between the two, and
+ * moves the watermark, all or nothing. Reports read only the rollup tables, never job, interview
+ * or job_status_history.
+ */
+@Repository
+public class RollupRepository {
+
+     /**
+      * What a refresh did.
+      */
+     public enum Refresh {
+          /** another instance was refreshing */
+          SKIPPED,
+          /** folded in the rows changed since the watermark */
+          INCREMENTAL,
+          /** rebuilt every rollup from the source tables */
+          FULL
+     }
+
+     // Lock key shared by all instances so that only one of them refreshes at a time
+     private static final long REFRESH_LOCK_KEY = 0x6A6F625F726F6C6CL;
+     private static final String WATERMARK = "daily";
+
+     private static final String LOCK = "SELECT pg_try_advisory_xact_lock(:key)";
+     // FOR UPDATE fails the refresh with a serialization error if another instance moved the
+     // watermark after this transaction's snapshot was taken, instead of folding the same rows twice
+     private static final String READ_WATERMARK = """
+                 SELECT snapshot_xmin::text AS snapshot_xmin, refreshed_at < now() - CAST(:maxAge AS interval) AS stale
+                 FROM rollup_watermark
+                 WHERE name = :name
+                 FOR UPDATE
+             """;
+     private static final String SNAPSHOT_XMIN = "SELECT pg_snapshot_xmin(pg_current_snapshot())::text";
+     private static final String MOVE_WATERMARK =
+             "UPDATE rollup_watermark SET snapshot_xmin = CAST(:upto AS xid8), refreshed_at = now() WHERE name = :name";
+     private static final List<String> CLEAR = List.of(
+             "DELETE FROM rollup_daily_jobs_created",
+             "DELETE FROM rollup_daily_status_transitions",
+             "DELETE FROM rollup_daily_company_interviews",
+             "DELETE FROM rollup_salary_bands",
+             "DELETE FROM rollup_job",
+             "DELETE FROM rollup_interview");
+
+     private static final String SINCE_WATERMARK = "change_xid >= CAST(:since AS xid8) AND change_xid < CAST(:upto AS xid8)";
+     // history rows are only ever inserted, so a full rebuild takes every row below the snapshot's xmin
+     private static final String BELOW_SNAPSHOT = "change_xid < CAST(:upto AS xid8)";
+
+     private static final String JOBS_CREATED = """
+                 INSERT INTO rollup_daily_jobs_created (day, jobs)
+                 SELECT (changed_at AT TIME ZONE 'UTC')::date, count(*)
+                 FROM job_status_history
+                 WHERE %s AND from_status IS NULL
+                 GROUP BY 1
+                 ORDER BY 1
+                 ON CONFLICT (day) DO UPDATE SET jobs = rollup_daily_jobs_created.jobs + EXCLUDED.jobs
+             """;
+     private static final String STATUS_TRANSITIONS = """
+                 INSERT INTO rollup_daily_status_transitions (day, from_status, to_status, transitions)
+                 SELECT (changed_at AT TIME ZONE 'UTC')::date, coalesce(from_status, ''), to_status, count(*)
+                 FROM job_status_history
+                 WHERE %s
+                 GROUP BY 1, 2, 3
+                 ORDER BY 1, 2, 3
+                 ON CONFLICT (day, from_status, to_status)
+                     DO UPDATE SET transitions = rollup_daily_status_transitions.transitions + EXCLUDED.transitions
+             """;
+
+     // the jobs and interviews to (re)count: changed or deleted since the watermark, or all of them
+     private static final String JOBS_CHANGED = """
+                 SELECT id FROM job WHERE %1$s
+                 UNION
+                 SELECT id FROM sync_tombstone WHERE entity = 'job' AND %1$s
+             """.formatted(SINCE_WATERMARK);
+     private static final String INTERVIEWS_CHANGED = """
+                 SELECT id FROM interview WHERE %1$s
+                 UNION
+                 SELECT id FROM sync_tombstone WHERE entity = 'interview' AND %1$s
+             """.formatted(SINCE_WATERMARK);
+     private static final String ALL_JOBS = "SELECT id FROM job";
+     private static final String ALL_INTERVIEWS = "SELECT id FROM interview";
+
+     // subtract what the rows counted for until now, add what they count for now, per band
+     private static final String SALARY_BANDS = """
+                 WITH touched AS (%s),
+                 changes AS (
+                     SELECT r.min_band, r.max_band, -1 AS delta
+                     FROM rollup_job r JOIN touched t ON t.id = r.id
+                     UNION ALL
+                     SELECT (floor(j.minsalary / 10000.0) * 10000)::integer, (floor(j.maxsalary / 10000.0) * 10000)::integer, 1
+                     FROM job j JOIN touched t ON t.id = j.id
+                 ), by_band AS (
+                     SELECT min_band AS band, delta AS min_delta, 0 AS max_delta FROM changes WHERE min_band IS NOT NULL
+                     UNION ALL
+                     SELECT max_band, 0, delta FROM changes WHERE max_band IS NOT NULL
+                 )
+                 INSERT INTO rollup_salary_bands (band, min_salary_jobs, max_salary_jobs)
+                 SELECT band, sum(min_delta), sum(max_delta)
+                 FROM by_band
+                 GROUP BY band
+                 HAVING sum(min_delta) <> 0 OR sum(max_delta) <> 0
+                 ORDER BY band
+                 ON CONFLICT (band) DO UPDATE
+                     SET min_salary_jobs = rollup_salary_bands.min_salary_jobs + EXCLUDED.min_salary_jobs,
+                         max_salary_jobs = rollup_salary_bands.max_salary_jobs + EXCLUDED.max_salary_jobs
+             """;
+     private static final String FORGET_JOBS = "DELETE FROM rollup_job WHERE id IN (%s)";
+     private static final String REMEMBER_JOBS = """
+                 INSERT INTO rollup_job (id, min_band, max_band)
+                 SELECT id, (floor(minsalary / 10000.0) * 10000)::integer, (floor(maxsalary / 10000.0) * 10000)::integer
+                 FROM job
+                 WHERE id IN (%s)
+             """;
+
+     private static final String COMPANY_INTERVIEWS = """
+                 WITH touched AS (%s),
+                 changes AS (
+                     SELECT r.day, r.company, -1 AS delta
+                     FROM rollup_interview r JOIN touched t ON t.id = r.id
+                     UNION ALL
+                     SELECT i.date, lower(btrim(i.company)), 1
+                     FROM interview i JOIN touched t ON t.id = i.id
+                     WHERE i.date IS NOT NULL AND btrim(i.company) <> ''
+                 )
+                 INSERT INTO rollup_daily_company_interviews (day, company, interviews)
+                 SELECT day, company, sum(delta)
+                 FROM changes
+                 GROUP BY day, company
+                 HAVING sum(delta) <> 0
+                 ORDER BY day, company
+                 ON CONFLICT (day, company)
+                     DO UPDATE SET interviews = rollup_daily_company_interviews.interviews + EXCLUDED.interviews
+             """;
+     private static final String FORGET_INTERVIEWS = "DELETE FROM rollup_interview WHERE id IN (%s)";
+     private static final String REMEMBER_INTERVIEWS = """
+                 INSERT INTO rollup_interview (id, company, day)
+                 SELECT id, lower(btrim(company)), date
+                 FROM interview
+                 WHERE id IN (%s) AND date IS NOT NULL AND btrim(company) <> ''
+             """;
+
+     // what an incremental refresh runs, in order; RepositoryQueryPlanTest checks their plans
+     static final List<String> INCREMENTAL_REFRESH = List.of(
+             JOBS_CREATED.formatted(SINCE_WATERMARK),
+             STATUS_TRANSITIONS.formatted(SINCE_WATERMARK),
+             SALARY_BANDS.formatted(JOBS_CHANGED),
+             FORGET_JOBS.formatted(JOBS_CHANGED),
+             REMEMBER_JOBS.formatted(JOBS_CHANGED),
+             COMPANY_INTERVIEWS.formatted(INTERVIEWS_CHANGED),
+             FORGET_INTERVIEWS.formatted(INTERVIEWS_CHANGED),
+             REMEMBER_INTERVIEWS.formatted(INTERVIEWS_CHANGED));
+     // after CLEAR, so there is nothing to subtract or forget
+     private static final List<String> FULL_REFRESH = List.of(
+             JOBS_CREATED.formatted(BELOW_SNAPSHOT),
+             STATUS_TRANSITIONS.formatted(BELOW_SNAPSHOT),
+             SALARY_BANDS.formatted(ALL_JOBS),
+             REMEMBER_JOBS.formatted(ALL_JOBS),
+             COMPANY_INTERVIEWS.formatted(ALL_INTERVIEWS),
+             REMEMBER_INTERVIEWS.formatted(ALL_INTERVIEWS));
+
+     private static final String REFRESHED_AT = "SELECT refreshed_at FROM rollup_watermark WHERE name = :name";
+     private static final String JOBS_CREATED_REPORT = """
+                 SELECT day, jobs
+                 FROM rollup_daily_jobs_created
+                 WHERE day BETWEEN :from AND :to AND jobs > 0
+                 ORDER BY day
+             """;
+     private static final String STATUS_TRANSITIONS_REPORT = """
+                 SELECT day, from_status, to_status, transitions
+                 FROM rollup_daily_status_transitions
+                 WHERE day BETWEEN :from AND :to AND transitions > 0
+                 ORDER BY day, from_status, to_status
+             """;
+     private static final String COMPANY_INTERVIEWS_REPORT = """
+                 SELECT company, sum(interviews) AS interviews
+                 FROM rollup_daily_company_interviews
+                 WHERE day BETWEEN :from AND :to
+                 GROUP BY company
+                 HAVING sum(interviews) > 0
+                 ORDER BY interviews DESC, company
+                 LIMIT :limit
+             """;
+     private static final String SALARY_BANDS_REPORT = """
+                 SELECT band, min_salary_jobs, max_salary_jobs
+                 FROM rollup_salary_bands
+                 WHERE min_salary_jobs > 0 OR max_salary_jobs > 0
+                 ORDER BY band
+             """;
+
+     private final NamedParameterJdbcTemplate jdbcTemplate;
+     private final TransactionTemplate refreshTransaction;
+
+     public RollupRepository(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+          this.jdbcTemplate = jdbcTemplate;
+          this.refreshTransaction = new TransactionTemplate(transactionManager);
+          this.refreshTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+     }
+
+     /**
+      * Brings the rollup tables up to date. Rebuilds them instead when they have never been built,
+      * or were last refreshed longer than maxAge ago, since the tombstones of rows deleted in the
+      * meantime may have been pruned.
+      * @param maxAge oldest refresh an incremental one can follow; the tombstone retention
+      * @return what was done
+      */
+     public Refresh refresh(Duration maxAge) {
+          return refreshTransaction.execute(status -> {
+               MapSqlParameterSource parameters = new MapSqlParameterSource()
+                       .addValue("key", REFRESH_LOCK_KEY)
+                       .addValue("name", WATERMARK)
+                       .addValue("maxAge", maxAge.toSeconds() + " seconds");
+               // the first statement also takes the snapshot everything below reads from
+               if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(LOCK, parameters, Boolean.class))) {
+                    return Refresh.SKIPPED;
+               }
+               Watermark watermark = jdbcTemplate.queryForObject(READ_WATERMARK, parameters, (rs, rowNum) ->
+                       new Watermark(rs.getString("snapshot_xmin"), rs.getBoolean("stale")));
+               String upto = jdbcTemplate.queryForObject(SNAPSHOT_XMIN, parameters, String.class);
+               parameters.addValue("since", watermark.xmin()).addValue("upto", upto);
+
+               boolean full = watermark.xmin().equals("0") || watermark.stale();
+               if (full) {
+                    CLEAR.forEach(sql -> jdbcTemplate.update(sql, parameters));
+               }
+               for (String sql : full ? FULL_REFRESH : INCREMENTAL_REFRESH) {
+                    jdbcTemplate.update(sql, parameters);
+               }
+               jdbcTemplate.update(MOVE_WATERMARK, parameters);
+               return full ? Refresh.FULL : Refresh.INCREMENTAL;
+          });
+     }
+
+     /**
+      * @return when the rollups were last refreshed, or null if never
+      */
+     public OffsetDateTime findRefreshedAt() {
+          return jdbcTemplate.queryForObject(REFRESHED_AT, new MapSqlParameterSource("name", WATERMARK),
+                  (rs, rowNum) -> rs.getObject("refreshed_at", OffsetDateTime.class));
+     }
+
+     /**
+      * @param from first day, UTC
+      * @param to   last day, inclusive
+      * @return jobs created per day, for the days that had any
+      */
+     public List<RollupReport.JobsCreated> findJobsCreated(LocalDate from, LocalDate to) {
+          return jdbcTemplate.query(JOBS_CREATED_REPORT, range(from, to), (rs, rowNum) ->
+                  new RollupReport.JobsCreated(rs.getObject("day", LocalDate.class), rs.getLong("jobs")));
+     }
+
+     /**
+      * @param from first day, UTC
+      * @param to   last day, inclusive
+      * @return status changes per day, by previous and new status
+      */
+     public List<RollupReport.StatusTransitions> findStatusTransitions(LocalDate from, LocalDate to) {
+          return jdbcTemplate.query(STATUS_TRANSITIONS_REPORT, range(from, to), (rs, rowNum) ->
+                  new RollupReport.StatusTransitions(rs.getObject("day", LocalDate.class), rs.getString("from_status"),
+                          rs.getString("to_status"), rs.getLong("transitions")));
+     }
+
+     /**
+      * @param from  first interview date
+      * @param to    last interview date, inclusive
+      * @param limit number of companies to return
+      * @return the companies with the most interviews dated in the range, most first
+      */
+     public List<RollupReport.CompanyInterviews> findCompanyInterviews(LocalDate from, LocalDate to, int limit) {
+          return jdbcTemplate.query(COMPANY_INTERVIEWS_REPORT, range(from, to).addValue("limit", limit), (rs, rowNum) ->
+                  new RollupReport.CompanyInterviews(rs.getString("company"), rs.getLong("interviews")));
+     }
+
+     /**
+      * @return current jobs per salary band, lowest band first
+      */
+     public List<RollupReport.SalaryBand> findSalaryBands() {
+          return jdbcTemplate.query(SALARY_BANDS_REPORT, (rs, rowNum) ->
+                  new RollupReport.SalaryBand(rs.getInt("band"), rs.getLong("min_salary_jobs"), rs.getLong("max_salary_jobs")));
+     }
+
+     // xid8 as text, like a sync cursor; stale if the last refresh is older than maxAge
+     private record Watermark(String xmin, boolean stale) {
+     }
+
+     private static MapSqlParameterSource range(LocalDate from, LocalDate to) {
+          return new MapSqlParameterSource().addValue("from", from).addValue("to", to);
+     }
+}
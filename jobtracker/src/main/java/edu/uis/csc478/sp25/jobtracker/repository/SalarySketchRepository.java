@@ -0,0 +1,264 @@
+package edu.uis.csc478.sp25.jobtracker.repository;
+
+import com.tdunning.math.stats.MergingDigest;
+import com.tdunning.math.stats.TDigest;
+import edu.uis.csc478.sp25.jobtracker.model.Job;
+import edu.uis.csc478.sp25.jobtracker.model.SalarySketch;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Access to the per-user salary sketches of V10__salary_sketches.sql: t-digests of job salaries by
+ * level, location and company, stored as bytea, and to the salary_sketch_dirty rows of
+ * V13__salary_sketch_dirty.sql, which the job triggers append for every group a write touched.
+ * <p>
+ * A refresh of a user's dirty groups runs in one REPEATABLE READ transaction: lockUser, snapshot,
+ * then the reads and replaceDirtyGroups with that snapshot, so it only clears the dirty rows of
+ * transactions whose changes its reads saw. Groups with a row of an update or delete are rebuilt
+ * from their jobs; the others only had jobs inserted, whose salaries are merged into the stored
+ * digests.
+ */
+@Repository
+public class SalarySketchRepository {
+
+     // "sala"; the second key of the lock is the user, so refreshes of different users do not wait
+     private static final int REFRESH_LOCK_KEY = 0x73616C61;
+     static final String FIND_BY_USER = """
+                 SELECT dimension, group_key, min_salary, max_salary
+                 FROM salary_sketch
+                 WHERE user_id = :userId
+                 ORDER BY dimension, group_key
+             """;
+     static final String FIND_GROUPS_OF_JOB = """
+                 SELECT s.dimension, s.group_key, s.min_salary, s.max_salary
+                 FROM job j
+                 CROSS JOIN LATERAL salary_groups(j.level, j.location, j.company) g
+                 JOIN salary_sketch s ON s.user_id = j.user_id AND s.dimension = g.dimension AND s.group_key = g.group_key
+                 WHERE j.id = :id AND j.user_id = :userId
+                 ORDER BY s.dimension, s.group_key
+             """;
+     // the users with dirty groups, longest waiting first, so a batch cut off by the limit cannot
+     // keep passing over the same users
+     static final String DIRTY_USERS = """
+                 SELECT user_id
+                 FROM salary_sketch_dirty
+                 GROUP BY user_id
+                 ORDER BY min(change_xid)
+                 LIMIT :limit
+             """;
+     // The rows of the transactions the snapshot sees, snapshot as text because pg_snapshot has no
+     // JDBC type; read through the (user_id, change_xid) index up to the snapshot's xmax
+     private static final String IN_SNAPSHOT = """
+                 user_id = :userId AND change_xid < pg_snapshot_xmax(CAST(:snapshot AS pg_snapshot))
+                 AND pg_visible_in_snapshot(change_xid, CAST(:snapshot AS pg_snapshot))""";
+     // rows without salaries come from an update or delete, and have their group rebuilt
+     static final String GROUPS_TO_REBUILD =
+             "SELECT DISTINCT dimension, group_key FROM salary_sketch_dirty WHERE min_salary IS NULL AND " + IN_SNAPSHOT;
+     // the group keys and salaries of the jobs in at least one group to rebuild, keys as salary_group_key()
+     // makes them; a join rather than EXISTS, so the groups are hashed once instead of read per job
+     static final String SALARIES_IN_GROUPS_TO_REBUILD = """
+                 SELECT DISTINCT ON (j.id)
+                        salary_group_key(j.level) AS level, salary_group_key(j.location) AS location,
+                        salary_group_key(j.company) AS company, j.minsalary, j.maxsalary
+                 FROM job j
+                 CROSS JOIN LATERAL salary_groups(j.level, j.location, j.company) g
+                 JOIN (%s) d ON d.dimension = g.dimension AND d.group_key = g.group_key
+                 WHERE j.user_id = :userId AND (j.minsalary > 0 OR j.maxsalary > 0)
+             """.formatted(GROUPS_TO_REBUILD);
+     // the stored sketches of the groups only inserts touched, with null digests for a new group
+     static final String SKETCHES_TO_MERGE = """
+                 SELECT d.dimension, d.group_key, s.min_salary, s.max_salary
+                 FROM (SELECT dimension, group_key
+                       FROM salary_sketch_dirty
+                       WHERE %s
+                       GROUP BY dimension, group_key
+                       HAVING bool_and(min_salary IS NOT NULL)) d
+                 LEFT JOIN salary_sketch s ON s.user_id = :userId AND s.dimension = d.dimension AND s.group_key = d.group_key
+             """.formatted(IN_SNAPSHOT);
+     // the salaries inserted jobs brought to each group, as a job in just that group
+     static final String INSERTED_SALARIES = """
+                 SELECT CASE dimension WHEN 'level' THEN group_key END AS level,
+                        CASE dimension WHEN 'location' THEN group_key END AS location,
+                        CASE dimension WHEN 'company' THEN group_key END AS company,
+                        min_salary AS minsalary, max_salary AS maxsalary
+                 FROM salary_sketch_dirty
+                 WHERE min_salary IS NOT NULL AND %s
+             """.formatted(IN_SNAPSHOT);
+     private static final String DELETE_DIRTY_SKETCHES = """
+                 DELETE FROM salary_sketch s
+                 USING (SELECT DISTINCT dimension, group_key FROM salary_sketch_dirty WHERE %s) d
+                 WHERE s.user_id = :userId AND s.dimension = d.dimension AND s.group_key = d.group_key
+             """.formatted(IN_SNAPSHOT);
+     private static final String UPSERT = """
+                 INSERT INTO salary_sketch (user_id, dimension, group_key, min_salary, max_salary)
+                 VALUES (:userId, :dimension, :key, :minSalary, :maxSalary)
+                 ON CONFLICT (user_id, dimension, group_key)
+                     DO UPDATE SET min_salary = excluded.min_salary, max_salary = excluded.max_salary
+             """;
+     private static final RowMapper<SalarySketch> SKETCH = (rs, rowNum) -> SalarySketch.builder()
+             .group(new SalarySketch.Group(rs.getString("dimension"), rs.getString("group_key")))
+             .minSalary(decode(rs.getBytes("min_salary")))
+             .maxSalary(decode(rs.getBytes("max_salary")))
+             .build();
+
+     private final NamedParameterJdbcTemplate jdbcTemplate;
+
+     public SalarySketchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+          this.jdbcTemplate = jdbcTemplate;
+     }
+
+     /**
+      * Hands every sketch of the user to the action, by dimension and key, as rows come off the
+      * ResultSet, so only one decoded sketch is held at a time.
+      * @param userId the owner of the sketches
+      * @param action called once per sketch
+      */
+     public void forEachByUserId(UUID userId, Consumer<SalarySketch> action) {
+          RowCallbackHandler handler = rs -> action.accept(SKETCH.mapRow(rs, rs.getRow()));
+          jdbcTemplate.query(FIND_BY_USER, Map.of("userId", userId), handler);
+     }
+
+     /**
+      * @param userId the owner of the job
+      * @param jobId  the job
+      * @return the stored sketches of the job's groups, by dimension and key; groups without one are left out
+      */
+     public List<SalarySketch> findGroupsOfJob(UUID userId, UUID jobId) {
+          return jdbcTemplate.query(FIND_GROUPS_OF_JOB, Map.of("userId", userId, "id", jobId), SKETCH);
+     }
+
+     /**
+      * @param limit most users to return
+      * @return users with dirty groups, by their oldest dirty row
+      */
+     public List<UUID> findDirtyUsers(int limit) {
+          return jdbcTemplate.queryForList(DIRTY_USERS, Map.of("limit", limit), UUID.class);
+     }
+
+     /**
+      * Takes the user's refresh lock until the caller's transaction ends, without waiting.
+      * @param userId the owner of the sketches
+      * @return false if another transaction is refreshing the user's sketches
+      */
+     public boolean lockUser(UUID userId) {
+          Boolean locked = jdbcTemplate.queryForObject(
+                  "SELECT pg_try_advisory_xact_lock(:key, hashtext(CAST(:userId AS text)))",
+                  new MapSqlParameterSource("key", REFRESH_LOCK_KEY).addValue("userId", userId), Boolean.class);
+          return Boolean.TRUE.equals(locked);
+     }
+
+     /**
+      * @return the snapshot of the caller's transaction, as pg_snapshot text; in REPEATABLE READ,
+      * every statement of the transaction reads the changes of exactly the transactions it sees
+      */
+     public String snapshot() {
+          return jdbcTemplate.getJdbcTemplate().queryForObject("SELECT pg_current_snapshot()::text", String.class);
+     }
+
+     /**
+      * @param userId   the owner of the sketches
+      * @param snapshot pg_snapshot text from snapshot; only changes of transactions it sees are read
+      * @return the user's groups those transactions updated or deleted jobs in
+      */
+     public List<SalarySketch.Group> findGroupsToRebuild(UUID userId, String snapshot) {
+          return jdbcTemplate.query(GROUPS_TO_REBUILD, parameters(userId, snapshot),
+                  (rs, rowNum) -> new SalarySketch.Group(rs.getString("dimension"), rs.getString("group_key")));
+     }
+
+     /**
+      * Hands the group keys and salaries of each of the user's jobs that gives a salary and is in
+      * a group to rebuild to the action, in no particular order, as rows come off the ResultSet.
+      * @param userId   the owner of the jobs
+      * @param snapshot pg_snapshot text from snapshot, as passed to findGroupsToRebuild
+      * @param action   called once per job, with level, location and company set to their group keys
+      *                 (null for none) and minSalary and maxSalary
+      */
+     public void forEachSalaryInGroupsToRebuild(UUID userId, String snapshot, Consumer<Job> action) {
+          jdbcTemplate.query(SALARIES_IN_GROUPS_TO_REBUILD, parameters(userId, snapshot), salaries(action));
+     }
+
+     /**
+      * Hands the stored sketch of each of the user's dirty groups that only had jobs inserted to
+      * the action, as rows come off the ResultSet; a group without one comes with null digests.
+      * @param userId   the owner of the sketches
+      * @param snapshot pg_snapshot text from snapshot, as passed to findGroupsToRebuild
+      * @param action   called once per group
+      */
+     public void forEachSketchToMerge(UUID userId, String snapshot, Consumer<SalarySketch> action) {
+          RowCallbackHandler handler = rs -> action.accept(SKETCH.mapRow(rs, rs.getRow()));
+          jdbcTemplate.query(SKETCHES_TO_MERGE, parameters(userId, snapshot), handler);
+     }
+
+     /**
+      * Hands the salaries the user's inserted jobs brought to each dirty group to the action, in no
+      * particular order, as rows come off the ResultSet.
+      * @param userId   the owner of the jobs
+      * @param snapshot pg_snapshot text from snapshot, as passed to findGroupsToRebuild
+      * @param action   called once per inserted job and group, with the group's dimension set to
+      *                 its key, the others null, and minSalary and maxSalary
+      */
+     public void forEachInsertedSalary(UUID userId, String snapshot, Consumer<Job> action) {
+          jdbcTemplate.query(INSERTED_SALARIES, parameters(userId, snapshot), salaries(action));
+     }
+
+     /**
+      * Replaces the sketches of the user's dirty groups with the given ones and clears those dirty
+      * rows. A dirty group without a sketch here has no jobs left with a salary, and its sketch is
+      * removed. The caller must hold the lock from lockUser in the same transaction.
+      * @param userId   the owner of the sketches
+      * @param snapshot pg_snapshot text from snapshot, as passed to findGroupsToRebuild
+      * @param sketches the rebuilt and merged sketches of the dirty groups
+      */
+     public void replaceDirtyGroups(UUID userId, String snapshot, Collection<SalarySketch> sketches) {
+          MapSqlParameterSource parameters = parameters(userId, snapshot);
+          jdbcTemplate.update(DELETE_DIRTY_SKETCHES, parameters);
+          SqlParameterSource[] rows = sketches.stream()
+                  .map(sketch -> new MapSqlParameterSource("userId", userId)
+                          .addValue("dimension", sketch.getGroup().dimension())
+                          .addValue("key", sketch.getGroup().key())
+                          .addValue("minSalary", encode(sketch.getMinSalary()))
+                          .addValue("maxSalary", encode(sketch.getMaxSalary())))
+                  .toArray(SqlParameterSource[]::new);
+          jdbcTemplate.batchUpdate(UPSERT, rows);
+          jdbcTemplate.update("DELETE FROM salary_sketch_dirty WHERE " + IN_SNAPSHOT, parameters);
+     }
+
+     private static MapSqlParameterSource parameters(UUID userId, String snapshot) {
+          return new MapSqlParameterSource("userId", userId).addValue("snapshot", snapshot);
+     }
+
+     private static RowCallbackHandler salaries(Consumer<Job> action) {
+          return rs -> action.accept(Job.builder()
+                  .level(rs.getString("level"))
+                  .location(rs.getString("location"))
+                  .company(rs.getString("company"))
+                  .minSalary(rs.getInt("minsalary"))
+                  .maxSalary(rs.getInt("maxsalary"))
+                  .build());
+     }
+
+     private static byte[] encode(TDigest digest) {
+          if (digest == null) {
+               return null;
+          }
+          digest.compress();
+          ByteBuffer buffer = ByteBuffer.allocate(digest.byteSize());
+          digest.asBytes(buffer);
+          return buffer.array();
+     }
+
+     private static TDigest decode(byte[] bytes) {
+          return bytes == null ? null : MergingDigest.fromBytes(ByteBuffer.wrap(bytes));
+     }
+}
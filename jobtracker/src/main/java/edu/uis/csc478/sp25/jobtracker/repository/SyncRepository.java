@@ -0,0 +1,89 @@
+package edu.uis.csc478.sp25.jobtracker.repository;
+
+import edu.uis.csc478.sp25.jobtracker.model.SyncChanges;
+import edu.uis.csc478.sp25.jobtracker.model.SyncCursor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads what changed in a user's jobs and interviews since a sync cursor, from the change_xid
+ * columns and the sync_tombstone table that the triggers of V7__sync.sql maintain.
+ * <p>
+ * The cursor and the rows come from one REPEATABLE READ transaction, so they describe the same
+ * snapshot: whatever a transaction below the snapshot's xmin wrote is in this response, and
+ * whatever is not in it was written at or above xmin and is picked up by the next sync.
+ */
+@Repository
+public class SyncRepository {
+
+     // text in, because xid8 has no JDBC type; the :since scans use the (user_id, change_xid) indexes
+     static final String SNAPSHOT = "SELECT pg_snapshot_xmin(pg_current_snapshot())::text AS xmin, now() AS issued_at";
+     static final String JOBS = "SELECT * FROM job WHERE user_id = :userId";
+     static final String JOBS_SINCE = JOBS + " AND change_xid >= CAST(:since AS xid8)";
+     static final String INTERVIEWS = "SELECT * FROM interview WHERE user_id = :userId";
+     static final String INTERVIEWS_SINCE = INTERVIEWS + " AND change_xid >= CAST(:since AS xid8)";
+     static final String TOMBSTONES_SINCE =
+             "SELECT entity, id FROM sync_tombstone WHERE user_id = :userId AND change_xid >= CAST(:since AS xid8)";
+     private static final String PRUNE = "DELETE FROM sync_tombstone WHERE deleted_at < now() - CAST(:age AS interval)";
+
+     private final NamedParameterJdbcTemplate jdbcTemplate;
+     private final TransactionTemplate snapshotTransaction;
+
+     public SyncRepository(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+          this.jdbcTemplate = jdbcTemplate;
+          this.snapshotTransaction = new TransactionTemplate(transactionManager);
+          this.snapshotTransaction.setReadOnly(true);
+          this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+     }
+
+     /**
+      * @param userId the owner of the jobs and interviews
+      * @param since  cursor of the previous sync, or null to read everything (no deletions)
+      * @return the changes since the cursor and the cursor for the next sync
+      */
+     public SyncChanges findChanges(UUID userId, SyncCursor since) {
+          return snapshotTransaction.execute(status -> {
+               // the first statement takes the snapshot that the other three read from
+               SyncCursor next = jdbcTemplate.queryForObject(SNAPSHOT, new MapSqlParameterSource(), (rs, rowNum) ->
+                       new SyncCursor(Long.parseUnsignedLong(rs.getString("xmin")),
+                               rs.getTimestamp("issued_at").toInstant()));
+               MapSqlParameterSource parameters = new MapSqlParameterSource("userId", userId);
+               SyncChanges.SyncChangesBuilder changes = SyncChanges.builder().cursor(next.encode());
+               List<UUID> deletedJobs = new ArrayList<>();
+               List<UUID> deletedInterviews = new ArrayList<>();
+               if (since == null) {
+                    changes.jobs(jdbcTemplate.query(JOBS, parameters, JobRowMapper.INSTANCE))
+                            .interviews(jdbcTemplate.query(INTERVIEWS, parameters, InterviewJdbcRepository.ROW_MAPPER));
+               } else {
+                    parameters.addValue("since", Long.toUnsignedString(since.xmin()));
+                    changes.jobs(jdbcTemplate.query(JOBS_SINCE, parameters, JobRowMapper.INSTANCE))
+                            .interviews(jdbcTemplate.query(INTERVIEWS_SINCE, parameters, InterviewJdbcRepository.ROW_MAPPER));
+                    RowCallbackHandler collect = rs -> {
+                         UUID id = rs.getObject("id", UUID.class);
+                         (rs.getString("entity").equals("job") ? deletedJobs : deletedInterviews).add(id);
+                    };
+                    jdbcTemplate.query(TOMBSTONES_SINCE, parameters, collect);
+               }
+               return changes.deletedJobs(deletedJobs).deletedInterviews(deletedInterviews).build();
+          });
+     }
+
+     /**
+      * Deletes the tombstones of rows deleted longer ago than the given age.
+      * @param age how long tombstones are kept
+      * @return number of tombstones deleted
+      */
+     public int pruneTombstones(Duration age) {
+          return jdbcTemplate.update(PRUNE, new MapSqlParameterSource("age", age.toSeconds() + " seconds"));
+     }
+}
@@ -0,0 +1,94 @@
+package edu.uis.csc478.sp25.jobtracker.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * JwtDecoder that remembers tokens it has already verified, so a client sending the same bearer
+ * token on every request pays for the HMAC check and the claims parsing once per token, not once
+ * per request.
+ * <ul>
+ *      <li>only tokens the delegate accepted are cached; a rejected token is checked again each time</li>
+ *      <li>an entry is evicted at the token's exp, so an expired token is never served from the cache;
+ *      tokens without exp are not cached</li>
+ *      <li>entries are keyed by a SHA-256 hash of the token, so the cache holds no usable credentials</li>
+ *      <li>the cache is bounded; the least recently used tokens are dropped first</li>
+ * </ul>
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+     private final JwtDecoder delegate;
+     private final Cache<String, Jwt> verified;
+
+     /**
+      * @param delegate    the decoder that verifies and parses tokens on a cache miss
+      * @param maximumSize maximum number of tokens kept
+      */
+     public CachingJwtDecoder(JwtDecoder delegate, long maximumSize) {
+          this(delegate, maximumSize, Ticker.systemTicker(), Clock.systemUTC());
+     }
+
+     // the ticker times cache entries and the clock is compared with exp; tests pass fakes of both
+     CachingJwtDecoder(JwtDecoder delegate, long maximumSize, Ticker ticker, Clock clock) {
+          this.delegate = delegate;
+          this.verified = Caffeine.newBuilder()
+                  .maximumSize(maximumSize)
+                  .expireAfter(new UntilExpiresAt(clock))
+                  .ticker(ticker)
+                  .build();
+     }
+
+     @Override
+     public Jwt decode(String token) throws JwtException {
+          String key = hash(token);
+          Jwt jwt = verified.getIfPresent(key);
+          if (jwt != null) {
+               return jwt;
+          }
+          jwt = delegate.decode(token);
+          if (jwt.getExpiresAt() != null) {
+               verified.put(key, jwt);
+          }
+          return jwt;
+     }
+
+     private static String hash(String token) {
+          try {
+               byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+               return Base64.getEncoder().withoutPadding().encodeToString(digest);
+          } catch (NoSuchAlgorithmException e) {
+               // every Java runtime is required to provide SHA-256
+               throw new IllegalStateException(e);
+          }
+     }
+
+     // entries live until the token's exp claim; reads and replacements do not extend them
+     private record UntilExpiresAt(Clock clock) implements Expiry<String, Jwt> {
+          @Override
+          public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+               return Math.max(0, Duration.between(clock.instant(), jwt.getExpiresAt()).toNanos());
+          }
+
+          @Override
+          public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+               return expireAfterCreate(key, jwt, currentTime);
+          }
+
+          @Override
+          public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+               return currentDuration;
+          }
+     }
+}
@@ -15,6 +15,11 @@ public class SecurityUtil {
      public static UUID getLoggedInUserId() {
           Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
+          // resolved once per request by UserJwtAuthenticationConverter
+          if (authentication instanceof UserJwtAuthenticationToken token) {
+               return token.getUserId();
+          }
+
           if (authentication == null || !(authentication.getPrincipal() instanceof Jwt jwt)) {
                throw new RuntimeException("No valid JWT authentication found");
           }
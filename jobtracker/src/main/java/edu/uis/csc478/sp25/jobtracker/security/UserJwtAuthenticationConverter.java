@@ -0,0 +1,53 @@
+package edu.uis.csc478.sp25.jobtracker.security;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Turns a verified token into a UserJwtAuthenticationToken, resolving the user's UUID from the sub
+ * claim once per request. A token whose sub is missing or not a UUID is rejected with 401 here,
+ * before any controller runs.
+ * <p>
+ * A user whose app_metadata.role is "admin" is also granted ROLE_ADMIN, which the actuator endpoints
+ * require. Supabase only lets the service key write app_metadata, so users cannot grant it themselves.
+ */
+public class UserJwtAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+
+     public static final String ADMIN = "ADMIN";
+
+     private final JwtGrantedAuthoritiesConverter authoritiesConverter = new JwtGrantedAuthoritiesConverter();
+
+     @Override
+     public AbstractAuthenticationToken convert(Jwt jwt) {
+          String subject = jwt.getSubject();
+          if (subject == null) {
+               throw new InvalidBearerTokenException("No user ID found in JWT claims");
+          }
+          UUID userId;
+          try {
+               userId = UUID.fromString(subject);
+          } catch (IllegalArgumentException e) {
+               throw new InvalidBearerTokenException("User ID in JWT is not a valid UUID", e);
+          }
+          return new UserJwtAuthenticationToken(jwt, authorities(jwt), userId);
+     }
+
+     private Collection<GrantedAuthority> authorities(Jwt jwt) {
+          Collection<GrantedAuthority> authorities = new ArrayList<>(authoritiesConverter.convert(jwt));
+          Map<String, Object> appMetadata = jwt.getClaimAsMap("app_metadata");
+          if (appMetadata != null && "admin".equals(appMetadata.get("role"))) {
+               authorities.add(new SimpleGrantedAuthority("ROLE_" + ADMIN));
+          }
+          return authorities;
+     }
+}
@@ -0,0 +1,35 @@
+package edu.uis.csc478.sp25.jobtracker.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * The authentication of a request, holding the user's UUID parsed once from the token's sub claim.
+ * It lives in the SecurityContext for the length of the request, so SecurityUtil.getLoggedInUserId()
+ * hands out the same UUID however many times a request asks for it.
+ */
+public class UserJwtAuthenticationToken extends JwtAuthenticationToken {
+
+     private final UUID userId;
+
+     /**
+      * @param jwt         the verified token
+      * @param authorities authorities granted by the token
+      * @param userId      the user the token was issued to
+      */
+     public UserJwtAuthenticationToken(Jwt jwt, Collection<? extends GrantedAuthority> authorities, UUID userId) {
+          super(jwt, authorities, userId.toString());
+          this.userId = userId;
+     }
+
+     /**
+      * @return UUID of the authenticated user
+      */
+     public UUID getUserId() {
+          return userId;
+     }
+}
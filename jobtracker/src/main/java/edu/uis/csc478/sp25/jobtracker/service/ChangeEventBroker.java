@@ -0,0 +1,32 @@
+package edu.uis.csc478.sp25.jobtracker.service;
+
+import edu.uis.csc478.sp25.jobtracker.model.ChangeEvent;
+
+import java.util.List;
+
+/**
+ * Carries change events from the instance that made a change to every instance, each of which
+ * hands them to the GET /events connections it holds ({@link ChangeEventHub}). Chosen with
+ * jobtracker.events.broker: postgres (LISTEN/NOTIFY, the default) or memory (this instance only).
+ * <p>
+ * With postgres the events are sent by triggers in the writing transaction itself, so publish is a
+ * no-op there; services still call it after every write, for the brokers that do not.
+ */
+public interface ChangeEventBroker {
+
+     /**
+      * Publishes changes that have been committed, unless the broker had them sent with the write.
+      * Failures are logged rather than thrown, since the change itself has already been made and
+      * clients can still catch up with GET /sync.
+      * @param events the changes, in the order they were made
+      */
+     void publish(List<ChangeEvent> events);
+
+     /**
+      * Publishes one change that has been written.
+      * @param event the change
+      */
+     default void publish(ChangeEvent event) {
+          publish(List.of(event));
+     }
+}
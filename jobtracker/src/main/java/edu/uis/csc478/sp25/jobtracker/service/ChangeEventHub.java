@@ -0,0 +1,312 @@
+package edu.uis.csc478.sp25.jobtracker.service;
+
+import edu.uis.csc478.sp25.jobtracker.model.ChangeEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static edu.uis.csc478.sp25.jobtracker.config.CacheConfig.FAVORITE_JOBS;
+import static edu.uis.csc478.sp25.jobtracker.config.CacheConfig.INTERVIEWS;
+import static edu.uis.csc478.sp25.jobtracker.config.CacheConfig.JOBS;
+import static edu.uis.csc478.sp25.jobtracker.config.EventConfig.CHANGE_EVENT_EXECUTOR;
+import static org.slf4j.LoggerFactory.getLogger;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.web.servlet.mvc.method.annotation.SseEmitter.event;
+
+/**
+ * The GET /events connections open on this instance, by user, and the delivery of change events to them.
+ * <p>
+ * An idle connection holds no thread: the request stays in servlet async mode, and a connection
+ * only gets a task on the hub's own executor (a virtual thread when they are enabled, otherwise one
+ * of send-threads pool threads) while it has events queued. Each connection queues at most
+ * buffer-size events. When a client reads too slowly to keep up, its queue is replaced by a single
+ * "resync" event telling it to catch up with GET /sync. A connection whose write fails is dropped,
+ * including one whose client stopped reading: Tomcat fails a write that has been blocked for
+ * server.tomcat.connection-timeout, which frees the thread.
+ * <p>
+ * What an open connection does cost is memory, about 120 KB of heap, most of it Tomcat's buffers
+ * for the request. max-connections caps the connections per instance below what the heap holds.
+ */
+@Component
+public class ChangeEventHub {
+
+     static final String READY = "ready";
+     static final String RESYNC = "resync";
+     // how long EventSource clients wait before reconnecting after the connection closes
+     private static final long RECONNECT_MILLIS = 3000;
+
+     private static final Logger logger = getLogger(ChangeEventHub.class);
+     private final Map<UUID, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+     private final AtomicInteger connections = new AtomicInteger();
+     private final Executor executor;
+     private final CacheManager cacheManager;
+     private final int bufferSize;
+     private final int maxConnections;
+     private final Duration timeout;
+     private final Counter resyncs;
+     private final Counter writeTimeouts;
+
+     /**
+      * @param executor       runs the tasks that write queued events to a connection
+      * @param cacheManager   the caches to evict when another instance changed a user's rows
+      * @param meterRegistry  registry for the jobtracker.events.* meters
+      * @param bufferSize     events queued per connection before it is sent a resync instead
+      * @param maxConnections connections this instance holds at once
+      * @param timeout        how long a connection stays open; clients reconnect after it
+      */
+     public ChangeEventHub(@Qualifier(CHANGE_EVENT_EXECUTOR) Executor executor,
+                           CacheManager cacheManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${jobtracker.events.buffer-size:64}") int bufferSize,
+                           @Value("${jobtracker.events.max-connections:10000}") int maxConnections,
+                           @Value("${jobtracker.events.timeout:30m}") Duration timeout) {
+          this.executor = executor;
+          this.cacheManager = cacheManager;
+          this.bufferSize = Math.max(1, bufferSize);
+          this.maxConnections = maxConnections;
+          this.timeout = timeout;
+          this.resyncs = Counter.builder("jobtracker.events.resyncs")
+                  .description("Connections sent a resync instead of their queued events")
+                  .register(meterRegistry);
+          this.writeTimeouts = Counter.builder("jobtracker.events.write-timeouts")
+                  .description("Connections dropped because a write to them timed out")
+                  .register(meterRegistry);
+          Gauge.builder("jobtracker.events.connections", connections, AtomicInteger::get)
+                  .description("Open GET /events connections")
+                  .register(meterRegistry);
+     }
+
+     /**
+      * Opens an event stream for a user. Its first event is "ready"; from then on every change
+      * to the user's jobs and interviews is sent on it.
+      * @param userId the user whose changes are sent
+      * @return the emitter to return from the controller
+      * @throws IllegalStateException if this instance already holds max-connections connections
+      */
+     public SseEmitter subscribe(UUID userId) {
+          if (connections.incrementAndGet() > maxConnections) {
+               connections.decrementAndGet();
+               throw new IllegalStateException("Too many event streams");
+          }
+          SseEmitter emitter = new SseEmitter(timeout.toMillis());
+          try {
+               // sent before the connection is registered, so it precedes every change event
+               emitter.send(event().name(READY).reconnectTime(RECONNECT_MILLIS).data(""));
+          } catch (IOException e) {
+               connections.decrementAndGet();
+               throw new UncheckedIOException(e);
+          }
+          Subscriber subscriber = new Subscriber(emitter, executor, bufferSize, resyncs, writeTimeouts);
+          subscribers.compute(userId, (key, set) -> {
+               Set<Subscriber> connected = set == null ? ConcurrentHashMap.newKeySet() : set;
+               connected.add(subscriber);
+               return connected;
+          });
+          // also runs after a timeout or an error
+          emitter.onCompletion(() -> unsubscribe(userId, subscriber));
+          return emitter;
+     }
+
+     /**
+      * Sends an event to the user's connections on this instance, and drops this instance's cached
+      * lists of that user, which predate the change if it was made on another instance.
+      * @param event the change
+      */
+     public void deliver(ChangeEvent event) {
+          List<String> caches = ChangeEvent.JOB.equals(event.entity()) ? List.of(JOBS, FAVORITE_JOBS) : List.of(INTERVIEWS);
+          for (String name : caches) {
+               Cache cache = cacheManager.getCache(name);
+               if (cache != null) {
+                    cache.evict(event.userId());
+               }
+          }
+          Set<Subscriber> connected = subscribers.get(event.userId());
+          if (connected != null) {
+               connected.forEach(subscriber -> subscriber.offer(event));
+          }
+     }
+
+     /**
+      * Tells every connection on this instance to resync, and clears the caches, after events may
+      * have been missed (the broker lost its connection).
+      */
+     public void resyncAll() {
+          for (String name : List.of(JOBS, FAVORITE_JOBS, INTERVIEWS)) {
+               Cache cache = cacheManager.getCache(name);
+               if (cache != null) {
+                    cache.clear();
+               }
+          }
+          subscribers.values().forEach(connected -> connected.forEach(Subscriber::resync));
+     }
+
+     /**
+      * Writes a comment to every idle connection, so proxies do not close it and connections whose
+      * client has gone are found and dropped.
+      */
+     @Scheduled(fixedRateString = "${jobtracker.events.heartbeat:25s}")
+     public void heartbeat() {
+          subscribers.values().forEach(connected -> connected.forEach(Subscriber::heartbeat));
+     }
+
+     private void unsubscribe(UUID userId, Subscriber subscriber) {
+          subscriber.close();
+          subscribers.computeIfPresent(userId, (key, set) -> {
+               if (set.remove(subscriber)) {
+                    connections.decrementAndGet();
+               }
+               return set.isEmpty() ? null : set;
+          });
+     }
+
+     /**
+      * One connection: its queue of events, and whether a task is writing them. At most one task
+      * writes to a connection at a time, and only while something is queued.
+      */
+     static final class Subscriber {
+
+          private final SseEmitter emitter;
+          private final Executor executor;
+          private final int capacity;
+          private final Counter resyncs;
+          private final Counter writeTimeouts;
+          private final Deque<ChangeEvent> queue = new ArrayDeque<>();
+          private boolean resyncPending;
+          private boolean heartbeatPending;
+          private boolean draining;
+          private boolean closed;
+
+          Subscriber(SseEmitter emitter, Executor executor, int capacity, Counter resyncs, Counter writeTimeouts) {
+               this.emitter = emitter;
+               this.executor = executor;
+               this.capacity = capacity;
+               this.resyncs = resyncs;
+               this.writeTimeouts = writeTimeouts;
+          }
+
+          synchronized void offer(ChangeEvent event) {
+               if (closed || resyncPending) {
+                    // a resync that has not been sent yet already covers this change
+                    return;
+               }
+               if (queue.size() >= capacity) {
+                    queue.clear();
+                    resyncPending = true;
+                    resyncs.increment();
+               } else {
+                    queue.add(event);
+               }
+               startDraining();
+          }
+
+          synchronized void resync() {
+               if (!closed) {
+                    queue.clear();
+                    resyncPending = true;
+                    startDraining();
+               }
+          }
+
+          synchronized void heartbeat() {
+               if (!closed && !draining) {
+                    heartbeatPending = true;
+                    startDraining();
+               }
+          }
+
+          synchronized void close() {
+               closed = true;
+               queue.clear();
+          }
+
+          // called with the lock held
+          private void startDraining() {
+               if (!draining) {
+                    draining = true;
+                    try {
+                         executor.execute(this::drain);
+                    } catch (RejectedExecutionException e) {
+                         // the executor is full or shutting down; the client reconnects and resyncs
+                         logger.debug("Dropping event stream: {}", e.getMessage());
+                         draining = false;
+                         close();
+                         emitter.completeWithError(e);
+                    }
+               }
+          }
+
+          private void drain() {
+               while (true) {
+                    SseEmitter.SseEventBuilder next;
+                    synchronized (this) {
+                         if (closed) {
+                              draining = false;
+                              return;
+                         }
+                         if (resyncPending) {
+                              resyncPending = false;
+                              next = event().name(RESYNC).data("");
+                         } else if (!queue.isEmpty()) {
+                              ChangeEvent change = queue.poll();
+                              next = event().name(change.entity()).data(change, APPLICATION_JSON);
+                         } else if (heartbeatPending) {
+                              heartbeatPending = false;
+                              next = event().comment("heartbeat");
+                         } else {
+                              draining = false;
+                              return;
+                         }
+                    }
+                    try {
+                         // blocks while the client's socket buffer is full, which is what the queue
+                         // absorbs, until Tomcat's connection timeout fails the write
+                         emitter.send(next);
+                    } catch (IOException | IllegalStateException e) {
+                         // the client has gone or the stream has already completed; the container
+                         // completes the emitter, which unsubscribes it
+                         logger.debug("Dropping event stream: {}", e.getMessage());
+                         if (timedOut(e)) {
+                              writeTimeouts.increment();
+                         }
+                         close();
+                         synchronized (this) {
+                              draining = false;
+                         }
+                         return;
+                    }
+               }
+          }
+
+          private static boolean timedOut(Throwable e) {
+               for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                    if (cause instanceof SocketTimeoutException) {
+                         return true;
+                    }
+               }
+               return false;
+          }
+     }
+}
@@ -0,0 +1,61 @@
+package edu.uis.csc478.sp25.jobtracker.service;
+
+import edu.uis.csc478.sp25.jobtracker.model.Dashboard;
+import edu.uis.csc478.sp25.jobtracker.repository.DashboardRepository;
+import org.slf4j.Logger;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static edu.uis.csc478.sp25.jobtracker.security.SecurityUtil.getLoggedInUserId;
+import static java.time.LocalDate.now;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Service layer for the dashboard summary, which replaces the five requests the dashboard page
+ * used to make (jobs, status counts, favorites, upcoming interviews and their count) with one.
+ */
+@Service
+public class DashboardService {
+
+     static final int DEFAULT_RECENT_JOBS = 5;
+     static final int MAX_RECENT_JOBS = 50;
+
+     private static final Logger logger = getLogger(DashboardService.class);
+     private final DashboardRepository repository;
+
+     /**
+      * Constructs a DashboardService with the given repository.
+      * @param repository the DashboardRepository used for data access
+      */
+     public DashboardService(DashboardRepository repository) {
+          this.repository = repository;
+     }
+
+     /**
+      * Reads the current user's dashboard summary in one database round trip.
+      * @param recent number of most recently modified jobs to include; clamped to [0, MAX_RECENT_JOBS],
+      *               defaults to DEFAULT_RECENT_JOBS
+      * @return the dashboard summary
+      * @throws DataAccessException if a database error occurs
+      */
+     public Dashboard getDashboardForCurrentUser(Integer recent) {
+          int recentLimit = recent == null ? DEFAULT_RECENT_JOBS : Math.max(0, Math.min(recent, MAX_RECENT_JOBS));
+          try {
+               Dashboard dashboard = repository.findByUserId(getLoggedInUserId(), now(), recentLimit);
+               // report the default statuses with 0 like GET /jobs/status-counts does
+               Map<String, Integer> statusCounts = new LinkedHashMap<>();
+               for (String status : JobService.DEFAULT_STATUSES) {
+                    statusCounts.put(status, 0);
+               }
+               statusCounts.putAll(dashboard.getStatusCounts());
+               dashboard.setStatusCounts(statusCounts);
+               return dashboard;
+          } catch (DataAccessException e) {
+               logger.error("Error fetching dashboard for user", e);
+               throw e;
+          }
+     }
+}
@@ -0,0 +1,167 @@
+package edu.uis.csc478.sp25.jobtracker.service;
+
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import edu.uis.csc478.sp25.jobtracker.model.Interview;
+import edu.uis.csc478.sp25.jobtracker.model.Job;
+import edu.uis.csc478.sp25.jobtracker.repository.InterviewJdbcRepository;
+import edu.uis.csc478.sp25.jobtracker.repository.JobJdbcRepository;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Service layer for exporting all of a user's jobs or interviews as CSV or XLSX.
+ * <p>
+ * An export is read in chunks of a fixed number of rows, in ID order, each chunk by its own
+ * bounded query that starts after the last ID of the previous one. A chunk is written to the
+ * output stream and flushed before the next is read, so memory use stays at one chunk however
+ * many rows there are, and a database connection is only held while a chunk is read, never while
+ * the client is slow to take the response.
+ * <p>
+ * Column headers are the JSON property names, so a jobs CSV can be read back by POST /jobs/bulk.
+ */
+@Service
+public class ExportService {
+
+     static final List<String> JOB_COLUMNS = List.of("id", "title", "level", "minSalary", "maxSalary",
+             "location", "status", "company", "favorite", "lastModified");
+     static final List<String> INTERVIEW_COLUMNS = List.of("id", "company", "round", "format", "date", "time",
+             "lastModified");
+     private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm");
+
+     private static final Logger logger = getLogger(ExportService.class);
+     private final JobJdbcRepository jobRepository;
+     private final InterviewJdbcRepository interviewRepository;
+     private final CsvMapper csvMapper = new CsvMapper();
+     private final int chunkSize;
+
+     /**
+      * The formats an export can be written in.
+      */
+     public enum Format {
+          CSV("text/csv;charset=UTF-8", "csv"),
+          XLSX(XlsxExportWriter.CONTENT_TYPE, "xlsx");
+
+          private final String contentType;
+          private final String extension;
+
+          Format(String contentType, String extension) {
+               this.contentType = contentType;
+               this.extension = extension;
+          }
+
+          /**
+           * @param format "csv" or "xlsx", in any case; null means CSV
+           * @return the format
+           * @throws IllegalArgumentException if the format is neither
+           */
+          public static Format parse(String format) {
+               if (format == null) {
+                    return CSV;
+               }
+               try {
+                    return valueOf(format.strip().toUpperCase(Locale.ROOT));
+               } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown export format: " + format);
+               }
+          }
+
+          public String contentType() {
+               return contentType;
+          }
+
+          public String extension() {
+               return extension;
+          }
+     }
+
+     /**
+      * Constructs an ExportService.
+      * @param jobRepository       the JobJdbcRepository the jobs are read from
+      * @param interviewRepository the InterviewJdbcRepository the interviews are read from
+      * @param chunkSize           rows read per query
+      */
+     public ExportService(JobJdbcRepository jobRepository,
+                          InterviewJdbcRepository interviewRepository,
+                          @Value("${jobtracker.export.chunk-size:1000}") int chunkSize) {
+          this.jobRepository = jobRepository;
+          this.interviewRepository = interviewRepository;
+          this.chunkSize = Math.max(1, chunkSize);
+     }
+
+     /**
+      * Writes all of a user's jobs to the output stream, in ID order, after a header row.
+      * @param userId the owner of the jobs; resolved by the caller, as this usually runs off the request thread
+      * @param format the file format
+      * @param out    the stream to write to; flushed after every chunk and left open
+      * @return the number of jobs written
+      * @throws IOException if writing fails, usually because the client went away
+      */
+     public long exportJobs(UUID userId, Format format, OutputStream out) throws IOException {
+          return export(userId, format, out, "Jobs", JOB_COLUMNS,
+                  after -> jobRepository.findChunk(userId, after, chunkSize), Job::getId,
+                  job -> Arrays.asList(job.getId().toString(), job.getTitle(), job.getLevel(), job.getMinSalary(),
+                          job.getMaxSalary(), job.getLocation(), job.getStatus(), job.getCompany(), job.isFavorite(),
+                          format(job.getLastModified(), DateTimeFormatter.ISO_OFFSET_DATE_TIME)));
+     }
+
+     /**
+      * Writes all of a user's interviews to the output stream, in ID order, after a header row.
+      * @param userId the owner of the interviews; resolved by the caller, as this usually runs off the request thread
+      * @param format the file format
+      * @param out    the stream to write to; flushed after every chunk and left open
+      * @return the number of interviews written
+      * @throws IOException if writing fails, usually because the client went away
+      */
+     public long exportInterviews(UUID userId, Format format, OutputStream out) throws IOException {
+          return export(userId, format, out, "Interviews", INTERVIEW_COLUMNS,
+                  after -> interviewRepository.findChunk(userId, after, chunkSize), Interview::getId,
+                  interview -> Arrays.asList(interview.getId().toString(), interview.getCompany(), interview.getRound(),
+                          interview.getFormat(), format(interview.getDate(), DateTimeFormatter.ISO_LOCAL_DATE),
+                          format(interview.getTime(), TIME),
+                          format(interview.getLastModified(), DateTimeFormatter.ISO_OFFSET_DATE_TIME)));
+     }
+
+     private <T> long export(UUID userId, Format format, OutputStream out, String title, List<String> columns,
+                             Function<UUID, List<T>> chunks, Function<T, UUID> idOf,
+                             Function<T, List<?>> cellsOf) throws IOException {
+          long start = System.nanoTime();
+          ExportWriter writer = format == Format.XLSX ? new XlsxExportWriter(out, title) : ExportWriter.csv(csvMapper, out);
+          writer.writeRow(columns);
+          long rows = 0;
+          UUID after = null;
+          List<T> chunk;
+          do {
+               // the chunk's query has returned its connection to the pool before anything is written
+               chunk = chunks.apply(after);
+               for (T row : chunk) {
+                    writer.writeRow(cellsOf.apply(row));
+               }
+               rows += chunk.size();
+               if (!chunk.isEmpty()) {
+                    after = idOf.apply(chunk.get(chunk.size() - 1));
+               }
+               writer.flush();
+          } while (chunk.size() == chunkSize);
+          writer.finish();
+          logger.info("Exported {} {} as {} for user {} in {} ms", rows, title.toLowerCase(Locale.ROOT),
+                  format.extension(), userId, (System.nanoTime() - start) / 1_000_000);
+          return rows;
+     }
+
+     private static String format(TemporalAccessor value, DateTimeFormatter formatter) {
+          return value == null ? null : formatter.format(value);
+     }
+}
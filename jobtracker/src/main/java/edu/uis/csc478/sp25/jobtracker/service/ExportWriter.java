@@ -0,0 +1,110 @@
+package edu.uis.csc478.sp25.jobtracker.service;
+
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.fasterxml.jackson.core.JsonGenerator.Feature.AUTO_CLOSE_TARGET;
+
+/**
+ * Writes an export to an output stream one row at a time, holding no more than the current row,
+ * so memory use does not depend on how many rows are written. Cells are strings, numbers,
+ * booleans or null (an empty cell). The first row is the header.
+ * <p>
+ * A string that a spreadsheet would take for a formula is kept from being evaluated, so opening
+ * an export never runs text a user typed into a job: CSV writes it with a leading ' (see
+ * escapeFormula), XLSX marks its cell as quote-prefixed.
+ */
+interface ExportWriter {
+
+     // the first characters OWASP lists as starting a formula in a spreadsheet
+     String FORMULA_STARTS = "=+-@\t\r";
+
+     /**
+      * @param cells the values of one row, in column order
+      */
+     void writeRow(List<?> cells) throws IOException;
+
+     /**
+      * Pushes what has been written so far towards the client.
+      */
+     void flush() throws IOException;
+
+     /**
+      * Completes the file and flushes it. The output stream is left open.
+      */
+     void finish() throws IOException;
+
+     /**
+      * @return a writer of RFC 4180 CSV, with the quoting and escaping of jackson-dataformat-csv
+      */
+     static ExportWriter csv(CsvMapper csvMapper, OutputStream out) throws IOException {
+          SequenceWriter rows = csvMapper.writer(CsvSchema.emptySchema()).without(AUTO_CLOSE_TARGET).writeValues(out);
+          return new ExportWriter() {
+               @Override
+               public void writeRow(List<?> cells) throws IOException {
+                    List<Object> fields = new ArrayList<>(cells.size());
+                    for (Object cell : cells) {
+                         // a null would be left out of the row, moving the fields after it one column left
+                         fields.add(cell == null ? "" : cell instanceof String text ? escapeFormula(text) : cell);
+                    }
+                    rows.write(fields);
+               }
+
+               @Override
+               public void flush() throws IOException {
+                    rows.flush();
+               }
+
+               @Override
+               public void finish() throws IOException {
+                    // closes the generator only; AUTO_CLOSE_TARGET is off, so the response stays open
+                    rows.close();
+                    out.flush();
+               }
+          };
+     }
+
+     /**
+      * Prefixes text that starts like a formula (=, +, -, @, tab or carriage return, as OWASP lists
+      * them) with ', so a spreadsheet reads it as text. Text that already starts with ' before such
+      * a character gets one more, so unescapeFormula can tell the two apart and an exported value
+      * reads back unchanged.
+      * @param text a cell's text
+      * @return the text, safe to open in a spreadsheet
+      */
+     static String escapeFormula(String text) {
+          return startsFormula(text) ? "'" + text : text;
+     }
+
+     /**
+      * Reverses escapeFormula, for a CSV export posted back to POST /jobs/bulk.
+      * @param text a cell's text, or null
+      * @return the text as it was before escapeFormula
+      */
+     static String unescapeFormula(String text) {
+          return text != null && text.startsWith("'") && startsFormula(text.substring(1)) ? text.substring(1) : text;
+     }
+
+     /**
+      * @param text a cell's text
+      * @return true if it starts with a character that begins a formula
+      */
+     static boolean startsLikeFormula(String text) {
+          return !text.isEmpty() && FORMULA_STARTS.indexOf(text.charAt(0)) >= 0;
+     }
+
+     // whether the text, after any leading apostrophes, starts with a character that begins a formula
+     private static boolean startsFormula(String text) {
+          int i = 0;
+          while (i < text.length() && text.charAt(i) == '\'') {
+               i++;
+          }
+          return startsLikeFormula(text.substring(i));
+     }
+}
@@ -0,0 +1,83 @@
+package edu.uis.csc478.sp25.jobtracker.service;
+
+import edu.uis.csc478.sp25.jobtracker.model.FunnelReport;
+import edu.uis.csc478.sp25.jobtracker.repository.FunnelRepository;
+import org.slf4j.Logger;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static edu.uis.csc478.sp25.jobtracker.security.SecurityUtil.getLoggedInUserId;
+import static java.time.ZoneOffset.UTC;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Service layer for funnel analytics: how many jobs reach each stage of the application pipeline,
+ * how many of those move on to the next, how long they spend in each, and the same by the week the
+ * jobs entered the pipeline. For one user, or for every user in admin reports.
+ */
+@Service
+public class FunnelService {
+
+     // the default statuses in the order a job moves forward through them; Rejected can end a job at
+     // any stage, so it is not a stage of its own
+     static final List<String> FUNNEL_STAGES = List.of("Saved", "Applied", "Screening", "Interview", "Offer", "Accepted");
+     static final int DEFAULT_WEEKS = 52;
+
+     private static final Logger logger = getLogger(FunnelService.class);
+     private final FunnelRepository repository;
+
+     /**
+      * Constructs a FunnelService with the given repository.
+      * @param repository the FunnelRepository used for data access
+      */
+     public FunnelService(FunnelRepository repository) {
+          this.repository = repository;
+     }
+
+     /**
+      * Reads the funnel of the current user's jobs.
+      * @param from first day (UTC) on which counted jobs entered the pipeline; defaults to DEFAULT_WEEKS before to
+      * @param to   last day (UTC), inclusive; defaults to today
+      * @return the funnel report
+      * @throws IllegalArgumentException if from is after to
+      * @throws DataAccessException if a database error occurs
+      */
+     public FunnelReport getFunnelForCurrentUser(LocalDate from, LocalDate to) {
+          return getFunnel(getLoggedInUserId(), from, to);
+     }
+
+     /**
+      * Reads the funnel of every user's jobs together. Walks the whole history of the period's jobs,
+      * so it is meant for admin reports rather than for pages a user loads.
+      * @param from first day (UTC) on which counted jobs entered the pipeline; defaults to DEFAULT_WEEKS before to
+      * @param to   last day (UTC), inclusive; defaults to today
+      * @return the funnel report
+      * @throws IllegalArgumentException if from is after to
+      * @throws DataAccessException if a database error occurs
+      */
+     public FunnelReport getFunnelForAllUsers(LocalDate from, LocalDate to) {
+          return getFunnel(null, from, to);
+     }
+
+     private FunnelReport getFunnel(UUID userId, LocalDate from, LocalDate to) {
+          LocalDate last = to == null ? LocalDate.now(UTC) : to;
+          LocalDate first = from == null ? last.minusWeeks(DEFAULT_WEEKS).plusDays(1) : from;
+          if (first.isAfter(last)) {
+               throw new IllegalArgumentException("from is after to");
+          }
+          try {
+               FunnelReport report = repository.findFunnel(userId, FUNNEL_STAGES,
+                       first.atStartOfDay().atOffset(UTC), last.plusDays(1).atStartOfDay().atOffset(UTC));
+               report.setFrom(first);
+               report.setTo(last);
+               return report;
+          } catch (DataAccessException e) {
+               logger.error("Error reading job funnel", e);
+               throw e;
+          }
+     }
+}
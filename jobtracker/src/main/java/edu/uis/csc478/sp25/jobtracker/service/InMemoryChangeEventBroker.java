@@ -0,0 +1,27 @@
+package edu.uis.csc478.sp25.jobtracker.service;
+
+import edu.uis.csc478.sp25.jobtracker.model.ChangeEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Delivers change events to the connections of this instance only, without a database connection.
+ * For tests and single-instance deployments (jobtracker.events.broker=memory).
+ */
+@Component
+@ConditionalOnProperty(name = "jobtracker.events.broker", havingValue = "memory")
+public class InMemoryChangeEventBroker implements ChangeEventBroker {
+
+     private final ChangeEventHub hub;
+
+     public InMemoryChangeEventBroker(ChangeEventHub hub) {
+          this.hub = hub;
+     }
+
+     @Override
+     public void publish(List<ChangeEvent> events) {
+          events.forEach(hub::deliver);
+     }
+}
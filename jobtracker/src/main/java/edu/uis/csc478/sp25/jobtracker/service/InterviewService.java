@@ -1,20 +1,27 @@
 package edu.uis.csc478.sp25.jobtracker.service;
 
+import edu.uis.csc478.sp25.jobtracker.model.ChangeEvent;
 import edu.uis.csc478.sp25.jobtracker.model.Interview;
+import edu.uis.csc478.sp25.jobtracker.model.ResourceVersion;
+import edu.uis.csc478.sp25.jobtracker.repository.InterviewJdbcRepository;
 import edu.uis.csc478.sp25.jobtracker.repository.InterviewRepository;
 import org.slf4j.Logger;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.time.format.DateTimeParseException;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 
+import static edu.uis.csc478.sp25.jobtracker.config.CacheConfig.INTERVIEWS;
+import static edu.uis.csc478.sp25.jobtracker.model.ChangeEvent.*;
 import static edu.uis.csc478.sp25.jobtracker.security.SecurityUtil.getLoggedInUserId;
 import static java.time.LocalDate.now;
-import static java.time.LocalDate.parse;
-import static java.time.format.DateTimeFormatter.ISO_LOCAL_DATE;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
@@ -25,21 +32,31 @@ import static org.slf4j.LoggerFactory.getLogger;
 @Service
 public class InterviewService {
 
+     static final int DEFAULT_UPCOMING = 100;
+     static final int MAX_UPCOMING = 500;
      private final InterviewRepository repository;
+     private final InterviewJdbcRepository jdbcRepository;
+     private final ChangeEventBroker events;
      private static final Logger logger = getLogger(InterviewService.class);
 
      /**
-      * Constructs an InterviewService with the given InterviewRepository.
-      * @param repository the InterviewRepository used for data access
+      * Constructs an InterviewService with the given repositories.
+      * @param repository     the InterviewRepository used for data access
+      * @param jdbcRepository the InterviewJdbcRepository used for partial updates
+      * @param events         the ChangeEventBroker that tells the user's GET /events connections about writes
       */
-     public InterviewService(InterviewRepository repository) {
+     public InterviewService(InterviewRepository repository, InterviewJdbcRepository jdbcRepository,
+                             ChangeEventBroker events) {
           this.repository = repository;
+          this.jdbcRepository = jdbcRepository;
+          this.events = events;
      }
 
      /**
-      * Retrieves all interviews for the currently logged-in user.
+      * Retrieves all interviews for the currently logged-in user, from the per-user "interviews" cache.
       * @return a list of Interview objects belonging to the user (may be empty)
       */
+     @Cacheable(cacheNames = INTERVIEWS, keyGenerator = "currentUserKeyGenerator")
      public List<Interview> getAllInterviewsForUser() {
           // Get the current user's UUID from security context
           UUID userId = getLoggedInUserId();
@@ -47,6 +64,15 @@ public class InterviewService {
           return repository.findByUserId(userId);
      }
 
+     /**
+      * Reads the version of the current user's interview list from the database, never from the
+      * cache, so GET /interviews can answer 304 Not Modified without loading any interview.
+      * @return count and latest last_modified of the user's interviews
+      */
+     public ResourceVersion getInterviewsVersion() {
+          return repository.findVersionByUserId(getLoggedInUserId());
+     }
+
      /**
       * Retrieves a specific interview by its ID for the current user.
       * Throws an exception if not found or not owned by the user.
@@ -66,18 +92,21 @@ public class InterviewService {
       * Any parameter may be null, in which case it is ignored in the search.
       * @param format  optional interview format filter (e.g., "phone", "onsite")
       * @param round   optional round filter (e.g., "first", "final")
-      * @param date    optional date filter (as a string)
-      * @param time    optional time filter (as a string)
+      * @param date    optional date filter (yyyy-MM-dd)
+      * @param time    optional time filter (HH:mm or HH:mm:ss)
       * @param company optional company filter
       * @return a list of Interview objects matching the filters (may be empty)
+      * @throws IllegalArgumentException if date or time cannot be parsed
       * @throws RuntimeException if an error occurs during search
       */
      public List<Interview> searchInterviews(String format, String round, String date, String time, String company) {
+          LocalDate dateFilter = parseFilter(date, LocalDate::parse, "date must be yyyy-MM-dd");
+          LocalTime timeFilter = parseFilter(time, LocalTime::parse, "time must be HH:mm or HH:mm:ss");
           try {
                UUID userId = getLoggedInUserId();
                // Delegate to repository, which handles nulls as
                // "don't filter on this field"
-               return repository.findByFiltersAndUserId(userId, format, round, date, time, company);
+               return repository.findByFiltersAndUserId(userId, format, round, dateFilter, timeFilter, company);
           } catch (Exception e) {
                logger.error("Error searching interviews for user", e);
                throw new RuntimeException("Failed to search interviews", e);
@@ -91,6 +120,7 @@ public class InterviewService {
       * @return the saved Interview object
       * @throws RuntimeException if an interview with the same ID already exists for the user
       */
+     @CacheEvict(cacheNames = INTERVIEWS, keyGenerator = "currentUserKeyGenerator")
      public Interview createInterview(Interview interview) {
           UUID userId = getLoggedInUserId();
 
@@ -103,7 +133,9 @@ public class InterviewService {
           interview.setUser_id(userId);
 
           // Save the interview to the repository
-          return repository.save(interview);
+          Interview saved = repository.save(interview);
+          events.publish(new ChangeEvent(userId, INTERVIEW, CREATED, saved.getId()));
+          return saved;
      }
 
      /**
@@ -114,6 +146,7 @@ public class InterviewService {
       * @return the updated Interview object
       * @throws RuntimeException if the interview does not exist, is not owned by the user, or ID mismatch
       */
+     @CacheEvict(cacheNames = INTERVIEWS, keyGenerator = "currentUserKeyGenerator")
      public Interview updateInterviewById(UUID id, Interview interview) {
           UUID userId = getLoggedInUserId();
 
@@ -129,7 +162,26 @@ public class InterviewService {
           interview.user_id = userId;
 
           // Save the updated interview
-          return repository.save(interview);
+          Interview saved = repository.save(interview);
+          events.publish(new ChangeEvent(userId, INTERVIEW, UPDATED, id));
+          return saved;
+     }
+
+     /**
+      * Updates only the given fields of an interview for the current user, in a single UPDATE statement.
+      * @param id      the UUID of the interview to update
+      * @param changes field name to new value; absent fields keep their stored value
+      * @return the updated Interview object
+      * @throws IllegalArgumentException if a field cannot be updated or has the wrong type
+      * @throws RuntimeException if the interview does not exist or is not owned by the user
+      */
+     @CacheEvict(cacheNames = INTERVIEWS, keyGenerator = "currentUserKeyGenerator")
+     public Interview patchInterviewById(UUID id, Map<String, Object> changes) {
+          UUID userId = getLoggedInUserId();
+          Interview patched = jdbcRepository.patch(id, userId, changes)
+                  .orElseThrow(() -> new RuntimeException("Interview not found or you don't have permission to update it."));
+          events.publish(new ChangeEvent(userId, INTERVIEW, UPDATED, id));
+          return patched;
      }
 
      /**
@@ -138,6 +190,7 @@ public class InterviewService {
       * @param id the UUID of the interview to delete
       * @throws RuntimeException if the interview does not exist or is not owned by the user
       */
+     @CacheEvict(cacheNames = INTERVIEWS, keyGenerator = "currentUserKeyGenerator")
      public void deleteInterviewById(UUID id) {
           UUID userId = getLoggedInUserId();
           // Attempt to delete; repository returns number of rows deleted
@@ -145,6 +198,7 @@ public class InterviewService {
           if (deletedRows == 0) {
                throw new RuntimeException("Interview not found or you don't have permission to delete it.");
           }
+          events.publish(new ChangeEvent(userId, INTERVIEW, DELETED, id));
      }
 
      /**
@@ -156,31 +210,37 @@ public class InterviewService {
           return repository.existsById(id);
      }
 
-     public List<Interview> getUpcomingInterviewsForUser() {
-          LocalDate today = now();
-          List<Interview> all = getAllInterviewsForUser();
-          List<Interview> upcoming = new ArrayList<>();
-
-          for (Interview interview : all) {
-               if (interview.getDate() != null) {
-                    try {
-                         LocalDate interviewDate = parse(interview.getDate(), ISO_LOCAL_DATE);
-                         if (interviewDate.isAfter(today)) {
-                              upcoming.add(interview);
-                         }
-                    } catch (DateTimeParseException e) {
-                         logger.warn("Invalid date format for interview {}", interview.getId());
-                    }
-               }
-          }
-          return upcoming;
+     /**
+      * Retrieves the interviews dated after today for the current user, soonest first.
+      * Read straight from the (user_id, date, time) index, so only the returned rows are touched
+      * and, unlike a cached list, the result always reflects the current day.
+      * @param limit maximum number of interviews to return; clamped to [1, MAX_UPCOMING],
+      *              defaults to DEFAULT_UPCOMING
+      * @return upcoming Interview objects (may be empty)
+      */
+     public List<Interview> getUpcomingInterviewsForUser(Integer limit) {
+          int max = limit == null ? DEFAULT_UPCOMING : Math.max(1, Math.min(limit, MAX_UPCOMING));
+          return repository.findUpcomingByUserId(getLoggedInUserId(), now(), max);
      }
 
      /**
       * Returns the count of upcoming interviews (date after today) for the current user.
+      * Counted by the database, so no interview rows are loaded.
       * @return count >= 0
       */
      public int getCountOfUpcomingInterviews() {
-          return getUpcomingInterviewsForUser().size();
+          return repository.countUpcomingByUserId(getLoggedInUserId(), now());
+     }
+
+     // a blank filter means "don't filter", like a missing one
+     private static <T> T parseFilter(String value, Function<String, T> parser, String message) {
+          if (value == null || value.isBlank()) {
+               return null;
+          }
+          try {
+               return parser.apply(value.trim());
+          } catch (DateTimeParseException e) {
+               throw new IllegalArgumentException(message, e);
+          }
      }
-}
\ No newline at end of file
+}
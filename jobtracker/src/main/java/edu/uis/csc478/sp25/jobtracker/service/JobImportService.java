@@ -0,0 +1,264 @@
+package edu.uis.csc478.sp25.jobtracker.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import edu.uis.csc478.sp25.jobtracker.model.ChangeEvent;
+import edu.uis.csc478.sp25.jobtracker.model.Job;
+import edu.uis.csc478.sp25.jobtracker.model.JobImportResult;
+import edu.uis.csc478.sp25.jobtracker.model.JobImportResult.RowError;
+import edu.uis.csc478.sp25.jobtracker.repository.JobJdbcRepository;
+import edu.uis.csc478.sp25.jobtracker.security.SecurityUtil;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static edu.uis.csc478.sp25.jobtracker.config.CacheConfig.FAVORITE_JOBS;
+import static edu.uis.csc478.sp25.jobtracker.config.CacheConfig.JOBS;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.UUID.randomUUID;
+import static org.slf4j.LoggerFactory.getLogger;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+
+/**
+ * Imports many jobs for the current user in one request (POST /jobs/bulk).
+ * The body is read as a stream, one row at a time, and valid rows are written in batches of
+ * jobtracker.jobs.import-chunk-size, so memory use does not grow with the size of the upload.
+ * All batches run in one transaction: invalid rows are reported and skipped, but a database error
+ * or an unreadable body rolls back the whole import.
+ * <p>
+ * The body is first copied to a temporary file, and the transaction only begins once the upload
+ * has arrived. Beginning it takes a pooled connection, so a client that uploads slowly holds a
+ * request thread and some disk space, but never one of the few database connections.
+ */
+@Service
+public class JobImportService {
+
+     public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+     // rejected rows beyond this are counted but not itemized, so a garbage upload cannot exhaust memory
+     static final int MAX_REPORTED_ERRORS = 1000;
+
+     private static final Logger logger = getLogger(JobImportService.class);
+     private final JobJdbcRepository jdbcRepository;
+     private final ObjectMapper objectMapper;
+     private final CsvMapper csvMapper = new CsvMapper();
+     private final TransactionTemplate transactionTemplate;
+     private final int chunkSize;
+     private final ChangeEventBroker events;
+
+     /**
+      * Constructs a JobImportService.
+      * @param jdbcRepository     the JobJdbcRepository used for the batched inserts
+      * @param objectMapper       the application ObjectMapper, used to bind rows to Job
+      * @param transactionManager transaction manager wrapping the whole import
+      * @param chunkSize          number of rows sent to the database per batch
+      * @param events             the ChangeEventBroker that tells the user's GET /events connections about imports
+      */
+     public JobImportService(JobJdbcRepository jdbcRepository,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${jobtracker.jobs.import-chunk-size:1000}") int chunkSize,
+                             ChangeEventBroker events) {
+          this.jdbcRepository = jdbcRepository;
+          this.objectMapper = objectMapper;
+          this.transactionTemplate = new TransactionTemplate(transactionManager);
+          this.chunkSize = Math.max(1, chunkSize);
+          this.events = events;
+     }
+
+     /**
+      * Imports the jobs in the body for the current user.
+      * Every imported job gets a new server-generated ID and belongs to the current user,
+      * whatever the row says; rows are validated with the same rules as POST /jobs.
+      * @param body        the request body
+      * @param contentType application/json (an array of jobs), application/x-ndjson (one job per line)
+      *                    or text/csv (a header row naming the job fields, then one job per row)
+      * @return counts of received, imported and rejected rows, with the reason for each rejection
+      * @throws IllegalArgumentException if the content type is not supported
+      * @throws UncheckedIOException if the body cannot be read or is not well-formed JSON/CSV
+      */
+     @CacheEvict(cacheNames = {JOBS, FAVORITE_JOBS}, keyGenerator = "currentUserKeyGenerator")
+     public JobImportResult importJobs(InputStream body, MediaType contentType) {
+          UUID userId = SecurityUtil.getLoggedInUserId();
+          Import batch = new Import(userId);
+          long start = System.nanoTime();
+
+          Path upload = spool(body);
+          try {
+               transactionTemplate.executeWithoutResult(status -> {
+                    try (InputStream rows = new BufferedInputStream(Files.newInputStream(upload))) {
+                         readRows(rows, contentType, batch);
+                    } catch (IOException e) {
+                         throw new UncheckedIOException(e);
+                    }
+                    batch.flush();
+               });
+          } finally {
+               delete(upload);
+          }
+
+          logger.info("Imported {} of {} jobs for user {} in {} ms", batch.imported, batch.received, userId,
+                  (System.nanoTime() - start) / 1_000_000);
+          if (batch.imported > 0) {
+               // one event for the whole import rather than one per row
+               events.publish(new ChangeEvent(userId, ChangeEvent.JOB, ChangeEvent.IMPORTED, null));
+          }
+          return JobImportResult.builder()
+                  .received(batch.received)
+                  .imported(batch.imported)
+                  .rejected(batch.rejected)
+                  .errors(batch.errors)
+                  .build();
+     }
+
+     // copies the whole body to a new temporary file, readable by this process's user only
+     private static Path spool(InputStream body) {
+          Path upload = null;
+          try {
+               upload = Files.createTempFile("job-import-", ".tmp");
+               Files.copy(body, upload, StandardCopyOption.REPLACE_EXISTING);
+               return upload;
+          } catch (IOException e) {
+               delete(upload);
+               throw new UncheckedIOException(e);
+          }
+     }
+
+     private static void delete(Path upload) {
+          if (upload == null) {
+               return;
+          }
+          try {
+               Files.deleteIfExists(upload);
+          } catch (IOException e) {
+               logger.warn("Could not delete import upload {}", upload, e);
+          }
+     }
+
+     /**
+      * Parses the body according to its content type and hands each row to the import.
+      * Rows are bound to Job one at a time, so a row that does not bind (for example a salary
+      * that is not a number) is rejected on its own. Only a syntax error that leaves the rest of
+      * the document unreadable aborts the import; for NDJSON even that only affects one line.
+      */
+     private void readRows(InputStream body, MediaType contentType, Import batch) throws IOException {
+          if (APPLICATION_NDJSON.isCompatibleWith(contentType)) {
+               BufferedReader reader = new BufferedReader(new InputStreamReader(body, UTF_8));
+               int lineNumber = 0;
+               for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    lineNumber++;
+                    if (line.isBlank()) {
+                         continue;
+                    }
+                    try {
+                         batch.add(lineNumber, objectMapper.readValue(line, Job.class));
+                    } catch (JsonProcessingException e) {
+                         batch.reject(lineNumber, "Malformed row: " + e.getOriginalMessage());
+                    }
+               }
+          } else if (TEXT_CSV.isCompatibleWith(contentType)) {
+               CsvSchema schema = CsvSchema.emptySchema().withHeader();
+               MappingIterator<Map<String, String>> rows = csvMapper.readerForMapOf(String.class)
+                       .with(schema)
+                       .with(CsvParser.Feature.TRIM_SPACES)
+                       .readValues(body);
+               for (int row = 1; rows.hasNextValue(); row++) {
+                    Map<String, String> values = rows.nextValue();
+                    // a CSV from GET /jobs/export has a ' before text that starts like a formula
+                    values.replaceAll((column, value) -> ExportWriter.unescapeFormula(value));
+                    try {
+                         batch.add(row, objectMapper.convertValue(values, Job.class));
+                    } catch (IllegalArgumentException e) {
+                         String reason = e.getCause() instanceof JsonProcessingException cause
+                                 ? cause.getOriginalMessage() : e.getMessage();
+                         batch.reject(row, "Malformed row: " + reason);
+                    }
+               }
+          } else if (APPLICATION_JSON.isCompatibleWith(contentType)) {
+               // a top-level array is iterated element by element instead of being read whole
+               MappingIterator<JsonNode> rows = objectMapper.readerFor(JsonNode.class).readValues(body);
+               for (int row = 1; rows.hasNextValue(); row++) {
+                    JsonNode value = rows.nextValue();
+                    try {
+                         batch.add(row, objectMapper.treeToValue(value, Job.class));
+                    } catch (JsonProcessingException e) {
+                         batch.reject(row, "Malformed row: " + e.getOriginalMessage());
+                    }
+               }
+          } else {
+               throw new IllegalArgumentException("Unsupported content type " + contentType);
+          }
+     }
+
+     // accumulates rows of one import and writes them chunk by chunk
+     private final class Import {
+          private final UUID userId;
+          private final List<Job> pending = new ArrayList<>(chunkSize);
+          private final List<RowError> errors = new ArrayList<>();
+          private int received;
+          private int imported;
+          private int rejected;
+
+          Import(UUID userId) {
+               this.userId = userId;
+          }
+
+          void add(int row, Job job) {
+               received++;
+               if (!JobService.isValidJob(job)) {
+                    countRejection(row, "Invalid job data");
+                    return;
+               }
+               job.setId(randomUUID());
+               job.setUserId(userId);
+               pending.add(job);
+               if (pending.size() >= chunkSize) {
+                    flush();
+               }
+          }
+
+          void reject(int row, String message) {
+               received++;
+               countRejection(row, message);
+          }
+
+          private void countRejection(int row, String message) {
+               rejected++;
+               if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(new RowError(row, message));
+               }
+          }
+
+          void flush() {
+               if (pending.isEmpty()) {
+                    return;
+               }
+               jdbcRepository.insertAll(pending);
+               imported += pending.size();
+               pending.clear();
+          }
+     }
+}
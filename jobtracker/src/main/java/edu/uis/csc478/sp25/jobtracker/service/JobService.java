@@ -1,18 +1,32 @@
 package edu.uis.csc478.sp25.jobtracker.service;
 
+import edu.uis.csc478.sp25.jobtracker.model.ChangeEvent;
 import edu.uis.csc478.sp25.jobtracker.model.Job;
+import edu.uis.csc478.sp25.jobtracker.model.JobCursor;
+import edu.uis.csc478.sp25.jobtracker.model.JobPage;
+import edu.uis.csc478.sp25.jobtracker.model.JobSearchCriteria;
+import edu.uis.csc478.sp25.jobtracker.model.ResourceVersion;
+import edu.uis.csc478.sp25.jobtracker.repository.JobJdbcRepository;
 import edu.uis.csc478.sp25.jobtracker.repository.JobRepository;
+import edu.uis.csc478.sp25.jobtracker.repository.JobStatusCountRepository;
 import edu.uis.csc478.sp25.jobtracker.security.SecurityUtil;
 import org.slf4j.Logger;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
+import java.util.function.Consumer;
 
+import static edu.uis.csc478.sp25.jobtracker.config.CacheConfig.FAVORITE_JOBS;
+import static edu.uis.csc478.sp25.jobtracker.config.CacheConfig.JOBS;
+import static edu.uis.csc478.sp25.jobtracker.model.ChangeEvent.*;
 import static java.util.Collections.emptyMap;
 import static java.util.UUID.randomUUID;
 import static org.slf4j.LoggerFactory.getLogger;
-import static org.springframework.beans.BeanUtils.copyProperties;
 
 /**
  * Service layer for managing Job entities.
@@ -23,14 +37,35 @@ import static org.springframework.beans.BeanUtils.copyProperties;
 public class JobService {
 
      private static final Logger logger = getLogger(JobService.class);
+     static final int DEFAULT_PAGE_SIZE = 50;
+     static final int MAX_PAGE_SIZE = 500;
+     static final int MAX_SEARCH_RESULTS = 500;
+     static final int MAX_BATCH_IDS = 1000;
+     static final String[] DEFAULT_STATUSES = {"Saved", "Applied", "Screening", "Interview", "Rejected", "Offer", "Accepted"};
      private final JobRepository repository;
+     private final JobJdbcRepository jdbcRepository;
+     private final JobStatusCountRepository statusCountRepository;
+     private final TransactionTemplate transactionTemplate;
+     private final ChangeEventBroker events;
 
      /**
-      * Constructs a JobService with the given JobRepository.
-      * @param repository the JobRepository used for data access
+      * Constructs a JobService with the given repositories.
+      * @param repository            the JobRepository used for data access
+      * @param jdbcRepository        the JobJdbcRepository used for chunked streaming reads and partial updates
+      * @param statusCountRepository the JobStatusCountRepository holding per-user status tallies
+      * @param transactionManager    transaction manager used to roll back partial updates that fail validation
+      * @param events                the ChangeEventBroker that tells the user's GET /events connections about writes
       */
-     public JobService(JobRepository repository) {
+     public JobService(JobRepository repository,
+                       JobJdbcRepository jdbcRepository,
+                       JobStatusCountRepository statusCountRepository,
+                       PlatformTransactionManager transactionManager,
+                       ChangeEventBroker events) {
           this.repository = repository;
+          this.jdbcRepository = jdbcRepository;
+          this.statusCountRepository = statusCountRepository;
+          this.transactionTemplate = new TransactionTemplate(transactionManager);
+          this.events = events;
      }
 
      /**
@@ -50,9 +85,11 @@ public class JobService {
 
      /**
       * Retrieves all jobs for the currently logged-in user, sorted by last_modified descending.
+      * Served from the per-user "jobs" cache; every job write below evicts the user's entry.
       * @return List of Job objects (may be empty)
       * @throws DataAccessException if a database error occurs
       */
+     @Cacheable(cacheNames = JOBS, keyGenerator = "currentUserKeyGenerator")
      public List<Job> getJobsForCurrentUser() {
           try {
                UUID userId = getLoggedInUserId();
@@ -64,6 +101,68 @@ public class JobService {
           }
      }
 
+     /**
+      * Reads the version of the current user's job list from the database, never from the cache,
+      * so GET /jobs can answer 304 Not Modified without loading any job.
+      * @return count and latest last_modified of the user's jobs
+      */
+     public ResourceVersion getJobsVersion() {
+          return repository.findVersionByUserId(getLoggedInUserId());
+     }
+
+     /**
+      * Retrieves one keyset page of the current user's jobs, ordered by (last_modified, id) descending.
+      * Each page is a bounded LIMIT query, so the cost does not grow with the size of the account.
+      * @param limit maximum number of jobs to return; clamped to [1, MAX_PAGE_SIZE], defaults to DEFAULT_PAGE_SIZE
+      * @param after encoded cursor returned with the previous page, or null for the first page
+      * @return the page, with a cursor for the next page if more rows may follow
+      * @throws IllegalArgumentException if the cursor is malformed
+      * @throws DataAccessException if a database error occurs
+      */
+     public JobPage getJobsPage(Integer limit, String after) {
+          int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+          try {
+               UUID userId = getLoggedInUserId();
+               // Ask for one extra row so we know whether another page exists without a count query
+               List<Job> rows;
+               if (after == null || after.isBlank()) {
+                    rows = repository.findFirstPageByUserId(userId, pageSize + 1);
+               } else {
+                    JobCursor cursor = JobCursor.decode(after);
+                    rows = repository.findPageByUserIdAfter(userId, cursor.lastModified(), cursor.id(), pageSize + 1);
+               }
+
+               if (rows.size() <= pageSize) {
+                    return JobPage.builder().items(rows).build();
+               }
+               List<Job> items = rows.subList(0, pageSize);
+               return JobPage.builder()
+                       .items(items)
+                       .nextCursor(JobCursor.after(items.get(pageSize - 1)).encode())
+                       .build();
+          } catch (DataAccessException e) {
+               logger.error("Error fetching page of jobs for user", e);
+               throw e;
+          }
+     }
+
+     /**
+      * Streams every job of the given user, newest first, without materializing them in a list.
+      * The user ID is passed in rather than read from the security context because the
+      * caller typically runs this on an async response thread.
+      * @param userId the owner of the jobs
+      * @param action called once per job, a chunk of rows at a time
+      * @throws DataAccessException if a database error occurs
+      */
+     public void streamJobsForUser(UUID userId, Consumer<Job> action) {
+          try {
+               jdbcRepository.forEachByUserId(userId, action);
+          } catch (DataAccessException e) {
+               logger.error("Error streaming jobs for user", e);
+               throw e;
+          }
+     }
+
      /**
       * Retrieves a specific job by ID for the current user.
       * Enforces that the job must belong to the authenticated user.
@@ -96,6 +195,7 @@ public class JobService {
       * @throws IllegalArgumentException if the job data is invalid
       * @throws RuntimeException on database or unexpected errors
       */
+     @CacheEvict(cacheNames = {JOBS, FAVORITE_JOBS}, keyGenerator = "currentUserKeyGenerator")
      public Job createJob(Job newJob) {
           try {
                // Validate job fields before proceeding
@@ -111,16 +211,10 @@ public class JobService {
                     newJob.setId(randomUUID());
                }
 
-               // Insert the job using a custom repository method (for full control)
-               repository.insertJob(newJob);
-
-               // Fetch the job back from the DB to verify creation and return it
-               Optional<Job> optionalJob = repository.findById(newJob.getId());
-               if (optionalJob.isPresent()) {
-                    return optionalJob.get();
-               } else {
-                    throw new RuntimeException("Job not found after creation");
-               }
+               // Insert the job and get the stored row back in the same statement
+               Job created = repository.insertJob(newJob);
+               events.publish(new ChangeEvent(userId, JOB, CREATED, created.getId()));
+               return created;
           } catch (DataAccessException e) {
                logger.error("Failed to create job due to a database error", e);
                throw new RuntimeException("Failed to create job due to a database error", e);
@@ -135,35 +229,35 @@ public class JobService {
 
      /**
       * Updates a specific job by ID for the current user.
-      * Only allows update if the job exists and is owned by the user.
+      * Only allows update if the job exists and is owned by the user. All editable fields are
+      * replaced with the values in updatedJob, and last_modified is set to the current time.
+      * A change of status is recorded in job_status_history by a trigger on job (V8), as it is
+      * for patches and imports, so the funnel analytics see every write path.
       * @param jobId      the UUID of the job to update
       * @param updatedJob the Job object with updated values
       * @return the updated Job object
       * @throws IllegalArgumentException if the updated job data is invalid
       * @throws RuntimeException if the job is not found, not owned, or on DB error
       */
+     @CacheEvict(cacheNames = {JOBS, FAVORITE_JOBS}, keyGenerator = "currentUserKeyGenerator")
      public Job updateJob(UUID jobId, Job updatedJob) {
           try {
-               UUID userId = getLoggedInUserId();
-               Optional<Job> jobOptional = repository.findByIdAndUserId(jobId, userId);
-               Job existingJob;
-
-               // Ensure the job exists and is owned by the user
-               if (jobOptional.isPresent()) {
-                    existingJob = jobOptional.get();
-               } else {
-                    throw new RuntimeException("Job not found or you don't have permission to update it.");
-               }
-
-               // Copy updatable fields from updatedJob to existingJob (excluding id/userId)
-               Job updatedJobWithChanges = applyJobUpdates(existingJob, updatedJob);
-
-               // Validate the updated job before saving
-               if (!isValidJob(updatedJobWithChanges)) {
+               // Validate the new values before anything is written
+               if (!isValidJob(updatedJob)) {
                     throw new IllegalArgumentException("Invalid job data");
                }
 
-               return updatedJobWithChanges;
+               // Every editable column is replaced; id and owner come from the path and the token,
+               // never from the body
+               updatedJob.setId(jobId);
+               updatedJob.setUserId(getLoggedInUserId());
+
+               // One UPDATE ... RETURNING: the WHERE clause on id and user_id enforces ownership,
+               // so an empty result means the job does not exist or is not the caller's
+               Job saved = repository.updateJob(updatedJob)
+                       .orElseThrow(() -> new RuntimeException("Job not found or you don't have permission to update it."));
+               events.publish(new ChangeEvent(updatedJob.getUserId(), JOB, UPDATED, jobId));
+               return saved;
           } catch (DataAccessException e) {
                logger.error("Failed to update job with ID {}", jobId, e);
                throw new RuntimeException("Failed to update job due to a database error", e);
@@ -180,32 +274,53 @@ public class JobService {
      }
 
      /**
-      * Applies updates from the updated job to the existing job, excluding id and userId.
-      * Uses Spring's BeanUtils to copy properties.
-      * @param existingJob the job from the database
-      * @param updatedJob  the job with new values
-      * @return the updated job after saving
-      * @throws RuntimeException if there's an error applying updates or saving
+      * Updates only the given fields of a job for the current user, in a single UPDATE statement.
+      * The updated row is validated with the same rules as a full update; if it is invalid (for
+      * example a maxSalary below the stored minSalary) the transaction is rolled back.
+      * @param jobId   the UUID of the job to update
+      * @param changes field name to new value; absent fields keep their stored value
+      * @return the updated Job object
+      * @throws IllegalArgumentException if a field cannot be updated, has the wrong type, or the result is invalid
+      * @throws RuntimeException if the job is not found, not owned, or on DB error
       */
-     private Job applyJobUpdates(Job existingJob, Job updatedJob) {
-          // Exclude 'id' and 'userId' to prevent overwriting them accidentally.
-          copyProperties(updatedJob, existingJob, "id", "userId");
-          return repository.save(existingJob);
+     @CacheEvict(cacheNames = {JOBS, FAVORITE_JOBS}, keyGenerator = "currentUserKeyGenerator")
+     public Job patchJob(UUID jobId, Map<String, Object> changes) {
+          try {
+               UUID userId = getLoggedInUserId();
+               Job patched = transactionTemplate.execute(status -> {
+                    Job patchedJob = jdbcRepository.patch(jobId, userId, changes)
+                            .orElseThrow(() -> new RuntimeException("Job not found or you don't have permission to update it."));
+                    // Throwing here rolls the UPDATE back
+                    if (!isValidJob(patchedJob)) {
+                         throw new IllegalArgumentException("Invalid job data");
+                    }
+                    return patchedJob;
+               });
+               // only once the transaction has committed
+               events.publish(new ChangeEvent(userId, JOB, UPDATED, jobId));
+               return patched;
+          } catch (DataAccessException e) {
+               logger.error("Failed to patch job with ID {}", jobId, e);
+               throw new RuntimeException("Failed to update job due to a database error", e);
+          } catch (IllegalArgumentException e) {
+               logger.warn("Invalid job patch for ID {}: {}", jobId, e.getMessage());
+               throw e;
+          }
      }
 
      /**
       * Deletes a job by ID for the current user.
-      * Only deletes if the job exists and is owned by the user.
+      * Only deletes if the job exists and is owned by the user, in one DELETE ... RETURNING statement.
       * @param jobId the UUID of the job to delete
       * @throws RuntimeException if the job is not found, not owned, or on DB error
       */
+     @CacheEvict(cacheNames = {JOBS, FAVORITE_JOBS}, keyGenerator = "currentUserKeyGenerator")
      public void deleteJob(UUID jobId) {
           try {
                UUID userId = getLoggedInUserId();
-               if (!repository.existsByIdAndUserId(jobId, userId)) {
-                    throw new RuntimeException("Job not found or you don't have permission to delete it.");
-               }
-               repository.deleteById(jobId);
+               repository.deleteByIdAndUserId(jobId, userId)
+                       .orElseThrow(() -> new RuntimeException("Job not found or you don't have permission to delete it."));
+               events.publish(new ChangeEvent(userId, JOB, DELETED, jobId));
           } catch (DataAccessException e) {
                logger.error("Failed to delete job with ID {}", jobId, e);
                throw new RuntimeException("Failed to delete job due to a database error", e);
@@ -214,7 +329,8 @@ public class JobService {
 
      /**
       * Searches jobs for the current user based on optional filters.
-      * Any parameter may be null, in which case it is ignored in the search.
+      * Any parameter may be null, in which case it is left out of the query. Results are ordered
+      * by how closely title, location and company match, then by last_modified descending.
       * @param title     optional job title filter
       * @param level     optional job level filter
       * @param minSalary optional minimum salary filter
@@ -223,6 +339,8 @@ public class JobService {
       * @param status    optional job status filter
       * @param company   optional company filter
       * @param favorite  optional favorite filter (true/false, or null for any)
+      * @param limit     optional maximum number of results; clamped to [1, MAX_SEARCH_RESULTS]
+      * @param offset    optional number of results to skip, for paging through the ranked list
       * @return List of matching Job objects (may be empty)
       * @throws RuntimeException if a database or unexpected error occurs
       */
@@ -234,22 +352,25 @@ public class JobService {
              String location,
              String status,
              String company,
-             Boolean favorite
+             Boolean favorite,
+             Integer limit,
+             Integer offset
      ) {
           try {
                UUID userId = getLoggedInUserId();
-               // Delegate to repository, which supports filtering on any combination of parameters
-               return repository.findJobsByFilters(
-                       userId,
-                       title,
-                       level,
-                       minSalary,
-                       maxSalary,
-                       location,
-                       status,
-                       company,
-                       favorite
-               );
+               JobSearchCriteria criteria = JobSearchCriteria.builder()
+                       .title(title)
+                       .level(level)
+                       .minSalary(minSalary)
+                       .maxSalary(maxSalary)
+                       .location(location)
+                       .status(status)
+                       .company(company)
+                       .favorite(favorite)
+                       .limit(limit == null ? MAX_SEARCH_RESULTS : Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)))
+                       .offset(offset == null ? 0 : Math.max(0, offset))
+                       .build();
+               return jdbcRepository.search(userId, criteria);
           } catch (Exception e) {
                logger.error("Error searching jobs for user", e);
                throw new RuntimeException("Failed to search jobs", e);
@@ -258,6 +379,8 @@ public class JobService {
 
      /**
       * Retrieves a map of job statuses and their counts for the logged-in user.
+      * Counts come from the trigger-maintained job_status_counts table, so the cost depends
+      * on the number of statuses rather than the number of jobs.
       * Returns an empty map if the user has no jobs.
       * @return map of status to count
       * @throws RuntimeException if a database or unexpected error occurs
@@ -266,33 +389,23 @@ public class JobService {
           try {
                // Get the logged-in user's ID
                UUID userId = getLoggedInUserId();
-               logger.info("Fetching job status counts for user ID: {}", userId);
+               logger.debug("Fetching job status counts for user ID: {}", userId);
 
-               // Fetch all jobs associated with the user
-               List<Job> allUserJobs = repository.findByUserId(userId);
-               logger.info("User has {} total jobs", allUserJobs.size());
+               Map<String, Integer> storedCounts = statusCountRepository.findByUserId(userId);
 
                // If no jobs exist, return an empty map
-               if (allUserJobs.isEmpty()) {
+               if (storedCounts.isEmpty()) {
                     return emptyMap();
                }
 
-               // Initialize a map with default statuses and counts set to 0
+               // Start from the default statuses with counts set to 0, then apply the stored counts
                Map<String, Integer> statusCounts = new HashMap<>();
-               String[] statuses = {"Saved", "Applied", "Screening", "Interview", "Rejected", "Offer", "Accepted"};
-               for (String status : statuses) {
+               for (String status : DEFAULT_STATUSES) {
                     statusCounts.put(status, 0);
                }
+               statusCounts.putAll(storedCounts);
 
-               // Count jobs by their statuses
-               for (Job job : allUserJobs) {
-                    String status = job.getStatus();
-                    if (status != null && !status.isEmpty()) {
-                         statusCounts.put(status, statusCounts.getOrDefault(status, 0) + 1);
-                    }
-               }
-
-               logger.info("Job status counts: {}", statusCounts);
+               logger.debug("Job status counts: {}", statusCounts);
                return statusCounts;
           } catch (Exception e) {
                // Log the error and rethrow it as a runtime exception
@@ -303,11 +416,11 @@ public class JobService {
 
      /**
       * Validates whether a job object has all required fields filled in and logical values.
-      * Used before creating or updating jobs.
+      * Used before creating, updating or bulk importing jobs.
       * @param job the Job object to validate
       * @return true if the job is valid, false otherwise
       */
-     private boolean isValidJob(Job job) {
+     static boolean isValidJob(Job job) {
           return job != null &&
                   job.getTitle() != null && !job.getTitle().trim().isEmpty() &&
                   job.getLevel() != null && !job.getLevel().trim().isEmpty() &&
@@ -318,47 +431,82 @@ public class JobService {
      }
 
      /**
-      * Marks a job as favorite for the current user.
-      * Only updates if the job is not already favorited.
+      * Marks a job as favorite for the current user, in a single UPDATE ... RETURNING statement.
       * @param jobId the UUID of the job to favorite
       * @return the updated Job object
       * @throws RuntimeException if the job is not found or not owned
       */
+     @CacheEvict(cacheNames = {JOBS, FAVORITE_JOBS}, keyGenerator = "currentUserKeyGenerator")
      public Job favoriteJob(UUID jobId) {
-          Job job = getJobById(jobId);
-          // Only update if not already favorite to avoid unnecessary DB writes
-          if (!job.isFavorite()) {
-               job.setFavorite(true);
-               return repository.save(job);
-          }
-          // Already favorite, return as is
-          return job;
+          return setFavorite(jobId, true);
+     }
+
+     /**
+      * Reads the version of the current user's favorite jobs from the database, never from the cache.
+      * @return count and latest last_modified of the user's favorite jobs
+      */
+     public ResourceVersion getFavoriteJobsVersion() {
+          return repository.findFavoriteVersionByUserId(getLoggedInUserId());
      }
 
      /**
-      * Retrieves all favorite jobs for the current user.
+      * Retrieves all favorite jobs for the current user, from the per-user "favoriteJobs" cache.
       * @return List of favorite Job objects (may be empty)
       */
+     @Cacheable(cacheNames = FAVORITE_JOBS, keyGenerator = "currentUserKeyGenerator")
      public List<Job> getFavoriteJobs() {
           UUID userId = getLoggedInUserId();
           return repository.findByUserIdAndFavoriteTrue(userId);
      }
 
      /**
-      * Unmarks a job as favorite for the current user.
-      * Only updates if the job is currently favorited.
+      * Unmarks a job as favorite for the current user, in a single UPDATE ... RETURNING statement.
       * @param jobId the UUID of the job to unfavorite
       * @return the updated Job object
       * @throws RuntimeException if the job is not found or not owned
       */
+     @CacheEvict(cacheNames = {JOBS, FAVORITE_JOBS}, keyGenerator = "currentUserKeyGenerator")
      public Job unfavoriteJob(UUID jobId) {
-          Job job = getJobById(jobId);
-          // Only update if currently favorite to avoid unnecessary DB writes
-          if (job.isFavorite()) {
-               job.setFavorite(false);
-               return repository.save(job);
+          return setFavorite(jobId, false);
+     }
+
+     /**
+      * Sets or clears the favorite flag on many jobs of the current user in one statement.
+      * IDs that do not exist or are not owned by the user are skipped, so the result may be shorter
+      * than the request.
+      * @param jobIds   the jobs to update; at most MAX_BATCH_IDS
+      * @param favorite the new value of the flag
+      * @return the updated jobs
+      * @throws IllegalArgumentException if the list is empty or too long
+      * @throws RuntimeException on DB error
+      */
+     @CacheEvict(cacheNames = {JOBS, FAVORITE_JOBS}, keyGenerator = "currentUserKeyGenerator")
+     public List<Job> setFavoriteForJobs(List<UUID> jobIds, boolean favorite) {
+          if (jobIds == null || jobIds.isEmpty() || jobIds.size() > MAX_BATCH_IDS) {
+               throw new IllegalArgumentException("Between 1 and " + MAX_BATCH_IDS + " job IDs are required");
+          }
+          try {
+               UUID userId = getLoggedInUserId();
+               List<Job> updated = repository.setFavoriteAll(new LinkedHashSet<>(jobIds), userId, favorite);
+               events.publish(updated.stream().map(job -> new ChangeEvent(userId, JOB, UPDATED, job.getId())).toList());
+               return updated;
+          } catch (DataAccessException e) {
+               logger.error("Failed to update favorite flag on {} jobs", jobIds.size(), e);
+               throw new RuntimeException("Failed to update favorites due to a database error", e);
+          }
+     }
+
+     private Job setFavorite(UUID jobId, boolean favorite) {
+          try {
+               // Ownership is enforced in the WHERE clause; an empty result means not found or not owned
+               UUID userId = getLoggedInUserId();
+               Job updated = repository.setFavorite(jobId, userId, favorite)
+                       .orElseThrow(() -> new RuntimeException("Job not found or you don't have permission to update it."));
+               events.publish(new ChangeEvent(userId, JOB, UPDATED, jobId));
+               return updated;
+          } catch (DataAccessException e) {
+               logger.error("Failed to update favorite flag on job {}", jobId, e);
+               throw new RuntimeException("Failed to update job due to a database error", e);
           }
-          // Already not favorite, return as is
-          return job;
      }
-}
\ No newline at end of file
+}
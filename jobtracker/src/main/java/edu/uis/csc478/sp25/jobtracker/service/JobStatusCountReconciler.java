@@ -0,0 +1,42 @@
+package edu.uis.csc478.sp25.jobtracker.service;
+
+import edu.uis.csc478.sp25.jobtracker.repository.JobStatusCountRepository;
+import org.slf4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Periodically rebuilds job_status_counts from scratch.
+ * The triggers keep the table exact on their own; this is the safety net that repairs it if
+ * the triggers were ever disabled or rows were changed by a bulk load that bypassed them.
+ */
+@Component
+public class JobStatusCountReconciler {
+
+     private static final Logger logger = getLogger(JobStatusCountReconciler.class);
+     private final JobStatusCountRepository repository;
+
+     public JobStatusCountReconciler(JobStatusCountRepository repository) {
+          this.repository = repository;
+     }
+
+     /**
+      * Rebuilds the status counter table. Runs nightly by default; the schedule is set with
+      * jobtracker.status-counts.reconcile-cron ("-" disables it).
+      */
+     @Scheduled(cron = "${jobtracker.status-counts.reconcile-cron:0 30 3 * * *}")
+     public void reconcile() {
+          try {
+               long start = System.nanoTime();
+               if (repository.rebuildAll()) {
+                    logger.info("Rebuilt job status counts in {} ms", (System.nanoTime() - start) / 1_000_000);
+               } else {
+                    logger.info("Skipped job status count rebuild; another instance holds the lock");
+               }
+          } catch (Exception e) {
+               logger.error("Failed to rebuild job status counts", e);
+          }
+     }
+}
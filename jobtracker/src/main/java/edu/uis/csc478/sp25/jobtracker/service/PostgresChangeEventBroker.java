@@ -0,0 +1,151 @@
+package edu.uis.csc478.sp25.jobtracker.service;
+
+import edu.uis.csc478.sp25.jobtracker.model.ChangeEvent;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Fans change events out to every instance through PostgreSQL LISTEN/NOTIFY.
+ * <p>
+ * Events are sent by the database: triggers on job and interview (V12__change_notify.sql) call
+ * pg_notify in the transaction that makes the change, so a notification goes out exactly when the
+ * change commits, including changes made outside the API, and publishing has nothing left to do.
+ * Each instance receives them, its own included, on one dedicated connection that LISTENs.
+ * LISTEN needs a connection that keeps its backend, so that one is opened from listen-url, the
+ * session pooler by default, outside the pool. NOTIFY is not durable: while that connection is
+ * down events are lost, so after reconnecting every connection of the instance is told to resync.
+ */
+@Component
+@ConditionalOnProperty(name = "jobtracker.events.broker", havingValue = "postgres", matchIfMissing = true)
+public class PostgresChangeEventBroker implements ChangeEventBroker, SmartLifecycle {
+
+     // the channel the triggers of V12__change_notify.sql notify on
+     static final String CHANNEL = "jobtracker_changes";
+     // getNotifications waits this long for the next event before the loop checks whether to stop
+     private static final int POLL_MILLIS = 5000;
+     // a quiet connection is tested this often, so one dropped by a proxy is noticed
+     private static final long CHECK_MILLIS = 30_000;
+     private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+     private static final Logger logger = getLogger(PostgresChangeEventBroker.class);
+     private final ChangeEventHub hub;
+     private final String url;
+     private final String username;
+     private final String password;
+     private volatile boolean running;
+     private Thread listener;
+
+     /**
+      * @param hub          the connections of this instance, which receive the events
+      * @param url          JDBC URL of the LISTEN connection; must not be the transaction pooler
+      * @param username     user of the LISTEN connection
+      * @param password     password of the LISTEN connection
+      */
+     public PostgresChangeEventBroker(ChangeEventHub hub,
+                                      @Value("${jobtracker.events.listen-url}") String url,
+                                      @Value("${jobtracker.events.listen-username}") String username,
+                                      @Value("${jobtracker.events.listen-password}") String password) {
+          this.hub = hub;
+          this.url = url;
+          this.username = username;
+          this.password = password;
+     }
+
+     /**
+      * Does nothing: the triggers of V12__change_notify.sql have already notified every instance,
+      * in the transaction that wrote the changes.
+      */
+     @Override
+     public void publish(List<ChangeEvent> events) {
+     }
+
+     @Override
+     public void start() {
+          running = true;
+          listener = new Thread(this::listen, "change-event-listener");
+          listener.setDaemon(true);
+          listener.start();
+     }
+
+     @Override
+     public void stop() {
+          running = false;
+          listener.interrupt();
+     }
+
+     @Override
+     public boolean isRunning() {
+          return running;
+     }
+
+     private void listen() {
+          long backoff = 1000;
+          boolean missedEvents = false;
+          while (running) {
+               try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                    try (Statement statement = connection.createStatement()) {
+                         statement.execute("LISTEN " + CHANNEL);
+                    }
+                    logger.info("Listening for change events on {}", CHANNEL);
+                    if (missedEvents) {
+                         hub.resyncAll();
+                         missedEvents = false;
+                    }
+                    backoff = 1000;
+                    receive(connection);
+               } catch (SQLException e) {
+                    if (!running) {
+                         return;
+                    }
+                    missedEvents = true;
+                    logger.warn("Change event listener disconnected, reconnecting in {} ms: {}", backoff, e.getMessage());
+                    try {
+                         Thread.sleep(backoff);
+                    } catch (InterruptedException interrupted) {
+                         return;
+                    }
+                    backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+               }
+          }
+     }
+
+     private void receive(Connection connection) throws SQLException {
+          PGConnection pgConnection = connection.unwrap(PGConnection.class);
+          long lastCheck = System.currentTimeMillis();
+          while (running) {
+               PGNotification[] notifications = pgConnection.getNotifications(POLL_MILLIS);
+               if (notifications != null && notifications.length > 0) {
+                    for (PGNotification notification : notifications) {
+                         deliver(notification.getParameter());
+                    }
+                    lastCheck = System.currentTimeMillis();
+               } else if (System.currentTimeMillis() - lastCheck > CHECK_MILLIS) {
+                    try (Statement statement = connection.createStatement()) {
+                         statement.execute("SELECT 1");
+                    }
+                    lastCheck = System.currentTimeMillis();
+               }
+          }
+     }
+
+     private void deliver(String payload) {
+          try {
+               hub.deliver(ChangeEvent.decode(payload));
+          } catch (RuntimeException e) {
+               logger.warn("Ignoring change event {}: {}", payload, e.getMessage());
+          }
+     }
+}
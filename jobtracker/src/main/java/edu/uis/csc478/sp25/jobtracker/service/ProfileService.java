@@ -1,14 +1,18 @@
 package edu.uis.csc478.sp25.jobtracker.service;
 
 import edu.uis.csc478.sp25.jobtracker.model.Profile;
+import edu.uis.csc478.sp25.jobtracker.repository.ProfileJdbcRepository;
 import edu.uis.csc478.sp25.jobtracker.repository.ProfileRepository;
 import edu.uis.csc478.sp25.jobtracker.security.SecurityUtil;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
-import static org.springframework.beans.BeanUtils.copyProperties;
+import static edu.uis.csc478.sp25.jobtracker.config.CacheConfig.PROFILES;
 
 /**
  * Service layer for managing Profile entities.
@@ -20,13 +24,16 @@ import static org.springframework.beans.BeanUtils.copyProperties;
 public class ProfileService {
 
      private final ProfileRepository repository;
+     private final ProfileJdbcRepository jdbcRepository;
 
      /**
-      * Constructs a ProfileService with the given ProfileRepository.
-      * @param repository the ProfileRepository used for data access
+      * Constructs a ProfileService with the given repositories.
+      * @param repository     the ProfileRepository used for data access
+      * @param jdbcRepository the ProfileJdbcRepository used for partial updates
       */
-     public ProfileService(ProfileRepository repository) {
+     public ProfileService(ProfileRepository repository, ProfileJdbcRepository jdbcRepository) {
           this.repository = repository;
+          this.jdbcRepository = jdbcRepository;
      }
 
      /**
@@ -40,10 +47,11 @@ public class ProfileService {
 
      /**
       * Retrieves the profile of the currently logged-in user.
-      * Throws an exception if the profile does not exist.
+      * Throws an exception if the profile does not exist; a missing profile is not cached.
       * @return the Profile entity for the current user
       * @throws RuntimeException if the profile is not found
       */
+     @Cacheable(cacheNames = PROFILES, keyGenerator = "currentUserKeyGenerator")
      public Profile getCurrentProfile() {
           UUID loggedInUserId = getLoggedInUserId();
           Optional<Profile> profile = repository.findById(loggedInUserId);
@@ -63,6 +71,7 @@ public class ProfileService {
       * @return the updated Profile entity
       * @throws RuntimeException if the profile is not found
       */
+     @CacheEvict(cacheNames = PROFILES, keyGenerator = "currentUserKeyGenerator")
      public Profile updateCurrentProfile(Profile updatedProfile) {
           UUID loggedInUserId = getLoggedInUserId();
           Optional<Profile> existingProfileOptional = repository.findById(loggedInUserId);
@@ -76,6 +85,19 @@ public class ProfileService {
           }
      }
 
+     /**
+      * Updates only the given fields of the current user's profile, in a single UPDATE statement.
+      * @param changes field name to new value; absent fields keep their stored value
+      * @return the updated Profile entity
+      * @throws IllegalArgumentException if a field cannot be updated or has the wrong type
+      * @throws RuntimeException if the profile is not found
+      */
+     @CacheEvict(cacheNames = PROFILES, keyGenerator = "currentUserKeyGenerator")
+     public Profile patchCurrentProfile(Map<String, Object> changes) {
+          return jdbcRepository.patch(getLoggedInUserId(), changes)
+                  .orElseThrow(() -> new RuntimeException("Profile not found."));
+     }
+
      /**
       * Retrieves a specific profile by ID.
       * Intended for admin use.
@@ -102,6 +124,7 @@ public class ProfileService {
       * @return the updated Profile entity
       * @throws RuntimeException if the profile is not found
       */
+     @CacheEvict(cacheNames = PROFILES, key = "#profileId")
      public Profile updateProfileById(UUID profileId, Profile updatedProfile) {
           Optional<Profile> existingProfileOptional = repository.findById(profileId);
 
@@ -122,6 +145,7 @@ public class ProfileService {
       * @return the created Profile entity
       * @throws RuntimeException if a profile already exists for this user
       */
+     @CacheEvict(cacheNames = PROFILES, key = "#userId")
      public Profile createProfile(UUID userId, Profile profile) {
           // Check if a profile already exists for this user ID
           if (repository.existsById(userId)) {
@@ -147,15 +171,21 @@ public class ProfileService {
      }
 
      /**
-      * Utility method to copy properties from an updated profile to an existing one.
-      * Excludes 'id' to prevent overwriting the primary key.
+      * Utility method to copy the editable fields from an updated profile to an existing one.
+      * The id is never copied, to prevent overwriting the primary key.
+      * Private, so the profile cache is evicted by the public update methods that call it.
       * @param existingProfile The current persisted entity from DB.
       * @param updatedProfile  The new data to be applied.
       * @return The saved and updated entity.
       */
      private Profile applyProfileUpdates(Profile existingProfile, Profile updatedProfile) {
-          // Exclude 'id' to prevent overwriting it accidentally.
-          copyProperties(updatedProfile, existingProfile, "id");
+          // Copy field by field rather than through reflection; 'id' is deliberately left out
+          existingProfile.setName(updatedProfile.getName());
+          existingProfile.setEmail(updatedProfile.getEmail());
+          existingProfile.setTitle(updatedProfile.getTitle());
+          existingProfile.setBio(updatedProfile.getBio());
+          existingProfile.setLocation(updatedProfile.getLocation());
+          existingProfile.setPhoneNumber(updatedProfile.getPhoneNumber());
           // Save the updated profile to the repository
           return repository.save(existingProfile);
      }
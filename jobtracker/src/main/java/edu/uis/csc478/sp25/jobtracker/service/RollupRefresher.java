@@ -0,0 +1,55 @@
+package edu.uis.csc478.sp25.jobtracker.service;
+
+import edu.uis.csc478.sp25.jobtracker.repository.RollupRepository;
+import edu.uis.csc478.sp25.jobtracker.repository.RollupRepository.Refresh;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Periodically folds the latest job, interview and status changes into the rollup tables behind
+ * the admin reports. Each run only reads what changed since the previous one; the first run, and
+ * a run after the refresh has been off for longer than the tombstone retention, rebuilds them.
+ */
+@Component
+public class RollupRefresher {
+
+     private static final Logger logger = getLogger(RollupRefresher.class);
+     private final RollupRepository repository;
+     private final Duration tombstoneRetention;
+
+     /**
+      * @param repository         the RollupRepository that refreshes the tables
+      * @param tombstoneRetention how long deletions can be read back from sync_tombstone
+      */
+     public RollupRefresher(RollupRepository repository,
+                            @Value("${jobtracker.sync.tombstone-retention:30d}") Duration tombstoneRetention) {
+          this.repository = repository;
+          this.tombstoneRetention = tombstoneRetention;
+     }
+
+     /**
+      * Refreshes the rollups. Runs every ten minutes by default; the schedule is set with
+      * jobtracker.rollups.refresh-cron ("-" disables it).
+      */
+     @Scheduled(cron = "${jobtracker.rollups.refresh-cron:0 */10 * * * *}")
+     public void refresh() {
+          try {
+               long start = System.nanoTime();
+               Refresh refresh = repository.refresh(tombstoneRetention);
+               if (refresh == Refresh.SKIPPED) {
+                    logger.info("Skipped rollup refresh; another instance holds the lock");
+               } else {
+                    logger.info("Refreshed rollups ({}) in {} ms", refresh.name().toLowerCase(),
+                            (System.nanoTime() - start) / 1_000_000);
+               }
+          } catch (Exception e) {
+               logger.error("Failed to refresh rollups", e);
+          }
+     }
+}
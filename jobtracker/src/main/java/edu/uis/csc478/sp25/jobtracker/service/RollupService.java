@@ -0,0 +1,106 @@
+package edu.uis.csc478.sp25.jobtracker.service;
+
+import edu.uis.csc478.sp25.jobtracker.model.RollupReport;
+import edu.uis.csc478.sp25.jobtracker.repository.RollupRepository;
+import org.slf4j.Logger;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static java.time.ZoneOffset.UTC;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Service layer for the admin reports across all users. Every report reads the rollup tables that
+ * RollupRefresher keeps current, so its cost does not depend on how many jobs or interviews exist.
+ */
+@Service
+public class RollupService {
+
+     static final int DEFAULT_DAYS = 30;
+     static final int DEFAULT_COMPANIES = 50;
+     static final int MAX_COMPANIES = 500;
+
+     private static final Logger logger = getLogger(RollupService.class);
+     private final RollupRepository repository;
+
+     /**
+      * Constructs a RollupService with the given repository.
+      * @param repository the RollupRepository used for data access
+      */
+     public RollupService(RollupRepository repository) {
+          this.repository = repository;
+     }
+
+     /**
+      * @param from optional first day (UTC); defaults to DEFAULT_DAYS days up to to
+      * @param to   optional last day, inclusive; defaults to today
+      * @return jobs created per day
+      * @throws IllegalArgumentException if from is after to
+      */
+     public RollupReport<RollupReport.JobsCreated> getJobsCreated(LocalDate from, LocalDate to) {
+          LocalDate last = lastDay(to);
+          LocalDate first = firstDay(from, last);
+          return report(() -> repository.findJobsCreated(first, last));
+     }
+
+     /**
+      * @param from optional first day (UTC); defaults to DEFAULT_DAYS days up to to
+      * @param to   optional last day, inclusive; defaults to today
+      * @return status changes per day, by previous and new status
+      * @throws IllegalArgumentException if from is after to
+      */
+     public RollupReport<RollupReport.StatusTransitions> getStatusTransitions(LocalDate from, LocalDate to) {
+          LocalDate last = lastDay(to);
+          LocalDate first = firstDay(from, last);
+          return report(() -> repository.findStatusTransitions(first, last));
+     }
+
+     /**
+      * @param from  optional first interview date; defaults to DEFAULT_DAYS days up to to
+      * @param to    optional last interview date, inclusive; defaults to today
+      * @param limit optional number of companies; clamped to [1, MAX_COMPANIES], defaults to DEFAULT_COMPANIES
+      * @return the companies with the most interviews in the range
+      * @throws IllegalArgumentException if from is after to
+      */
+     public RollupReport<RollupReport.CompanyInterviews> getCompanyInterviews(LocalDate from, LocalDate to, Integer limit) {
+          LocalDate last = lastDay(to);
+          LocalDate first = firstDay(from, last);
+          int companies = limit == null ? DEFAULT_COMPANIES : Math.max(1, Math.min(limit, MAX_COMPANIES));
+          return report(() -> repository.findCompanyInterviews(first, last, companies));
+     }
+
+     /**
+      * @return current jobs per 10,000-wide band of minsalary and of maxsalary
+      */
+     public RollupReport<RollupReport.SalaryBand> getSalaryBands() {
+          return report(repository::findSalaryBands);
+     }
+
+     private <T> RollupReport<T> report(Supplier<List<T>> rows) {
+          try {
+               return RollupReport.<T>builder()
+                       .refreshedAt(repository.findRefreshedAt())
+                       .rows(rows.get())
+                       .build();
+          } catch (DataAccessException e) {
+               logger.error("Error reading rollup report", e);
+               throw e;
+          }
+     }
+
+     private static LocalDate lastDay(LocalDate to) {
+          return to == null ? LocalDate.now(UTC) : to;
+     }
+
+     private static LocalDate firstDay(LocalDate from, LocalDate last) {
+          LocalDate first = from == null ? last.minusDays(DEFAULT_DAYS - 1) : from;
+          if (first.isAfter(last)) {
+               throw new IllegalArgumentException("from is after to");
+          }
+          return first;
+     }
+}
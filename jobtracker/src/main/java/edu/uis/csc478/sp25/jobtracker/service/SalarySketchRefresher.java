@@ -0,0 +1,52 @@
+package edu.uis.csc478.sp25.jobtracker.service;
+
+import edu.uis.csc478.sp25.jobtracker.repository.SalarySketchRepository;
+import org.slf4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Periodically brings the salary sketch groups that job writes have dirtied up to date, one user
+ * per transaction. Every instance may run it; a user another instance is refreshing is skipped and
+ * picked up again by a later run.
+ */
+@Component
+public class SalarySketchRefresher {
+
+     // users refreshed per run; the rest wait for the next one
+     private static final int BATCH_SIZE = 100;
+
+     private static final Logger logger = getLogger(SalarySketchRefresher.class);
+     private final SalarySketchRepository repository;
+     private final SalaryStatsService salaryStats;
+
+     public SalarySketchRefresher(SalarySketchRepository repository, SalaryStatsService salaryStats) {
+          this.repository = repository;
+          this.salaryStats = salaryStats;
+     }
+
+     /**
+      * Refreshes the dirty groups of up to BATCH_SIZE users. Runs jobtracker.salary-stats.refresh-delay
+      * (5 seconds by default) after the previous run ends.
+      */
+     @Scheduled(fixedDelayString = "${jobtracker.salary-stats.refresh-delay:5s}")
+     public void refresh() {
+          try {
+               int refreshed = 0;
+               for (UUID userId : repository.findDirtyUsers(BATCH_SIZE)) {
+                    if (salaryStats.refresh(userId)) {
+                         refreshed++;
+                    }
+               }
+               if (refreshed > 0) {
+                    logger.debug("Refreshed salary sketches of {} users", refreshed);
+               }
+          } catch (Exception e) {
+               logger.error("Failed to refresh salary sketches", e);
+          }
+     }
+}
@@ -0,0 +1,180 @@
+package edu.uis.csc478.sp25.jobtracker.service;
+
+import com.tdunning.math.stats.MergingDigest;
+import com.tdunning.math.stats.TDigest;
+import edu.uis.csc478.sp25.jobtracker.model.Job;
+import edu.uis.csc478.sp25.jobtracker.model.SalarySketch;
+import edu.uis.csc478.sp25.jobtracker.model.SalaryStats;
+import edu.uis.csc478.sp25.jobtracker.repository.JobRepository;
+import edu.uis.csc478.sp25.jobtracker.repository.SalarySketchRepository;
+import org.slf4j.Logger;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+import static edu.uis.csc478.sp25.jobtracker.security.SecurityUtil.getLoggedInUserId;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Service layer for salary analytics: p25, p50, p75 and p90 of the minSalary and maxSalary of the
+ * current user's jobs, per level, location and company.
+ * <p>
+ * The quantiles come from t-digests stored per user and group (see V10__salary_sketches.sql), so a
+ * request reads a few small sketches instead of sorting the user's salaries. Job writes do no sketch
+ * work: the triggers of V13__salary_sketch_dirty.sql list the groups a write touched, and
+ * SalarySketchRefresher calls refresh to bring just those groups up to date in the background:
+ * inserted jobs are added to the stored digests, and a group an update or delete touched is
+ * rebuilt from its jobs. Reads serve the stored sketches as they are, so they trail writes by up
+ * to the refresh delay.
+ * <p>
+ * A salary of 0 means the posting did not give one, and is left out.
+ */
+@Service
+public class SalaryStatsService {
+
+     static final List<String> DIMENSIONS = List.of("level", "location", "company");
+     // t-digest accuracy; keeps at most a few hundred centroids (a few KB) per digest
+     static final double COMPRESSION = 100;
+
+     private static final Logger logger = getLogger(SalaryStatsService.class);
+     private final SalarySketchRepository repository;
+     private final JobRepository jobRepository;
+     private final TransactionTemplate transactionTemplate;
+
+     /**
+      * Constructs a SalaryStatsService.
+      * @param repository         the SalarySketchRepository holding the sketches
+      * @param jobRepository      the JobRepository used to look up the job the stats are asked for
+      * @param transactionManager transaction manager wrapping a refresh
+      */
+     public SalaryStatsService(SalarySketchRepository repository,
+                               JobRepository jobRepository,
+                               PlatformTransactionManager transactionManager) {
+          this.repository = repository;
+          this.jobRepository = jobRepository;
+          this.transactionTemplate = new TransactionTemplate(transactionManager);
+          this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+     }
+
+     /**
+      * Reads the salary quantiles of the current user's jobs from the stored sketches.
+      * @param jobId optional job to compare; if given, only its groups are returned, each with the
+      *              rank of the job's salaries within the group
+      * @return the stats, one entry per group, by dimension and key
+      * @throws RuntimeException if the job is not found or not owned by the user
+      * @throws DataAccessException if a database error occurs
+      */
+     public SalaryStats getSalaryStats(UUID jobId) {
+          UUID userId = getLoggedInUserId();
+          try {
+               Job job = jobId == null ? null : jobRepository.findByIdAndUserId(jobId, userId)
+                       .orElseThrow(() -> new RuntimeException("Job not found or you don't have permission to access it."));
+
+               List<SalaryStats.Group> groups = new ArrayList<>();
+               Consumer<SalarySketch> collect = sketch -> groups.add(new SalaryStats.Group(
+                       sketch.getGroup().dimension(), sketch.getGroup().key(),
+                       distribution(sketch.getMinSalary(), job == null ? 0 : job.getMinSalary()),
+                       distribution(sketch.getMaxSalary(), job == null ? 0 : job.getMaxSalary())));
+               if (job == null) {
+                    repository.forEachByUserId(userId, collect);
+               } else {
+                    repository.findGroupsOfJob(userId, jobId).forEach(collect);
+               }
+               return SalaryStats.builder().jobId(jobId).groups(groups).build();
+          } catch (DataAccessException e) {
+               logger.error("Error reading salary stats for user", e);
+               throw e;
+          }
+     }
+
+     /**
+      * Brings the user's dirty groups up to date, in one REPEATABLE READ transaction, and clears
+      * them. The salaries of inserted jobs are added to the stored digests; a group an update or
+      * delete touched is rebuilt from its jobs instead. Other groups are left as they are.
+      * @param userId the owner of the sketches
+      * @return false if another transaction was refreshing the user's sketches, and nothing was done
+      * @throws DataAccessException if a database error occurs
+      */
+     boolean refresh(UUID userId) {
+          long start = System.nanoTime();
+          int[] refreshed;
+          try {
+               refreshed = transactionTemplate.execute(status -> {
+                    // the first statement also takes the snapshot everything below reads from
+                    if (!repository.lockUser(userId)) {
+                         return null;
+                    }
+                    String snapshot = repository.snapshot();
+                    Map<SalarySketch.Group, SalarySketch> rebuilt = new HashMap<>();
+                    for (SalarySketch.Group group : repository.findGroupsToRebuild(userId, snapshot)) {
+                         rebuilt.put(group, SalarySketch.builder().group(group).build());
+                    }
+                    // reads all of the user's jobs, so it is left out when only inserts happened
+                    if (!rebuilt.isEmpty()) {
+                         repository.forEachSalaryInGroupsToRebuild(userId, snapshot, job -> add(rebuilt, job));
+                    }
+                    Map<SalarySketch.Group, SalarySketch> merged = new HashMap<>();
+                    repository.forEachSketchToMerge(userId, snapshot, sketch -> merged.put(sketch.getGroup(), sketch));
+                    repository.forEachInsertedSalary(userId, snapshot, job -> add(merged, job));
+
+                    int[] counts = {rebuilt.size(), merged.size()};
+                    rebuilt.values().removeIf(sketch -> sketch.getMinSalary() == null && sketch.getMaxSalary() == null);
+                    List<SalarySketch> sketches = new ArrayList<>(rebuilt.values());
+                    sketches.addAll(merged.values());
+                    repository.replaceDirtyGroups(userId, snapshot, sketches);
+                    return counts;
+               });
+          } catch (ConcurrencyFailureException e) {
+               // another instance refreshed the user between this snapshot and the lock
+               logger.debug("Skipped salary sketch refresh for user {}: {}", userId, e.getMessage());
+               return false;
+          }
+          if (refreshed == null) {
+               return false;
+          }
+          logger.debug("Rebuilt {} and merged into {} salary sketches for user {} in {} ms",
+                  refreshed[0], refreshed[1], userId, (System.nanoTime() - start) / 1_000_000);
+          return true;
+     }
+
+     // adds the job's salaries to those of its groups in sketches, leaving out the others; the job's values are group keys
+     private static void add(Map<SalarySketch.Group, SalarySketch> sketches, Job job) {
+          String[] keys = {job.getLevel(), job.getLocation(), job.getCompany()};
+          for (int i = 0; i < keys.length; i++) {
+               SalarySketch sketch = keys[i] == null ? null : sketches.get(new SalarySketch.Group(DIMENSIONS.get(i), keys[i]));
+               if (sketch == null) {
+                    continue;
+               }
+               if (job.getMinSalary() > 0) {
+                    if (sketch.getMinSalary() == null) {
+                         sketch.setMinSalary(new MergingDigest(COMPRESSION));
+                    }
+                    sketch.getMinSalary().add(job.getMinSalary());
+               }
+               if (job.getMaxSalary() > 0) {
+                    if (sketch.getMaxSalary() == null) {
+                         sketch.setMaxSalary(new MergingDigest(COMPRESSION));
+                    }
+                    sketch.getMaxSalary().add(job.getMaxSalary());
+               }
+          }
+     }
+
+     private static SalaryStats.Distribution distribution(TDigest digest, int salary) {
+          if (digest == null || digest.size() == 0) {
+               return null;
+          }
+          return new SalaryStats.Distribution(digest.size(),
+                  Math.round(digest.quantile(0.25)),
+                  Math.round(digest.quantile(0.5)),
+                  Math.round(digest.quantile(0.75)),
+                  Math.round(digest.quantile(0.9)),
+                  salary > 0 ? digest.cdf(salary) : null);
+     }
+}
@@ -0,0 +1,67 @@
+package edu.uis.csc478.sp25.jobtracker.service;
+
+import edu.uis.csc478.sp25.jobtracker.model.SyncChanges;
+import edu.uis.csc478.sp25.jobtracker.model.SyncCursor;
+import edu.uis.csc478.sp25.jobtracker.repository.SyncRepository;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static edu.uis.csc478.sp25.jobtracker.security.SecurityUtil.getLoggedInUserId;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Service layer for delta sync: clients that keep a local copy of a user's jobs and interviews
+ * fetch only what changed since their last sync, instead of the full lists.
+ */
+@Service
+public class SyncService {
+
+     private static final Logger logger = getLogger(SyncService.class);
+     private final SyncRepository repository;
+     private final Duration tombstoneRetention;
+
+     /**
+      * Constructs a SyncService with the given repository.
+      * @param repository         the SyncRepository used for data access
+      * @param tombstoneRetention how long deletions can be synced; older cursors have expired
+      */
+     public SyncService(SyncRepository repository,
+                        @Value("${jobtracker.sync.tombstone-retention:30d}") Duration tombstoneRetention) {
+          this.repository = repository;
+          this.tombstoneRetention = tombstoneRetention;
+     }
+
+     /**
+      * Reads the jobs and interviews of the current user that were created, changed or deleted
+      * since the given cursor. Without a cursor every job and interview is returned.
+      * @param since cursor returned by the previous sync, or null for a full sync
+      * @return the changes and the cursor to pass to the next sync
+      * @throws IllegalArgumentException if the cursor is malformed
+      * @throws RuntimeException         if the cursor has expired, or a database error occurs
+      */
+     public SyncChanges getChangesForCurrentUser(String since) {
+          SyncCursor cursor = since == null ? null : SyncCursor.decode(since);
+          if (cursor != null && cursor.issuedAt().isBefore(Instant.now().minus(tombstoneRetention))) {
+               // the tombstones of deletions made since then may already be pruned
+               throw new RuntimeException("Sync cursor expired");
+          }
+          try {
+               return repository.findChanges(getLoggedInUserId(), cursor);
+          } catch (DataAccessException e) {
+               logger.error("Error fetching sync changes for user", e);
+               throw e;
+          }
+     }
+
+     /**
+      * @return how long tombstones must be kept for every unexpired cursor to see its deletions
+      */
+     Duration tombstoneRetention() {
+          return tombstoneRetention;
+     }
+}
@@ -0,0 +1,47 @@
+package edu.uis.csc478.sp25.jobtracker.service;
+
+import edu.uis.csc478.sp25.jobtracker.repository.SyncRepository;
+import org.slf4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Periodically deletes the sync tombstones that no unexpired cursor can still need.
+ * Every instance may run it; the DELETE is idempotent.
+ */
+@Component
+public class SyncTombstonePruner {
+
+     // A deletion committed shortly after a cursor was issued can have been stamped slightly before
+     // it, so tombstones are kept a day past the cursor lifetime
+     private static final Duration SLACK = Duration.ofDays(1);
+
+     private static final Logger logger = getLogger(SyncTombstonePruner.class);
+     private final SyncRepository repository;
+     private final SyncService syncService;
+
+     public SyncTombstonePruner(SyncRepository repository, SyncService syncService) {
+          this.repository = repository;
+          this.syncService = syncService;
+     }
+
+     /**
+      * Deletes expired tombstones. Runs hourly by default; the schedule is set with
+      * jobtracker.sync.prune-cron ("-" disables it).
+      */
+     @Scheduled(cron = "${jobtracker.sync.prune-cron:0 15 * * * *}")
+     public void prune() {
+          try {
+               int pruned = repository.pruneTombstones(syncService.tombstoneRetention().plus(SLACK));
+               if (pruned > 0) {
+                    logger.info("Pruned {} sync tombstones", pruned);
+               }
+          } catch (Exception e) {
+               logger.error("Failed to prune sync tombstones", e);
+          }
+     }
+}
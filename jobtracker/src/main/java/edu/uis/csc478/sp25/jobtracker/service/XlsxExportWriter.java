@@ -0,0 +1,233 @@
+package edu.uis.csc478.sp25.jobtracker.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes an .xlsx workbook (Office Open XML SpreadsheetML) straight to an output stream, as a zip
+ * whose worksheet entries are written row by row while they are deflated. Nothing is buffered
+ * beyond the current row and the deflater's window, unlike a workbook built in memory or in a
+ * temporary file and copied out at the end.
+ * <p>
+ * Strings are inline (no shared string table, which would have to be held until the end), numbers
+ * and booleans are typed cells, and the only style is quotePrefix. A sheet holds at most 1,048,576 rows, the
+ * Excel limit, so longer exports continue on further sheets, each starting with the header row.
+ * Strings are cut at 32,767 characters, the most a cell can hold, and characters XML cannot carry
+ * are dropped. A string that starts like a formula is written as it is, in a cell with the
+ * quotePrefix style: an inline string is never evaluated, and the style keeps Excel from
+ * evaluating it once the cell is edited, as a ' typed before it would.
+ */
+final class XlsxExportWriter implements ExportWriter {
+
+     static final int MAX_ROWS_PER_SHEET = 1_048_576;
+     static final int MAX_CELL_LENGTH = 32_767;
+     static final String CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+     private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+     private static final String SPREADSHEET_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+     private static final String RELATIONSHIPS_NS = "http://schemas.openxmlformats.org/package/2006/relationships";
+     private static final String DOCUMENT_RELATIONSHIPS_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+     // cellXfs 0 is the default format, 1 the same with quotePrefix; Excel requires the two fills
+     private static final String STYLES = XML_DECLARATION + "<styleSheet xmlns=\"" + SPREADSHEET_NS + "\">"
+             + "<fonts count=\"1\"><font><sz val=\"11\"/><name val=\"Calibri\"/></font></fonts>"
+             + "<fills count=\"2\"><fill><patternFill patternType=\"none\"/></fill><fill><patternFill patternType=\"gray125\"/></fill></fills>"
+             + "<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>"
+             + "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>"
+             + "<cellXfs count=\"2\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>"
+             + "<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" quotePrefix=\"1\"/></cellXfs>"
+             + "<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>"
+             + "</styleSheet>";
+     private static final int QUOTE_PREFIX_STYLE = 1;
+
+     private final ZipOutputStream zip;
+     private final Writer xml;
+     private final String sheetName;
+     private final int rowsPerSheet;
+     private List<?> header;
+     // the first row, the header, has been written; later sheets then repeat it
+     private boolean headerWritten;
+     private int sheets;
+     // rows written to the open sheet, 0 when no sheet is open
+     private int rows;
+
+     /**
+      * @param out       the stream the workbook is written to; left open by finish
+      * @param sheetName name of the first sheet; further sheets are named "sheetName 2" and so on
+      */
+     XlsxExportWriter(OutputStream out, String sheetName) {
+          this(out, sheetName, MAX_ROWS_PER_SHEET);
+     }
+
+     XlsxExportWriter(OutputStream out, String sheetName, int rowsPerSheet) {
+          this.zip = new ZipOutputStream(out, UTF_8);
+          this.xml = new BufferedWriter(new OutputStreamWriter(zip, UTF_8), 64 * 1024);
+          this.sheetName = sheetName;
+          this.rowsPerSheet = Math.max(2, rowsPerSheet);
+     }
+
+     @Override
+     public void writeRow(List<?> cells) throws IOException {
+          if (!headerWritten) {
+               header = List.copyOf(cells);
+          }
+          if (rows == 0 || rows == rowsPerSheet) {
+               closeSheet();
+               openSheet();
+               if (headerWritten) {
+                    // every sheet after the first starts with the header again
+                    appendRow(header);
+               }
+          }
+          appendRow(cells);
+          headerWritten = true;
+     }
+
+     @Override
+     public void flush() throws IOException {
+          xml.flush();
+     }
+
+     @Override
+     public void finish() throws IOException {
+          if (sheets == 0) {
+               openSheet();
+          }
+          closeSheet();
+
+          StringBuilder workbook = new StringBuilder(XML_DECLARATION)
+                  .append("<workbook xmlns=\"").append(SPREADSHEET_NS).append("\" xmlns:r=\"")
+                  .append(DOCUMENT_RELATIONSHIPS_NS).append("\"><sheets>");
+          StringBuilder workbookRelationships = new StringBuilder(XML_DECLARATION)
+                  .append("<Relationships xmlns=\"").append(RELATIONSHIPS_NS).append("\">");
+          StringBuilder contentTypes = new StringBuilder(XML_DECLARATION)
+                  .append("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">")
+                  .append("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>")
+                  .append("<Default Extension=\"xml\" ContentType=\"application/xml\"/>")
+                  .append("<Override PartName=\"/xl/workbook.xml\" ")
+                  .append("ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>");
+          for (int sheet = 1; sheet <= sheets; sheet++) {
+               workbook.append("<sheet name=\"").append(escape(sheet == 1 ? sheetName : sheetName + " " + sheet))
+                       .append("\" sheetId=\"").append(sheet).append("\" r:id=\"rId").append(sheet).append("\"/>");
+               workbookRelationships.append("<Relationship Id=\"rId").append(sheet)
+                       .append("\" Type=\"").append(DOCUMENT_RELATIONSHIPS_NS).append("/worksheet\" Target=\"worksheets/sheet")
+                       .append(sheet).append(".xml\"/>");
+               contentTypes.append("<Override PartName=\"/xl/worksheets/sheet").append(sheet).append(".xml\" ")
+                       .append("ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+          }
+          // after the worksheets' relationships, so their ids stay rId1 to rIdN
+          workbookRelationships.append("<Relationship Id=\"rId").append(sheets + 1)
+                  .append("\" Type=\"").append(DOCUMENT_RELATIONSHIPS_NS).append("/styles\" Target=\"styles.xml\"/>");
+          contentTypes.append("<Override PartName=\"/xl/styles.xml\" ")
+                  .append("ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>");
+          writeEntry("xl/workbook.xml", workbook.append("</sheets></workbook>"));
+          writeEntry("xl/styles.xml", STYLES);
+          writeEntry("xl/_rels/workbook.xml.rels", workbookRelationships.append("</Relationships>"));
+          writeEntry("[Content_Types].xml", contentTypes.append("</Types>"));
+          writeEntry("_rels/.rels", new StringBuilder(XML_DECLARATION)
+                  .append("<Relationships xmlns=\"").append(RELATIONSHIPS_NS).append("\">")
+                  .append("<Relationship Id=\"rId1\" Type=\"").append(DOCUMENT_RELATIONSHIPS_NS)
+                  .append("/officeDocument\" Target=\"xl/workbook.xml\"/></Relationships>"));
+          // writes the zip's central directory but, unlike close, leaves the response open
+          zip.finish();
+          zip.flush();
+     }
+
+     private void openSheet() throws IOException {
+          sheets++;
+          zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + sheets + ".xml"));
+          xml.write(XML_DECLARATION);
+          xml.write("<worksheet xmlns=\"" + SPREADSHEET_NS + "\"><sheetData>");
+          rows = 0;
+     }
+
+     private void closeSheet() throws IOException {
+          if (sheets == 0) {
+               return;
+          }
+          xml.write("</sheetData></worksheet>");
+          xml.flush();
+          zip.closeEntry();
+     }
+
+     private void appendRow(List<?> cells) throws IOException {
+          rows++;
+          xml.write("<row r=\"");
+          xml.write(Integer.toString(rows));
+          xml.write("\">");
+          for (int column = 0; column < cells.size(); column++) {
+               Object value = cells.get(column);
+               if (value == null) {
+                    continue;
+               }
+               xml.write("<c r=\"");
+               xml.write(columnName(column));
+               xml.write(Integer.toString(rows));
+               if (value instanceof Number number) {
+                    xml.write("\"><v>");
+                    xml.write(number.toString());
+                    xml.write("</v></c>");
+               } else if (value instanceof Boolean bool) {
+                    xml.write("\" t=\"b\"><v>");
+                    xml.write(bool ? "1" : "0");
+                    xml.write("</v></c>");
+               } else {
+                    String text = value.toString();
+                    if (ExportWriter.startsLikeFormula(text)) {
+                         xml.write("\" s=\"" + QUOTE_PREFIX_STYLE);
+                    }
+                    xml.write("\" t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+                    xml.write(escape(text));
+                    xml.write("</t></is></c>");
+               }
+          }
+          xml.write("</row>");
+     }
+
+     private void writeEntry(String name, CharSequence content) throws IOException {
+          zip.putNextEntry(new ZipEntry(name));
+          xml.append(content);
+          xml.flush();
+          zip.closeEntry();
+     }
+
+     // A, B, ..., Z, AA, AB, ...
+     static String columnName(int index) {
+          StringBuilder name = new StringBuilder();
+          for (int n = index + 1; n > 0; n = (n - 1) / 26) {
+               name.insert(0, (char) ('A' + (n - 1) % 26));
+          }
+          return name.toString();
+     }
+
+     static String escape(String value) {
+          StringBuilder escaped = new StringBuilder(Math.min(value.length(), MAX_CELL_LENGTH) + 16);
+          int length = 0;
+          for (int i = 0; i < value.length() && length < MAX_CELL_LENGTH; ) {
+               int c = value.codePointAt(i);
+               i += Character.charCount(c);
+               // the characters XML 1.0 allows; lone surrogates and most control characters are not
+               boolean allowed = c == '\t' || c == '\n' || c == '\r' || (c >= 0x20 && c <= 0xD7FF)
+                       || (c >= 0xE000 && c <= 0xFFFD) || c >= 0x10000;
+               if (!allowed) {
+                    continue;
+               }
+               length += Character.charCount(c);
+               switch (c) {
+                    case '&' -> escaped.append("&amp;");
+                    case '<' -> escaped.append("&lt;");
+                    case '>' -> escaped.append("&gt;");
+                    case '"' -> escaped.append("&quot;");
+                    default -> escaped.appendCodePoint(c);
+               }
+          }
+          return escaped.toString();
+     }
+}
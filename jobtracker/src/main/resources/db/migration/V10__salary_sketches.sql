@@ -0,0 +1,21 @@
+-- Per-user salary sketches behind GET /jobs/salary-stats: for every level, location and company of a
+-- user's jobs, a t-digest of their minsalary and one of their maxsalary, from which the endpoint reads
+-- quantiles without sorting the salaries.
+--
+-- Job writes never touch them. The triggers of V13__salary_sketch_dirty.sql list the groups a write
+-- touched in salary_sketch_dirty, and SalarySketchRefresher brings just those groups up to date in the
+-- background. V13 also lists every existing group, so the first refresh builds the sketches of the
+-- jobs already here.
+
+-- dimension is level, location or company; group_key is the trimmed, lower-cased value. Each digest
+-- only holds the jobs that give that salary (non-zero), and is null if none does.
+CREATE TABLE IF NOT EXISTS salary_sketch
+(
+    user_id    uuid  NOT NULL,
+    dimension  text  NOT NULL,
+    group_key  text  NOT NULL,
+    min_salary bytea,
+    max_salary bytea,
+    PRIMARY KEY (user_id, dimension, group_key)
+);
+
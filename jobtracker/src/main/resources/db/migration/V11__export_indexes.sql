@@ -0,0 +1,11 @@
+-- (user_id, id) indexes for GET /jobs/export and GET /interviews/export, which read a user's rows in
+-- chunks of id > :after ORDER BY id LIMIT :limit. Ordering by the primary key rather than
+-- last_modified means a row edited while an export runs cannot move from the part not yet read to
+-- the part already written, so no row is skipped or written twice.
+--
+-- Built CONCURRENTLY so writes continue meanwhile, which is why this script runs outside a
+-- transaction (see the .conf file next to it). A build that fails leaves an INVALID index behind;
+-- drop it before running the migration again.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS job_user_id_idx ON job (user_id, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS interview_user_id_idx ON interview (user_id, id);
@@ -0,0 +1,75 @@
+-- Change events for GET /events: every insert, changing update and delete of a job or interview
+-- sends a notification on the jobtracker_changes channel, which each instance LISTENs on.
+--
+-- The notification is sent by the write's own statement, so it is part of the write's transaction:
+-- PostgreSQL delivers it when that transaction commits and drops it if it rolls back, and no event
+-- is lost to a crash between the commit and a separate NOTIFY. Writes made outside the API (the
+-- Supabase dashboard, SQL scripts) send events too.
+--
+-- The payload is ChangeEvent.encode(): user_id,entity,type,id. Statement-level triggers, like
+-- V2 and V8: a statement that inserts one row of a user sends "created" with its id, one that
+-- inserts several (POST /jobs/bulk) sends a single "imported" with no id, which tells clients to
+-- resync. Identical notifications within a transaction are delivered once, so an import sends one
+-- "imported" however many statements it takes.
+
+CREATE OR REPLACE FUNCTION notify_change() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM pg_notify('jobtracker_changes', user_id || ',' || TG_TABLE_NAME || ','
+            || CASE WHEN count(*) = 1 THEN 'created,' || min(id::text) ELSE 'imported,' END)
+        FROM new_rows
+        WHERE user_id IS NOT NULL
+        GROUP BY user_id;
+    ELSIF TG_OP = 'UPDATE' THEN
+        -- like touch_last_modified(), an UPDATE that leaves the row as it was is not a change
+        PERFORM pg_notify('jobtracker_changes', n.user_id || ',' || TG_TABLE_NAME || ',updated,' || n.id)
+        FROM new_rows n
+        JOIN old_rows o ON o.id = n.id
+        WHERE n.user_id IS NOT NULL
+        AND n IS DISTINCT FROM o;
+    ELSE
+        PERFORM pg_notify('jobtracker_changes', user_id || ',' || TG_TABLE_NAME || ',deleted,' || id)
+        FROM old_rows
+        WHERE user_id IS NOT NULL;
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+DROP TRIGGER IF EXISTS job_notify_insert ON job;
+CREATE TRIGGER job_notify_insert
+    AFTER INSERT ON job
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_change();
+
+DROP TRIGGER IF EXISTS job_notify_update ON job;
+CREATE TRIGGER job_notify_update
+    AFTER UPDATE ON job
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_change();
+
+DROP TRIGGER IF EXISTS job_notify_delete ON job;
+CREATE TRIGGER job_notify_delete
+    AFTER DELETE ON job
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_change();
+
+DROP TRIGGER IF EXISTS interview_notify_insert ON interview;
+CREATE TRIGGER interview_notify_insert
+    AFTER INSERT ON interview
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_change();
+
+DROP TRIGGER IF EXISTS interview_notify_update ON interview;
+CREATE TRIGGER interview_notify_update
+    AFTER UPDATE ON interview
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_change();
+
+DROP TRIGGER IF EXISTS interview_notify_delete ON interview;
+CREATE TRIGGER interview_notify_delete
+    AFTER DELETE ON interview
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_change();
@@ -0,0 +1,110 @@
+-- Keeps the salary sketches of V10 current off the write path. Statement-level triggers on job, like
+-- V2 and V8, record which of a user's groups a write touched in salary_sketch_dirty; the writes
+-- themselves no longer read or lock anything for the sketches. SalarySketchRefresher brings just
+-- those groups up to date in the background, and reads serve the stored sketches as they are.
+--
+-- An insert also records the new jobs' salaries, and the refresh merges them into the group's stored
+-- digests. A digest cannot take a value back out, so a group an update or delete touched is rebuilt
+-- from its jobs instead.
+--
+-- A dirty row carries the transaction that wrote it. A refresh reads from one REPEATABLE READ
+-- snapshot and clears the rows of the transactions visible in it, whose changes it has just merged
+-- or read; rows of transactions it cannot see keep the group dirty for the next refresh. Writers
+-- only ever append, so they never wait for each other or for a refresh.
+
+-- The group key of a level, location or company: the trimmed, lower-cased value, or null for a blank
+-- one. Sketch keys only ever come from here, so the triggers and the rebuild agree on them.
+CREATE OR REPLACE FUNCTION salary_group_key(value text) RETURNS text
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE AS
+$$
+SELECT nullif(lower(btrim(value, E' \t\r\n')), '')
+$$;
+
+-- the groups a job with these values is in, one per dimension it has a value for
+CREATE OR REPLACE FUNCTION salary_groups(level text, location text, company text)
+    RETURNS TABLE (dimension text, group_key text)
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE AS
+$$
+SELECT g.dimension, g.group_key
+FROM (VALUES ('level', salary_group_key(level)),
+             ('location', salary_group_key(location)),
+             ('company', salary_group_key(company))) AS g (dimension, group_key)
+WHERE g.group_key IS NOT NULL
+$$;
+
+-- No key, so appending never conflicts. An insert lists each new job once per group, with its
+-- min_salary and max_salary (0 for none) to merge; an update or delete lists each group once per
+-- statement, without salaries, and has it rebuilt.
+CREATE TABLE IF NOT EXISTS salary_sketch_dirty
+(
+    user_id    uuid NOT NULL,
+    dimension  text NOT NULL,
+    group_key  text NOT NULL,
+    min_salary integer,
+    max_salary integer,
+    change_xid xid8 NOT NULL DEFAULT pg_current_xact_id()
+);
+
+CREATE INDEX IF NOT EXISTS salary_sketch_dirty_user_change_xid_idx ON salary_sketch_dirty (user_id, change_xid);
+
+-- Only jobs that give a salary are in a sketch. An update dirties the groups the job left and the
+-- ones it joined, and only if a salary, level, location, company or the owner changed; favorite
+-- toggles and status changes write nothing.
+CREATE OR REPLACE FUNCTION salary_sketch_mark_dirty() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO salary_sketch_dirty (user_id, dimension, group_key, min_salary, max_salary)
+        SELECT r.user_id, g.dimension, g.group_key, coalesce(r.minsalary, 0), coalesce(r.maxsalary, 0)
+        FROM new_rows r
+        CROSS JOIN LATERAL salary_groups(r.level, r.location, r.company) g
+        WHERE r.user_id IS NOT NULL AND (r.minsalary > 0 OR r.maxsalary > 0);
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO salary_sketch_dirty (user_id, dimension, group_key)
+        SELECT DISTINCT r.user_id, g.dimension, g.group_key
+        FROM old_rows r
+        CROSS JOIN LATERAL salary_groups(r.level, r.location, r.company) g
+        WHERE r.user_id IS NOT NULL AND (r.minsalary > 0 OR r.maxsalary > 0);
+    ELSE
+        INSERT INTO salary_sketch_dirty (user_id, dimension, group_key)
+        SELECT DISTINCT r.user_id, g.dimension, g.group_key
+        FROM old_rows o
+        JOIN new_rows n ON n.id = o.id
+        CROSS JOIN LATERAL (VALUES (o.user_id, o.level, o.location, o.company, o.minsalary, o.maxsalary),
+                                   (n.user_id, n.level, n.location, n.company, n.minsalary, n.maxsalary))
+            AS r (user_id, level, location, company, minsalary, maxsalary)
+        CROSS JOIN LATERAL salary_groups(r.level, r.location, r.company) g
+        WHERE (o.user_id, o.level, o.location, o.company, o.minsalary, o.maxsalary)
+                  IS DISTINCT FROM (n.user_id, n.level, n.location, n.company, n.minsalary, n.maxsalary)
+        AND r.user_id IS NOT NULL AND (r.minsalary > 0 OR r.maxsalary > 0);
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+DROP TRIGGER IF EXISTS job_salary_sketch_insert ON job;
+CREATE TRIGGER job_salary_sketch_insert
+    AFTER INSERT ON job
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION salary_sketch_mark_dirty();
+
+DROP TRIGGER IF EXISTS job_salary_sketch_update ON job;
+CREATE TRIGGER job_salary_sketch_update
+    AFTER UPDATE ON job
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION salary_sketch_mark_dirty();
+
+DROP TRIGGER IF EXISTS job_salary_sketch_delete ON job;
+CREATE TRIGGER job_salary_sketch_delete
+    AFTER DELETE ON job
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION salary_sketch_mark_dirty();
+
+-- Every group of the existing jobs is built once, by the first refresh; until then the stats are
+-- empty. Creating the triggers locked job against writers until this commits, so no change is missed.
+INSERT INTO salary_sketch_dirty (user_id, dimension, group_key)
+SELECT DISTINCT j.user_id, g.dimension, g.group_key
+FROM job j
+CROSS JOIN LATERAL salary_groups(j.level, j.location, j.company) g
+WHERE j.user_id IS NOT NULL AND (j.minsalary > 0 OR j.maxsalary > 0);
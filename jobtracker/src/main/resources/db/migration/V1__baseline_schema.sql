@@ -0,0 +1,43 @@
+-- The tables the API reads and writes, as they stood before schema changes were versioned.
+-- A database that already has them (the Supabase project) is baselined at this version by
+-- spring.flyway.baseline-on-migrate and never runs this script; a new one (the jt-db container,
+-- tests) starts here. Later migrations only ever change these tables, never this file.
+
+CREATE TABLE IF NOT EXISTS job
+(
+    id            uuid PRIMARY KEY DEFAULT gen_random_uuid(),
+    title         text,
+    level         text,
+    minsalary     integer,
+    maxsalary     integer,
+    location      text,
+    status        text,
+    company       text,
+    user_id       uuid,
+    last_modified timestamptz NOT NULL DEFAULT now(),
+    favorite      boolean     NOT NULL DEFAULT false
+);
+
+-- date (yyyy-MM-dd) and time (HH:mm) were text until V4
+CREATE TABLE IF NOT EXISTS interview
+(
+    id      uuid PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id uuid,
+    format  text,
+    round   text,
+    date    text,
+    time    text,
+    company text
+);
+
+-- one row per user; id is the user's UUID (the JWT sub)
+CREATE TABLE IF NOT EXISTS profile
+(
+    id          uuid PRIMARY KEY,
+    name        text,
+    email       text,
+    title       text,
+    bio         text,
+    location    text,
+    phonenumber text
+);
@@ -0,0 +1,77 @@
+-- Per-user tally of jobs by status, kept current by statement-level triggers on job so that
+-- GET /jobs/status-counts reads a handful of rows instead of scanning every job a user owns.
+-- Jobs with a NULL or empty status are not counted, matching the previous Java implementation.
+
+CREATE TABLE IF NOT EXISTS job_status_counts
+(
+    user_id uuid    NOT NULL,
+    status  text    NOT NULL,
+    count   integer NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, status)
+);
+
+-- Applies the net change of one statement. Deltas are aggregated per (user_id, status) and
+-- upserted in key order, so a multi-row insert costs one upsert per status rather than one per
+-- row, updates that do not touch status (e.g. favorite toggles) write nothing, and concurrent
+-- writers always lock counter rows in the same order.
+CREATE OR REPLACE FUNCTION job_status_counts_apply() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO job_status_counts (user_id, status, count)
+        SELECT user_id, status, count(*)
+        FROM new_rows
+        WHERE status <> ''
+        GROUP BY user_id, status
+        ORDER BY user_id, status
+        ON CONFLICT (user_id, status) DO UPDATE SET count = job_status_counts.count + EXCLUDED.count;
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO job_status_counts (user_id, status, count)
+        SELECT user_id, status, -count(*)
+        FROM old_rows
+        WHERE status <> ''
+        GROUP BY user_id, status
+        ORDER BY user_id, status
+        ON CONFLICT (user_id, status) DO UPDATE SET count = job_status_counts.count + EXCLUDED.count;
+    ELSE
+        INSERT INTO job_status_counts (user_id, status, count)
+        SELECT user_id, status, sum(delta)
+        FROM (SELECT user_id, status, 1 AS delta FROM new_rows WHERE status <> ''
+              UNION ALL
+              SELECT user_id, status, -1 AS delta FROM old_rows WHERE status <> '') AS changes
+        GROUP BY user_id, status
+        HAVING sum(delta) <> 0
+        ORDER BY user_id, status
+        ON CONFLICT (user_id, status) DO UPDATE SET count = job_status_counts.count + EXCLUDED.count;
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+DROP TRIGGER IF EXISTS job_status_counts_insert ON job;
+CREATE TRIGGER job_status_counts_insert
+    AFTER INSERT ON job
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION job_status_counts_apply();
+
+DROP TRIGGER IF EXISTS job_status_counts_update ON job;
+CREATE TRIGGER job_status_counts_update
+    AFTER UPDATE ON job
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION job_status_counts_apply();
+
+DROP TRIGGER IF EXISTS job_status_counts_delete ON job;
+CREATE TRIGGER job_status_counts_delete
+    AFTER DELETE ON job
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION job_status_counts_apply();
+
+-- Initial population; the application's reconciliation job runs the same rebuild on a schedule.
+LOCK TABLE job_status_counts IN EXCLUSIVE MODE;
+DELETE FROM job_status_counts;
+INSERT INTO job_status_counts (user_id, status, count)
+SELECT user_id, status, count(*)
+FROM job
+WHERE status <> ''
+GROUP BY user_id, status;
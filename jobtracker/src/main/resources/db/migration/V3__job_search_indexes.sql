@@ -0,0 +1,18 @@
+-- Trigram indexes behind GET /jobs/search.
+-- A GIN index with gin_trgm_ops serves ILIKE '%term%' (and word_similarity ranking) directly, so
+-- substring filters on title, location and company no longer force a scan of every row.
+-- btree_gin lets user_id sit in the same index, so the per-user search is answered by a single
+-- index scan instead of ANDing a user bitmap with a much broader trigram bitmap. GIN can use any
+-- subset of its columns, so the same indexes also serve searches that are not scoped to a user.
+-- Search terms shorter than three characters produce no trigrams and cannot use these indexes.
+--
+-- Built CONCURRENTLY so writes continue meanwhile, which is why this script runs outside a
+-- transaction (see the .conf file next to it). A build that fails leaves an INVALID index behind;
+-- drop it before running the migration again.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS job_user_title_trgm_idx ON job USING gin (user_id, title gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS job_user_location_trgm_idx ON job USING gin (user_id, location gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS job_user_company_trgm_idx ON job USING gin (user_id, company gin_trgm_ops);
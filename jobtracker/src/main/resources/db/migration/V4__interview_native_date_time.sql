@@ -0,0 +1,111 @@
+-- Native date and time columns for interview, replacing the yyyy-MM-dd / HH:mm text columns, and
+-- a (user_id, date, time) index so GET /interviews/upcoming is a range scan with a LIMIT instead
+-- of loading every interview and parsing the dates in Java.
+--
+-- Expand, backfill, contract: typed columns are added next to the text ones, filled in batches of
+-- 5000 rows that each commit on their own (so no long lock and no long-running transaction), and
+-- then swapped in by renaming. Values that cannot be parsed become NULL; the original text stays
+-- in date_text / time_text so it can be checked and fixed, and a later migration can drop them.
+--
+-- Runs outside a transaction (see the .conf file next to this script): the backfill commits after
+-- every batch and the index is built CONCURRENTLY. Each statement still commits on its own, so
+-- the contract step below is atomic.
+
+CREATE OR REPLACE FUNCTION interview_try_date(value text) RETURNS date
+    LANGUAGE plpgsql STABLE AS
+$$
+BEGIN
+    RETURN nullif(btrim(value), '')::date;
+EXCEPTION
+    WHEN others THEN RETURN NULL;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION interview_try_time(value text) RETURNS time
+    LANGUAGE plpgsql STABLE AS
+$$
+BEGIN
+    RETURN nullif(btrim(value), '')::time;
+EXCEPTION
+    WHEN others THEN RETURN NULL;
+END;
+$$;
+
+-- 1. expand: nullable columns without a default are added without rewriting the table
+DO
+$$
+BEGIN
+    IF (SELECT data_type FROM information_schema.columns
+        WHERE table_schema = current_schema() AND table_name = 'interview' AND column_name = 'date') = 'text' THEN
+        ALTER TABLE interview ADD COLUMN IF NOT EXISTS date_value date;
+        ALTER TABLE interview ADD COLUMN IF NOT EXISTS time_value time;
+    END IF;
+END;
+$$;
+
+-- 2. backfill in primary-key order, one committed batch at a time
+DO
+$$
+DECLARE
+    last_id    uuid := '00000000-0000-0000-0000-000000000000';
+    batch_last uuid;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema() AND table_name = 'interview' AND column_name = 'date_value') THEN
+        RETURN;
+    END IF;
+    LOOP
+        WITH batch AS (
+            SELECT id FROM interview WHERE id > last_id ORDER BY id LIMIT 5000
+        ), backfill AS (
+            UPDATE interview i
+            SET date_value = interview_try_date(i.date),
+                time_value = interview_try_time(i.time)
+            FROM batch
+            WHERE i.id = batch.id
+            RETURNING i.id
+        )
+        -- a data-modifying CTE runs whether or not it is read
+        SELECT id INTO batch_last FROM batch ORDER BY id DESC LIMIT 1;
+        EXIT WHEN batch_last IS NULL;
+        last_id := batch_last;
+        COMMIT;
+    END LOOP;
+END;
+$$;
+
+-- 3. contract: catch up rows written during the backfill and swap the columns, under a short lock
+DO
+$$
+DECLARE
+    unparsed integer;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema() AND table_name = 'interview' AND column_name = 'date_value') THEN
+        RETURN;
+    END IF;
+    LOCK TABLE interview IN ACCESS EXCLUSIVE MODE;
+    UPDATE interview
+    SET date_value = interview_try_date(date),
+        time_value = interview_try_time(time)
+    WHERE date_value IS DISTINCT FROM interview_try_date(date)
+       OR time_value IS DISTINCT FROM interview_try_time(time);
+    ALTER TABLE interview RENAME COLUMN date TO date_text;
+    ALTER TABLE interview RENAME COLUMN time TO time_text;
+    ALTER TABLE interview RENAME COLUMN date_value TO date;
+    ALTER TABLE interview RENAME COLUMN time_value TO time;
+
+    SELECT count(*) INTO unparsed FROM interview
+    WHERE (date IS NULL AND nullif(btrim(date_text), '') IS NOT NULL)
+       OR (time IS NULL AND nullif(btrim(time_text), '') IS NOT NULL);
+    IF unparsed > 0 THEN
+        RAISE NOTICE '% interview rows had a date or time that could not be parsed; see date_text / time_text', unparsed;
+    END IF;
+END;
+$$;
+
+DROP FUNCTION IF EXISTS interview_try_date(text);
+DROP FUNCTION IF EXISTS interview_try_time(text);
+
+-- 4. the upcoming-interview index: WHERE user_id = ? AND date > ? ORDER BY date, time LIMIT n
+CREATE INDEX CONCURRENTLY IF NOT EXISTS interview_user_date_time_idx ON interview (user_id, date, time);
@@ -0,0 +1,25 @@
+-- Indexes for the per-user lookups in JobRepository, InterviewRepository and ProfileRepository,
+-- so none of them reads the whole table once it grows. Lookups by id use the primary keys, and
+-- interview queries by user_id use the (user_id, date, time) index from V4.
+-- RepositoryQueryPlanTest checks every repository query against a seeded database.
+--
+-- Built CONCURRENTLY so writes continue meanwhile, which is why this script runs outside a
+-- transaction (see the .conf file next to it). A build that fails leaves an INVALID index behind;
+-- drop it before running the migration again.
+
+-- GET /jobs, its keyset pages, /jobs/stream and the dashboard's recent jobs read this in order.
+-- favorite is included so the dashboard's job and favorite counts are an index-only scan.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS job_user_last_modified_idx
+    ON job (user_id, last_modified DESC, id DESC) INCLUDE (favorite);
+
+-- GET /jobs/favorites: only favorite rows are indexed, so the index stays small
+CREATE INDEX CONCURRENTLY IF NOT EXISTS job_user_favorite_idx
+    ON job (user_id, last_modified DESC) WHERE favorite;
+
+-- the status filter of GET /jobs/search, which compares case-insensitively
+CREATE INDEX CONCURRENTLY IF NOT EXISTS job_user_status_idx
+    ON job (user_id, lower(status));
+
+-- ProfileRepository.existsByEmail
+CREATE INDEX CONCURRENTLY IF NOT EXISTS profile_email_idx
+    ON profile (email);
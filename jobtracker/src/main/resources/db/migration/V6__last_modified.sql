@@ -0,0 +1,41 @@
+-- last_modified on interview and profile, as job already has, and a trigger on all three tables
+-- that moves it whenever an UPDATE changes the row. Conditional GETs (ETag, Last-Modified) compare
+-- count(*) and max(last_modified), so a change made outside the API, e.g. in the Supabase
+-- dashboard, must move it too.
+--
+-- Runs outside a transaction (see the .conf file next to this script) to build the index
+-- CONCURRENTLY. A build that fails leaves an INVALID index behind; drop it before running the
+-- migration again.
+
+-- now() is not volatile, so existing rows get the migration time without a table rewrite
+ALTER TABLE interview ADD COLUMN IF NOT EXISTS last_modified timestamptz NOT NULL DEFAULT now();
+ALTER TABLE profile ADD COLUMN IF NOT EXISTS last_modified timestamptz NOT NULL DEFAULT now();
+
+-- An UPDATE that writes the row back unchanged, such as Spring Data's save() of an unmodified
+-- entity or a repeated favorite toggle, leaves last_modified where it was.
+CREATE OR REPLACE FUNCTION touch_last_modified() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF NEW IS DISTINCT FROM OLD THEN
+        NEW.last_modified = now();
+    END IF;
+    RETURN NEW;
+END
+$$;
+
+CREATE OR REPLACE TRIGGER job_touch_last_modified
+    BEFORE UPDATE ON job
+    FOR EACH ROW EXECUTE FUNCTION touch_last_modified();
+
+CREATE OR REPLACE TRIGGER interview_touch_last_modified
+    BEFORE UPDATE ON interview
+    FOR EACH ROW EXECUTE FUNCTION touch_last_modified();
+
+CREATE OR REPLACE TRIGGER profile_touch_last_modified
+    BEFORE UPDATE ON profile
+    FOR EACH ROW EXECUTE FUNCTION touch_last_modified();
+
+-- the count and max(last_modified) behind the ETag of GET /interviews, as an index-only scan
+CREATE INDEX CONCURRENTLY IF NOT EXISTS interview_user_last_modified_idx
+    ON interview (user_id, last_modified);
@@ -0,0 +1,80 @@
+-- Delta sync (GET /sync): which jobs and interviews changed, and which were deleted, since a client
+-- last synced.
+--
+-- Every row records the transaction that last inserted or changed it (change_xid), and a deleted
+-- row leaves a tombstone carrying the deleting transaction. A sync cursor is the xmin of the
+-- snapshot the previous sync read with: every transaction below it had committed (or aborted)
+-- when that sync ran, so a row whose change_xid is below the cursor was already sent. Transaction
+-- IDs, unlike timestamps, cannot miss a change that started before the cursor but committed after.
+-- Rows at or above the cursor may have been sent already and are sent again; clients apply them
+-- as upserts.
+--
+-- Runs outside a transaction (see the .conf file next to this script) to build the indexes
+-- CONCURRENTLY. A build that fails leaves an INVALID index behind; drop it before running the
+-- migration again.
+
+-- Nullable, so adding it does not rewrite the table. Rows that have not changed since this
+-- migration keep NULL; they are older than any cursor and only sent by a full sync.
+ALTER TABLE job ADD COLUMN IF NOT EXISTS change_xid xid8;
+ALTER TABLE interview ADD COLUMN IF NOT EXISTS change_xid xid8;
+
+-- Like touch_last_modified(), an UPDATE that leaves the row as it was does not count as a change.
+CREATE OR REPLACE FUNCTION touch_change_xid() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' OR NEW IS DISTINCT FROM OLD THEN
+        NEW.change_xid = pg_current_xact_id();
+    END IF;
+    RETURN NEW;
+END
+$$;
+
+CREATE OR REPLACE TRIGGER job_touch_change_xid
+    BEFORE INSERT OR UPDATE ON job
+    FOR EACH ROW EXECUTE FUNCTION touch_change_xid();
+
+CREATE OR REPLACE TRIGGER interview_touch_change_xid
+    BEFORE INSERT OR UPDATE ON interview
+    FOR EACH ROW EXECUTE FUNCTION touch_change_xid();
+
+-- One row per deleted job or interview, written by the delete itself, so deletes made outside the
+-- API are synced too. Pruned once older than jobtracker.sync.tombstone-retention.
+CREATE TABLE IF NOT EXISTS sync_tombstone
+(
+    entity     text        NOT NULL CHECK (entity IN ('job', 'interview')),
+    id         uuid        NOT NULL,
+    user_id    uuid        NOT NULL,
+    change_xid xid8        NOT NULL DEFAULT pg_current_xact_id(),
+    deleted_at timestamptz NOT NULL DEFAULT now(),
+    PRIMARY KEY (entity, id)
+);
+
+CREATE INDEX IF NOT EXISTS sync_tombstone_user_change_xid_idx ON sync_tombstone (user_id, change_xid);
+CREATE INDEX IF NOT EXISTS sync_tombstone_deleted_at_idx ON sync_tombstone (deleted_at);
+
+CREATE OR REPLACE FUNCTION record_sync_tombstone() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    INSERT INTO sync_tombstone (entity, id, user_id)
+    VALUES (TG_TABLE_NAME, OLD.id, OLD.user_id)
+    ON CONFLICT (entity, id) DO UPDATE
+        SET user_id    = EXCLUDED.user_id,
+            change_xid = EXCLUDED.change_xid,
+            deleted_at = EXCLUDED.deleted_at;
+    RETURN OLD;
+END
+$$;
+
+CREATE OR REPLACE TRIGGER job_record_sync_tombstone
+    AFTER DELETE ON job
+    FOR EACH ROW EXECUTE FUNCTION record_sync_tombstone();
+
+CREATE OR REPLACE TRIGGER interview_record_sync_tombstone
+    AFTER DELETE ON interview
+    FOR EACH ROW EXECUTE FUNCTION record_sync_tombstone();
+
+-- the per-user "changed since" scans of GET /sync
+CREATE INDEX CONCURRENTLY IF NOT EXISTS job_user_change_xid_idx ON job (user_id, change_xid);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS interview_user_change_xid_idx ON interview (user_id, change_xid);
@@ -0,0 +1,69 @@
+-- Every status a job has entered, and when, for the funnel analytics of GET /analytics/funnel.
+--
+-- Written by statement-level triggers on job, like job_status_counts (V2): a job enters its first
+-- status on insert and a new one on every update that changes status, whether through PUT, PATCH,
+-- POST /jobs/bulk or outside the API. Updates that leave status alone (favorite toggles, edits of
+-- other columns) write nothing. Rows are kept when the job is deleted, so a job still counts in the
+-- funnel it went through.
+
+CREATE TABLE IF NOT EXISTS job_status_history
+(
+    id          bigint GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    job_id      uuid        NOT NULL,
+    user_id     uuid        NOT NULL,
+    from_status text,
+    to_status   text        NOT NULL,
+    changed_at  timestamptz NOT NULL DEFAULT now(),
+    -- the transaction that wrote the row, for the incremental rollup refresh of V9
+    change_xid  xid8        NOT NULL DEFAULT pg_current_xact_id()
+);
+
+-- A user's history in the order the window functions walk it (job by job, oldest change first),
+-- so the per-user report is one index range scan without a sort. The report across all users
+-- reads the whole index in the same order.
+CREATE INDEX IF NOT EXISTS job_status_history_user_job_idx ON job_status_history (user_id, job_id, changed_at, id);
+
+-- Changes within one transaction share changed_at (now() is the transaction's start); the
+-- identity column keeps them in the order they were made. Jobs without a status are skipped, as
+-- they are in job_status_counts.
+CREATE OR REPLACE FUNCTION job_status_history_record() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO job_status_history (job_id, user_id, from_status, to_status)
+        SELECT id, user_id, NULL, status
+        FROM new_rows
+        WHERE status <> '' AND user_id IS NOT NULL;
+    ELSE
+        INSERT INTO job_status_history (job_id, user_id, from_status, to_status)
+        SELECT n.id, n.user_id, nullif(o.status, ''), n.status
+        FROM new_rows n
+        JOIN old_rows o ON o.id = n.id
+        WHERE n.status <> '' AND n.user_id IS NOT NULL
+        AND n.status IS DISTINCT FROM o.status;
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+DROP TRIGGER IF EXISTS job_status_history_insert ON job;
+CREATE TRIGGER job_status_history_insert
+    AFTER INSERT ON job
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION job_status_history_record();
+
+DROP TRIGGER IF EXISTS job_status_history_update ON job;
+CREATE TRIGGER job_status_history_update
+    AFTER UPDATE ON job
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION job_status_history_record();
+
+-- Existing jobs enter the history at their current status, as of their last change. Their earlier
+-- statuses are unknown: they count as having reached every stage before the current one, and their
+-- time in those stages is not measured. Creating the triggers locked job against writers until this
+-- commits, so no job is recorded twice or missed.
+INSERT INTO job_status_history (job_id, user_id, from_status, to_status, changed_at)
+SELECT id, user_id, NULL, status, last_modified
+FROM job
+WHERE status <> '' AND user_id IS NOT NULL;
@@ -0,0 +1,81 @@
+-- Daily rollup tables behind the admin reports of GET /admin/rollups/..., kept current by
+-- RollupRefresher. Each refresh folds in only the rows written since the previous one, so its cost
+-- follows the day's changes rather than the size of job, interview or job_status_history.
+--
+-- Like a GET /sync cursor (V7), the watermark is the xmin of the snapshot the previous refresh read
+-- with. A refresh processes the rows whose change_xid lies between that watermark and its own
+-- snapshot's xmin. Every transaction in that range has finished, so each row is folded in exactly
+-- once, even when transactions commit out of order.
+--
+-- job_status_history is append-only, so its rows are simply added to the daily counts. Jobs and
+-- interviews change and get deleted: the tables rollup_job and rollup_interview remember what each
+-- row currently contributes. A changed or deleted row (sync_tombstone) has its old contribution
+-- subtracted and its new one added.
+--
+-- Runs outside a transaction (see the .conf file next to this script) to build the change_xid
+-- indexes CONCURRENTLY. A build that fails leaves an INVALID index behind; drop it before running
+-- the migration again.
+
+-- snapshot_xmin '0' means "never refreshed": the next refresh rebuilds every rollup from scratch
+CREATE TABLE IF NOT EXISTS rollup_watermark
+(
+    name          text PRIMARY KEY,
+    snapshot_xmin xid8 NOT NULL,
+    refreshed_at  timestamptz
+);
+INSERT INTO rollup_watermark (name, snapshot_xmin) VALUES ('daily', '0') ON CONFLICT (name) DO NOTHING;
+
+-- Days are UTC. A job is created on the day of its first status.
+CREATE TABLE IF NOT EXISTS rollup_daily_jobs_created
+(
+    day  date PRIMARY KEY,
+    jobs bigint NOT NULL
+);
+
+-- from_status is '' for a job's first status
+CREATE TABLE IF NOT EXISTS rollup_daily_status_transitions
+(
+    day         date   NOT NULL,
+    from_status text   NOT NULL,
+    to_status   text   NOT NULL,
+    transitions bigint NOT NULL,
+    PRIMARY KEY (day, from_status, to_status)
+);
+
+-- by interview date; company is trimmed and lower-cased so spellings of one company add up
+CREATE TABLE IF NOT EXISTS rollup_daily_company_interviews
+(
+    day        date   NOT NULL,
+    company    text   NOT NULL,
+    interviews bigint NOT NULL,
+    PRIMARY KEY (day, company)
+);
+
+-- current jobs by 10,000-wide band of minsalary and of maxsalary; band is the lower bound
+CREATE TABLE IF NOT EXISTS rollup_salary_bands
+(
+    band            integer PRIMARY KEY,
+    min_salary_jobs bigint NOT NULL,
+    max_salary_jobs bigint NOT NULL
+);
+
+-- what each job and interview currently counts for in the tables above
+CREATE TABLE IF NOT EXISTS rollup_job
+(
+    id       uuid PRIMARY KEY,
+    min_band integer,
+    max_band integer
+);
+
+CREATE TABLE IF NOT EXISTS rollup_interview
+(
+    id      uuid PRIMARY KEY,
+    company text NOT NULL,
+    day     date NOT NULL
+);
+
+-- the "changed since the watermark" scans across all users
+CREATE INDEX CONCURRENTLY IF NOT EXISTS job_change_xid_idx ON job (change_xid);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS interview_change_xid_idx ON interview (change_xid);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS job_status_history_change_xid_idx ON job_status_history (change_xid);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS sync_tombstone_change_xid_idx ON sync_tombstone (change_xid);
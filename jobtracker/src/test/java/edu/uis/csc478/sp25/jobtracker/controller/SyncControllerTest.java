@@ -0,0 +1,36 @@
+package edu.uis.csc478.sp25.jobtracker.controller;
+
+import edu.uis.csc478.sp25.jobtracker.model.SyncCursor;
+import edu.uis.csc478.sp25.jobtracker.service.SyncService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SyncControllerTest {
+
+     // both outcomes are decided from the cursor alone, before the repository is used
+     private final SyncController controller = new SyncController(new SyncService(null, Duration.ofDays(30)));
+
+     @Test
+     void answersBadRequestToAMalformedCursor() {
+          ResponseEntity<Object> response = controller.getChanges("not a cursor");
+
+          assertEquals(400, response.getStatusCode().value());
+          assertEquals(Map.of("message", "Invalid cursor"), response.getBody());
+     }
+
+     @Test
+     void answersGoneToACursorOlderThanTheTombstoneRetention() {
+          String since = new SyncCursor(532089, Instant.now().minus(Duration.ofDays(31))).encode();
+
+          ResponseEntity<Object> response = controller.getChanges(since);
+
+          assertEquals(410, response.getStatusCode().value());
+          assertEquals(Map.of("message", "Cursor expired; sync again without since"), response.getBody());
+     }
+}
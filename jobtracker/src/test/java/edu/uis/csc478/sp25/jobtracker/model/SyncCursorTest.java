@@ -0,0 +1,49 @@
+package edu.uis.csc478.sp25.jobtracker.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Instant;
+import java.util.Base64;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyncCursorTest {
+
+     @Test
+     void roundTrips() {
+          SyncCursor cursor = new SyncCursor(532089, Instant.parse("2026-10-18T12:30:40Z"));
+
+          String encoded = cursor.encode();
+
+          assertEquals(cursor, SyncCursor.decode(encoded));
+          // URL-safe without escaping, so it can be passed back as ?since= unchanged
+          assertTrue(encoded.matches("[A-Za-z0-9_-]+"), encoded);
+     }
+
+     @Test
+     void keepsTheFormatClientsAlreadyHold() {
+          // "532089|1792296640"
+          assertEquals(new SyncCursor(532089, Instant.ofEpochSecond(1792296640)),
+                  SyncCursor.decode("NTMyMDg5fDE3OTIyOTY2NDA"));
+     }
+
+     @Test
+     void roundTripsXidsAboveLongMaxValue() {
+          // xid8 is unsigned 64-bit
+          SyncCursor cursor = new SyncCursor(-2, Instant.ofEpochSecond(1792296640));
+
+          assertEquals(cursor, SyncCursor.decode(cursor.encode()));
+          assertTrue(new String(Base64.getUrlDecoder().decode(cursor.encode()), UTF_8).startsWith("18446744073709551614|"));
+     }
+
+     @ParameterizedTest
+     @ValueSource(strings = {"", "not a cursor", "!!!", "NTMyMDg5", "fDE3OTIyOTY2NDA", "YWJjfDE3OTI", "NTMyMDg5fGFiYw",
+             "NTMyMDg5fDk5OTk5OTk5OTk5OTk5OTk5OTk", "NTMyMDg5fDEwMDAwMDAwMDAwMDAwMDAwMA"})
+     void rejectsMalformedCursors(String encoded) {
+          // base64 that is not "<xid>|<epoch seconds>", or an epoch Instant cannot hold
+          assertThrows(IllegalArgumentException.class, () -> SyncCursor.decode(encoded));
+     }
+}
@@ -0,0 +1,111 @@
+package edu.uis.csc478.sp25.jobtracker.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnPatchTest {
+
+     private static final String WHERE = "id = :id AND user_id = :userId";
+     private static final Map<String, Object> KEYS = Map.of("id", UUID.randomUUID(),
+             "userId", UUID.fromString("11111111-1111-1111-1111-111111111111"));
+
+     @Test
+     void setsOnlyTheFieldsSentAndTouchesLastModifiedOfJobs() {
+          Map<String, Object> changes = new LinkedHashMap<>();
+          changes.put("status", "Applied");
+          changes.put("minSalary", 90000);
+          changes.put("company", null);
+
+          ColumnPatch patch = ColumnPatch.build(JobJdbcRepository.PATCHABLE, changes, WHERE, KEYS);
+
+          assertEquals("UPDATE job SET status = :set_status, minsalary = :set_minsalary, company = :set_company, " +
+                  "last_modified = now() WHERE id = :id AND user_id = :userId RETURNING *", patch.sql());
+          assertEquals("Applied", patch.parameters().getValue("set_status"));
+          assertEquals(90000, patch.parameters().getValue("set_minsalary"));
+          assertTrue(patch.parameters().hasValue("set_company"));
+          assertNull(patch.parameters().getValue("set_company"));
+          assertEquals(KEYS.get("userId"), patch.parameters().getValue("userId"));
+          assertFalse(patch.parameters().hasValue("set_title"));
+     }
+
+     @Test
+     void parsesInterviewDatesAndTimesWithoutTouchingLastModified() {
+          Map<String, Object> changes = new LinkedHashMap<>();
+          changes.put("date", "2026-11-02");
+          changes.put("time", "14:30");
+
+          ColumnPatch patch = ColumnPatch.build(InterviewJdbcRepository.PATCHABLE, changes, WHERE, KEYS);
+
+          // the V6 trigger bumps interview.last_modified instead
+          assertEquals("UPDATE interview SET date = :set_date, time = :set_time " +
+                  "WHERE id = :id AND user_id = :userId RETURNING *", patch.sql());
+          assertEquals(LocalDate.of(2026, 11, 2), patch.parameters().getValue("set_date"));
+          assertEquals(LocalTime.of(14, 30), patch.parameters().getValue("set_time"));
+     }
+
+     @ParameterizedTest
+     @ValueSource(strings = {"id", "user_id", "userId", "last_modified", "lastModified", "salary"})
+     void rejectsReadOnlyAndUnknownJobFields(String field) {
+          IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+                  ColumnPatch.build(JobJdbcRepository.PATCHABLE, Map.of(field, "x"), WHERE, KEYS));
+          assertEquals("Field cannot be updated: " + field, e.getMessage());
+     }
+
+     @ParameterizedTest
+     @ValueSource(strings = {"id", "user_id", "last_modified", "lastModified"})
+     void rejectsReadOnlyInterviewFields(String field) {
+          assertThrows(IllegalArgumentException.class, () ->
+                  ColumnPatch.build(InterviewJdbcRepository.PATCHABLE, Map.of(field, "x"), WHERE, KEYS));
+     }
+
+     @Test
+     void rejectsAnUnknownFieldEvenNextToValidOnes() {
+          Map<String, Object> changes = new LinkedHashMap<>();
+          changes.put("title", "Engineer");
+          changes.put("user_id", UUID.randomUUID().toString());
+
+          assertThrows(IllegalArgumentException.class, () ->
+                  ColumnPatch.build(JobJdbcRepository.PATCHABLE, changes, WHERE, KEYS));
+     }
+
+     @Test
+     void rejectsWrongTypes() {
+          assertEquals("Field minSalary must be of type Integer", assertThrows(IllegalArgumentException.class, () ->
+                  ColumnPatch.build(JobJdbcRepository.PATCHABLE, Map.of("minSalary", "90000"), WHERE, KEYS)).getMessage());
+          // a number too large for an int arrives from Jackson as a Long
+          assertThrows(IllegalArgumentException.class, () ->
+                  ColumnPatch.build(JobJdbcRepository.PATCHABLE, Map.of("maxSalary", 3_000_000_000L), WHERE, KEYS));
+          assertThrows(IllegalArgumentException.class, () ->
+                  ColumnPatch.build(JobJdbcRepository.PATCHABLE, Map.of("favorite", "true"), WHERE, KEYS));
+          assertThrows(IllegalArgumentException.class, () ->
+                  ColumnPatch.build(JobJdbcRepository.PATCHABLE, Map.of("title", 42), WHERE, KEYS));
+          assertThrows(IllegalArgumentException.class, () ->
+                  ColumnPatch.build(InterviewJdbcRepository.PATCHABLE, Map.of("date", "next tuesday"), WHERE, KEYS));
+     }
+
+     @ParameterizedTest
+     @ValueSource(strings = {"minSalary", "maxSalary", "favorite"})
+     void rejectsNullForPrimitiveFields(String field) {
+          IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+                  ColumnPatch.build(JobJdbcRepository.PATCHABLE, Collections.singletonMap(field, null), WHERE, KEYS));
+          assertEquals("Field cannot be null: " + field, e.getMessage());
+     }
+
+     @Test
+     void rejectsAnEmptyBody() {
+          assertThrows(IllegalArgumentException.class, () ->
+                  ColumnPatch.build(JobJdbcRepository.PATCHABLE, Map.of(), WHERE, KEYS));
+          assertThrows(IllegalArgumentException.class, () ->
+                  ColumnPatch.build(JobJdbcRepository.PATCHABLE, null, WHERE, KEYS));
+     }
+}
@@ -0,0 +1,50 @@
+package edu.uis.csc478.sp25.jobtracker.repository;
+
+import edu.uis.csc478.sp25.jobtracker.model.JobSearchCriteria;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobSearchQueryTest {
+
+     private static final UUID USER = UUID.fromString("11111111-1111-1111-1111-111111111111");
+
+     @Test
+     void leavesOutAbsentFilters() {
+          JobSearchQuery query = JobSearchQuery.build(USER, JobSearchCriteria.builder().limit(50).build());
+
+          assertEquals("SELECT * FROM job WHERE user_id = :userId " +
+                  "ORDER BY last_modified DESC, id DESC LIMIT :limit OFFSET :offset", query.sql());
+          assertFalse(query.sql().contains("IS NULL"));
+     }
+
+     @Test
+     void ranksByTextFiltersAndSkipsBlankOnes() {
+          JobSearchCriteria criteria = JobSearchCriteria.builder()
+                  .title("engineer")
+                  .location(" ")
+                  .company("acme")
+                  .status("Applied")
+                  .minSalary(50000)
+                  .limit(20)
+                  .offset(40)
+                  .build();
+
+          JobSearchQuery query = JobSearchQuery.build(USER, criteria);
+
+          assertEquals("SELECT * FROM job WHERE user_id = :userId AND title ILIKE :titlePattern " +
+                  "AND minsalary >= :minSalary AND lower(status) = lower(:status) AND company ILIKE :companyPattern " +
+                  "ORDER BY (word_similarity(:title, title) + word_similarity(:company, company)) DESC, " +
+                  "last_modified DESC, id DESC LIMIT :limit OFFSET :offset", query.sql());
+          assertEquals("%engineer%", query.parameters().getValue("titlePattern"));
+          assertEquals(40, query.parameters().getValue("offset"));
+          assertFalse(query.parameters().hasValue("location"));
+     }
+
+     @Test
+     void escapesLikeWildcards() {
+          assertEquals("100\\%\\_remote\\\\", JobSearchQuery.escapeLike("100%_remote\\"));
+     }
+}
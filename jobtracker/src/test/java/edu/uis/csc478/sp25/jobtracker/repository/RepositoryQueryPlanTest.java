@@ -0,0 +1,214 @@
+package edu.uis.csc478.sp25.jobtracker.repository;
+
+import edu.uis.csc478.sp25.jobtracker.model.JobSearchCriteria;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.postgresql.Driver;
+import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.abort;
+
+/**
+ * Runs EXPLAIN on every query of JobRepository, InterviewRepository and ProfileRepository, on
+ * the sync reads of SyncRepository, on the per-user funnel of FunnelRepository and on the
+ * incremental rollup refresh of RollupRepository, over tables
+ * migrated by Flyway and seeded large enough that a query without a usable index is planned as a
+ * sequential scan, and fails if any query scans job, interview, profile or job_status_history that way.
+ * <p>
+ * Needs a local PostgreSQL: the jt-db container from docker-compose.yml, or the one named by
+ * TEST_DB_HOST, TEST_DB_PORT, TEST_DB_NAME, TEST_DB_USER and TEST_DB_PASSWORD. Skipped when it
+ * cannot connect. Everything happens in a schema of its own, dropped afterwards.
+ */
+class RepositoryQueryPlanTest {
+
+     private static final String SCHEMA = "query_plan_test";
+     private static final UUID USER = UUID.fromString("00000000-0000-0000-0000-000000000001");
+     private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on (job|interview|profile|job_status_history)\\b");
+     // :#{#job.title} and the like become :title
+     private static final Pattern SPEL_PARAMETER = Pattern.compile(":#\\{#\\w+\\.(\\w+)}");
+
+     // the queries Spring Data derives from method names, or inherits from CrudRepository
+     private static final Map<String, String> DERIVED_QUERIES = Map.of(
+             "JobRepository.findByUserId", "SELECT * FROM job WHERE user_id = :userId",
+             "JobRepository.findById", "SELECT * FROM job WHERE id = :id",
+             "InterviewRepository.findById", "SELECT * FROM interview WHERE id = :id",
+             "ProfileRepository.findById", "SELECT * FROM profile WHERE id = :id",
+             "ProfileRepository.existsById", "SELECT id FROM profile WHERE id = :id LIMIT 1",
+             "ProfileRepository.existsByEmail", "SELECT id FROM profile WHERE email = :email LIMIT 1");
+
+     private static SimpleDriverDataSource dataSource;
+     private static NamedParameterJdbcTemplate jdbcTemplate;
+
+     @BeforeAll
+     static void migrateAndSeed() {
+          String url = "jdbc:postgresql://" + env("TEST_DB_HOST", "localhost") + ":" + env("TEST_DB_PORT", "5432")
+                  + "/" + env("TEST_DB_NAME", "jobtracker") + "?currentSchema=" + SCHEMA + ",public";
+          dataSource = new SimpleDriverDataSource(new Driver(), url,
+                  env("TEST_DB_USER", "admin"), env("TEST_DB_PASSWORD", "admin"));
+          try (Connection ignored = dataSource.getConnection()) {
+               // reachable
+          } catch (SQLException e) {
+               dataSource = null;
+               abort("no local PostgreSQL at " + url + ": " + e.getMessage());
+          }
+
+          JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+          jdbc.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+          Flyway.configure()
+                  .dataSource(dataSource)
+                  .schemas(SCHEMA)
+                  .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                  .load()
+                  .migrate();
+
+          jdbc.execute("""
+                      INSERT INTO job (id, user_id, title, level, minsalary, maxsalary, location, status, company,
+                                       last_modified, favorite)
+                      SELECT md5(u || '-' || n)::uuid,
+                             ('00000000-0000-0000-0000-' || lpad(u::text, 12, '0'))::uuid,
+                             (ARRAY['Software Engineer', 'Data Analyst', 'Product Manager', 'QA Engineer'])[n % 4 + 1],
+                             (ARRAY['Entry', 'Mid', 'Senior'])[n % 3 + 1],
+                             40000 + n * 100, 60000 + n * 100,
+                             (ARRAY['Remote', 'Springfield, IL', 'Chicago, IL'])[n % 3 + 1],
+                             (ARRAY['Saved', 'Applied', 'Interview', 'Rejected', 'Offer'])[n % 5 + 1],
+                             'Company ' || (n % 50),
+                             now() - n * interval '1 hour',
+                             n % 10 = 0
+                      FROM generate_series(1, 500) u, generate_series(1, 200) n
+                  """);
+          jdbc.execute("""
+                      INSERT INTO interview (id, user_id, format, round, date, time, company)
+                      SELECT md5('i' || u || '-' || n)::uuid,
+                             ('00000000-0000-0000-0000-' || lpad(u::text, 12, '0'))::uuid,
+                             'Video', 'Round ' || n, current_date + (n - 20) * 3, '10:00', 'Company ' || n
+                      FROM generate_series(1, 500) u, generate_series(1, 40) n
+                  """);
+          jdbc.execute("""
+                      INSERT INTO profile (id, name, email)
+                      SELECT ('00000000-0000-0000-0000-' || lpad(u::text, 12, '0'))::uuid,
+                             'User ' || u, 'user' || u || '@example.com'
+                      FROM generate_series(1, 20000) u
+                  """);
+          jdbc.execute("VACUUM ANALYZE job, interview, profile, job_status_history");
+          jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+     }
+
+     @AfterAll
+     static void dropSchema() {
+          if (dataSource != null) {
+               new JdbcTemplate(dataSource).execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+          }
+     }
+
+     static Stream<Arguments> repositoryQueries() {
+          Stream<Arguments> annotated = Stream.of(JobRepository.class, InterviewRepository.class, ProfileRepository.class)
+                  .flatMap(repository -> Arrays.stream(repository.getDeclaredMethods()))
+                  .filter(method -> method.isAnnotationPresent(Query.class))
+                  .map(method -> Arguments.of(method.getDeclaringClass().getSimpleName() + "." + method.getName(),
+                          method.getAnnotation(Query.class).value()));
+          Stream<Arguments> derived = DERIVED_QUERIES.entrySet().stream()
+                  .map(query -> Arguments.of(query.getKey(), query.getValue()));
+          Stream<Arguments> search = Stream.of(
+                  JobSearchCriteria.builder().title("engineer").limit(50).build(),
+                  JobSearchCriteria.builder().status("applied").limit(50).build())
+                  .map(criteria -> Arguments.of("JobSearchQuery " + criteria, JobSearchQuery.build(USER, criteria).sql()));
+          Stream<Arguments> sync = Stream.of(
+                  Arguments.of("SyncRepository.JOBS_SINCE", SyncRepository.JOBS_SINCE),
+                  Arguments.of("SyncRepository.INTERVIEWS_SINCE", SyncRepository.INTERVIEWS_SINCE),
+                  Arguments.of("SyncRepository.INTERVIEWS", SyncRepository.INTERVIEWS));
+          Stream<Arguments> funnel = Stream.of(Arguments.of("FunnelRepository.USER_FUNNEL", FunnelRepository.USER_FUNNEL));
+          Stream<Arguments> salaries = Stream.of(
+                  Arguments.of("SalarySketchRepository.FIND_BY_USER", SalarySketchRepository.FIND_BY_USER),
+                  Arguments.of("SalarySketchRepository.FIND_GROUPS_OF_JOB", SalarySketchRepository.FIND_GROUPS_OF_JOB),
+                  Arguments.of("SalarySketchRepository.GROUPS_TO_REBUILD", SalarySketchRepository.GROUPS_TO_REBUILD),
+                  Arguments.of("SalarySketchRepository.SALARIES_IN_GROUPS_TO_REBUILD", SalarySketchRepository.SALARIES_IN_GROUPS_TO_REBUILD),
+                  Arguments.of("SalarySketchRepository.SKETCHES_TO_MERGE", SalarySketchRepository.SKETCHES_TO_MERGE),
+                  Arguments.of("SalarySketchRepository.INSERTED_SALARIES", SalarySketchRepository.INSERTED_SALARIES));
+          Stream<Arguments> stream = Stream.of(
+                  Arguments.of("JobJdbcRepository.STREAM_FIRST", JobJdbcRepository.STREAM_FIRST),
+                  Arguments.of("JobJdbcRepository.STREAM_AFTER", JobJdbcRepository.STREAM_AFTER));
+          Stream<Arguments> export = Stream.of(
+                  Arguments.of("JobJdbcRepository.EXPORT_FIRST", JobJdbcRepository.EXPORT_FIRST),
+                  Arguments.of("JobJdbcRepository.EXPORT_AFTER", JobJdbcRepository.EXPORT_AFTER),
+                  Arguments.of("InterviewJdbcRepository.EXPORT_FIRST", InterviewJdbcRepository.EXPORT_FIRST),
+                  Arguments.of("InterviewJdbcRepository.EXPORT_AFTER", InterviewJdbcRepository.EXPORT_AFTER));
+          List<String> refresh = RollupRepository.INCREMENTAL_REFRESH;
+          Stream<Arguments> rollups = IntStream.range(0, refresh.size())
+                  .mapToObj(i -> Arguments.of("RollupRepository.INCREMENTAL_REFRESH[" + i + "]", refresh.get(i)));
+          return Stream.of(annotated, derived, search, sync, funnel, salaries, stream, export, rollups).flatMap(queries -> queries);
+     }
+
+     @ParameterizedTest(name = "{0}")
+     @MethodSource("repositoryQueries")
+     void doesNotScanWholeTable(String name, String query) {
+          String sql = "EXPLAIN " + SPEL_PARAMETER.matcher(query).replaceAll(":$1");
+          List<String> plan = jdbcTemplate.queryForList(sql, parameters(), String.class);
+          if (plan.stream().anyMatch(line -> SEQ_SCAN.matcher(line).find())) {
+               fail(name + " reads a whole table; add or fix an index in db/migration:\n" + String.join("\n", plan));
+          }
+     }
+
+     // one value for every parameter name the repositories use; which row they match does not
+     // change the plan, only that they are bound with the right types
+     private static MapSqlParameterSource parameters() {
+          return new MapSqlParameterSource()
+                  .addValue("userId", USER)
+                  .addValue("id", UUID.randomUUID())
+                  .addValue("ids", List.of(UUID.randomUUID(), UUID.randomUUID()))
+                  .addValue("favorite", true)
+                  .addValue("limit", 20)
+                  .addValue("offset", 0)
+                  .addValue("lastModified", OffsetDateTime.now())
+                  .addValue("since", "1000")
+                  .addValue("upto", "1001")
+                  .addValue("snapshot", "1001:1001:")
+                  .addValue("stages", new String[]{"Saved", "Applied", "Interview"})
+                  .addValue("from", OffsetDateTime.now().minusWeeks(52))
+                  .addValue("to", OffsetDateTime.now())
+                  .addValue("today", LocalDate.now())
+                  .addValue("date", LocalDate.now())
+                  .addValue("time", LocalTime.of(10, 0))
+                  .addValue("format", "video")
+                  .addValue("round", "final")
+                  .addValue("company", "acme")
+                  .addValue("companyPattern", "%acme%")
+                  .addValue("title", "engineer")
+                  .addValue("titlePattern", "%engineer%")
+                  .addValue("status", "applied")
+                  .addValue("level", "Mid")
+                  .addValue("minSalary", 50000)
+                  .addValue("maxSalary", 70000)
+                  .addValue("location", "Remote")
+                  .addValue("name", "User")
+                  .addValue("email", "user1@example.com")
+                  .addValue("bio", "")
+                  .addValue("phoneNumber", "");
+     }
+
+     private static String env(String name, String defaultValue) {
+          String value = System.getenv(name);
+          return value == null || value.isBlank() ? defaultValue : value;
+     }
+}
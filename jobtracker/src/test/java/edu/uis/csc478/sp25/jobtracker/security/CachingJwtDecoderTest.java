@@ -0,0 +1,133 @@
+package edu.uis.csc478.sp25.jobtracker.security;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingJwtDecoderTest {
+
+     private final FakeTime time = new FakeTime(Instant.parse("2026-10-18T12:00:00Z"));
+     // token value to what the delegate does with it: a Jwt to return or an exception to throw
+     private final Map<String, Object> outcomes = new HashMap<>();
+     private final Map<String, Integer> calls = new HashMap<>();
+     private final JwtDecoder delegate = token -> {
+          calls.merge(token, 1, Integer::sum);
+          Object outcome = outcomes.get(token);
+          if (outcome instanceof RuntimeException e) {
+               throw e;
+          }
+          return (Jwt) outcome;
+     };
+     private final CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, 100, time, time.clock());
+
+     @Test
+     void servesAVerifiedTokenFromTheCache() {
+          outcomes.put("good", jwt("good", time.now.plus(Duration.ofHours(1))));
+
+          Jwt first = decoder.decode("good");
+          assertSame(first, decoder.decode("good"));
+          assertEquals(1, calls.get("good"));
+     }
+
+     @Test
+     void neverCachesARejectedToken() {
+          outcomes.put("bad", new BadJwtException("bad signature"));
+
+          assertThrows(BadJwtException.class, () -> decoder.decode("bad"));
+          assertThrows(BadJwtException.class, () -> decoder.decode("bad"));
+          assertEquals(2, calls.get("bad"));
+     }
+
+     @Test
+     void neverCachesATokenWithoutExp() {
+          outcomes.put("forever", jwt("forever", null));
+
+          decoder.decode("forever");
+          decoder.decode("forever");
+          assertEquals(2, calls.get("forever"));
+     }
+
+     @Test
+     void evictsATokenAtItsExp() {
+          outcomes.put("short", jwt("short", time.now.plus(Duration.ofMinutes(5))));
+          decoder.decode("short");
+
+          time.advance(Duration.ofMinutes(5).minusSeconds(1));
+          decoder.decode("short");
+          assertEquals(1, calls.get("short"));
+
+          // expired: the delegate sees the token again, and would reject it
+          time.advance(Duration.ofSeconds(1));
+          outcomes.put("short", new BadJwtException("Jwt expired"));
+          assertThrows(BadJwtException.class, () -> decoder.decode("short"));
+          assertEquals(2, calls.get("short"));
+     }
+
+     @Test
+     void doesNotCacheATokenThatHasAlreadyExpired() {
+          outcomes.put("stale", jwt("stale", time.now.minusSeconds(1)));
+
+          decoder.decode("stale");
+          decoder.decode("stale");
+          assertEquals(2, calls.get("stale"));
+     }
+
+     private static Jwt jwt(String token, Instant expiresAt) {
+          Jwt.Builder jwt = Jwt.withTokenValue(token)
+                  .header("alg", "HS256")
+                  .subject("11111111-1111-1111-1111-111111111111");
+          if (expiresAt != null) {
+               jwt.expiresAt(expiresAt);
+          }
+          return jwt.build();
+     }
+
+     // one moving instant behind both the cache's ticker and the decoder's clock
+     private static final class FakeTime implements Ticker {
+          private Instant now;
+
+          FakeTime(Instant now) {
+               this.now = now;
+          }
+
+          void advance(Duration duration) {
+               now = now.plus(duration);
+          }
+
+          @Override
+          public long read() {
+               return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+          }
+
+          Clock clock() {
+               return new Clock() {
+                    @Override
+                    public ZoneId getZone() {
+                         return ZoneOffset.UTC;
+                    }
+
+                    @Override
+                    public Clock withZone(ZoneId zone) {
+                         return this;
+                    }
+
+                    @Override
+                    public Instant instant() {
+                         return now;
+                    }
+               };
+          }
+     }
+}
@@ -0,0 +1,50 @@
+package edu.uis.csc478.sp25.jobtracker.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserJwtAuthenticationConverterTest {
+
+     private static final UUID USER = UUID.fromString("11111111-1111-1111-1111-111111111111");
+
+     private final UserJwtAuthenticationConverter converter = new UserJwtAuthenticationConverter();
+
+     @Test
+     void grantsAdminFromAppMetadata() {
+          AbstractAuthenticationToken token = converter.convert(jwt(Map.of("role", "admin")));
+
+          assertEquals(USER, ((UserJwtAuthenticationToken) token).getUserId());
+          assertTrue(hasAdmin(token));
+     }
+
+     @Test
+     void ignoresRoleOutsideAppMetadata() {
+          // the top-level role claim is Supabase's database role, "authenticated" for every user
+          assertFalse(hasAdmin(converter.convert(jwt(null))));
+          assertFalse(hasAdmin(converter.convert(jwt(Map.of("role", "editor")))));
+     }
+
+     private static boolean hasAdmin(AbstractAuthenticationToken token) {
+          return token.getAuthorities().stream().map(GrantedAuthority::getAuthority).anyMatch("ROLE_ADMIN"::equals);
+     }
+
+     private static Jwt jwt(Map<String, Object> appMetadata) {
+          Jwt.Builder jwt = Jwt.withTokenValue("token")
+                  .header("alg", "HS256")
+                  .subject(USER.toString())
+                  .claim("role", "authenticated")
+                  .issuedAt(Instant.now());
+          if (appMetadata != null) {
+               jwt.claim("app_metadata", appMetadata);
+          }
+          return jwt.build();
+     }
+}
@@ -0,0 +1,157 @@
+package edu.uis.csc478.sp25.jobtracker.service;
+
+import edu.uis.csc478.sp25.jobtracker.model.ChangeEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChangeEventHubTest {
+
+     private static final UUID USER = UUID.fromString("11111111-1111-1111-1111-111111111111");
+
+     // runs the drain tasks only when the test says so, standing in for a client that is slow to read
+     private final Queue<Runnable> tasks = new ArrayDeque<>();
+     private final Executor executor = tasks::add;
+     private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+     private final Counter resyncs = registry.counter("resyncs");
+     private final Counter writeTimeouts = registry.counter("writeTimeouts");
+
+     @Test
+     void sendsQueuedEventsInOrderFromOneTask() {
+          RecordingEmitter emitter = new RecordingEmitter(false);
+          ChangeEventHub.Subscriber subscriber = new ChangeEventHub.Subscriber(emitter, executor, 4, resyncs, writeTimeouts);
+
+          subscriber.offer(change(ChangeEvent.CREATED));
+          subscriber.offer(change(ChangeEvent.UPDATED));
+          subscriber.offer(change(ChangeEvent.DELETED));
+          assertEquals(1, tasks.size());
+          runTasks();
+
+          assertEquals(List.of("job:created", "job:updated", "job:deleted"), emitter.sent);
+     }
+
+     @Test
+     void replacesOverflowingQueueWithOneResync() {
+          RecordingEmitter emitter = new RecordingEmitter(false);
+          ChangeEventHub.Subscriber subscriber = new ChangeEventHub.Subscriber(emitter, executor, 4, resyncs, writeTimeouts);
+
+          for (int i = 0; i < 10; i++) {
+               subscriber.offer(change(ChangeEvent.UPDATED));
+          }
+          runTasks();
+          // once the resync has gone out, changes are queued again
+          subscriber.offer(change(ChangeEvent.DELETED));
+          runTasks();
+
+          assertEquals(List.of(ChangeEventHub.RESYNC, "job:deleted"), emitter.sent);
+          assertEquals(1, resyncs.count());
+     }
+
+     @Test
+     void stopsWritingAfterFailedSend() {
+          RecordingEmitter emitter = new RecordingEmitter(true);
+          ChangeEventHub.Subscriber subscriber = new ChangeEventHub.Subscriber(emitter, executor, 4, resyncs, writeTimeouts);
+
+          subscriber.offer(change(ChangeEvent.CREATED));
+          runTasks();
+          subscriber.offer(change(ChangeEvent.UPDATED));
+          subscriber.heartbeat();
+
+          assertEquals(0, tasks.size());
+          assertEquals(1, emitter.attempts);
+          assertEquals(0, writeTimeouts.count());
+     }
+
+     @Test
+     void countsWritesThatTimedOut() {
+          RecordingEmitter emitter = new RecordingEmitter(false);
+          ChangeEventHub.Subscriber subscriber = new ChangeEventHub.Subscriber(emitter, executor, 4, resyncs, writeTimeouts);
+          // what Tomcat throws once a write has been blocked for its connection timeout
+          emitter.failure = new IOException("ServletOutputStream failed to flush", new SocketTimeoutException());
+
+          subscriber.offer(change(ChangeEvent.CREATED));
+          subscriber.offer(change(ChangeEvent.UPDATED));
+          runTasks();
+          subscriber.offer(change(ChangeEvent.DELETED));
+
+          assertEquals(1, emitter.attempts);
+          assertEquals(0, tasks.size());
+          assertEquals(1, writeTimeouts.count());
+     }
+
+     @Test
+     void dropsStreamWhenTheExecutorIsFull() {
+          RecordingEmitter emitter = new RecordingEmitter(false);
+          Executor full = task -> {
+               throw new RejectedExecutionException("full");
+          };
+          ChangeEventHub.Subscriber subscriber = new ChangeEventHub.Subscriber(emitter, full, 4, resyncs, writeTimeouts);
+
+          subscriber.offer(change(ChangeEvent.CREATED));
+          subscriber.offer(change(ChangeEvent.UPDATED));
+
+          assertInstanceOf(RejectedExecutionException.class, emitter.error);
+          assertTrue(emitter.sent.isEmpty());
+     }
+
+     private void runTasks() {
+          while (!tasks.isEmpty()) {
+               tasks.poll().run();
+          }
+     }
+
+     private static ChangeEvent change(String type) {
+          return new ChangeEvent(USER, ChangeEvent.JOB, type, UUID.randomUUID());
+     }
+
+     // records "name:type" for change events and the name for the others
+     private static final class RecordingEmitter extends SseEmitter {
+          private final boolean fail;
+          private final List<String> sent = new ArrayList<>();
+          private int attempts;
+          private IOException failure;
+          private Throwable error;
+
+          RecordingEmitter(boolean fail) {
+               this.fail = fail;
+          }
+
+          @Override
+          public void send(SseEventBuilder builder) throws IOException {
+               attempts++;
+               if (failure != null) {
+                    throw failure;
+               }
+               if (fail) {
+                    throw new IOException("Broken pipe");
+               }
+               StringBuilder text = new StringBuilder();
+               for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                    text.append(part.getData() instanceof ChangeEvent change ? change.type() : part.getData());
+               }
+               // "event:job\ndata:created\n\n" is recorded as "job:created"
+               sent.add(text.toString().replace("event:", "").replace("\ndata:", ":").strip().replaceAll(":$", ""));
+          }
+
+          @Override
+          public void completeWithError(Throwable ex) {
+               error = ex;
+          }
+     }
+}
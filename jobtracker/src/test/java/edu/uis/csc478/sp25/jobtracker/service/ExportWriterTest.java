@@ -0,0 +1,52 @@
+package edu.uis.csc478.sp25.jobtracker.service;
+
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ExportWriterTest {
+
+     @Test
+     void prefixesCsvTextThatStartsLikeAFormula() throws IOException {
+          ByteArrayOutputStream out = new ByteArrayOutputStream();
+          ExportWriter writer = ExportWriter.csv(new CsvMapper(), out);
+          writer.writeRow(List.of("title", "company", "minSalary"));
+          writer.writeRow(Arrays.asList("=HYPERLINK(\"http://evil\")", null, -5));
+          writer.writeRow(List.of("@SUM(A1)", "+1 Corp", 0));
+          writer.finish();
+
+          // numbers are not text, so a negative one is left alone
+          assertEquals("title,company,minSalary\n\"'=HYPERLINK(\"\"http://evil\"\")\",,-5\n\"'@SUM(A1)\",\"'+1 Corp\",0\n",
+                  out.toString(UTF_8));
+     }
+
+     @ParameterizedTest
+     @ValueSource(strings = {"=1+2", "+1", "-1", "@A1", "\tx", "\rx", "'=1", "''-1"})
+     void escapesFormulasSoTheyReadBackUnchanged(String text) {
+          String escaped = ExportWriter.escapeFormula(text);
+          assertEquals("'" + text, escaped);
+          assertEquals(text, ExportWriter.unescapeFormula(escaped));
+     }
+
+     @ParameterizedTest
+     @ValueSource(strings = {"Engineer", "Q&A", "it's", "'quoted'", "a=b", ""})
+     void leavesOtherTextAlone(String text) {
+          assertEquals(text, ExportWriter.escapeFormula(text));
+          assertEquals(text, ExportWriter.unescapeFormula(text));
+     }
+
+     @Test
+     void unescapesNull() {
+          assertNull(ExportWriter.unescapeFormula(null));
+     }
+}
@@ -0,0 +1,105 @@
+package edu.uis.csc478.sp25.jobtracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class XlsxExportWriterTest {
+
+     @Test
+     void writesTypedCellsAndEscapesText() throws IOException {
+          Map<String, String> entries = write(10, List.of("title", "minSalary", "favorite", "company"),
+                  Arrays.asList("R&D <lead>", 120000, true, null));
+
+          assertEquals(List.of("xl/worksheets/sheet1.xml", "xl/workbook.xml", "xl/styles.xml", "xl/_rels/workbook.xml.rels",
+                  "[Content_Types].xml", "_rels/.rels"), List.copyOf(entries.keySet()));
+          String sheet = entries.get("xl/worksheets/sheet1.xml");
+          assertTrue(sheet.contains("<row r=\"2\"><c r=\"A2\" t=\"inlineStr\"><is><t xml:space=\"preserve\">R&amp;D &lt;lead&gt;</t></is></c>"
+                  + "<c r=\"B2\"><v>120000</v></c><c r=\"C2\" t=\"b\"><v>1</v></c></row>"), sheet);
+          // a null cell is left out
+          assertFalse(sheet.contains("D2"), sheet);
+     }
+
+     @Test
+     void continuesOnANewSheetWithTheHeaderAgain() throws IOException {
+          Map<String, String> entries = write(3, List.of("id"), List.of("a"), List.of("b"), List.of("c"));
+
+          assertTrue(entries.get("xl/worksheets/sheet1.xml").contains("<row r=\"3\">"));
+          String second = entries.get("xl/worksheets/sheet2.xml");
+          assertTrue(second.contains("<row r=\"1\"><c r=\"A1\" t=\"inlineStr\"><is><t xml:space=\"preserve\">id</t>"), second);
+          assertTrue(second.contains("<row r=\"2\"><c r=\"A2\" t=\"inlineStr\"><is><t xml:space=\"preserve\">c</t>"), second);
+          assertTrue(entries.get("xl/workbook.xml").contains("<sheet name=\"Jobs 2\" sheetId=\"2\" r:id=\"rId2\"/>"));
+     }
+
+     @Test
+     void writesAMutableHeaderOnce() throws IOException {
+          // List.copyOf copies a mutable header, so the writer cannot tell the header by identity
+          Map<String, String> entries = write(3, new ArrayList<>(List.of("id")), List.of("a"), List.of("b"));
+
+          String sheet = entries.get("xl/worksheets/sheet1.xml");
+          assertTrue(sheet.contains("<row r=\"1\"><c r=\"A1\" t=\"inlineStr\"><is><t xml:space=\"preserve\">id</t>"), sheet);
+          assertTrue(sheet.contains("<row r=\"2\"><c r=\"A2\" t=\"inlineStr\"><is><t xml:space=\"preserve\">a</t>"), sheet);
+          assertFalse(entries.containsKey("xl/worksheets/sheet2.xml"));
+     }
+
+     @Test
+     void quotePrefixesTextThatStartsLikeAFormulaWithoutChangingIt() throws IOException {
+          Map<String, String> entries = write(10, List.of("title", "minSalary", "company"), List.of("=1+2", -5, "Acme"));
+
+          // the text is kept as it is; the style, not a ' in the value, keeps it from being a formula
+          String sheet = entries.get("xl/worksheets/sheet1.xml");
+          assertTrue(sheet.contains("<c r=\"A2\" s=\"1\" t=\"inlineStr\"><is><t xml:space=\"preserve\">=1+2</t></is></c>"
+                  + "<c r=\"B2\"><v>-5</v></c><c r=\"C2\" t=\"inlineStr\">"), sheet);
+          assertTrue(entries.get("xl/styles.xml").contains("<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" quotePrefix=\"1\"/>"));
+          assertTrue(entries.get("xl/_rels/workbook.xml.rels").contains("<Relationship Id=\"rId2\" Type=\""
+                  + "http://schemas.openxmlformats.org/officeDocument/2006/relationships/styles\" Target=\"styles.xml\"/>"));
+          assertTrue(entries.get("[Content_Types].xml").contains("<Override PartName=\"/xl/styles.xml\""));
+     }
+
+     @Test
+     void dropsCharactersXmlCannotCarry() {
+          assertEquals("ab\tc😀", XlsxExportWriter.escape("a\u0000b\tc\uD800😀￿"));
+          assertEquals(XlsxExportWriter.MAX_CELL_LENGTH, XlsxExportWriter.escape("x".repeat(40_000)).length());
+     }
+
+     @Test
+     void namesColumnsLikeExcel() {
+          assertEquals("A", XlsxExportWriter.columnName(0));
+          assertEquals("Z", XlsxExportWriter.columnName(25));
+          assertEquals("AA", XlsxExportWriter.columnName(26));
+          assertEquals("AZ", XlsxExportWriter.columnName(51));
+          assertEquals("BA", XlsxExportWriter.columnName(52));
+     }
+
+     @SafeVarargs
+     private static Map<String, String> write(int rowsPerSheet, List<?>... rows) throws IOException {
+          ByteArrayOutputStream out = new ByteArrayOutputStream();
+          XlsxExportWriter writer = new XlsxExportWriter(out, "Jobs", rowsPerSheet);
+          for (List<?> row : rows) {
+               writer.writeRow(row);
+          }
+          writer.finish();
+
+          Map<String, String> entries = new LinkedHashMap<>();
+          try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+               for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                    entries.put(entry.getName(), new String(zip.readAllBytes(), UTF_8));
+               }
+          }
+          return entries;
+     }
+}